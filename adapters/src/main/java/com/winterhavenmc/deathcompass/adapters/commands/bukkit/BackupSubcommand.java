@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.util.Macro;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+
+/**
+ * Copies the datastore to a new rotated backup file, off the server thread
+ */
+final class BackupSubcommand extends AbstractSubcommand
+{
+	private final CommandCtx ctx;
+
+
+	/**
+	 * Class constructor
+	 */
+	BackupSubcommand(final CommandCtx ctx)
+	{
+		this.ctx = ctx;
+		this.name = "backup";
+		this.usageString = "/deathcompass backup";
+		this.description = MessageId.COMMAND_HELP_BACKUP;
+		this.permissionNode = "deathcompass.backup";
+	}
+
+
+	@Override
+	public void onCommand(final CommandSender sender, final List<String> args)
+	{
+		// check sender has permission
+		if (!sender.hasPermission(permissionNode))
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_BACKUP_PERMISSION).send();
+			return;
+		}
+
+		ctx.messageBuilder().compose(sender, MessageId.COMMAND_BACKUP_STARTED).send();
+
+		ctx.datastore().backup().whenComplete((backup, throwable) -> runOnServerThread(() ->
+		{
+			if (throwable != null)
+			{
+				ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_BACKUP).send();
+			}
+			else
+			{
+				ctx.messageBuilder().compose(sender, MessageId.COMMAND_SUCCESS_BACKUP)
+						.setMacro(Macro.TARGET, backup.name())
+						.setMacro(Macro.SIZE, String.format("%.1f KiB", backup.size() / 1024.0))
+						.setMacro(Macro.DURATION, backup.duration().toMillis() + " ms")
+						.send();
+			}
+		}));
+	}
+
+
+	private void runOnServerThread(final Runnable runnable)
+	{
+		if (ctx.plugin().isEnabled())
+		{
+			ctx.plugin().getServer().getScheduler().runTask(ctx.plugin(), runnable);
+		}
+	}
+
+}
@@ -55,6 +55,12 @@ public final class BukkitCommandDispatcher implements CommandDispatcher
 		// register subcommands
 		subcommandRegistry.register(new ReloadSubcommand(ctx));
 		subcommandRegistry.register(new StatusSubcommand(ctx));
+		PurgeSubcommand purgeSubcommand = new PurgeSubcommand(ctx);
+		subcommandRegistry.register(purgeSubcommand);
+		subcommandRegistry.register(new PurgeWorldSubcommand(ctx, purgeSubcommand));
+		subcommandRegistry.register(new ExportSubcommand(ctx));
+		subcommandRegistry.register(new ImportSubcommand(ctx));
+		subcommandRegistry.register(new BackupSubcommand(ctx));
 		subcommandRegistry.register(new HelpSubcommand(ctx, subcommandRegistry));
 	}
 
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.storage.snapshot.DeathLocationSnapshotWriter;
+import com.winterhavenmc.deathcompass.adapters.util.Macro;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+
+/**
+ * Writes all stored death locations to a snapshot file in the plugin snapshots folder, off the server thread
+ */
+final class ExportSubcommand extends AbstractSubcommand
+{
+	final static String SNAPSHOT_FOLDER = "snapshots";
+	final static String SNAPSHOT_EXTENSION = DeathLocationSnapshotWriter.FILE_EXTENSION;
+	private final static Pattern SNAPSHOT_NAME = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+	private final static DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+	private final static StorageJob.Messages MESSAGES = new StorageJob.Messages(
+			MessageId.COMMAND_EXPORT_STARTED,
+			MessageId.COMMAND_EXPORT_PROGRESS,
+			MessageId.COMMAND_SUCCESS_EXPORT,
+			MessageId.COMMAND_FAIL_EXPORT);
+
+	private final CommandCtx ctx;
+
+
+	/**
+	 * Class constructor
+	 */
+	ExportSubcommand(final CommandCtx ctx)
+	{
+		this.ctx = ctx;
+		this.name = "export";
+		this.usageString = "/deathcompass export [name]";
+		this.description = MessageId.COMMAND_HELP_EXPORT;
+		this.permissionNode = "deathcompass.export";
+	}
+
+
+	@Override
+	public void onCommand(final CommandSender sender, final List<String> args)
+	{
+		// check sender has permission
+		if (!sender.hasPermission(permissionNode))
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_EXPORT_PERMISSION).send();
+			return;
+		}
+
+		final String snapshotName = (args.isEmpty())
+				? "deathlocations-" + LocalDateTime.now().format(TIMESTAMP)
+				: args.getFirst();
+
+		if (!isValidSnapshotName(snapshotName))
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_SNAPSHOT_NAME_INVALID)
+					.setMacro(Macro.TARGET, snapshotName)
+					.send();
+			return;
+		}
+
+		// collect world names on the server thread, for the snapshot world dictionary
+		final Map<UUID, String> worldNames = new HashMap<>(ctx.datastore().deathLocations().orphanedWorlds());
+		for (World world : ctx.plugin().getServer().getWorlds())
+		{
+			worldNames.put(world.getUID(), world.getName());
+		}
+
+		final Path path = snapshotPath(ctx, snapshotName);
+
+		new StorageJob(ctx, sender, path.getFileName().toString(), MESSAGES).start(progress ->
+				export(path, worldNames, progress));
+	}
+
+
+	private CompletableFuture<Integer> export(final Path path, final Map<UUID, String> worldNames, final IntConsumer progress)
+	{
+		final DeathLocationSnapshotWriter writer;
+		try
+		{
+			writer = DeathLocationSnapshotWriter.open(path);
+		}
+		catch (IOException exception)
+		{
+			ctx.plugin().getLogger().warning(exception.getLocalizedMessage());
+			return CompletableFuture.failedFuture(exception);
+		}
+
+		final int fetchSize = ctx.settings().get().batchSize();
+
+		// records are written on the storage thread as they are read from the datastore, with their death times
+		return ctx.datastore().deathLocations().forEachDeathRecord(fetchSize, deathRecord ->
+				{
+					try
+					{
+						writer.write(deathRecord);
+					}
+					catch (IOException exception)
+					{
+						throw new UncheckedIOException(exception);
+					}
+					progress.accept((int) writer.recordCount());
+					return true;
+				})
+				.thenApply(count ->
+				{
+					try
+					{
+						return (int) writer.finish(worldNames);
+					}
+					catch (IOException exception)
+					{
+						throw new UncheckedIOException(exception);
+					}
+				})
+				.whenComplete((count, throwable) ->
+				{
+					try
+					{
+						writer.close();
+					}
+					catch (IOException exception)
+					{
+						ctx.plugin().getLogger().warning(exception.getLocalizedMessage());
+					}
+					if (throwable != null)
+					{
+						final Throwable cause = (throwable instanceof CompletionException && throwable.getCause() != null)
+								? throwable.getCause()
+								: throwable;
+						ctx.plugin().getLogger().warning(cause.getLocalizedMessage());
+					}
+				});
+	}
+
+
+	/**
+	 * Check that a snapshot name contains only characters that are safe in a file name
+	 *
+	 * @param snapshotName the snapshot name
+	 * @return true if the name is valid, false if not
+	 */
+	static boolean isValidSnapshotName(final String snapshotName)
+	{
+		return SNAPSHOT_NAME.matcher(snapshotName).matches() && !snapshotName.startsWith(".");
+	}
+
+
+	/**
+	 * Get the path of a snapshot file in the plugin snapshots folder
+	 *
+	 * @param ctx the command context
+	 * @param snapshotName the snapshot name, without extension
+	 * @return the snapshot file path
+	 */
+	static Path snapshotPath(final CommandCtx ctx, final String snapshotName)
+	{
+		final String fileName = (snapshotName.endsWith(SNAPSHOT_EXTENSION))
+				? snapshotName
+				: snapshotName + SNAPSHOT_EXTENSION;
+
+		return ctx.plugin().getDataFolder().toPath().resolve(SNAPSHOT_FOLDER).resolve(fileName);
+	}
+
+}
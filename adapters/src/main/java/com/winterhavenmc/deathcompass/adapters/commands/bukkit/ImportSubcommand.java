@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.storage.snapshot.DeathLocationSnapshotReader;
+import com.winterhavenmc.deathcompass.adapters.util.Macro;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import static com.winterhavenmc.deathcompass.adapters.commands.bukkit.ExportSubcommand.SNAPSHOT_EXTENSION;
+import static com.winterhavenmc.deathcompass.adapters.commands.bukkit.ExportSubcommand.SNAPSHOT_FOLDER;
+
+
+/**
+ * Loads death locations from a snapshot file in the plugin snapshots folder into the datastore, off the server thread.
+ * Records for worlds that are not loaded are skipped, and existing records for the same player and world are replaced.
+ */
+final class ImportSubcommand extends AbstractSubcommand
+{
+	private final static StorageJob.Messages MESSAGES = new StorageJob.Messages(
+			MessageId.COMMAND_IMPORT_STARTED,
+			MessageId.COMMAND_IMPORT_PROGRESS,
+			MessageId.COMMAND_SUCCESS_IMPORT,
+			MessageId.COMMAND_FAIL_IMPORT);
+
+	private final CommandCtx ctx;
+
+
+	/**
+	 * Class constructor
+	 */
+	ImportSubcommand(final CommandCtx ctx)
+	{
+		this.ctx = ctx;
+		this.name = "import";
+		this.usageString = "/deathcompass import <name>";
+		this.description = MessageId.COMMAND_HELP_IMPORT;
+		this.permissionNode = "deathcompass.import";
+	}
+
+
+	@Override
+	public List<String> onTabComplete(final CommandSender sender, final Command command,
+	                                  final String alias, final String[] args)
+	{
+		if (args.length == 2 && args[0].equalsIgnoreCase(this.name))
+		{
+			final File[] files = new File(ctx.plugin().getDataFolder(), SNAPSHOT_FOLDER)
+					.listFiles((directory, fileName) -> fileName.endsWith(SNAPSHOT_EXTENSION));
+
+			if (files != null)
+			{
+				return Arrays.stream(files)
+						.map(file -> file.getName().substring(0, file.getName().length() - SNAPSHOT_EXTENSION.length()))
+						.filter(snapshotName -> snapshotName.toLowerCase().startsWith(args[1].toLowerCase()))
+						.sorted()
+						.collect(Collectors.toList());
+			}
+		}
+		return Collections.emptyList();
+	}
+
+
+	@Override
+	public void onCommand(final CommandSender sender, final List<String> args)
+	{
+		// check sender has permission
+		if (!sender.hasPermission(permissionNode))
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_IMPORT_PERMISSION).send();
+			return;
+		}
+
+		// snapshot name argument is required
+		if (args.isEmpty())
+		{
+			displayUsage(sender);
+			return;
+		}
+
+		final String snapshotName = args.getFirst();
+
+		if (!ExportSubcommand.isValidSnapshotName(snapshotName))
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_SNAPSHOT_NAME_INVALID)
+					.setMacro(Macro.TARGET, snapshotName)
+					.send();
+			return;
+		}
+
+		final Path path = ExportSubcommand.snapshotPath(ctx, snapshotName);
+
+		final DeathLocationSnapshotReader reader;
+		try
+		{
+			reader = (Files.isRegularFile(path)) ? DeathLocationSnapshotReader.open(path) : null;
+		}
+		catch (IOException exception)
+		{
+			ctx.plugin().getLogger().warning(exception.getLocalizedMessage());
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_IMPORT)
+					.setMacro(Macro.TARGET, snapshotName)
+					.send();
+			return;
+		}
+
+		if (reader == null)
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_IMPORT_FILE_NOT_FOUND)
+					.setMacro(Macro.TARGET, snapshotName)
+					.send();
+			return;
+		}
+
+		// the snapshot is verified and read on the storage thread, as the datastore consumes the stream
+		new StorageJob(ctx, sender, path.getFileName().toString(), MESSAGES).start(progress ->
+				ctx.datastore().deathLocations().saveDeathRecords(reader.stream(), progress)
+						.whenComplete((count, throwable) ->
+						{
+							if (throwable != null)
+							{
+								final Throwable cause = (throwable instanceof CompletionException && throwable.getCause() != null)
+										? throwable.getCause()
+										: throwable;
+								ctx.plugin().getLogger().warning(cause.getLocalizedMessage());
+							}
+						}));
+	}
+
+}
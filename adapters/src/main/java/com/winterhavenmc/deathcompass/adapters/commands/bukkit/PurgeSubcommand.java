@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.util.Macro;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Deletes stored death locations by player, by world or by age, off the server thread
+ */
+final class PurgeSubcommand extends AbstractSubcommand
+{
+	private final static List<String> MODES = List.of("player", "world", "older-than");
+	private final static StorageJob.Messages MESSAGES = new StorageJob.Messages(
+			MessageId.COMMAND_PURGE_STARTED,
+			MessageId.COMMAND_PURGE_PROGRESS,
+			MessageId.COMMAND_SUCCESS_PURGE,
+			MessageId.COMMAND_FAIL_PURGE);
+
+	private final CommandCtx ctx;
+
+
+	/**
+	 * Class constructor
+	 */
+	PurgeSubcommand(final CommandCtx ctx)
+	{
+		this.ctx = ctx;
+		this.name = "purge";
+		this.usageString = "/deathcompass purge <player <name|uuid> | world <world|uuid> | older-than <days>>";
+		this.description = MessageId.COMMAND_HELP_PURGE;
+		this.permissionNode = "deathcompass.purge";
+	}
+
+
+	@Override
+	public List<String> onTabComplete(final CommandSender sender, final Command command,
+	                                  final String alias, final String[] args)
+	{
+		if (args.length == 2 && args[0].equalsIgnoreCase(this.name))
+		{
+			return MODES.stream()
+					.filter(mode -> mode.startsWith(args[1].toLowerCase()))
+					.collect(Collectors.toList());
+		}
+
+		if (args.length == 3 && args[0].equalsIgnoreCase(this.name))
+		{
+			final Stream<String> candidates = switch (args[1].toLowerCase())
+			{
+				case "player" -> ctx.plugin().getServer().getOnlinePlayers().stream().map(Player::getName);
+				case "world" -> worldNames();
+				default -> Stream.empty();
+			};
+
+			return candidates
+					.filter(candidate -> candidate.toLowerCase().startsWith(args[2].toLowerCase()))
+					.distinct()
+					.collect(Collectors.toList());
+		}
+
+		return Collections.emptyList();
+	}
+
+
+	@Override
+	public void onCommand(final CommandSender sender, final List<String> args)
+	{
+		// check sender has permission
+		if (!sender.hasPermission(permissionNode))
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_PURGE_PERMISSION).send();
+			return;
+		}
+
+		// mode and value arguments are required
+		if (args.size() < 2 || !MODES.contains(args.getFirst().toLowerCase()))
+		{
+			displayUsage(sender);
+			return;
+		}
+
+		final String mode = args.getFirst().toLowerCase();
+		final String value = args.get(1);
+
+		switch (mode)
+		{
+			case "player" -> purgePlayer(sender, value);
+			case "world" -> purgeWorld(sender, value);
+			case "older-than" -> purgeOlderThan(sender, value);
+		}
+	}
+
+
+	/**
+	 * Purge all death locations for a world; also used by the purge-world shortcut
+	 *
+	 * @param sender the command sender
+	 * @param worldArg the world name or UUID string
+	 */
+	void purgeWorld(final CommandSender sender, final String worldArg)
+	{
+		final Optional<UUID> worldUid = resolveWorldUid(worldArg);
+
+		if (worldUid.isEmpty())
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_PURGE_WORLD_INVALID)
+					.setMacro(Macro.TARGET, worldArg)
+					.send();
+			return;
+		}
+
+		new StorageJob(ctx, sender, "world " + worldArg, MESSAGES).start(progress ->
+				ctx.datastore().deathLocations().deleteDeathLocationsByWorld(worldUid.get(), progress));
+	}
+
+
+	private void purgePlayer(final CommandSender sender, final String playerArg)
+	{
+		final Optional<UUID> playerUid = resolvePlayerUid(playerArg);
+		if (playerUid.isPresent())
+		{
+			startPlayerPurge(sender, playerArg, playerUid.get());
+			return;
+		}
+
+		// finding an offline player by name reads every player data file, so it is done off the server thread
+		final BukkitScheduler scheduler = ctx.plugin().getServer().getScheduler();
+		scheduler.runTaskAsynchronously(ctx.plugin(), () ->
+		{
+			final Optional<UUID> offlinePlayerUid = findOfflinePlayerUid(playerArg);
+			if (ctx.plugin().isEnabled())
+			{
+				scheduler.runTask(ctx.plugin(), () -> offlinePlayerUid.ifPresentOrElse(
+						uid -> startPlayerPurge(sender, playerArg, uid),
+						() -> ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_PURGE_PLAYER_INVALID)
+								.setMacro(Macro.TARGET, playerArg)
+								.send()));
+			}
+		});
+	}
+
+
+	private void startPlayerPurge(final CommandSender sender, final String playerArg, final UUID playerUid)
+	{
+		new StorageJob(ctx, sender, "player " + playerArg, MESSAGES).start(progress ->
+				ctx.datastore().deathLocations().deleteDeathLocationsByPlayer(playerUid, progress));
+	}
+
+
+	private void purgeOlderThan(final CommandSender sender, final String daysArg)
+	{
+		final long days;
+		try
+		{
+			days = Long.parseLong(daysArg);
+		}
+		catch (NumberFormatException exception)
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_PURGE_AGE_INVALID)
+					.setMacro(Macro.TARGET, daysArg)
+					.send();
+			return;
+		}
+
+		if (days < 0)
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_PURGE_AGE_INVALID)
+					.setMacro(Macro.TARGET, daysArg)
+					.send();
+			return;
+		}
+
+		final Instant cutoff = Instant.now().minus(Duration.ofDays(days));
+
+		new StorageJob(ctx, sender, "older-than " + days, MESSAGES).start(progress ->
+				ctx.datastore().deathLocations().deleteDeathLocationsOlderThan(cutoff, progress));
+	}
+
+
+	/**
+	 * Resolve a world argument to a world UID, by loaded world name, by UUID string,
+	 * or by the name of an orphaned world that is stored in the datastore
+	 *
+	 * @param worldArg the world name or UUID string
+	 * @return {@code Optional} UUID of the world, or empty optional if no match
+	 */
+	private Optional<UUID> resolveWorldUid(final String worldArg)
+	{
+		final World world = ctx.plugin().getServer().getWorld(worldArg);
+		if (world != null)
+		{
+			return Optional.of(world.getUID());
+		}
+
+		try
+		{
+			return Optional.of(UUID.fromString(worldArg));
+		}
+		catch (IllegalArgumentException exception)
+		{
+			return ctx.datastore().deathLocations().orphanedWorlds().entrySet().stream()
+					.filter(entry -> worldArg.equalsIgnoreCase(entry.getValue()))
+					.map(Map.Entry::getKey)
+					.findFirst();
+		}
+	}
+
+
+	/**
+	 * Resolve a player argument to a player UUID, by online player name or by UUID string
+	 *
+	 * @param playerArg the player name or UUID string
+	 * @return {@code Optional} UUID of the player, or empty optional if no match
+	 */
+	private Optional<UUID> resolvePlayerUid(final String playerArg)
+	{
+		final Player player = ctx.plugin().getServer().getPlayerExact(playerArg);
+		if (player != null)
+		{
+			return Optional.of(player.getUniqueId());
+		}
+
+		try
+		{
+			return Optional.of(UUID.fromString(playerArg));
+		}
+		catch (IllegalArgumentException exception)
+		{
+			return Optional.empty();
+		}
+	}
+
+
+	/**
+	 * Find the UUID of a player who has played on the server before, by name. Called off the server thread.
+	 *
+	 * @param playerName the player name
+	 * @return {@code Optional} UUID of the player, or empty optional if no match
+	 */
+	private Optional<UUID> findOfflinePlayerUid(final String playerName)
+	{
+		return Arrays.stream(ctx.plugin().getServer().getOfflinePlayers())
+				.filter(offlinePlayer -> playerName.equalsIgnoreCase(offlinePlayer.getName()))
+				.map(OfflinePlayer::getUniqueId)
+				.findFirst();
+	}
+
+
+	/**
+	 * Get names of loaded worlds and of orphaned worlds that are stored in the datastore
+	 *
+	 * @return stream of world names
+	 */
+	Stream<String> worldNames()
+	{
+		return Stream.concat(
+				ctx.plugin().getServer().getWorlds().stream().map(World::getName),
+				ctx.datastore().deathLocations().orphanedWorlds().values().stream());
+	}
+
+}
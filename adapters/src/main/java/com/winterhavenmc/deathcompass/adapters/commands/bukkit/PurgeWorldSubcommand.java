@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+
+/**
+ * Deletes all stored death locations for a world, which need not be loaded;
+ * shortcut for {@code /deathcompass purge world <world|uuid>}
+ */
+final class PurgeWorldSubcommand extends AbstractSubcommand
+{
+	private final CommandCtx ctx;
+	private final PurgeSubcommand purgeSubcommand;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param purgeSubcommand reference to purge subcommand instance
+	 */
+	PurgeWorldSubcommand(final CommandCtx ctx, final PurgeSubcommand purgeSubcommand)
+	{
+		this.ctx = ctx;
+		this.purgeSubcommand = Objects.requireNonNull(purgeSubcommand);
+		this.name = "purge-world";
+		this.usageString = "/deathcompass purge-world <world|uuid>";
+		this.description = MessageId.COMMAND_HELP_PURGE_WORLD;
+		this.permissionNode = "deathcompass.purge";
+	}
+
+
+	@Override
+	public List<String> onTabComplete(final CommandSender sender, final Command command,
+	                                  final String alias, final String[] args)
+	{
+		if (args.length == 2 && args[0].equalsIgnoreCase(this.name))
+		{
+			return purgeSubcommand.worldNames()
+					.filter(worldName -> worldName.toLowerCase().startsWith(args[1].toLowerCase()))
+					.distinct()
+					.collect(Collectors.toList());
+		}
+		return Collections.emptyList();
+	}
+
+
+	@Override
+	public void onCommand(final CommandSender sender, final List<String> args)
+	{
+		// check sender has permission
+		if (!sender.hasPermission(permissionNode))
+		{
+			ctx.messageBuilder().compose(sender, MessageId.COMMAND_FAIL_PURGE_PERMISSION).send();
+			return;
+		}
+
+		// world argument is required
+		if (args.isEmpty())
+		{
+			displayUsage(sender);
+			return;
+		}
+
+		purgeSubcommand.purgeWorld(sender, args.getFirst());
+	}
+
+}
@@ -18,6 +18,7 @@
 package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
 
 import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.events.ConfigReloadEvent;
 import com.winterhavenmc.deathcompass.adapters.util.MessageId;
 
 import org.bukkit.command.CommandSender;
@@ -65,9 +66,18 @@ final class ReloadSubcommand extends AbstractSubcommand
 		// reload config file
 		ctx.plugin().reloadConfig();
 
+		// rebuild settings from the reloaded config file, reporting any invalid values
+		ctx.settings().reload();
+
 		// reload messages
 		ctx.messageBuilder().reload();
 
+		// discard prototype compasses built from the previous item definition
+		ctx.items().invalidate();
+
+		// let listeners apply the reloaded settings
+		ctx.plugin().getServer().getPluginManager().callEvent(new ConfigReloadEvent());
+
 		// send success message
 		ctx.messageBuilder().compose(sender, MessageId.COMMAND_SUCCESS_RELOAD).send();
 	}
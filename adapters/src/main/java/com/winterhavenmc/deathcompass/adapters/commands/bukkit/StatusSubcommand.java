@@ -18,6 +18,7 @@
 package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
 
 import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
 import com.winterhavenmc.deathcompass.adapters.util.Macro;
 import com.winterhavenmc.deathcompass.adapters.util.MessageId;
 
@@ -72,7 +73,17 @@ final class StatusSubcommand extends AbstractSubcommand
 		displayPreventStorageSetting(sender);
 		displayTargetDelaySetting(sender);
 		displayEnabledWorldsSetting(sender);
-		displayFooter(sender);
+		displayItemCache(sender);
+
+		// storage tiers are counted off the server thread, so the footer follows them once they are reported
+		ctx.datastore().tiers().whenComplete((tiers, throwable) -> runOnServerThread(() ->
+		{
+			if (tiers != null)
+			{
+				tiers.forEach(tier -> displayStorageTier(sender, tier));
+			}
+			displayFooter(sender);
+		}));
 	}
 
 
@@ -100,17 +111,17 @@ final class StatusSubcommand extends AbstractSubcommand
 
 	private void displayDebugSetting(final CommandSender sender)
 	{
-		if (ctx.plugin().getConfig().getBoolean("debug"))
+		if (ctx.settings().get().debug())
 		{
 			sender.sendMessage(ChatColor.GREEN + "Debug: "
-					+ ChatColor.RED + ctx.plugin().getConfig().getString("debug"));
+					+ ChatColor.RED + ctx.settings().get().debug());
 		}
 	}
 
 	private void displayLanguageSetting(final CommandSender sender)
 	{
 		ctx.messageBuilder().compose(sender, MessageId.COMMAND_STATUS_LANGUAGE)
-				.setMacro(Macro.SETTING, ctx.plugin().getConfig().getString("language"))
+				.setMacro(Macro.SETTING, ctx.settings().get().language())
 				.send();
 	}
 
@@ -134,14 +145,14 @@ final class StatusSubcommand extends AbstractSubcommand
 	private void displaySoundEffectsSetting(final CommandSender sender)
 	{
 		ctx.messageBuilder().compose(sender, MessageId.COMMAND_STATUS_SOUND_EFFECTS)
-				.setMacro(Macro.SETTING, ctx.plugin().getConfig().getBoolean("sound-effects"))
+				.setMacro(Macro.SETTING, ctx.settings().get().soundEffects())
 				.send();
 	}
 
 	private void displayDestroyOnDropSetting(final CommandSender sender)
 	{
 		ctx.messageBuilder().compose(sender, MessageId.COMMAND_STATUS_DESTROY_ON_DROP)
-				.setMacro(Macro.SETTING, ctx.plugin().getConfig().getString("destroy-on-drop"))
+				.setMacro(Macro.SETTING, ctx.settings().get().destroyOnDrop())
 				.send();
 	}
 
@@ -149,14 +160,14 @@ final class StatusSubcommand extends AbstractSubcommand
 	private void displayPreventStorageSetting(final CommandSender sender)
 	{
 		ctx.messageBuilder().compose(sender, MessageId.COMMAND_STATUS_PREVENT_STORAGE)
-				.setMacro(Macro.SETTING, ctx.plugin().getConfig().getBoolean("prevent-storage"))
+				.setMacro(Macro.SETTING, ctx.settings().get().preventStorage())
 				.send();
 	}
 
 	private void displayTargetDelaySetting(final CommandSender sender)
 	{
 		ctx.messageBuilder().compose(sender, MessageId.COMMAND_STATUS_TARGET_DELAY)
-				.setMacro(Macro.SETTING, ctx.plugin().getConfig().getString("target-delay") + " ticks")
+				.setMacro(Macro.SETTING, ctx.settings().get().targetDelay() + " ticks")
 				.send();
 	}
 
@@ -167,4 +178,30 @@ final class StatusSubcommand extends AbstractSubcommand
 				.send();
 	}
 
+	private void displayItemCache(final CommandSender sender)
+	{
+		ctx.messageBuilder().compose(sender, MessageId.COMMAND_STATUS_ITEM_CACHE)
+				.setMacro(Macro.COUNT, ctx.items().builds())
+				.setMacro(Macro.AVOIDED_COUNT, ctx.items().buildsAvoided())
+				.send();
+	}
+
+	private void displayStorageTier(final CommandSender sender, final DatastoreTier tier)
+	{
+		ctx.messageBuilder().compose(sender, MessageId.COMMAND_STATUS_STORAGE_TIER)
+				.setMacro(Macro.TARGET, tier.name())
+				.setMacro(Macro.COUNT, tier.records())
+				.setMacro(Macro.SIZE, String.format("%.1f KiB", tier.size() / 1024.0))
+				.send();
+	}
+
+
+	private void runOnServerThread(final Runnable runnable)
+	{
+		if (ctx.plugin().isEnabled())
+		{
+			ctx.plugin().getServer().getScheduler().runTask(ctx.plugin(), runnable);
+		}
+	}
+
 }
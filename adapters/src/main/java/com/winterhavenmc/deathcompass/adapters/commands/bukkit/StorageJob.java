@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.util.Macro;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+
+/**
+ * Runs a long-running datastore operation off the server thread, reporting progress and result
+ * to the command sender on the server thread
+ */
+final class StorageJob
+{
+	private final static long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(2);
+
+	private final CommandCtx ctx;
+	private final CommandSender sender;
+	private final String target;
+	private final Messages messages;
+	private final AtomicLong lastProgressTime = new AtomicLong(System.nanoTime());
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param ctx the command context
+	 * @param sender the command sender to receive progress and result messages
+	 * @param target description of the target of the operation, for messages
+	 * @param messages the message identifiers for the operation
+	 */
+	StorageJob(final CommandCtx ctx, final CommandSender sender, final String target, final Messages messages)
+	{
+		this.ctx = ctx;
+		this.sender = sender;
+		this.target = target;
+		this.messages = messages;
+	}
+
+
+	/**
+	 * Start the operation
+	 *
+	 * @param operation function that starts a datastore operation with the supplied progress consumer
+	 */
+	void start(final Function<IntConsumer, CompletableFuture<Integer>> operation)
+	{
+		ctx.messageBuilder().compose(sender, messages.started())
+				.setMacro(Macro.TARGET, target)
+				.send();
+
+		operation.apply(this::onProgress).whenComplete((count, throwable) -> runOnServerThread(() ->
+		{
+			if (throwable != null)
+			{
+				ctx.messageBuilder().compose(sender, messages.failure())
+						.setMacro(Macro.TARGET, target)
+						.send();
+			}
+			else
+			{
+				ctx.messageBuilder().compose(sender, messages.success())
+						.setMacro(Macro.TARGET, target)
+						.setMacro(Macro.COUNT, count)
+						.send();
+			}
+		}));
+	}
+
+
+	/**
+	 * Receive running total of processed records from the storage thread,
+	 * forwarding at most one progress message per interval to the command sender
+	 *
+	 * @param count the number of records processed so far
+	 */
+	private void onProgress(final int count)
+	{
+		final long now = System.nanoTime();
+		final long last = lastProgressTime.get();
+
+		if (now - last >= PROGRESS_INTERVAL && lastProgressTime.compareAndSet(last, now))
+		{
+			runOnServerThread(() -> ctx.messageBuilder().compose(sender, messages.progress())
+					.setMacro(Macro.TARGET, target)
+					.setMacro(Macro.COUNT, count)
+					.send());
+		}
+	}
+
+
+	private void runOnServerThread(final Runnable runnable)
+	{
+		if (ctx.plugin().isEnabled())
+		{
+			ctx.plugin().getServer().getScheduler().runTask(ctx.plugin(), runnable);
+		}
+	}
+
+
+	/**
+	 * The messages sent to the command sender when the operation starts, progresses, succeeds or fails
+	 */
+	record Messages(MessageId started, MessageId progress, MessageId success, MessageId failure) { }
+
+}
@@ -21,6 +21,7 @@ import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
 import com.winterhavenmc.deathcompass.adapters.ports.listeners.InventoryEventListener;
 import com.winterhavenmc.deathcompass.adapters.util.Macro;
 import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+import com.winterhavenmc.deathcompass.adapters.util.Settings;
 
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.event.Cancellable;
@@ -31,7 +32,7 @@ import org.bukkit.event.inventory.InventoryMoveItemEvent;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Set;
 
 
@@ -41,9 +42,10 @@ import java.util.Set;
 public final class BukkitInventoryEventListener implements InventoryEventListener
 {
 	private final ListenerCtx ctx;
+	private final HopperTransferGuard hopperTransferGuard;
 
 	// set of inventory types to allow shift-click transfers from hot bar (item goes into player inventory)
-	private final static Collection<InventoryType> SHIFT_CLICK_ALLOWED_TYPES = Set.of(
+	private final static Set<InventoryType> SHIFT_CLICK_ALLOWED_TYPES = EnumSet.of(
 			InventoryType.BEACON,
 			InventoryType.BREWING,
 			InventoryType.CRAFTING,
@@ -54,6 +56,7 @@ public final class BukkitInventoryEventListener implements InventoryEventListene
 	public BukkitInventoryEventListener()
 	{
 		this.ctx = null;
+		this.hopperTransferGuard = null;
 	}
 
 	/**
@@ -62,9 +65,11 @@ public final class BukkitInventoryEventListener implements InventoryEventListene
 	private BukkitInventoryEventListener(final ListenerCtx ctx)
 	{
 		this.ctx = ctx;
+		this.hopperTransferGuard = new HopperTransferGuard(ctx);
+		this.hopperTransferGuard.startReports();
 
-		// register event handlers in this class
-		ctx.plugin().getServer().getPluginManager().registerEvents(this, ctx.plugin());
+		// register event handlers in this class only while prevent-storage is enabled
+		new FeatureListener(ctx, Settings::preventStorage, this).register();
 	}
 
 
@@ -84,17 +89,8 @@ public final class BukkitInventoryEventListener implements InventoryEventListene
 	@Override
 	public void onInventoryMoveItem(final InventoryMoveItemEvent event)
 	{
-		// if prevent-storage is configured false, do nothing and return
-		if (!ctx.plugin().getConfig().getBoolean("prevent-storage"))
-		{
-			return;
-		}
-
-		// get item stack involved in event
-		final ItemStack itemStack = event.getItem();
-
 		// if item stack is death compass, cancel event
-		if (isDeathCompass(itemStack))
+		if (hopperTransferGuard.isBlocked(event))
 		{
 			event.setCancelled(true);
 		}
@@ -110,8 +106,9 @@ public final class BukkitInventoryEventListener implements InventoryEventListene
 	@Override
 	public void onInventoryClick(final InventoryClickEvent event)
 	{
-		// if prevent-storage is configured false, do nothing and return
-		if (!ctx.plugin().getConfig().getBoolean("prevent-storage"))
+		// if neither the current item nor the cursor item is of the death compass material, do nothing and return
+		if (!ctx.items().isDeathCompassMaterial(event.getCurrentItem())
+				&& !ctx.items().isDeathCompassMaterial(event.getCursor()))
 		{
 			return;
 		}
@@ -162,12 +159,6 @@ public final class BukkitInventoryEventListener implements InventoryEventListene
 	@Override
 	public void onInventoryDrag(final InventoryDragEvent event)
 	{
-		// if prevent-storage is configured false, do nothing and return
-		if (!ctx.plugin().getConfig().getBoolean("prevent-storage"))
-		{
-			return;
-		}
-
 		ItemStack item = event.getOldCursor();
 
 		// if cursor item is a death compass
@@ -210,7 +201,7 @@ public final class BukkitInventoryEventListener implements InventoryEventListene
 	 */
 	private boolean isDeathCompass(final ItemStack itemStack)
 	{
-		return ctx.messageBuilder().items().isItem(itemStack);
+		return ctx.items().isDeathCompass(itemStack);
 	}
 
 }
@@ -21,25 +21,27 @@ import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
 import com.winterhavenmc.deathcompass.adapters.ports.listeners.PlayerEventListener;
 import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
 import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
-import com.winterhavenmc.library.messagebuilder.models.keys.ItemKey;
-import com.winterhavenmc.library.messagebuilder.models.keys.ValidItemKey;
 import com.winterhavenmc.deathcompass.adapters.tasks.SetCompassTargetTask;
 import com.winterhavenmc.deathcompass.adapters.util.Macro;
 import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+import com.winterhavenmc.deathcompass.adapters.util.Settings;
 import com.winterhavenmc.deathcompass.adapters.util.SoundId;
 import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
 import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
 import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
 
 import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Tag;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.*;
-import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.metadata.MetadataValue;
 
 import java.util.*;
 
@@ -49,13 +51,16 @@ import java.util.*;
  */
 public final class BukkitPlayerEventListener implements PlayerEventListener
 {
-	private final static String ITEM_KEY = "DEATH_COMPASS";
 	private final ListenerCtx ctx;
 	private final ConfigRepository configRepository;
+	private final DeathLocationResolver deathLocationResolver;
+	private final CompassHoldings compassHoldings;
 
-	// player death respawn hash set, used to prevent giving compass on non-death respawn events
-	private final Set<UUID> deathTriggeredRespawn = new HashSet<>();
+	// name of the plugin whose chest blocks remove death compasses when opened by their owner
+	static final String DEATH_CHEST_PLUGIN = "SavageDeathChest";
 
+	// metadata key set by SavageDeathChest on its chest and sign blocks
+	static final String DEATH_CHEST_OWNER_KEY = "deathchest-owner";
 
 	/**
 	 * Class constructor
@@ -64,6 +69,8 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 	{
 		this.ctx = null;
 		this.configRepository = null;
+		this.deathLocationResolver = null;
+		this.compassHoldings = null;
 	}
 
 
@@ -74,9 +81,20 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 	{
 		this.ctx = ctx;
 		this.configRepository = BukkitConfigRepository.create(ctx.plugin());
+		this.deathLocationResolver = new DeathLocationResolver(ctx);
+		this.compassHoldings = new CompassHoldings(ctx).register();
 
 		// register event handlers in this class
 		ctx.plugin().getServer().getPluginManager().registerEvents(this, ctx.plugin());
+
+		// register the item drop handler only while destroy-on-drop is enabled
+		new FeatureListener(ctx, Settings::destroyOnDrop, new DestroyOnDropHandlers()).register();
+
+		// register the interact handler only if SavageDeathChest is installed
+		if (ctx.plugin().getServer().getPluginManager().getPlugin(DEATH_CHEST_PLUGIN) != null)
+		{
+			ctx.plugin().getServer().getPluginManager().registerEvents(new DeathChestHandlers(), ctx.plugin());
+		}
 	}
 
 
@@ -93,8 +111,7 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 	 */
 	public ItemStack createItem()
 	{
-		ValidItemKey validItemKey = ItemKey.of(ITEM_KEY).isValid().orElseThrow();
-		return ctx.messageBuilder().items().createItem(validItemKey).orElseThrow();
+		return ctx.items().create();
 	}
 
 
@@ -108,27 +125,11 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 	public void onPlayerDeath(final PlayerDeathEvent event)
 	{
 		// if destroy-on-drop is enabled in configuration, remove any death compasses from player drops on death
-		if (ctx.plugin().getConfig().getBoolean("destroy-on-drop"))
+		if (ctx.settings().get().destroyOnDrop())
 		{
 
-			// get death drops as list
-			List<ItemStack> drops = event.getDrops();
-
-			// get iterator of death drops list
-			ListIterator<ItemStack> iterator = drops.listIterator();
-
-			// create death compass stack for comparison
-			ItemStack deathCompass = createItem();
-
-			// loop through all dropped items and remove any stacks that are death compasses
-			while (iterator.hasNext())
-			{
-				ItemStack stack = iterator.next();
-				if (stack.isSimilar(deathCompass))
-				{
-					iterator.remove();
-				}
-			}
+			// remove any stacks that are death compasses from death drops
+			event.getDrops().removeIf(ctx.items()::isDeathCompass);
 		}
 
 		Player player = event.getEntity();
@@ -153,8 +154,8 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 			// insert death record in database
 			ctx.datastore().deathLocations().saveDeathLocation(validDeathLocation);
 
-			// put player uuid in deathTriggeredRespawn set
-			deathTriggeredRespawn.add(player.getUniqueId());
+			// add player to pending respawns, used to prevent giving compass on non-death respawn events
+			ctx.pendingRespawns().add(player.getUniqueId());
 		}
 		else
 		{
@@ -182,15 +183,12 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 			return;
 		}
 
-		// if deathTriggeredRespawn set does not contain user uuid, do nothing and return
-		if (!deathTriggeredRespawn.contains(player.getUniqueId()))
+		// remove player from pending respawns; if player did not die or the entry expired, do nothing and return
+		if (!ctx.pendingRespawns().remove(player.getUniqueId()))
 		{
 			return;
 		}
 
-		// remove player uuid from deathTriggeredRespawn set
-		deathTriggeredRespawn.remove(player.getUniqueId());
-
 		// if player does not have deathcompass.use permission, do nothing and return
 		if (!player.hasPermission("deathcompass.use"))
 		{
@@ -201,7 +199,7 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 		ItemStack deathCompass = giveDeathCompass(player);
 
 		// set compass target to player death location
-		setDeathCompassTarget(player);
+		setDeathCompassTarget(player, getDeathLocation(player));
 
 		// get player death location
 		Location location = player.getLastDeathLocation();
@@ -225,6 +223,9 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 	{
 		Player player = event.getPlayer();
 
+		// tag any death compasses given by earlier versions, so they are identified by the tag
+		ctx.items().tagLegacyDeathCompasses(player.getInventory());
+
 		// if player world is not enabled, do nothing and return
 		if (!ctx.messageBuilder().worlds().isEnabled(player.getWorld().getUID()))
 		{
@@ -237,22 +238,19 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 			return;
 		}
 
-		// create 1 compass itemstack with configured settings
-		ItemStack deathcompass = createItem();
-
 		// get player last death location
 		Location lastDeathLocation = getDeathLocation(player);
 
 		// if player does not have at least one death compass in inventory or
 		// saved death location in current world, do nothing and return
-		if (!player.getInventory().containsAtLeast(deathcompass, 1) ||
+		if (!compassHoldings.contains(player) ||
 				lastDeathLocation == null)
 		{
 			return;
 		}
 
 		// set player compass target to last death location
-		setDeathCompassTarget(player);
+		setDeathCompassTarget(player, lastDeathLocation);
 	}
 
 
@@ -280,11 +278,8 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 			return;
 		}
 
-		// create DeathCompass itemstack
-		ItemStack deathcompass = createItem();
-
 		// if player does not have a death compass in inventory, do nothing and return
-		if (!player.getInventory().containsAtLeast(deathcompass, 1))
+		if (!compassHoldings.contains(player))
 		{
 			return;
 		}
@@ -299,35 +294,38 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 		}
 
 		// set death compass target to player last death location
-		setDeathCompassTarget(player);
+		setDeathCompassTarget(player, lastDeathLocation);
 	}
 
 
 	/**
-	 * Player Interact event handler
+	 * Player Interact event handler, called by the death chest handlers if SavageDeathChest is installed
 	 * Remove all death compasses from player inventory on interaction with DeathChestBlocks
 	 *
 	 * @param event the event handled by this method
 	 */
-	@EventHandler(priority = EventPriority.LOWEST)
 	@Override
 	public void onPlayerInteract(final PlayerInteractEvent event)
 	{
-		// get player
-		final Player player = event.getPlayer();
-
 		// get block
 		final Block block = event.getClickedBlock();
 
+		// if block is not a type used by death chests, do nothing and return
+		if (block == null || !isDeathChestMaterial(block.getType()))
+		{
+			return;
+		}
+
+		// get player
+		final Player player = event.getPlayer();
+
 		// if block is a DeathChestBlock owned by player, remove death compasses from inventory and reset target
-		if (block != null
-				&& block.hasMetadata("deathchest-owner")
-				&& block.getMetadata("deathchest-owner").getFirst().asString()
-				.equals(player.getUniqueId().toString()))
+		final List<MetadataValue> owner = block.getMetadata(DEATH_CHEST_OWNER_KEY);
+		if (!owner.isEmpty() && owner.getFirst().asString().equals(player.getUniqueId().toString()))
 		{
 
 			// remove all death compasses from player inventory
-			removeDeathCompasses(player.getInventory());
+			removeDeathCompasses(player);
 
 			// reset compass target to world spawn
 			resetDeathCompassTarget(player);
@@ -336,11 +334,22 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 
 
 	/**
-	 * Item drop event handler
+	 * Test if a block material can be part of a death chest; SavageDeathChest places chests and signs
+	 *
+	 * @param material the block material to test
+	 * @return true if the material is a chest or a sign, false if not
+	 */
+	static boolean isDeathChestMaterial(final Material material)
+	{
+		return material == Material.CHEST || Tag.ALL_SIGNS.isTagged(material);
+	}
+
+
+	/**
+	 * Item drop event handler, called by the destroy-on-drop handlers while that feature is enabled
 	 *
 	 * @param event the event handled by this method
 	 */
-	@EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
 	@Override
 	public void onItemDrop(final PlayerDropItemEvent event)
 	{
@@ -349,11 +358,8 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 		// get itemstack that was dropped
 		ItemStack droppedItemStack = event.getItemDrop().getItemStack();
 
-		// create death compass itemstack for comparison
-		ItemStack item = createItem();
-
-		// if droppedItemStack is not a DeathCompass or destroy-on-drop config is not true, do nothing and return
-		if (!droppedItemStack.isSimilar(item) || !ctx.plugin().getConfig().getBoolean("destroy-on-drop"))
+		// if droppedItemStack is not a DeathCompass, do nothing and return
+		if (!ctx.items().isDeathCompass(droppedItemStack))
 		{
 			return;
 		}
@@ -365,7 +371,7 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 		ctx.messageBuilder().sounds().play(player, SoundId.PLAYER_DROP_COMPASS);
 
 		// if inventory does not contain at least 1 death compass, reset compass target
-		if (!player.getInventory().containsAtLeast(item, 1))
+		if (!compassHoldings.contains(player))
 		{
 			resetDeathCompassTarget(player);
 		}
@@ -373,7 +379,7 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 		// send player compass destroyed message
 		ctx.messageBuilder().compose(player, MessageId.EVENT_ITEM_DESTROY)
 				.setMacro(Macro.DEATH_LOCATION, player.getLastDeathLocation())
-				.setMacro(Macro.ITEM, item)
+				.setMacro(Macro.ITEM, droppedItemStack)
 				.send();
 	}
 
@@ -386,7 +392,16 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 	private ItemStack giveDeathCompass(final Player player)
 	{
 		ItemStack deathcompass = createItem();
-		player.getInventory().addItem(deathcompass);
+
+		// count the compass if it fit in the inventory, else count the inventory again when it is next checked
+		if (player.getInventory().addItem(deathcompass).isEmpty())
+		{
+			compassHoldings.add(player, deathcompass.getAmount());
+		}
+		else
+		{
+			compassHoldings.invalidate(player);
+		}
 
 		ctx.plugin().getLogger().info(player.getName() + " was given a death compass in "
 				+ ctx.messageBuilder().worlds().aliasOrName(player.getWorld().getUID()) + "."); // TODO: implement aliasOrName in MessageBuilderLib
@@ -396,14 +411,14 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 
 
 	/**
-	 * Remove all death compasses from inventory
+	 * Remove all death compasses from player inventory
 	 *
-	 * @param inventory the inventory from which to remove all death compasses
+	 * @param player the player from whose inventory to remove all death compasses
 	 */
-	private void removeDeathCompasses(final Inventory inventory)
+	private void removeDeathCompasses(final Player player)
 	{
-		ItemStack deathcompass = createItem();
-		inventory.removeItem(deathcompass);
+		ctx.items().removeDeathCompasses(player.getInventory());
+		compassHoldings.clear(player);
 	}
 
 
@@ -412,11 +427,11 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 	 * delay for configured number of ticks (default 20)  to allow player to respawn
 	 *
 	 * @param player the player whose death location is being set as the compass target
+	 * @param location the death location of the player
 	 */
-	private void setDeathCompassTarget(final Player player)
+	private void setDeathCompassTarget(final Player player, final Location location)
 	{
-		Location location = getDeathLocation(player);
-		new SetCompassTargetTask(player, location).runTaskLater(ctx.plugin(), ctx.plugin().getConfig().getLong("target-delay"));
+		new SetCompassTargetTask(player, location).runTaskLater(ctx.plugin(), ctx.settings().get().targetDelay());
 	}
 
 
@@ -433,26 +448,43 @@ public final class BukkitPlayerEventListener implements PlayerEventListener
 
 
 	/**
-	 * Retrieve player death location from datastore
+	 * Retrieve player death location in the player's current world, from the server's last death location
+	 * if it is in that world, or else from the datastore
 	 *
 	 * @param player the player whose death location is being retrieved
 	 * @return location
 	 */
 	private Location getDeathLocation(final Player player)
 	{
-		// check for null parameter
-		Objects.requireNonNull(player);
+		// if a death location is found, return it; else use player world spawn location
+		return deathLocationResolver.resolve(player)
+				.orElseGet(() -> ctx.messageBuilder().worlds().spawnLocation(player.getWorld().getUID()).orElseThrow()); // TODO: replace orElseThrow
+	}
 
-		// get worldUid for player current world
-		final UUID worldUid = player.getWorld().getUID();
 
-		// fetch death record from datastore
-		final DeathLocation deathLocation = ctx.datastore().deathLocations().getDeathLocation(player.getUniqueId(), worldUid);
+	/**
+	 * The event handlers of the destroy-on-drop feature, registered only while it is enabled
+	 */
+	private final class DestroyOnDropHandlers implements Listener
+	{
+		@EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+		void onItemDrop(final PlayerDropItemEvent event)
+		{
+			BukkitPlayerEventListener.this.onItemDrop(event);
+		}
+	}
 
-		// if fetched record is valid, return location; else use player world spawn location
-		return (deathLocation instanceof ValidDeathLocation validDeathLocation && validDeathLocation.location().isPresent())
-				? validDeathLocation.location().get()
-				: ctx.messageBuilder().worlds().spawnLocation(player.getWorld().getUID()).orElseThrow(); // TODO: replace orElseThrow
+
+	/**
+	 * The event handlers of the SavageDeathChest integration, registered only if that plugin is installed
+	 */
+	private final class DeathChestHandlers implements Listener
+	{
+		@EventHandler(priority = EventPriority.LOWEST)
+		void onPlayerInteract(final PlayerInteractEvent event)
+		{
+			BukkitPlayerEventListener.this.onPlayerInteract(event);
+		}
 	}
 
 }
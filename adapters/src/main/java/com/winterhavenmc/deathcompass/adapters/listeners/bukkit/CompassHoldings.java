@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Keeps a count of the death compasses held by each online player, so checking whether a player holds a death
+ * compass does not scan the inventory. Only players holding at least one compass are counted; a player without
+ * a count is counted from the inventory when it is needed, which is cheap when the inventory holds no compass.
+ * A count is adjusted when compasses are picked up, dropped, lost on death or given on respawn. Events that move
+ * a compass in ways that are not counted, such as inventory clicks, discard the player's count instead. A count
+ * that is too low is harmless, since a count that reaches zero is discarded and counted again.
+ * <p>
+ * The event handlers are registered only while at least one player is counted, so they cost nothing per event
+ * while no online player holds a death compass.
+ */
+final class CompassHoldings implements Listener
+{
+	private final ListenerCtx ctx;
+	private final Map<UUID, Integer> counts = new ConcurrentHashMap<>();
+	private boolean enabled;
+	private boolean listening;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param ctx the listener context
+	 */
+	CompassHoldings(final ListenerCtx ctx)
+	{
+		this.ctx = ctx;
+	}
+
+
+	/**
+	 * Enable the event handlers that keep the counts, registered while at least one player is counted
+	 *
+	 * @return this compass holdings index
+	 */
+	CompassHoldings register()
+	{
+		enabled = true;
+		listen();
+		return this;
+	}
+
+
+	/**
+	 * Check if a player holds at least one death compass
+	 *
+	 * @param player the player to check
+	 * @return {@code true} if the player inventory holds a death compass
+	 */
+	boolean contains(final Player player)
+	{
+		return count(player) > 0;
+	}
+
+
+	/**
+	 * Get the number of death compasses in a player inventory, counting the inventory if the player is not counted
+	 *
+	 * @param player the player whose death compasses are counted
+	 * @return the number of death compasses held by the player
+	 */
+	int count(final Player player)
+	{
+		final Integer count = counts.get(player.getUniqueId());
+		if (count != null)
+		{
+			return count;
+		}
+
+		final int scanned = scan(player);
+		if (scanned > 0)
+		{
+			counts.put(player.getUniqueId(), scanned);
+			listen();
+		}
+		return scanned;
+	}
+
+
+	/**
+	 * Adjust the count of a player by a number of compasses added to, or removed from, the player inventory
+	 *
+	 * @param player the player whose count is adjusted
+	 * @param amount the number of compasses added, or a negative number of compasses removed
+	 */
+	void add(final Player player, final int amount)
+	{
+		counts.computeIfPresent(player.getUniqueId(), (unused, count) -> (count + amount > 0) ? count + amount : null);
+		listen();
+	}
+
+
+	/**
+	 * Discard the count of a player, after all death compasses were removed from the player inventory
+	 *
+	 * @param player the player whose count is cleared
+	 */
+	void clear(final Player player)
+	{
+		invalidate(player);
+	}
+
+
+	/**
+	 * Discard the count of a player, so it is counted from the inventory the next time it is needed
+	 *
+	 * @param player the player whose count is discarded
+	 */
+	void invalidate(final Player player)
+	{
+		if (counts.remove(player.getUniqueId()) != null)
+		{
+			listen();
+		}
+	}
+
+
+	/**
+	 * Whether the event handlers are registered
+	 */
+	boolean isListening()
+	{
+		return listening;
+	}
+
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onPickup(final EntityPickupItemEvent event)
+	{
+		final ItemStack itemStack = event.getItem().getItemStack();
+		if (event.getEntity() instanceof Player player && isCounted(player) && ctx.items().isDeathCompass(itemStack))
+		{
+			add(player, itemStack.getAmount() - event.getRemaining());
+		}
+	}
+
+
+	/**
+	 * The dropped stack has left the inventory before the event is called, so it is counted at the lowest priority,
+	 * before the destroy-on-drop handler checks whether any compass is left
+	 */
+	@EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+	void onDrop(final PlayerDropItemEvent event)
+	{
+		final ItemStack itemStack = event.getItemDrop().getItemStack();
+		if (isCounted(event.getPlayer()) && ctx.items().isDeathCompass(itemStack))
+		{
+			add(event.getPlayer(), -itemStack.getAmount());
+		}
+	}
+
+
+	/**
+	 * A drop cancelled after it was counted returns the stack to the inventory
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onDropCancelled(final PlayerDropItemEvent event)
+	{
+		if (event.isCancelled() && ctx.items().isDeathCompassMaterial(event.getItemDrop().getItemStack()))
+		{
+			invalidate(event.getPlayer());
+		}
+	}
+
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onDeath(final PlayerDeathEvent event)
+	{
+		if (event.getKeepInventory())
+		{
+			return;
+		}
+		clear(event.getEntity());
+	}
+
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryClick(final InventoryClickEvent event)
+	{
+		if (isCounted(event.getWhoClicked())
+				&& (ctx.items().isDeathCompassMaterial(event.getCurrentItem())
+				|| ctx.items().isDeathCompassMaterial(event.getCursor())
+				|| event.getClick() == ClickType.NUMBER_KEY
+				|| event.getClick() == ClickType.SWAP_OFFHAND))
+		{
+			invalidate((Player) event.getWhoClicked());
+		}
+	}
+
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryDrag(final InventoryDragEvent event)
+	{
+		if (isCounted(event.getWhoClicked()) && ctx.items().isDeathCompassMaterial(event.getOldCursor()))
+		{
+			invalidate((Player) event.getWhoClicked());
+		}
+	}
+
+
+	/**
+	 * An item held on the cursor is returned to the inventory, or dropped if it does not fit, when it is closed
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onInventoryClose(final InventoryCloseEvent event)
+	{
+		if (isCounted(event.getPlayer()) && ctx.items().isDeathCompassMaterial(event.getView().getCursor()))
+		{
+			invalidate((Player) event.getPlayer());
+		}
+	}
+
+
+	/**
+	 * Items moved out of a player inventory by other plugins are not seen by the click handlers
+	 */
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryMoveItem(final InventoryMoveItemEvent event)
+	{
+		if (event.getSource().getType() == InventoryType.PLAYER
+				&& event.getSource().getHolder() instanceof Player player
+				&& isCounted(player)
+				&& ctx.items().isDeathCompassMaterial(event.getItem()))
+		{
+			invalidate(player);
+		}
+	}
+
+
+	/**
+	 * A compass may be placed in an item frame
+	 */
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInteractEntity(final PlayerInteractEntityEvent event)
+	{
+		if (isCounted(event.getPlayer())
+				&& ctx.items().isDeathCompassMaterial(event.getPlayer().getInventory().getItem(event.getHand())))
+		{
+			invalidate(event.getPlayer());
+		}
+	}
+
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onQuit(final PlayerQuitEvent event)
+	{
+		invalidate(event.getPlayer());
+	}
+
+
+	private boolean isCounted(final HumanEntity humanEntity)
+	{
+		return humanEntity instanceof Player && counts.containsKey(humanEntity.getUniqueId());
+	}
+
+
+	/**
+	 * Register the event handlers when the first player is counted, and unregister them when none is left.
+	 * Counts change only on the server thread, and a change made while an event is handled takes effect from
+	 * the next event.
+	 */
+	private void listen()
+	{
+		if (!enabled)
+		{
+			return;
+		}
+
+		if (!counts.isEmpty() && !listening)
+		{
+			ctx.plugin().getServer().getPluginManager().registerEvents(this, ctx.plugin());
+			listening = true;
+		}
+		else if (counts.isEmpty() && listening)
+		{
+			HandlerList.unregisterAll(this);
+			listening = false;
+		}
+	}
+
+
+	private int scan(final Player player)
+	{
+		int count = 0;
+		for (ItemStack itemStack : player.getInventory().getContents())
+		{
+			if (ctx.items().isDeathCompass(itemStack))
+			{
+				count += itemStack.getAmount();
+			}
+		}
+		return count;
+	}
+
+}
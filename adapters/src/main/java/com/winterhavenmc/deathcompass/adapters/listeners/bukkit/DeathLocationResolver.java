@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Resolves the death location of a player in the player's current world. The server keeps the location of each
+ * player's most recent death; when that death was in the player's current world it is also the player's latest
+ * death location there, and is used without a datastore lookup. Otherwise the datastore is queried.
+ * The number of lookups answered by each source is counted, and reported in the log in debug mode.
+ */
+final class DeathLocationResolver
+{
+	private final static long REPORT_INTERVAL = 1000;
+
+	private final ListenerCtx ctx;
+	private final LongAdder nativeHits = new LongAdder();
+	private final LongAdder storageLookups = new LongAdder();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param ctx the listener context
+	 */
+	DeathLocationResolver(final ListenerCtx ctx)
+	{
+		this.ctx = ctx;
+	}
+
+
+	/**
+	 * Get the death location of a player in the player's current world
+	 *
+	 * @param player the player
+	 * @return the death location, or an empty optional if the player has no death location in the current world
+	 */
+	Optional<Location> resolve(final Player player)
+	{
+		Objects.requireNonNull(player);
+
+		final World world = player.getWorld();
+
+		if (ctx.settings().get().nativeDeathLocation())
+		{
+			final Location lastDeathLocation = player.getLastDeathLocation();
+			if (lastDeathLocation != null
+					&& lastDeathLocation.getWorld() != null
+					&& lastDeathLocation.getWorld().getUID().equals(world.getUID()))
+			{
+				count(nativeHits);
+				return Optional.of(lastDeathLocation.clone());
+			}
+		}
+
+		count(storageLookups);
+		final DeathLocation deathLocation = ctx.datastore().deathLocations().getDeathLocation(player.getUniqueId(), world.getUID());
+		return (deathLocation instanceof ValidDeathLocation validDeathLocation)
+				? validDeathLocation.location()
+				: Optional.empty();
+	}
+
+
+	/**
+	 * Get the number of lookups answered from the server's last death location
+	 */
+	long nativeHits()
+	{
+		return nativeHits.sum();
+	}
+
+
+	/**
+	 * Get the number of lookups answered from the datastore
+	 */
+	long storageLookups()
+	{
+		return storageLookups.sum();
+	}
+
+
+	private void count(final LongAdder counter)
+	{
+		counter.increment();
+
+		final long nativeCount = nativeHits.sum();
+		final long storageCount = storageLookups.sum();
+		final long total = nativeCount + storageCount;
+		if (total % REPORT_INTERVAL == 0 && ctx.settings().get().debug())
+		{
+			ctx.plugin().getLogger().info(String.format("Death location lookups: %d, from last death location %.1f%%, from datastore %.1f%%.",
+					total, 100.0 * nativeCount / total, 100.0 * storageCount / total));
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.events.ConfigReloadEvent;
+import com.winterhavenmc.deathcompass.adapters.util.Settings;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+
+import java.util.function.Predicate;
+
+
+/**
+ * Registers the event handlers of an optional feature only while the feature is enabled in the configuration,
+ * so a disabled feature costs nothing per event. The handlers are registered or unregistered again when the
+ * configuration is reloaded; the reload runs on the server thread, so no event is handled in between.
+ */
+final class FeatureListener implements Listener
+{
+	private final ListenerCtx ctx;
+	private final Predicate<Settings> enabled;
+	private final Listener handlers;
+	private boolean registered;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param ctx the listener context
+	 * @param enabled tests whether the feature is enabled in the settings
+	 * @param handlers the event handlers of the feature
+	 */
+	FeatureListener(final ListenerCtx ctx, final Predicate<Settings> enabled, final Listener handlers)
+	{
+		this.ctx = ctx;
+		this.enabled = enabled;
+		this.handlers = handlers;
+	}
+
+
+	/**
+	 * Register the feature handlers if the feature is enabled, and listen for configuration reloads
+	 *
+	 * @return this feature listener
+	 */
+	FeatureListener register()
+	{
+		ctx.plugin().getServer().getPluginManager().registerEvents(this, ctx.plugin());
+		apply();
+		return this;
+	}
+
+
+	@EventHandler
+	void onConfigReload(final ConfigReloadEvent event)
+	{
+		apply();
+	}
+
+
+	/**
+	 * Whether the feature handlers are registered
+	 */
+	boolean isRegistered()
+	{
+		return registered;
+	}
+
+
+	private void apply()
+	{
+		final boolean enable = enabled.test(ctx.settings().get());
+		if (enable && !registered)
+		{
+			ctx.plugin().getServer().getPluginManager().registerEvents(handlers, ctx.plugin());
+			registered = true;
+		}
+		else if (!enable && registered)
+		{
+			HandlerList.unregisterAll(handlers);
+			registered = false;
+		}
+	}
+
+}
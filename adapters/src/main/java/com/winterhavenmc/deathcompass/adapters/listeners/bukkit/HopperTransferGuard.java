@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.events.ConfigReloadEvent;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Decides whether a hopper transfer moves a death compass, for servers with many hoppers. Items not of the death
+ * compass material are passed at once; every other item is checked, since a death compass may be put into any
+ * container at any time. In debug mode transfers are counted, and the counts reported each minute as rates per
+ * second; the report timer runs only while debug mode is enabled. Used on the server thread only.
+ */
+final class HopperTransferGuard implements Listener
+{
+	private final static long REPORT_INTERVAL_TICKS = 20 * 60;
+
+	private final ListenerCtx ctx;
+	private final LongAdder transfers = new LongAdder();
+	private final LongAdder identityChecks = new LongAdder();
+	private final LongAdder blocked = new LongAdder();
+	private long lastReportTime;
+	private BukkitTask reportTask;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param ctx the listener context
+	 */
+	HopperTransferGuard(final ListenerCtx ctx)
+	{
+		this.ctx = ctx;
+	}
+
+
+	/**
+	 * Report transfer rates each minute while debug mode is enabled, and listen for configuration reloads
+	 */
+	void startReports()
+	{
+		ctx.plugin().getServer().getPluginManager().registerEvents(this, ctx.plugin());
+		applyDebug();
+	}
+
+
+	@EventHandler
+	void onConfigReload(final ConfigReloadEvent event)
+	{
+		applyDebug();
+	}
+
+
+	/**
+	 * Whether the report timer is scheduled
+	 */
+	boolean isReporting()
+	{
+		return reportTask != null;
+	}
+
+
+	/**
+	 * Check whether a transfer moves a death compass
+	 *
+	 * @param event the transfer
+	 * @return {@code true} if the transfer moves a death compass and must be blocked
+	 */
+	boolean isBlocked(final InventoryMoveItemEvent event)
+	{
+		final boolean counting = reportTask != null;
+		if (counting)
+		{
+			transfers.increment();
+		}
+
+		// most transfers are rejected by the material of the item
+		final ItemStack itemStack = event.getItem();
+		if (!ctx.items().isDeathCompassMaterial(itemStack))
+		{
+			return false;
+		}
+
+		if (counting)
+		{
+			identityChecks.increment();
+		}
+		if (ctx.items().isDeathCompass(itemStack))
+		{
+			if (counting)
+			{
+				blocked.increment();
+			}
+			return true;
+		}
+
+		return false;
+	}
+
+
+	private void applyDebug()
+	{
+		final boolean debug = ctx.settings().get().debug();
+		if (debug && reportTask == null)
+		{
+			transfers.reset();
+			identityChecks.reset();
+			blocked.reset();
+			lastReportTime = System.nanoTime();
+			reportTask = ctx.plugin().getServer().getScheduler()
+					.runTaskTimer(ctx.plugin(), this::report, REPORT_INTERVAL_TICKS, REPORT_INTERVAL_TICKS);
+		}
+		else if (!debug && reportTask != null)
+		{
+			reportTask.cancel();
+			reportTask = null;
+		}
+	}
+
+
+	private void report()
+	{
+		final long now = System.nanoTime();
+		final double seconds = Math.max(1, now - lastReportTime) / 1_000_000_000.0;
+		lastReportTime = now;
+
+		final long transferCount = transfers.sumThenReset();
+		final long identityCount = identityChecks.sumThenReset();
+		final long blockedCount = blocked.sumThenReset();
+
+		ctx.plugin().getLogger().info(String.format("Hopper transfers: %.1f/s, death compass checks %.1f/s, blocked %.1f/s.",
+				transferCount / seconds, identityCount / seconds, blockedCount / seconds));
+	}
+
+}
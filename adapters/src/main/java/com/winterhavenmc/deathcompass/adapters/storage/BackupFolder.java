@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+/**
+ * Names, completes and rotates timestamped datastore backup files in the plugin backups folder
+ */
+public final class BackupFolder
+{
+	private final static String BACKUP_FOLDER = "backups";
+	private final static String BACKUP_PREFIX = "deathlocations-";
+	private final static String TEMPORARY_EXTENSION = ".tmp";
+	private final static DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+	private final Plugin plugin;
+	private final Path folder;
+	private final String extension;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param extension the file extension of backup files, including the leading dot
+	 */
+	public BackupFolder(final Plugin plugin, final String extension)
+	{
+		this.plugin = plugin;
+		this.folder = plugin.getDataFolder().toPath().resolve(BACKUP_FOLDER);
+		this.extension = extension;
+	}
+
+
+	/**
+	 * Class constructor for backups kept in a subfolder of the plugin backups folder, and rotated separately
+	 *
+	 * @param plugin instance of main class
+	 * @param subfolder the name of the subfolder
+	 * @param extension the file extension of backup files, including the leading dot
+	 */
+	public BackupFolder(final Plugin plugin, final String subfolder, final String extension)
+	{
+		this.plugin = plugin;
+		this.folder = plugin.getDataFolder().toPath().resolve(BACKUP_FOLDER).resolve(subfolder);
+		this.extension = extension;
+	}
+
+
+	/**
+	 * Get the path for a new backup file, named for the current time, creating the backups folder if necessary
+	 *
+	 * @return the path of the new backup file
+	 * @throws IOException if the backups folder could not be created
+	 */
+	public Path newBackupPath() throws IOException
+	{
+		Files.createDirectories(folder);
+		return folder.resolve(BACKUP_PREFIX + LocalDateTime.now().format(TIMESTAMP) + extension);
+	}
+
+
+	/**
+	 * Get the temporary path that a backup is written to before it is complete
+	 *
+	 * @param backupPath the path of the backup file
+	 * @return the temporary path
+	 */
+	public Path temporaryPath(final Path backupPath)
+	{
+		return backupPath.resolveSibling(backupPath.getFileName() + TEMPORARY_EXTENSION);
+	}
+
+
+	/**
+	 * Move a completed backup from its temporary path into place
+	 *
+	 * @param backupPath the path of the backup file
+	 * @throws IOException if the file could not be moved
+	 */
+	public void complete(final Path backupPath) throws IOException
+	{
+		try
+		{
+			Files.move(temporaryPath(backupPath), backupPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException exception)
+		{
+			Files.move(temporaryPath(backupPath), backupPath, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+
+	/**
+	 * Remove the oldest backup files beyond the configured number to keep, and any temporary files
+	 * left by an interrupted backup
+	 */
+	public void rotate()
+	{
+		final int keep = Math.max(1, plugin.getConfig().getInt("storage.backup.keep", 24));
+
+		final List<Path> backups;
+		try (final Stream<Path> files = Files.list(folder))
+		{
+			backups = files.filter(path -> path.getFileName().toString().startsWith(BACKUP_PREFIX)).sorted().toList();
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			return;
+		}
+
+		// file names sort by timestamp, oldest first
+		final List<Path> completed = backups.stream().filter(path -> path.toString().endsWith(extension)).toList();
+		final Stream<Path> expired = completed.stream().limit(Math.max(0, completed.size() - keep));
+		final Stream<Path> abandoned = backups.stream().filter(path -> path.toString().endsWith(TEMPORARY_EXTENSION));
+
+		Stream.concat(expired, abandoned).forEach(this::deleteQuietly);
+	}
+
+
+	/**
+	 * Delete a file, logging rather than throwing if it cannot be removed
+	 *
+	 * @param path the file to delete
+	 */
+	public void deleteQuietly(final Path path)
+	{
+		try
+		{
+			Files.deleteIfExists(path);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	/**
+	 * Get the size of a file, or zero if it cannot be read
+	 *
+	 * @param path the file
+	 * @return the size of the file in bytes
+	 */
+	public static long sizeOf(final Path path)
+	{
+		try
+		{
+			return Files.size(path);
+		}
+		catch (IOException exception)
+		{
+			return 0;
+		}
+	}
+
+}
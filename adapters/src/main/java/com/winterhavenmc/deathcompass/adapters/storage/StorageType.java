@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.jdbc.JdbcConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.mappedlog.MappedLogConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.memory.MemoryConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.migration.MigrationConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.pdc.PdcConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteCheckpointConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteConnectionProvider;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+
+/**
+ * The available datastore implementations, selected by the {@code storage.type} configuration setting
+ */
+public enum StorageType
+{
+	SQLITE("sqlite", SqliteConnectionProvider::new),
+	MAPPED_LOG("log", MappedLogConnectionProvider::new),
+	MEMORY("memory", MemoryConnectionProvider::new),
+	CHECKPOINT("checkpoint", SqliteCheckpointConnectionProvider::new),
+	JDBC("jdbc", JdbcConnectionProvider::new),
+	MIGRATION("migration", MigrationConnectionProvider::new),
+	PDC("pdc", PdcConnectionProvider::new),
+	;
+
+	private final String configName;
+	private final Function<Plugin, ConnectionProvider> factory;
+
+
+	StorageType(final String configName, final Function<Plugin, ConnectionProvider> factory)
+	{
+		this.configName = configName;
+		this.factory = factory;
+	}
+
+
+	/**
+	 * Get the storage type named in the plugin configuration, or SQLite if the setting is missing or invalid
+	 *
+	 * @param plugin instance of main class
+	 * @return the configured storage type
+	 */
+	public static StorageType fromConfig(final Plugin plugin)
+	{
+		final String configName = plugin.getConfig().getString("storage.type", SQLITE.configName);
+
+		return named(configName)
+				.orElseGet(() ->
+				{
+					plugin.getLogger().warning("Unknown storage type '" + configName + "'. Using " + SQLITE.configName + ".");
+					return SQLITE;
+				});
+	}
+
+
+	/**
+	 * Get the storage type with a configuration name
+	 *
+	 * @param configName the name of the storage type in the plugin configuration
+	 * @return the storage type, or an empty optional if no storage type has the name
+	 */
+	public static Optional<StorageType> named(final String configName)
+	{
+		return Arrays.stream(values())
+				.filter(storageType -> storageType.configName.equalsIgnoreCase(configName))
+				.findFirst();
+	}
+
+
+	/**
+	 * Create a connection provider for this storage type
+	 *
+	 * @param plugin instance of main class
+	 * @return a new, unconnected connection provider
+	 */
+	public ConnectionProvider createProvider(final Plugin plugin)
+	{
+		return factory.apply(plugin);
+	}
+
+
+	/**
+	 * Get the name of this storage type in the plugin configuration
+	 */
+	public String configName()
+	{
+		return configName;
+	}
+
+}
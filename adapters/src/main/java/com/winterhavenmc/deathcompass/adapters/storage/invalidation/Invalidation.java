@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import java.util.UUID;
+
+
+/**
+ * A change to stored death locations that makes cached copies stale. A null player or world matches
+ * every player or world, so one invalidation can cover the records removed by a bulk delete.
+ *
+ * @param playerUid the player whose death location changed, or null for all players
+ * @param worldUid the world of the changed death location, or null for all worlds
+ */
+public record Invalidation(UUID playerUid, UUID worldUid)
+{
+	private final static Invalidation ALL = new Invalidation(null, null);
+
+
+	/**
+	 * Get an invalidation of the death location of a player in a world
+	 */
+	public static Invalidation of(final UUID playerUid, final UUID worldUid)
+	{
+		return new Invalidation(playerUid, worldUid);
+	}
+
+
+	/**
+	 * Get an invalidation of all death locations of a player
+	 */
+	public static Invalidation ofPlayer(final UUID playerUid)
+	{
+		return new Invalidation(playerUid, null);
+	}
+
+
+	/**
+	 * Get an invalidation of all death locations in a world
+	 */
+	public static Invalidation ofWorld(final UUID worldUid)
+	{
+		return new Invalidation(null, worldUid);
+	}
+
+
+	/**
+	 * Get an invalidation of all death locations
+	 */
+	public static Invalidation all()
+	{
+		return ALL;
+	}
+
+
+	/**
+	 * Check whether this invalidation covers any death location of a player
+	 *
+	 * @param playerUid the player UUID
+	 * @return true if cached death locations of the player may be stale
+	 */
+	public boolean affects(final UUID playerUid)
+	{
+		return this.playerUid == null || this.playerUid.equals(playerUid);
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * A batch of invalidations published by one node, with its binary encoding for transports that leave the process.
+ * <p>
+ * Encoding: magic int, version byte, source node UUID (two longs), entry count short, then for each entry
+ * a flags byte (bit 0: player present, bit 1: world present) followed by the present UUIDs as pairs of longs.
+ *
+ * @param sourceNode the node that published the batch
+ * @param invalidations the invalidations, without duplicates
+ */
+public record InvalidationBatch(UUID sourceNode, List<Invalidation> invalidations)
+{
+	final static int MAGIC = 0x44434956; // "DCIV"
+	final static byte VERSION = 1;
+	final static int HEADER_BYTES = Integer.BYTES + Byte.BYTES + 2 * Long.BYTES + Short.BYTES;
+	final static int MAX_ENTRY_BYTES = Byte.BYTES + 4 * Long.BYTES;
+
+	private final static int PLAYER_PRESENT = 1;
+	private final static int WORLD_PRESENT = 2;
+
+
+	public InvalidationBatch
+	{
+		invalidations = List.copyOf(invalidations);
+	}
+
+
+	/**
+	 * Encode the batch into a new buffer, ready to be read
+	 *
+	 * @return the encoded batch
+	 */
+	public ByteBuffer encode()
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + invalidations.size() * MAX_ENTRY_BYTES);
+		buffer.putInt(MAGIC);
+		buffer.put(VERSION);
+		buffer.putLong(sourceNode.getMostSignificantBits());
+		buffer.putLong(sourceNode.getLeastSignificantBits());
+		buffer.putShort((short) invalidations.size());
+
+		for (Invalidation invalidation : invalidations)
+		{
+			final int flags = ((invalidation.playerUid() != null) ? PLAYER_PRESENT : 0)
+					| ((invalidation.worldUid() != null) ? WORLD_PRESENT : 0);
+			buffer.put((byte) flags);
+			if (invalidation.playerUid() != null)
+			{
+				buffer.putLong(invalidation.playerUid().getMostSignificantBits());
+				buffer.putLong(invalidation.playerUid().getLeastSignificantBits());
+			}
+			if (invalidation.worldUid() != null)
+			{
+				buffer.putLong(invalidation.worldUid().getMostSignificantBits());
+				buffer.putLong(invalidation.worldUid().getLeastSignificantBits());
+			}
+		}
+
+		return buffer.flip();
+	}
+
+
+	/**
+	 * Decode a batch from a buffer
+	 *
+	 * @param buffer the buffer, positioned at the start of an encoded batch
+	 * @return the decoded batch
+	 * @throws IllegalArgumentException if the buffer does not hold a complete batch of a known version
+	 */
+	public static InvalidationBatch decode(final ByteBuffer buffer)
+	{
+		try
+		{
+			if (buffer.getInt() != MAGIC || buffer.get() != VERSION)
+			{
+				throw new IllegalArgumentException("Not an invalidation batch.");
+			}
+
+			final UUID sourceNode = new UUID(buffer.getLong(), buffer.getLong());
+			final int count = Short.toUnsignedInt(buffer.getShort());
+			final List<Invalidation> invalidations = new ArrayList<>(count);
+			for (int i = 0; i < count; i++)
+			{
+				final int flags = buffer.get();
+				final UUID playerUid = ((flags & PLAYER_PRESENT) != 0) ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+				final UUID worldUid = ((flags & WORLD_PRESENT) != 0) ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+				invalidations.add(new Invalidation(playerUid, worldUid));
+			}
+
+			return new InvalidationBatch(sourceNode, invalidations);
+		}
+		catch (BufferUnderflowException exception)
+		{
+			throw new IllegalArgumentException("Truncated invalidation batch.", exception);
+		}
+	}
+
+}
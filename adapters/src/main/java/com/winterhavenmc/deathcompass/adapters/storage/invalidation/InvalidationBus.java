@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+
+/**
+ * Publishes changes to stored death locations to the other nodes that share a datastore, and passes the changes
+ * they publish to local subscribers, so each node can evict or reload its cached copies.
+ * <p>
+ * Published invalidations are collected and sent in batches, at the configured flush interval or as soon as
+ * a full batch is waiting. Duplicates within a batch are sent once, and an invalidation of all death locations
+ * replaces the rest of the batch. Batches published by this node are not passed to its own subscribers.
+ */
+public final class InvalidationBus
+{
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final InvalidationTransport transport;
+	private final long flushIntervalMillis;
+	private final UUID nodeId = UUID.randomUUID();
+	private final Set<Invalidation> pending = new LinkedHashSet<>();
+	private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+	private ScheduledExecutorService flushExecutor;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param transport the transport that carries batches to the other nodes
+	 * @param flushIntervalMillis the longest time a published invalidation waits to be sent, in milliseconds
+	 */
+	public InvalidationBus(final Plugin plugin,
+	                       final ConfigRepository configRepository,
+	                       final InvalidationTransport transport,
+	                       final long flushIntervalMillis)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.transport = transport;
+		this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+	}
+
+
+	/**
+	 * Create and open a bus on the transport named by the {@code storage.invalidation} configuration settings
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @return the open bus, or an empty optional if invalidation is disabled or the transport could not be opened
+	 */
+	public static Optional<InvalidationBus> fromConfig(final Plugin plugin, final ConfigRepository configRepository)
+	{
+		final String transportName = plugin.getConfig().getString("storage.invalidation.transport", "none");
+		if (transportName.equalsIgnoreCase("none"))
+		{
+			return Optional.empty();
+		}
+		if (!transportName.equalsIgnoreCase("udp"))
+		{
+			plugin.getLogger().warning(InvalidationMessage.TRANSPORT_UNKNOWN_NOTICE.getLocalizedMessage(configRepository.locale(), transportName));
+			return Optional.empty();
+		}
+
+		final InetSocketAddress bindAddress = new InetSocketAddress(
+				plugin.getConfig().getString("storage.invalidation.bind-address", "127.0.0.1"),
+				plugin.getConfig().getInt("storage.invalidation.port", 25700));
+		final List<InetSocketAddress> peers = new ArrayList<>();
+		for (String peer : plugin.getConfig().getStringList("storage.invalidation.peers"))
+		{
+			parsePeer(peer).ifPresentOrElse(peers::add, () -> plugin.getLogger()
+					.warning(InvalidationMessage.PEER_INVALID_NOTICE.getLocalizedMessage(configRepository.locale(), peer)));
+		}
+
+		final InvalidationBus bus = new InvalidationBus(plugin, configRepository,
+				new UdpInvalidationTransport(bindAddress, peers, plugin.getName() + "-Invalidation-Receiver"),
+				plugin.getConfig().getLong("storage.invalidation.flush-interval", 100));
+		try
+		{
+			bus.open();
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(InvalidationMessage.TRANSPORT_OPEN_ERROR.getLocalizedMessage(configRepository.locale()));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			bus.close();
+			return Optional.empty();
+		}
+
+		plugin.getLogger().info(InvalidationMessage.TRANSPORT_OPEN_NOTICE.getLocalizedMessage(configRepository.locale(), "udp"));
+		return Optional.of(bus);
+	}
+
+
+	private static Optional<InetSocketAddress> parsePeer(final String peer)
+	{
+		final int separator = peer.lastIndexOf(':');
+		if (separator < 1)
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			return Optional.of(new InetSocketAddress(peer.substring(0, separator), Integer.parseInt(peer.substring(separator + 1))));
+		}
+		catch (IllegalArgumentException exception)
+		{
+			return Optional.empty();
+		}
+	}
+
+
+	/**
+	 * Open the transport and start sending batches at the flush interval
+	 *
+	 * @throws IOException if the transport could not be opened
+	 */
+	public void open() throws IOException
+	{
+		flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Invalidation");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		transport.open(this::receive);
+		flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+
+	/**
+	 * Queue an invalidation to be sent to the other nodes
+	 *
+	 * @param invalidation the invalidation
+	 */
+	public void publish(final Invalidation invalidation)
+	{
+		final boolean full;
+		synchronized (pending)
+		{
+			if (pending.contains(Invalidation.all()))
+			{
+				return;
+			}
+			if (invalidation.equals(Invalidation.all()))
+			{
+				pending.clear();
+			}
+			pending.add(invalidation);
+			full = pending.size() >= transport.maxBatchSize();
+		}
+
+		if (full)
+		{
+			try
+			{
+				flushExecutor.execute(this::flush);
+			}
+			catch (RejectedExecutionException exception)
+			{
+				// the bus is closing, and sends what is pending when it closes
+			}
+		}
+	}
+
+
+	/**
+	 * Register a subscriber for invalidations published by other nodes. Subscribers are called on
+	 * the transport's receiving thread, and should hand any slow work to another thread.
+	 *
+	 * @param subscriber the subscriber
+	 */
+	public void subscribe(final Consumer<Invalidation> subscriber)
+	{
+		subscribers.add(subscriber);
+	}
+
+
+	/**
+	 * Send the pending invalidations, in batches no larger than the transport allows
+	 */
+	public void flush()
+	{
+		final List<Invalidation> invalidations;
+		synchronized (pending)
+		{
+			if (pending.isEmpty())
+			{
+				return;
+			}
+			invalidations = new ArrayList<>(pending);
+			pending.clear();
+		}
+
+		final int maxBatchSize = transport.maxBatchSize();
+		try
+		{
+			for (int start = 0; start < invalidations.size(); start += maxBatchSize)
+			{
+				transport.send(new InvalidationBatch(nodeId,
+						invalidations.subList(start, Math.min(invalidations.size(), start + maxBatchSize))));
+			}
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(InvalidationMessage.SEND_ERROR.getLocalizedMessage(configRepository.locale()));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	private void receive(final InvalidationBatch batch)
+	{
+		if (batch.sourceNode().equals(nodeId))
+		{
+			return;
+		}
+
+		for (Invalidation invalidation : new LinkedHashSet<>(batch.invalidations()))
+		{
+			subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+		}
+	}
+
+
+	/**
+	 * Send any pending invalidations, then close the transport
+	 */
+	public void close()
+	{
+		if (flushExecutor != null)
+		{
+			flushExecutor.shutdown();
+			try
+			{
+				if (!flushExecutor.awaitTermination(10, TimeUnit.SECONDS))
+				{
+					flushExecutor.shutdownNow();
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				flushExecutor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+			flush();
+		}
+
+		transport.close();
+	}
+
+}
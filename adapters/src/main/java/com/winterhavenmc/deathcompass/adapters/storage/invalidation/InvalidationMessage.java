@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+
+public enum InvalidationMessage
+{
+	TRANSPORT_OPEN_NOTICE("Cache invalidation bus opened on the {0} transport."),
+	TRANSPORT_OPEN_ERROR("The cache invalidation bus could not be opened. Cached death locations will not be invalidated by other servers."),
+	TRANSPORT_UNKNOWN_NOTICE("Unknown cache invalidation transport ''{0}''. Cache invalidation is disabled."),
+	PEER_INVALID_NOTICE("Invalid cache invalidation peer ''{0}'' ignored."),
+	SEND_ERROR("An error occurred while sending cache invalidations to other servers."),
+	;
+
+	private final String defaultMessage;
+
+
+	InvalidationMessage(final String defaultMessage)
+	{
+		this.defaultMessage = defaultMessage;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return defaultMessage;
+	}
+
+
+	public String getLocalizedMessage(final Locale locale)
+	{
+		try
+		{
+			ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			return bundle.getString(name());
+		}
+		catch (MissingResourceException exception)
+		{
+			return this.defaultMessage;
+		}
+	}
+
+
+	public String getLocalizedMessage(final Locale locale, final Object... objects)
+	{
+		try
+		{
+			final ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			String pattern = bundle.getString(name());
+			return MessageFormat.format(pattern, objects);
+		}
+		catch (MissingResourceException exception)
+		{
+			return MessageFormat.format(this.defaultMessage, objects);
+		}
+	}
+
+}
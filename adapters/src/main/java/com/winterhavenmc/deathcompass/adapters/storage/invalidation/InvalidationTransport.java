@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+
+/**
+ * Carries invalidation batches between the nodes that share a datastore
+ */
+public interface InvalidationTransport
+{
+	/**
+	 * Start delivering batches sent by other nodes to a receiver. Batches sent by this node may also be delivered.
+	 * The receiver may be called on a thread owned by the transport.
+	 *
+	 * @param receiver the receiver of delivered batches
+	 * @throws IOException if the transport could not be opened
+	 */
+	void open(Consumer<InvalidationBatch> receiver) throws IOException;
+
+
+	/**
+	 * Send a batch to every node
+	 *
+	 * @param batch the batch to send, of no more than {@link #maxBatchSize()} invalidations
+	 * @throws IOException if the batch could not be sent
+	 */
+	void send(InvalidationBatch batch) throws IOException;
+
+
+	/**
+	 * Get the largest number of invalidations the transport can send in one batch
+	 */
+	int maxBatchSize();
+
+
+	/**
+	 * Stop delivering batches and release the transport's resources
+	 */
+	void close();
+}
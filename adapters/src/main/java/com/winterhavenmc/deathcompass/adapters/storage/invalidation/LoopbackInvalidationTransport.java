@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+
+/**
+ * An invalidation transport between buses in the same process, which delivers each batch to every
+ * transport opened on the same channel on the sending thread
+ */
+public final class LoopbackInvalidationTransport implements InvalidationTransport
+{
+	private final Channel channel;
+	private Consumer<InvalidationBatch> receiver;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param channel the channel shared by the connected transports
+	 */
+	public LoopbackInvalidationTransport(final Channel channel)
+	{
+		this.channel = channel;
+	}
+
+
+	@Override
+	public void open(final Consumer<InvalidationBatch> receiver)
+	{
+		this.receiver = receiver;
+		channel.receivers.add(receiver);
+	}
+
+
+	@Override
+	public void send(final InvalidationBatch batch)
+	{
+		channel.receivers.forEach(channelReceiver -> channelReceiver.accept(batch));
+	}
+
+
+	@Override
+	public int maxBatchSize()
+	{
+		return 1024;
+	}
+
+
+	@Override
+	public void close()
+	{
+		if (receiver != null)
+		{
+			channel.receivers.remove(receiver);
+		}
+	}
+
+
+	/**
+	 * The in-process channel that connects loopback transports
+	 */
+	public static final class Channel
+	{
+		private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+
+/**
+ * An invalidation transport that sends each batch as a UDP datagram to a fixed list of peers, and receives
+ * batches on a local port. Datagrams may be lost, so a node can miss an invalidation; batches are kept
+ * small enough to fit in one datagram without fragmentation. Datagrams from any address other than a peer's
+ * are dropped, so only the listed peers can make this node reload death locations.
+ */
+public final class UdpInvalidationTransport implements InvalidationTransport
+{
+	private final static int MAX_DATAGRAM_BYTES = 1400;
+
+	private final InetSocketAddress bindAddress;
+	private final List<InetSocketAddress> peers;
+	private final Set<InetAddress> peerAddresses;
+	private final String threadName;
+	private DatagramSocket socket;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param bindAddress the local address to receive batches on; port 0 binds an ephemeral port
+	 * @param peers the addresses of the other nodes
+	 * @param threadName the name of the receiving thread
+	 */
+	public UdpInvalidationTransport(final InetSocketAddress bindAddress, final List<InetSocketAddress> peers, final String threadName)
+	{
+		this.bindAddress = bindAddress;
+		this.peers = List.copyOf(peers);
+		this.peerAddresses = peers.stream()
+				.map(InetSocketAddress::getAddress)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toUnmodifiableSet());
+		this.threadName = threadName;
+	}
+
+
+	@Override
+	public void open(final Consumer<InvalidationBatch> receiver) throws IOException
+	{
+		socket = new DatagramSocket(bindAddress);
+
+		final Thread thread = new Thread(() -> receive(receiver), threadName);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+
+	private void receive(final Consumer<InvalidationBatch> receiver)
+	{
+		final byte[] bytes = new byte[MAX_DATAGRAM_BYTES];
+		while (!socket.isClosed())
+		{
+			final DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+			try
+			{
+				socket.receive(packet);
+				if (!isPeer(packet.getAddress()))
+				{
+					continue;
+				}
+				receiver.accept(InvalidationBatch.decode(ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength())));
+			}
+			catch (SocketException exception)
+			{
+				// socket closed
+				return;
+			}
+			catch (IOException | IllegalArgumentException exception)
+			{
+				// a damaged or foreign datagram is dropped
+			}
+		}
+	}
+
+
+	/**
+	 * Check whether a datagram source is one of the peers; the source port is not checked,
+	 * since a peer behind address translation may send from another port
+	 *
+	 * @param address the source address of a datagram
+	 * @return true if the address is the address of a peer
+	 */
+	boolean isPeer(final InetAddress address)
+	{
+		return peerAddresses.contains(address);
+	}
+
+
+	@Override
+	public void send(final InvalidationBatch batch) throws IOException
+	{
+		final ByteBuffer buffer = batch.encode();
+		for (InetSocketAddress peer : peers)
+		{
+			socket.send(new DatagramPacket(buffer.array(), buffer.arrayOffset(), buffer.limit(), peer));
+		}
+	}
+
+
+	@Override
+	public int maxBatchSize()
+	{
+		return (MAX_DATAGRAM_BYTES - InvalidationBatch.HEADER_BYTES) / InvalidationBatch.MAX_ENTRY_BYTES;
+	}
+
+
+	/**
+	 * Get the local port that batches are received on
+	 *
+	 * @return the bound port, or -1 if the transport is not open
+	 */
+	public int localPort()
+	{
+		return (socket != null) ? socket.getLocalPort() : -1;
+	}
+
+
+	@Override
+	public void close()
+	{
+		if (socket != null)
+		{
+			socket.close();
+		}
+	}
+
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.jdbc;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.invalidation.InvalidationBus;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+
+/**
+ * Provides a death location datastore on a MySQL, MariaDB or PostgreSQL server, reached through a pool
+ * of JDBC connections. The database server is responsible for its own backups.
+ * <p>
+ * The server provides the MySQL driver. Other drivers are loaded only when this datastore is selected,
+ * from the jar files in the plugin's {@code lib} folder, such as the drivers jar built by the jdbc-drivers module.
+ */
+public final class JdbcConnectionProvider implements ConnectionProvider
+{
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final JdbcDialect dialect;
+	private URLClassLoader driverClassLoader;
+	private HikariDataSource dataSource;
+	private ExecutorService storageExecutor;
+	private JdbcDeathLocationRepository deathLocationRepository;
+	private InvalidationBus invalidationBus;
+	private boolean initialized;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 */
+	public JdbcConnectionProvider(final Plugin plugin)
+	{
+		this.plugin = plugin;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.dialect = JdbcDialect.fromConfig(plugin, configRepository);
+	}
+
+
+	@Override
+	public ConnectionProvider connect()
+	{
+		try
+		{
+			initialize();
+		}
+		catch (Exception exception)
+		{
+			plugin.getLogger().severe("Could not initialize the datastore!");
+			plugin.getLogger().severe(exception.getLocalizedMessage());
+		}
+
+		return this;
+	}
+
+
+	/**
+	 * Open the connection pool and create the death location table, if it does not already exist
+	 *
+	 * @throws SQLException if the database could not be reached or the table could not be created
+	 */
+	private void initialize() throws SQLException
+	{
+		// if data store is already initialized, log and return
+		if (this.initialized)
+		{
+			plugin.getLogger().info(JdbcMessage.DATASTORE_INITIALIZE_ERROR.getLocalizedMessage(configRepository.locale(), dialect.displayName()));
+			return;
+		}
+
+		final String url = plugin.getConfig().getString("storage.jdbc.url", "");
+		if (url.isBlank())
+		{
+			throw new SQLException(JdbcMessage.DATASTORE_URL_MISSING_ERROR.getLocalizedMessage(configRepository.locale(), dialect.displayName()));
+		}
+
+		final String configDriverClassName = plugin.getConfig().getString("storage.jdbc.driver", "");
+		final String driverClassName = configDriverClassName.isBlank() ? dialect.driverClassName() : configDriverClassName;
+
+		// the pool finds the driver through the context class loader
+		final ClassLoader classLoader = openDriverClassLoader();
+		try
+		{
+			Class.forName(driverClassName, false, classLoader);
+		}
+		catch (ClassNotFoundException exception)
+		{
+			closeDriverClassLoader();
+			throw new SQLException(JdbcMessage.DATASTORE_DRIVER_MISSING_ERROR.getLocalizedMessage(configRepository.locale(),
+					dialect.displayName(), driverClassName, libFolder().getPath()));
+		}
+
+		final Thread thread = Thread.currentThread();
+		final ClassLoader contextClassLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(classLoader);
+		try
+		{
+			final HikariConfig hikariConfig = new HikariConfig();
+			hikariConfig.setPoolName(plugin.getName() + "-Pool");
+			hikariConfig.setJdbcUrl(url);
+			hikariConfig.setDriverClassName(driverClassName);
+			hikariConfig.setUsername(plugin.getConfig().getString("storage.jdbc.username", ""));
+			hikariConfig.setPassword(plugin.getConfig().getString("storage.jdbc.password", ""));
+			hikariConfig.setMaximumPoolSize(Math.max(2, plugin.getConfig().getInt("storage.jdbc.pool-size", 4)));
+			hikariConfig.setConnectionTimeout(Duration.ofSeconds(Math.max(1, plugin.getConfig().getLong("storage.jdbc.connection-timeout", 10))).toMillis());
+			dialect.driverProperties().forEach(hikariConfig::addDataSourceProperty);
+			dataSource = new HikariDataSource(hikariConfig);
+		}
+		finally
+		{
+			thread.setContextClassLoader(contextClassLoader);
+		}
+
+		try
+		{
+			createSchema();
+		}
+		catch (SQLException sqlException)
+		{
+			plugin.getLogger().warning(JdbcMessage.CREATE_SCHEMA_ERROR.getLocalizedMessage(configRepository.locale(), dialect.displayName()));
+			dataSource.close();
+			closeDriverClassLoader();
+			throw sqlException;
+		}
+
+		// create single thread executor for datastore operations that run off the server thread
+		storageExecutor = Executors.newSingleThreadExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		deathLocationRepository = new JdbcDeathLocationRepository(plugin, configRepository, dataSource, dialect,
+				JdbcQueries.of(dialect), storageExecutor);
+		plugin.getServer().getPluginManager().registerEvents(deathLocationRepository, plugin);
+
+		// tell other servers sharing the database of this server's writes, if configured
+		invalidationBus = InvalidationBus.fromConfig(plugin, configRepository).orElse(null);
+		if (invalidationBus != null)
+		{
+			deathLocationRepository.attachInvalidationBus(invalidationBus);
+		}
+
+		// load players already online, as after a reload
+		plugin.getServer().getOnlinePlayers().forEach(player ->
+				storageExecutor.execute(() -> deathLocationRepository.loadPlayer(player.getUniqueId())));
+
+		// set initialized true
+		this.initialized = true;
+		plugin.getLogger().info(JdbcMessage.DATASTORE_INITIALIZE_NOTICE.getLocalizedMessage(configRepository.locale(), dialect.displayName()));
+	}
+
+
+	private File libFolder()
+	{
+		return new File(plugin.getDataFolder(), "lib");
+	}
+
+
+	/**
+	 * Open a class loader over the jar files in the lib folder, or use the plugin class loader if there are none
+	 */
+	private ClassLoader openDriverClassLoader() throws SQLException
+	{
+		final File[] jarFiles = libFolder().listFiles((folder, name) -> name.endsWith(".jar"));
+		if (jarFiles == null || jarFiles.length == 0)
+		{
+			return getClass().getClassLoader();
+		}
+
+		final List<URL> urls = new ArrayList<>();
+		try
+		{
+			for (File jarFile : jarFiles)
+			{
+				urls.add(jarFile.toURI().toURL());
+			}
+		}
+		catch (MalformedURLException exception)
+		{
+			throw new SQLException(exception);
+		}
+
+		driverClassLoader = new URLClassLoader(urls.toArray(URL[]::new), getClass().getClassLoader());
+		return driverClassLoader;
+	}
+
+
+	private void closeDriverClassLoader()
+	{
+		if (driverClassLoader != null)
+		{
+			try
+			{
+				driverClassLoader.close();
+			}
+			catch (IOException exception)
+			{
+				// the jar files are released when the class loader is collected
+			}
+			driverClassLoader = null;
+		}
+	}
+
+
+	private void createSchema() throws SQLException
+	{
+		final JdbcQueries queries = JdbcQueries.of(dialect);
+
+		try (final Connection connection = dataSource.getConnection();
+		     final Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate(queries.getQuery("CreateDeathLocationTable"));
+			for (String indexQuery : List.of("CreateWorldIndex", "CreateDeathTimeIndex"))
+			{
+				// dialects that create indexes with the table leave these queries blank
+				final String sql = queries.getQuery(indexQuery);
+				if (!sql.isBlank())
+				{
+					statement.executeUpdate(sql);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Close the connection pool, after queued writes finish
+	 */
+	@Override
+	public void close()
+	{
+		if (deathLocationRepository != null)
+		{
+			HandlerList.unregisterAll(deathLocationRepository);
+		}
+
+		if (storageExecutor != null)
+		{
+			storageExecutor.shutdown();
+			try
+			{
+				if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS))
+				{
+					storageExecutor.shutdownNow();
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				storageExecutor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		// after the storage executor, so invalidations for the last writes are sent
+		if (invalidationBus != null)
+		{
+			invalidationBus.close();
+			invalidationBus = null;
+		}
+
+		if (dataSource != null && !dataSource.isClosed())
+		{
+			dataSource.close();
+			plugin.getLogger().info(JdbcMessage.DATASTORE_CLOSE_NOTICE.getLocalizedMessage(configRepository.locale(), dialect.displayName()));
+		}
+
+		// after the pool, whose connections use classes of the driver
+		closeDriverClassLoader();
+
+		initialized = false;
+	}
+
+
+	/**
+	 * Get instance of DeathLocationRepository
+	 */
+	@Override
+	public DeathLocationRepository deathLocations()
+	{
+		return this.deathLocationRepository;
+	}
+
+
+	/**
+	 * The database is backed up by its server, so the plugin does not make backups of it
+	 */
+	@Override
+	public CompletableFuture<DatastoreBackup> backup()
+	{
+		return CompletableFuture.failedFuture(new UnsupportedOperationException(
+				JdbcMessage.BACKUP_UNSUPPORTED_ERROR.getLocalizedMessage(configRepository.locale(), dialect.displayName())));
+	}
+
+
+	/**
+	 * Report the number of stored records; the size of the table is known only to the database server
+	 */
+	@Override
+	public CompletableFuture<List<DatastoreTier>> tiers()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.completedFuture(List.of());
+		}
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			try
+			{
+				return List.of(new DatastoreTier(dialect.displayName(), deathLocationRepository.count(), 0));
+			}
+			catch (SQLException sqlException)
+			{
+				throw new CompletionException(sqlException);
+			}
+		}, storageExecutor);
+	}
+
+}
@@ -0,0 +1,862 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.jdbc;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.adapters.storage.invalidation.Invalidation;
+import com.winterhavenmc.deathcompass.adapters.storage.invalidation.InvalidationBus;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+
+/**
+ * A death location repository backed by a network database, reached through a pool of JDBC connections.
+ * <p>
+ * A round trip to a database server is too slow for the server thread, so the death locations of each player
+ * are loaded on the login thread when the player logs in, and released when the player quits. Saves and
+ * deletes are applied to the loaded death locations at once and written behind on the storage executor; until
+ * a write has been made, lookups are answered from the pending write. Only lookups for players who are not
+ * online query the database from the calling thread.
+ * <p>
+ * When several servers share the database, an invalidation bus carries each server's writes to the others,
+ * which reload the affected players' death locations.
+ */
+public final class JdbcDeathLocationRepository implements DeathLocationRepository, Listener
+{
+	private final static int MAX_LOAD_ATTEMPTS = 3;
+	private final static int WRITE_COUNT_STRIPES = 64;
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final DataSource dataSource;
+	private final JdbcQueries queries;
+	private final String datastoreName;
+	private final ExecutorService storageExecutor;
+	private final Map<Key, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+	private final Map<UUID, Map<UUID, Entry>> loadedPlayers = new ConcurrentHashMap<>();
+	private final AtomicLongArray appliedWrites = new AtomicLongArray(WRITE_COUNT_STRIPES);
+	private volatile InvalidationBus invalidationBus;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param dataSource the pooled data source
+	 * @param dialect the database dialect
+	 * @param queries the queries of the dialect
+	 * @param storageExecutor the executor for operations that run off the server thread
+	 */
+	JdbcDeathLocationRepository(final Plugin plugin,
+	                            final ConfigRepository configRepository,
+	                            final DataSource dataSource,
+	                            final JdbcDialect dialect,
+	                            final JdbcQueries queries,
+	                            final ExecutorService storageExecutor)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.dataSource = dataSource;
+		this.queries = queries;
+		this.datastoreName = dialect.displayName();
+		this.storageExecutor = storageExecutor;
+	}
+
+
+	@Override
+	public DeathLocation getDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final DeathLocation deathLocation = find(playerUid, worldUid);
+		if (deathLocation instanceof ValidDeathLocation && plugin.getServer().getWorld(worldUid) == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.WORLD_UNAVAILABLE);
+		}
+
+		return deathLocation;
+	}
+
+
+	/**
+	 * Find a death location in the pending writes, then in the loaded death locations of its player,
+	 * and only then in the database
+	 */
+	private DeathLocation find(final UUID playerUid, final UUID worldUid)
+	{
+		final PendingWrite pendingWrite = pendingWrites.get(new Key(playerUid, worldUid));
+		if (pendingWrite != null)
+		{
+			return (pendingWrite.deathLocation() != null)
+					? pendingWrite.deathLocation()
+					: new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+		}
+
+		// the loaded death locations of a player are complete, so a missing entry is not in the database
+		final Map<UUID, Entry> loadedLocations = loadedPlayers.get(playerUid);
+		if (loadedLocations != null)
+		{
+			final Entry entry = loadedLocations.get(worldUid);
+			return (entry != null)
+					? entry.deathLocation()
+					: new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+		}
+
+		try (final Connection connection = dataSource.getConnection();
+		     final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery("SelectLocation")))
+		{
+			bindKey(preparedStatement, 1, playerUid, worldUid);
+			try (final ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				return (resultSet.next())
+						? map(resultSet)
+						: new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+			}
+		}
+		catch (SQLException sqlException)
+		{
+			plugin.getLogger().warning(JdbcMessage.SELECT_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName));
+			plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			return new InvalidDeathLocation(DeathLocationReason.SQL_EXCEPTION_THROWN);
+		}
+	}
+
+
+	@Override
+	public int saveDeathLocation(final ValidDeathLocation deathLocation)
+	{
+		if (deathLocation == null) { return 0; }
+
+		final World world = plugin.getServer().getWorld(deathLocation.worldUid());
+		if (world == null)
+		{
+			plugin.getLogger().warning(JdbcMessage.INSERT_RECORD_WORLD_INVALID_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName));
+			return 0;
+		}
+
+		return writeBehind(List.of(deathLocation));
+	}
+
+
+	@Override
+	public int saveDeathLocations(final Collection<ValidDeathLocation> deathLocations)
+	{
+		if (deathLocations == null || deathLocations.isEmpty()) { return 0; }
+
+		return writeBehind(deathLocations);
+	}
+
+
+	/**
+	 * Apply saves to the loaded death locations, then write them to the database in one batch on the storage executor
+	 */
+	private int writeBehind(final Collection<ValidDeathLocation> deathLocations)
+	{
+		final long deathTime = System.currentTimeMillis();
+		final Map<Key, PendingWrite> writes = new LinkedHashMap<>();
+
+		for (ValidDeathLocation deathLocation : deathLocations)
+		{
+			final Key key = new Key(deathLocation.playerUid(), deathLocation.worldUid());
+			final PendingWrite pendingWrite = new PendingWrite(deathLocation, deathTime);
+			writes.put(key, pendingWrite);
+			pendingWrites.put(key, pendingWrite);
+			applyToLoaded(key, pendingWrite);
+		}
+
+		submitWrite(writes, () ->
+		{
+			try (final Connection connection = dataSource.getConnection();
+			     final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery("UpsertLocation")))
+			{
+				upsertInTransaction(connection, preparedStatement, writes.values());
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(JdbcMessage.INSERT_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			}
+		});
+
+		return writes.size();
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress)
+	{
+		if (deathRecords == null) { return CompletableFuture.completedFuture(0); }
+
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (deathRecords;
+			     final Connection connection = dataSource.getConnection();
+			     final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery("UpsertLocation")))
+			{
+				final List<PendingWrite> batch = new ArrayList<>(batchSize);
+				final Iterator<DeathRecord> iterator = deathRecords.iterator();
+				while (iterator.hasNext())
+				{
+					final DeathRecord deathRecord = iterator.next();
+					batch.add(new PendingWrite(deathRecord.deathLocation(), deathRecord.deathTime()));
+					if (batch.size() == batchSize || !iterator.hasNext())
+					{
+						count += upsertInTransaction(connection, preparedStatement, batch);
+						for (PendingWrite write : batch)
+						{
+							final Key key = new Key(write.deathLocation().playerUid(), write.deathLocation().worldUid());
+							applyToLoaded(key, write);
+							publish(Invalidation.of(key.playerUid(), key.worldUid()));
+						}
+						batch.clear();
+						progressConsumer.accept(count);
+					}
+				}
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(JdbcMessage.INSERT_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	@Override
+	public DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final DeathLocation deathLocation = getDeathLocation(playerUid, worldUid);
+
+		final Key key = new Key(playerUid, worldUid);
+		final PendingWrite pendingDelete = new PendingWrite(null, 0);
+		pendingWrites.put(key, pendingDelete);
+		applyToLoaded(key, pendingDelete);
+
+		submitWrite(Map.of(key, pendingDelete), () ->
+		{
+			try (final Connection connection = dataSource.getConnection();
+			     final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery("DeleteLocation")))
+			{
+				bindKey(preparedStatement, 1, playerUid, worldUid);
+				preparedStatement.executeUpdate();
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(JdbcMessage.DELETE_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			}
+		});
+
+		return deathLocation;
+	}
+
+
+	/**
+	 * Other servers may share the database and load worlds this server does not,
+	 * so stored records for worlds that are not loaded here are not treated as orphaned
+	 *
+	 * @return an empty map
+	 */
+	@Override
+	public Map<UUID, String> orphanedWorlds()
+	{
+		return Map.of();
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress)
+	{
+		if (playerUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteInBatches("DeleteLocationsByPlayer", (preparedStatement, batchSize) ->
+		{
+			preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+			preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+			preparedStatement.setInt(3, batchSize);
+			return preparedStatement.executeUpdate();
+		}, "player " + playerUid, progress, (key, entry) -> key.playerUid().equals(playerUid), Invalidation.ofPlayer(playerUid));
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress)
+	{
+		if (worldUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteInBatches("DeleteLocationsByWorld", (preparedStatement, batchSize) ->
+		{
+			preparedStatement.setLong(1, worldUid.getMostSignificantBits());
+			preparedStatement.setLong(2, worldUid.getLeastSignificantBits());
+			preparedStatement.setInt(3, batchSize);
+			return preparedStatement.executeUpdate();
+		}, "world " + worldUid, progress, (key, entry) -> key.worldUid().equals(worldUid), Invalidation.ofWorld(worldUid));
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress)
+	{
+		if (instant == null) { return CompletableFuture.completedFuture(0); }
+
+		final long cutoff = instant.toEpochMilli();
+		return deleteInBatches("DeleteLocationsOlderThan", (preparedStatement, batchSize) ->
+		{
+			preparedStatement.setLong(1, cutoff);
+			preparedStatement.setInt(2, batchSize);
+			return preparedStatement.executeUpdate();
+		}, "records older than " + instant, progress, (key, entry) -> entry.deathTime() < cutoff, Invalidation.all());
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor)
+	{
+		Objects.requireNonNull(visitor);
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (final Connection connection = dataSource.getConnection())
+			{
+				// drivers only fetch rows in pages inside a transaction; otherwise the whole result set is read at once
+				connection.setAutoCommit(false);
+				try (final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery("SelectAllDeathLocations")))
+				{
+					preparedStatement.setFetchSize(Math.max(1, fetchSize));
+					try (final ResultSet resultSet = preparedStatement.executeQuery())
+					{
+						while (resultSet.next())
+						{
+							final DeathLocation deathLocation = DeathLocation.of(
+									new UUID(resultSet.getLong(1), resultSet.getLong(2)),
+									new UUID(resultSet.getLong(3), resultSet.getLong(4)),
+									resultSet.getDouble(5), resultSet.getDouble(6), resultSet.getDouble(7));
+
+							if (deathLocation instanceof ValidDeathLocation validDeathLocation)
+							{
+								count++;
+								if (!visitor.test(new DeathRecord(validDeathLocation, resultSet.getLong(8))))
+								{
+									break;
+								}
+							}
+						}
+					}
+				}
+				finally
+				{
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(JdbcMessage.SELECT_ALL_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Load the death locations of a player who is about to join. The load runs on the login thread with a pooled
+	 * connection, so that logins do not wait behind bulk jobs on the storage executor.
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onAsyncPlayerPreLogin(final AsyncPlayerPreLoginEvent event)
+	{
+		if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) { return; }
+
+		loadPlayer(event.getUniqueId());
+	}
+
+
+	/**
+	 * Release the loaded death locations of a player who quits; writes not yet made for the player
+	 * answer lookups from the pending writes until they are made
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onPlayerQuit(final PlayerQuitEvent event)
+	{
+		loadedPlayers.remove(event.getPlayer().getUniqueId());
+	}
+
+
+	/**
+	 * Select the death locations of a player and hold them for lookups
+	 */
+	void loadPlayer(final UUID playerUid)
+	{
+		load(playerUid, false);
+	}
+
+
+	/**
+	 * Select the death locations of a player again, if they are still held for lookups
+	 */
+	private void reloadPlayer(final UUID playerUid)
+	{
+		load(playerUid, true);
+	}
+
+
+	/**
+	 * Select the death locations of a player, then apply the writes not yet made over them. The selected rows may
+	 * predate a write made while they were read, so if any write for the player is applied during the load,
+	 * the load is repeated; if writes keep racing it, the player is left unloaded and lookups query the database.
+	 */
+	private void load(final UUID playerUid, final boolean onlyIfLoaded)
+	{
+		final int stripe = stripe(playerUid);
+
+		for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++)
+		{
+			final long writes = appliedWrites.get(stripe);
+
+			final Map<UUID, Entry> loadedLocations = selectPlayer(playerUid);
+			if (loadedLocations == null)
+			{
+				return;
+			}
+
+			pendingWrites.forEach((key, pendingWrite) ->
+			{
+				if (key.playerUid().equals(playerUid))
+				{
+					apply(loadedLocations, key.worldUid(), pendingWrite);
+				}
+			});
+
+			if (onlyIfLoaded)
+			{
+				if (loadedPlayers.replace(playerUid, loadedLocations) == null)
+				{
+					return;
+				}
+			}
+			else
+			{
+				loadedPlayers.put(playerUid, loadedLocations);
+			}
+
+			// writes applied after this check find the loaded death locations in place
+			if (appliedWrites.get(stripe) == writes)
+			{
+				return;
+			}
+		}
+
+		loadedPlayers.remove(playerUid);
+	}
+
+
+	/**
+	 * Select the death locations of a player
+	 *
+	 * @return the death locations of the player by world, or null if they could not be selected
+	 */
+	private Map<UUID, Entry> selectPlayer(final UUID playerUid)
+	{
+		final Map<UUID, Entry> loadedLocations = new ConcurrentHashMap<>();
+
+		try (final Connection connection = dataSource.getConnection();
+		     final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery("SelectLocationsByPlayer")))
+		{
+			preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+			preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+			try (final ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				while (resultSet.next())
+				{
+					if (map(resultSet) instanceof ValidDeathLocation deathLocation)
+					{
+						loadedLocations.put(deathLocation.worldUid(), new Entry(deathLocation, resultSet.getLong("death_time")));
+					}
+				}
+			}
+		}
+		catch (SQLException sqlException)
+		{
+			plugin.getLogger().warning(JdbcMessage.SELECT_PLAYER_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName, playerUid));
+			plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			return null;
+		}
+
+		return loadedLocations;
+	}
+
+
+	/**
+	 * Publish this repository's writes on an invalidation bus, and reload loaded players
+	 * when other servers publish theirs
+	 *
+	 * @param invalidationBus the open invalidation bus
+	 */
+	void attachInvalidationBus(final InvalidationBus invalidationBus)
+	{
+		this.invalidationBus = invalidationBus;
+		invalidationBus.subscribe(this::invalidated);
+	}
+
+
+	/**
+	 * Reload the loaded players affected by a write on another server, on the storage executor,
+	 * after the writes already queued on this server
+	 */
+	private void invalidated(final Invalidation invalidation)
+	{
+		try
+		{
+			storageExecutor.execute(() -> loadedPlayers.keySet().stream()
+					.filter(invalidation::affects)
+					.toList()
+					.forEach(this::reloadPlayer));
+		}
+		catch (RejectedExecutionException exception)
+		{
+			// the datastore is closing
+		}
+	}
+
+
+	private void publish(final Invalidation invalidation)
+	{
+		final InvalidationBus bus = invalidationBus;
+		if (bus != null)
+		{
+			bus.publish(invalidation);
+		}
+	}
+
+
+	/**
+	 * Check whether the death locations of a player are loaded
+	 *
+	 * @param playerUid the player UUID
+	 * @return true if the player's death locations are held for lookups
+	 */
+	boolean isLoaded(final UUID playerUid)
+	{
+		return loadedPlayers.containsKey(playerUid);
+	}
+
+
+	/**
+	 * Count the death locations stored in the database
+	 *
+	 * @return the number of stored death locations
+	 * @throws SQLException if the records could not be counted
+	 */
+	long count() throws SQLException
+	{
+		try (final Connection connection = dataSource.getConnection();
+		     final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery("CountLocations"));
+		     final ResultSet resultSet = preparedStatement.executeQuery())
+		{
+			return (resultSet.next()) ? resultSet.getLong(1) : 0;
+		}
+	}
+
+
+	/**
+	 * Run a write on the storage executor, then remove its pending writes, unless they have since been replaced.
+	 * If the executor has been shut down, the write is run on the calling thread.
+	 */
+	private void submitWrite(final Map<Key, PendingWrite> writes, final Runnable write)
+	{
+		final Runnable task = () ->
+		{
+			write.run();
+			writes.forEach((key, pendingWrite) ->
+			{
+				// applied again here, in case the player was loaded after the write was queued
+				applyToLoaded(key, pendingWrite);
+				pendingWrites.remove(key, pendingWrite);
+				publish(Invalidation.of(key.playerUid(), key.worldUid()));
+			});
+		};
+
+		try
+		{
+			storageExecutor.execute(task);
+		}
+		catch (RejectedExecutionException exception)
+		{
+			task.run();
+		}
+	}
+
+
+	/**
+	 * Apply a save or delete to the loaded death locations of its player, if the player is loaded
+	 */
+	private void applyToLoaded(final Key key, final PendingWrite write)
+	{
+		// counted before the loaded death locations are read, so a load running at the same time is repeated
+		appliedWrites.incrementAndGet(stripe(key.playerUid()));
+
+		final Map<UUID, Entry> loadedLocations = loadedPlayers.get(key.playerUid());
+		if (loadedLocations != null)
+		{
+			apply(loadedLocations, key.worldUid(), write);
+		}
+	}
+
+
+	private static void apply(final Map<UUID, Entry> loadedLocations, final UUID worldUid, final PendingWrite write)
+	{
+		if (write.deathLocation() != null)
+		{
+			loadedLocations.put(worldUid, new Entry(write.deathLocation(), write.deathTime()));
+		}
+		else
+		{
+			loadedLocations.remove(worldUid);
+		}
+	}
+
+
+	private static int stripe(final UUID playerUid)
+	{
+		return (playerUid.hashCode() & Integer.MAX_VALUE) % WRITE_COUNT_STRIPES;
+	}
+
+
+	/**
+	 * Upsert a batch of death locations in a single transaction, rolling back the batch if any upsert fails
+	 */
+	private int upsertInTransaction(final Connection connection,
+	                                final PreparedStatement preparedStatement,
+	                                final Collection<PendingWrite> batch) throws SQLException
+	{
+		final boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try
+		{
+			for (PendingWrite write : batch)
+			{
+				final ValidDeathLocation deathLocation = write.deathLocation();
+				preparedStatement.setLong(1, deathLocation.playerUid().getMostSignificantBits());
+				preparedStatement.setLong(2, deathLocation.playerUid().getLeastSignificantBits());
+				preparedStatement.setString(3, worldName(deathLocation.worldUid()));
+				preparedStatement.setLong(4, deathLocation.worldUid().getMostSignificantBits());
+				preparedStatement.setLong(5, deathLocation.worldUid().getLeastSignificantBits());
+				preparedStatement.setDouble(6, deathLocation.x());
+				preparedStatement.setDouble(7, deathLocation.y());
+				preparedStatement.setDouble(8, deathLocation.z());
+				preparedStatement.setLong(9, write.deathTime());
+				preparedStatement.addBatch();
+			}
+			preparedStatement.executeBatch();
+			connection.commit();
+			return batch.size();
+		}
+		catch (SQLException sqlException)
+		{
+			connection.rollback();
+			throw sqlException;
+		}
+		finally
+		{
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+
+	/**
+	 * Run a limited delete query repeatedly on the storage executor until fewer than a full batch of rows
+	 * is deleted, then remove the deleted records from the loaded death locations. Loaded records with
+	 * a pending write were saved after the delete was queued, and are kept. Other servers are told of
+	 * the delete even if it fails part way, as some batches may have been deleted.
+	 */
+	private CompletableFuture<Integer> deleteInBatches(final String queryName,
+	                                                   final BatchDelete batchDelete,
+	                                                   final String description,
+	                                                   final IntConsumer progress,
+	                                                   final LoadedFilter deleted,
+	                                                   final Invalidation invalidation)
+	{
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (final Connection connection = dataSource.getConnection();
+			     final PreparedStatement preparedStatement = connection.prepareStatement(queries.getQuery(queryName)))
+			{
+				// delete in bounded batches, so each statement holds row locks only briefly
+				int deletedCount;
+				do
+				{
+					deletedCount = batchDelete.delete(preparedStatement, batchSize);
+					count += deletedCount;
+					if (deletedCount > 0)
+					{
+						progressConsumer.accept(count);
+					}
+				}
+				while (deletedCount == batchSize);
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(JdbcMessage.DELETE_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), datastoreName));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+			finally
+			{
+				publish(invalidation);
+			}
+
+			// a load running at the same time may have selected deleted rows, so it is repeated
+			for (int stripe = 0; stripe < WRITE_COUNT_STRIPES; stripe++)
+			{
+				appliedWrites.incrementAndGet(stripe);
+			}
+
+			loadedPlayers.forEach((playerUid, loadedLocations) -> loadedLocations.entrySet().removeIf(mapEntry ->
+			{
+				final Key key = new Key(playerUid, mapEntry.getKey());
+				return deleted.test(key, mapEntry.getValue()) && !pendingWrites.containsKey(key);
+			}));
+
+			plugin.getLogger().info(JdbcMessage.DELETE_RECORDS_NOTICE.getLocalizedMessage(configRepository.locale(), count, description));
+			return count;
+		}, storageExecutor);
+	}
+
+
+	private DeathLocation map(final ResultSet resultSet) throws SQLException
+	{
+		return DeathLocation.of(
+				new UUID(resultSet.getLong("player_uid_msb"), resultSet.getLong("player_uid_lsb")),
+				new UUID(resultSet.getLong("world_uid_msb"), resultSet.getLong("world_uid_lsb")),
+				resultSet.getDouble("x"), resultSet.getDouble("y"), resultSet.getDouble("z"));
+	}
+
+
+	private static void bindKey(final PreparedStatement preparedStatement, final int index,
+	                            final UUID playerUid, final UUID worldUid) throws SQLException
+	{
+		preparedStatement.setLong(index, playerUid.getMostSignificantBits());
+		preparedStatement.setLong(index + 1, playerUid.getLeastSignificantBits());
+		preparedStatement.setLong(index + 2, worldUid.getMostSignificantBits());
+		preparedStatement.setLong(index + 3, worldUid.getLeastSignificantBits());
+	}
+
+
+	/**
+	 * Get the name of a world, or its UUID if the world is not loaded on this server
+	 */
+	private String worldName(final UUID worldUid)
+	{
+		final World world = plugin.getServer().getWorld(worldUid);
+		return (world != null) ? world.getName() : worldUid.toString();
+	}
+
+
+	private int batchSize()
+	{
+		return Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+	}
+
+
+	/**
+	 * Binds parameters to a limited delete query and executes one batch
+	 */
+	@FunctionalInterface
+	private interface BatchDelete
+	{
+		int delete(PreparedStatement preparedStatement, int batchSize) throws SQLException;
+	}
+
+
+	/**
+	 * Selects the loaded death locations removed by a bulk delete
+	 */
+	@FunctionalInterface
+	private interface LoadedFilter
+	{
+		boolean test(Key key, Entry entry);
+	}
+
+
+	/**
+	 * The key of a death location
+	 */
+	private record Key(UUID playerUid, UUID worldUid) { }
+
+
+	/**
+	 * A loaded death location, with the time it was saved
+	 */
+	private record Entry(ValidDeathLocation deathLocation, long deathTime) { }
+
+
+	/**
+	 * A save, or a delete if the death location is null, that has not yet been written to the database
+	 */
+	private record PendingWrite(ValidDeathLocation deathLocation, long deathTime) { }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.jdbc;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+
+/**
+ * The database servers supported by the JDBC datastore, selected by the {@code storage.jdbc.dialect}
+ * configuration setting or detected from the database url
+ */
+public enum JdbcDialect
+{
+	// MySQL Connector/J reads the whole result set at once, whatever the fetch size, unless cursor fetch is enabled
+	MYSQL("mysql", "MySQL", "com.mysql.cj.jdbc.Driver", "jdbc-mysql.properties", Map.of("useCursorFetch", "true")),
+	MARIADB("mariadb", "MariaDB", "org.mariadb.jdbc.Driver", "jdbc-mysql.properties", Map.of("useCursorFetch", "true")),
+	POSTGRESQL("postgresql", "PostgreSQL", "org.postgresql.Driver", "jdbc-postgresql.properties", Map.of()),
+	;
+
+	private final String configName;
+	private final String displayName;
+	private final String driverClassName;
+	private final String queryFileName;
+	private final Map<String, String> driverProperties;
+
+
+	JdbcDialect(final String configName,
+	            final String displayName,
+	            final String driverClassName,
+	            final String queryFileName,
+	            final Map<String, String> driverProperties)
+	{
+		this.configName = configName;
+		this.displayName = displayName;
+		this.driverClassName = driverClassName;
+		this.queryFileName = queryFileName;
+		this.driverProperties = driverProperties;
+	}
+
+
+	/**
+	 * Get the dialect named in the plugin configuration, or detected from the database url if the setting is empty.
+	 * If neither identifies a dialect, MySQL is used.
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @return the configured dialect
+	 */
+	public static JdbcDialect fromConfig(final Plugin plugin, final ConfigRepository configRepository)
+	{
+		final String configName = plugin.getConfig().getString("storage.jdbc.dialect", "");
+		if (configName.isBlank())
+		{
+			final String url = plugin.getConfig().getString("storage.jdbc.url", "");
+			return Arrays.stream(values())
+					.filter(dialect -> url.startsWith("jdbc:" + dialect.configName + ":"))
+					.findFirst()
+					.orElse(MYSQL);
+		}
+
+		return named(configName).orElseGet(() ->
+		{
+			plugin.getLogger().warning(JdbcMessage.DATASTORE_UNKNOWN_DIALECT_NOTICE
+					.getLocalizedMessage(configRepository.locale(), configName, MYSQL.displayName));
+			return MYSQL;
+		});
+	}
+
+
+	private static Optional<JdbcDialect> named(final String configName)
+	{
+		return Arrays.stream(values())
+				.filter(dialect -> dialect.configName.equalsIgnoreCase(configName))
+				.findFirst();
+	}
+
+
+	/**
+	 * Get the name of the database server, for log messages
+	 */
+	public String displayName()
+	{
+		return displayName;
+	}
+
+
+	/**
+	 * Get the class name of the dialect's JDBC driver
+	 */
+	String driverClassName()
+	{
+		return driverClassName;
+	}
+
+
+	/**
+	 * Get the name of the resource holding the dialect's queries
+	 */
+	String queryFileName()
+	{
+		return queryFileName;
+	}
+
+
+	/**
+	 * Get the connection properties passed to the dialect's JDBC driver, in addition to those in the database url
+	 */
+	Map<String, String> driverProperties()
+	{
+		return driverProperties;
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.jdbc;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+
+public enum JdbcMessage
+{
+	DATASTORE_INITIALIZE_NOTICE("{0} datastore initialized."),
+	DATASTORE_INITIALIZE_ERROR("The {0} datastore is already initialized."),
+	DATASTORE_URL_MISSING_ERROR("No database url is configured. Set storage.jdbc.url to use the {0} datastore."),
+	DATASTORE_DRIVER_MISSING_ERROR("The {0} driver {1} was not found. Put its jar file in the {2} folder."),
+	DATASTORE_UNKNOWN_DIALECT_NOTICE("Unknown database dialect ''{0}''. Using {1}."),
+	DATASTORE_CLOSE_NOTICE("{0} datastore connection pool closed."),
+
+	CREATE_SCHEMA_ERROR("An error occurred while creating the death location table in the {0} datastore."),
+
+	SELECT_RECORD_ERROR("An error occurred while trying to select a record from the {0} datastore."),
+	SELECT_PLAYER_RECORDS_ERROR("An error occurred while loading the death locations of player {1} from the {0} datastore."),
+	SELECT_ALL_RECORDS_ERROR("An error occurred while iterating over all records in the {0} datastore."),
+	INSERT_RECORD_ERROR("An error occurred while inserting a record into the {0} datastore."),
+	INSERT_RECORD_WORLD_INVALID_ERROR("An error occurred while inserting a record in the {0} datastore. World invalid!"),
+	DELETE_RECORD_ERROR("An error occurred while attempting to delete a record from the {0} datastore."),
+	DELETE_RECORDS_ERROR("An error occurred while attempting to delete records from the {0} datastore."),
+	DELETE_RECORDS_NOTICE("{0} death location records deleted for {1}."),
+
+	BACKUP_UNSUPPORTED_ERROR("The {0} datastore is backed up by the database server, not by the plugin."),
+	;
+
+	private final String defaultMessage;
+
+
+	JdbcMessage(final String defaultMessage)
+	{
+		this.defaultMessage = defaultMessage;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return defaultMessage;
+	}
+
+
+	public String getLocalizedMessage(final Locale locale)
+	{
+		try
+		{
+			ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			return bundle.getString(name());
+		}
+		catch (MissingResourceException exception)
+		{
+			return this.defaultMessage;
+		}
+	}
+
+
+	public String getLocalizedMessage(final Locale locale, final Object... objects)
+	{
+		try
+		{
+			final ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			String pattern = bundle.getString(name());
+			return MessageFormat.format(pattern, objects);
+		}
+		catch (MissingResourceException exception)
+		{
+			return MessageFormat.format(this.defaultMessage, objects);
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * Retrieve sql queries for a database dialect from its properties resource
+ */
+public final class JdbcQueries
+{
+	private final static Map<String, Properties> propertiesByFileName = new HashMap<>();
+
+	private final JdbcDialect dialect;
+	private final String overrideFileName;
+
+
+	private JdbcQueries(final JdbcDialect dialect, final String overrideFileName)
+	{
+		this.dialect = dialect;
+		this.overrideFileName = overrideFileName;
+	}
+
+
+	/**
+	 * Get the queries of a dialect
+	 *
+	 * @param dialect the database dialect
+	 * @return the queries of the dialect
+	 */
+	public static JdbcQueries of(final JdbcDialect dialect)
+	{
+		return new JdbcQueries(dialect, null);
+	}
+
+
+	/**
+	 * Get the queries of a dialect, with the queries defined in another properties resource taking their place;
+	 * for a database that runs the dialect's queries but needs some of them written differently
+	 *
+	 * @param dialect the database dialect
+	 * @param overrideFileName the name of the resource holding the queries that replace the dialect's
+	 * @return the queries of the dialect, with the replaced queries
+	 */
+	static JdbcQueries of(final JdbcDialect dialect, final String overrideFileName)
+	{
+		return new JdbcQueries(dialect, overrideFileName);
+	}
+
+
+	/**
+	 * Load properties file
+	 *
+	 * @return Properties object
+	 * @throws SQLException if properties file could not be loaded
+	 */
+	private static synchronized Properties getQueries(final String fileName) throws SQLException
+	{
+		Properties properties = propertiesByFileName.get(fileName);
+		if (properties == null)
+		{
+			properties = new Properties();
+			try (InputStream inputStream = JdbcQueries.class.getResourceAsStream("/" + fileName))
+			{
+				if (inputStream == null)
+				{
+					throw new SQLException("Unable to load property file: " + fileName);
+				}
+				properties.load(inputStream);
+			}
+			catch (IOException e)
+			{
+				throw new SQLException("Unable to load property file: " + fileName);
+			}
+			propertiesByFileName.put(fileName, properties);
+		}
+
+		return properties;
+	}
+
+
+	/**
+	 * Retrieve a sql query string
+	 *
+	 * @param query the properties key for the query string to be retrieved
+	 * @return String the sql query string, which is empty if the dialect does not need the query
+	 * @throws SQLException if query string could not be retrieved
+	 */
+	public String getQuery(final String query) throws SQLException
+	{
+		String sql = (overrideFileName != null) ? getQueries(overrideFileName).getProperty(query) : null;
+		if (sql == null)
+		{
+			sql = getQueries(dialect.queryFileName()).getProperty(query);
+		}
+		if (sql == null)
+		{
+			throw new SQLException("Query " + query + " is not defined for " + dialect.displayName() + ".");
+		}
+		return sql;
+	}
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.mappedlog;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.BackupFolder;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+
+/**
+ * Provides a death location datastore that appends fixed-size records to a memory-mapped log file
+ * and serves lookups from an in-memory index, rebuilt by replaying the log at startup
+ */
+public final class MappedLogConnectionProvider implements ConnectionProvider
+{
+	final static String DATASTORE_NAME = "memory-mapped log";
+	final static String LOG_EXTENSION = ".log";
+	private final static String LOG_FOLDER = "log";
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final Path logFolder;
+	private final BackupFolder backupFolder;
+	private ScheduledExecutorService storageExecutor;
+	private MappedLogDeathLocationRepository deathLocationRepository;
+	private boolean initialized;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 */
+	public MappedLogConnectionProvider(final Plugin plugin)
+	{
+		this.plugin = plugin;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.logFolder = plugin.getDataFolder().toPath().resolve(LOG_FOLDER);
+		this.backupFolder = new BackupFolder(plugin, LOG_EXTENSION);
+	}
+
+
+	@Override
+	public ConnectionProvider connect()
+	{
+		// initialize data store
+		try
+		{
+			this.initialize();
+		}
+		catch (Exception exception)
+		{
+			plugin.getLogger().severe("Could not initialize the datastore!");
+			plugin.getLogger().severe(exception.getLocalizedMessage());
+		}
+
+		// return initialized data store
+		return this;
+	}
+
+
+	/**
+	 * Initialize datastore
+	 */
+	private void initialize() throws IOException
+	{
+		// if data store is already initialized, log and return
+		if (this.initialized)
+		{
+			plugin.getLogger().info(MappedLogMessage.DATASTORE_INITIALIZE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			return;
+		}
+
+		// create single thread executor for datastore operations that run off the server thread
+		storageExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		// replay log into index
+		deathLocationRepository = new MappedLogDeathLocationRepository(plugin, configRepository, storageExecutor);
+		deathLocationRepository.open(logFolder);
+
+		// flush appended records to disk, and compact the log, periodically on the storage thread
+		final long flushInterval = Math.max(1, plugin.getConfig().getLong("storage.log.flush-interval", 5));
+		storageExecutor.scheduleWithFixedDelay(deathLocationRepository::force, flushInterval, flushInterval, TimeUnit.SECONDS);
+		storageExecutor.scheduleWithFixedDelay(deathLocationRepository::compactIfNeeded, 1, 1, TimeUnit.MINUTES);
+
+		// start scheduled backups, if enabled
+		if (plugin.getConfig().getBoolean("storage.backup.enabled", false))
+		{
+			final long backupInterval = Math.max(1, plugin.getConfig().getLong("storage.backup.interval", 60));
+			storageExecutor.scheduleWithFixedDelay(() -> backup().exceptionally(throwable -> null),
+					backupInterval, backupInterval, TimeUnit.MINUTES);
+		}
+
+		// set initialized true
+		this.initialized = true;
+		plugin.getLogger().info(MappedLogMessage.DATASTORE_INITIALIZE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+	}
+
+
+	/**
+	 * Close datastore, after queued datastore operations finish
+	 */
+	@Override
+	public void close()
+	{
+		if (storageExecutor != null)
+		{
+			// periodic tasks are cancelled on shutdown; queued operations are allowed to finish
+			storageExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			storageExecutor.shutdown();
+			try
+			{
+				if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS))
+				{
+					storageExecutor.shutdownNow();
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				storageExecutor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (deathLocationRepository != null)
+		{
+			try
+			{
+				deathLocationRepository.close();
+				plugin.getLogger().info(MappedLogMessage.DATASTORE_CLOSE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(MappedLogMessage.DATASTORE_CLOSE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(exception.getMessage());
+			}
+		}
+
+		initialized = false;
+	}
+
+
+	/**
+	 * Get instance of DeathLocationRepository
+	 */
+	@Override
+	public DeathLocationRepository deathLocations()
+	{
+		return this.deathLocationRepository;
+	}
+
+
+	/**
+	 * Write the live records to a new sealed log file in the backups folder, on the storage executor.
+	 * The log format is the same as the live log, so a backup can be restored by copying it into the log folder.
+	 */
+	@Override
+	public CompletableFuture<DatastoreBackup> backup()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					MappedLogMessage.DATASTORE_NOT_INITIALIZED_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME)));
+		}
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			final long startTime = System.nanoTime();
+			final Path backupPath;
+			try
+			{
+				backupPath = backupFolder.newBackupPath();
+				deathLocationRepository.writeSnapshot(backupFolder.temporaryPath(backupPath));
+				backupFolder.complete(backupPath);
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(MappedLogMessage.BACKUP_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+				backupFolder.rotate();
+				throw new CompletionException(exception);
+			}
+
+			backupFolder.rotate();
+
+			final DatastoreBackup backup = new DatastoreBackup(backupPath.getFileName().toString(),
+					BackupFolder.sizeOf(backupPath), Duration.ofNanos(System.nanoTime() - startTime));
+
+			plugin.getLogger().info(MappedLogMessage.BACKUP_NOTICE.getLocalizedMessage(configRepository.locale(),
+					DATASTORE_NAME, backup.name(), backup.size(), backup.duration().toMillis()));
+
+			return backup;
+		}, storageExecutor);
+	}
+
+}
@@ -0,0 +1,643 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.mappedlog;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.mappedlog.MappedLogConnectionProvider.DATASTORE_NAME;
+
+
+/**
+ * A death location repository backed by an append-only, memory-mapped log file and an in-memory index
+ * of the latest record for each player and world.
+ * <p>
+ * Lookups are served from the index without touching the file. Saves and deletes append a record to the log
+ * and update the index under a single lock, so the index always reflects a prefix of the log. Replaced and deleted
+ * records accumulate in the log until it is compacted on the storage executor, by writing the live records to
+ * a new log file of the next generation and switching to it.
+ */
+public final class MappedLogDeathLocationRepository implements DeathLocationRepository
+{
+	private final static int MINIMUM_GARBAGE_RECORDS = 1024;
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final ExecutorService storageExecutor;
+	private final Map<Key, Entry> index = new ConcurrentHashMap<>();
+	private final Map<UUID, Integer> worldRecordCounts = new ConcurrentHashMap<>();
+	private final Object lock = new Object();
+	private MappedLogFile logFile;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param storageExecutor the executor for operations that run off the server thread
+	 */
+	MappedLogDeathLocationRepository(final Plugin plugin,
+	                                 final ConfigRepository configRepository,
+	                                 final ExecutorService storageExecutor)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.storageExecutor = storageExecutor;
+	}
+
+
+	@Override
+	public DeathLocation getDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final Entry entry = index.get(new Key(playerUid, worldUid));
+		if (entry == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+		}
+
+		if (plugin.getServer().getWorld(worldUid) == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.WORLD_UNAVAILABLE);
+		}
+
+		return entry.deathLocation();
+	}
+
+
+	@Override
+	public int saveDeathLocation(final ValidDeathLocation deathLocation)
+	{
+		if (deathLocation == null) { return 0; }
+
+		synchronized (lock)
+		{
+			return put(deathLocation, System.currentTimeMillis());
+		}
+	}
+
+
+	@Override
+	public int saveDeathLocations(final Collection<ValidDeathLocation> deathLocations)
+	{
+		if (deathLocations == null || deathLocations.isEmpty()) { return 0; }
+
+		final long deathTime = System.currentTimeMillis();
+		int count = 0;
+
+		synchronized (lock)
+		{
+			for (ValidDeathLocation deathLocation : deathLocations)
+			{
+				count += put(deathLocation, deathTime);
+			}
+		}
+
+		return count;
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress)
+	{
+		if (deathRecords == null) { return CompletableFuture.completedFuture(0); }
+
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (deathRecords)
+			{
+				final List<DeathRecord> batch = new ArrayList<>(batchSize);
+				final Iterator<DeathRecord> iterator = deathRecords.iterator();
+				while (iterator.hasNext())
+				{
+					batch.add(iterator.next());
+					if (batch.size() == batchSize || !iterator.hasNext())
+					{
+						count += putAll(batch);
+						batch.clear();
+						progressConsumer.accept(count);
+					}
+				}
+			}
+			compactIfNeeded();
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Append a batch of death records, keeping their death times, under the lock
+	 */
+	private int putAll(final Collection<DeathRecord> deathRecords)
+	{
+		int count = 0;
+		synchronized (lock)
+		{
+			for (DeathRecord deathRecord : deathRecords)
+			{
+				count += put(deathRecord.deathLocation(), deathRecord.deathTime());
+			}
+		}
+		return count;
+	}
+
+
+	@Override
+	public DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final DeathLocation deathLocation = getDeathLocation(playerUid, worldUid);
+
+		synchronized (lock)
+		{
+			delete(new Key(playerUid, worldUid));
+		}
+
+		return deathLocation;
+	}
+
+
+	@Override
+	public Map<UUID, String> orphanedWorlds()
+	{
+		final Map<UUID, String> orphanedWorlds = new HashMap<>();
+		for (UUID worldUid : worldRecordCounts.keySet())
+		{
+			if (plugin.getServer().getWorld(worldUid) == null)
+			{
+				// world names are not stored in the log
+				orphanedWorlds.put(worldUid, worldUid.toString());
+			}
+		}
+		return orphanedWorlds;
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress)
+	{
+		if (playerUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteMatching(entry -> entry.deathLocation().playerUid().equals(playerUid), "player " + playerUid, progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress)
+	{
+		if (worldUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteMatching(entry -> entry.deathLocation().worldUid().equals(worldUid), "world " + worldUid, progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress)
+	{
+		if (instant == null) { return CompletableFuture.completedFuture(0); }
+
+		final long cutoff = instant.toEpochMilli();
+		return deleteMatching(entry -> entry.deathTime() < cutoff, "records older than " + instant, progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor)
+	{
+		Objects.requireNonNull(visitor);
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			// the index is already in memory; visit a sorted copy, in the same order as the other datastores
+			final List<Key> keys = new ArrayList<>(index.keySet());
+			keys.sort(Comparator.comparing(Key::playerUid).thenComparing(Key::worldUid));
+
+			int count = 0;
+			for (Key key : keys)
+			{
+				final Entry entry = index.get(key);
+				if (entry != null)
+				{
+					count++;
+					if (!visitor.test(new DeathRecord(entry.deathLocation(), entry.deathTime())))
+					{
+						break;
+					}
+				}
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Replay the newest sealed log file in the data folder, or create an empty log if there is none,
+	 * and remove log files of older generations and unsealed files left by an interrupted compaction
+	 *
+	 * @param folder the folder containing the log files
+	 * @throws IOException if the log could not be opened or created
+	 */
+	void open(final Path folder) throws IOException
+	{
+		final long startTime = System.nanoTime();
+		Files.createDirectories(folder);
+
+		final List<Path> logFiles;
+		try (final Stream<Path> files = Files.list(folder))
+		{
+			logFiles = files.filter(path -> path.getFileName().toString().endsWith(MappedLogConnectionProvider.LOG_EXTENSION)).toList();
+		}
+
+		// find the newest sealed log; unsealed files fail to read and are skipped
+		Path newest = null;
+		long newestGeneration = 0;
+		for (Path path : logFiles)
+		{
+			try
+			{
+				final long generation = MappedLogFile.generation(path);
+				if (newest == null || generation > newestGeneration)
+				{
+					newest = path;
+					newestGeneration = generation;
+				}
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+			}
+		}
+
+		synchronized (lock)
+		{
+			if (newest == null)
+			{
+				newest = logPath(folder, 1);
+				try (final MappedLogWriter writer = MappedLogWriter.create(newest, 1))
+				{
+					logFile = MappedLogFile.open(newest, writer.seal());
+				}
+			}
+			else
+			{
+				logFile = MappedLogFile.replay(newest, this::apply);
+			}
+		}
+
+		for (Path path : logFiles)
+		{
+			if (!path.equals(newest))
+			{
+				deleteQuietly(path);
+			}
+		}
+
+		plugin.getLogger().info(MappedLogMessage.LOG_REPLAYED_NOTICE.getLocalizedMessage(configRepository.locale(),
+				index.size(), logFile.recordCount(), (System.nanoTime() - startTime) / 1_000_000));
+	}
+
+
+	/**
+	 * Compact the log if replaced and deleted records outnumber live records by more than the configured ratio.
+	 * Runs on the storage executor.
+	 */
+	void compactIfNeeded()
+	{
+		final double ratio = Math.max(1.0, plugin.getConfig().getDouble("storage.log.compaction-ratio", 2.0));
+		final long recordCount;
+		synchronized (lock)
+		{
+			recordCount = logFile.recordCount();
+		}
+		final long liveCount = index.size();
+
+		if (recordCount - liveCount >= MINIMUM_GARBAGE_RECORDS && recordCount > liveCount * ratio)
+		{
+			compact();
+		}
+	}
+
+
+	/**
+	 * Write the live records to a log of the next generation, then switch to it. The live records are written
+	 * without holding the lock; records appended meanwhile are copied across under the lock before switching.
+	 */
+	private void compact()
+	{
+		final long startTime = System.nanoTime();
+
+		final MappedLogFile currentLog;
+		final long mark;
+		final List<Map.Entry<Key, Entry>> snapshot;
+		synchronized (lock)
+		{
+			currentLog = logFile;
+			mark = currentLog.writePosition();
+			snapshot = new ArrayList<>(index.entrySet());
+		}
+
+		final Path nextPath = logPath(currentLog.path().getParent(), currentLog.generation() + 1);
+
+		try (final MappedLogWriter writer = MappedLogWriter.create(nextPath, currentLog.generation() + 1))
+		{
+			for (Map.Entry<Key, Entry> entry : snapshot)
+			{
+				writer.write(entry.getValue().toRecord());
+			}
+
+			synchronized (lock)
+			{
+				currentLog.transferTo(mark, writer);
+				try
+				{
+					logFile = MappedLogFile.open(nextPath, writer.seal());
+				}
+				catch (IOException exception)
+				{
+					// a sealed log of the next generation would be replayed in place of the current log at startup
+					deleteQuietly(nextPath);
+					throw exception;
+				}
+			}
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(MappedLogMessage.COMPACTION_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			return;
+		}
+
+		try
+		{
+			currentLog.close();
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+
+		// on some platforms a mapped file cannot be deleted until it is unmapped; it is removed at next startup
+		deleteQuietly(currentLog.path());
+
+		plugin.getLogger().info(MappedLogMessage.COMPACTION_NOTICE.getLocalizedMessage(configRepository.locale(),
+				currentLog.recordCount(), index.size(), (System.nanoTime() - startTime) / 1_000_000));
+	}
+
+
+	/**
+	 * Write the live records to a sealed log file, for a backup. Runs on the storage executor.
+	 *
+	 * @param path the file to write
+	 * @throws IOException if the file could not be written
+	 */
+	void writeSnapshot(final Path path) throws IOException
+	{
+		final long generation;
+		final List<Entry> snapshot;
+		synchronized (lock)
+		{
+			generation = logFile.generation();
+			snapshot = new ArrayList<>(index.values());
+		}
+
+		try (final MappedLogWriter writer = MappedLogWriter.create(path, generation))
+		{
+			for (Entry entry : snapshot)
+			{
+				writer.write(entry.toRecord());
+			}
+			writer.seal();
+		}
+	}
+
+
+	/**
+	 * Write appended records through to the storage device
+	 */
+	void force()
+	{
+		final MappedLogFile currentLog;
+		synchronized (lock)
+		{
+			currentLog = logFile;
+		}
+		if (currentLog != null)
+		{
+			currentLog.force();
+		}
+	}
+
+
+	void close() throws IOException
+	{
+		synchronized (lock)
+		{
+			if (logFile != null)
+			{
+				logFile.close();
+				logFile = null;
+			}
+		}
+	}
+
+
+	private CompletableFuture<Integer> deleteMatching(final Predicate<Entry> predicate,
+	                                                  final String description,
+	                                                  final IntConsumer progress)
+	{
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			final List<Key> keys = index.entrySet().stream()
+					.filter(entry -> predicate.test(entry.getValue()))
+					.map(Map.Entry::getKey)
+					.toList();
+
+			// append tombstones in bounded batches, so saves from the server thread are not held up for long
+			int count = 0;
+			for (int start = 0; start < keys.size(); start += batchSize)
+			{
+				synchronized (lock)
+				{
+					for (Key key : keys.subList(start, Math.min(keys.size(), start + batchSize)))
+					{
+						count += delete(key);
+					}
+				}
+				progressConsumer.accept(count);
+			}
+
+			plugin.getLogger().info(MappedLogMessage.DELETE_RECORDS_NOTICE.getLocalizedMessage(configRepository.locale(), count, description));
+			compactIfNeeded();
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Append a put record and update the index; must be called holding the lock
+	 */
+	private int put(final ValidDeathLocation deathLocation, final long deathTime)
+	{
+		final MappedLogRecord record = MappedLogRecord.put(deathLocation.playerUid(), deathLocation.worldUid(),
+				deathLocation.x(), deathLocation.y(), deathLocation.z(), deathTime);
+		try
+		{
+			logFile.append(record);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(MappedLogMessage.APPEND_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			return 0;
+		}
+
+		apply(record);
+		return 1;
+	}
+
+
+	/**
+	 * Append a delete record and update the index, if the key is present; must be called holding the lock
+	 */
+	private int delete(final Key key)
+	{
+		if (!index.containsKey(key))
+		{
+			return 0;
+		}
+
+		final MappedLogRecord record = MappedLogRecord.delete(key.playerUid(), key.worldUid());
+		try
+		{
+			logFile.append(record);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(MappedLogMessage.APPEND_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			return 0;
+		}
+
+		apply(record);
+		return 1;
+	}
+
+
+	/**
+	 * Apply a log record to the index, when appended or replayed
+	 */
+	private void apply(final MappedLogRecord record)
+	{
+		final Key key = new Key(record.playerUid(), record.worldUid());
+
+		if (record.type() == MappedLogRecord.TYPE_PUT)
+		{
+			if (DeathLocation.of(record.playerUid(), record.worldUid(), record.x(), record.y(), record.z())
+					instanceof ValidDeathLocation validDeathLocation)
+			{
+				if (index.put(key, new Entry(validDeathLocation, record.deathTime())) == null)
+				{
+					worldRecordCounts.merge(record.worldUid(), 1, Integer::sum);
+				}
+			}
+		}
+		else if (index.remove(key) != null)
+		{
+			worldRecordCounts.computeIfPresent(record.worldUid(), (worldUid, count) -> (count > 1) ? count - 1 : null);
+		}
+	}
+
+
+	private int batchSize()
+	{
+		return Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+	}
+
+
+	private static Path logPath(final Path folder, final long generation)
+	{
+		return folder.resolve(String.format("deathlocations.%08d%s", generation, MappedLogConnectionProvider.LOG_EXTENSION));
+	}
+
+
+	private void deleteQuietly(final Path path)
+	{
+		try
+		{
+			Files.deleteIfExists(path);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().fine(exception.getLocalizedMessage());
+		}
+	}
+
+
+	/**
+	 * The index key of a death location
+	 */
+	private record Key(UUID playerUid, UUID worldUid) { }
+
+
+	/**
+	 * The latest death location for an index key, with the time it was saved
+	 */
+	private record Entry(ValidDeathLocation deathLocation, long deathTime)
+	{
+		MappedLogRecord toRecord()
+		{
+			return MappedLogRecord.put(deathLocation.playerUid(), deathLocation.worldUid(),
+					deathLocation.x(), deathLocation.y(), deathLocation.z(), deathTime);
+		}
+	}
+
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.mappedlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * An append-only death location log file, memory-mapped for writing. Records are written into the mapping
+ * and reach the file through the operating system page cache, so they survive a crash of the server process
+ * as soon as they are appended; {@link #force} makes them durable against a crash of the operating system.
+ * <p>
+ * The file starts with a header; a log file is only valid once its header has been sealed.
+ * <pre>
+ * int    magic ("DCLG"), written last when the file is sealed
+ * short  format version
+ * short  reserved (0)
+ * long   generation, incremented each time the log is compacted into a new file
+ * </pre>
+ * Instances are not thread safe; callers synchronize appends.
+ */
+final class MappedLogFile implements Closeable
+{
+	static final int MAGIC = 0x44434C47;
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	private static final long INITIAL_MAPPED_SIZE = 1L << 20;
+	private static final long MAXIMUM_MAPPED_SIZE = Integer.MAX_VALUE - (Integer.MAX_VALUE - HEADER_SIZE) % MappedLogRecord.SIZE;
+
+	private final Path path;
+	private final long generation;
+	private final FileChannel channel;
+	private MappedByteBuffer mapped;
+	private long writePosition;
+
+
+	private MappedLogFile(final Path path, final long generation, final FileChannel channel, final long writePosition)
+	{
+		this.path = path;
+		this.generation = generation;
+		this.channel = channel;
+		this.writePosition = writePosition;
+	}
+
+
+	/**
+	 * Open a sealed log file, replaying its records in order to the consumer. Replay stops at the first unwritten,
+	 * torn or corrupt record, and appending resumes from there, so a record interrupted by a crash is discarded.
+	 *
+	 * @param path the log file
+	 * @param consumer receives each record in the order it was appended
+	 * @return the opened log file, positioned for appending
+	 * @throws IOException if the file is not a sealed log file or could not be opened
+	 */
+	static MappedLogFile replay(final Path path, final Consumer<MappedLogRecord> consumer) throws IOException
+	{
+		final FileChannel channel = FileChannel.open(path, READ, WRITE);
+		try
+		{
+			final long generation = readHeader(path, channel);
+			final MappedLogFile logFile = new MappedLogFile(path, generation, channel, HEADER_SIZE);
+			logFile.map(Math.max(INITIAL_MAPPED_SIZE, channel.size()));
+
+			MappedLogRecord record;
+			while (logFile.writePosition + MappedLogRecord.SIZE <= logFile.mapped.capacity()
+					&& (record = MappedLogRecord.decode(logFile.mapped, (int) logFile.writePosition)) != null)
+			{
+				consumer.accept(record);
+				logFile.writePosition += MappedLogRecord.SIZE;
+			}
+
+			// clear any torn record, so it cannot be mistaken for a valid record once later records follow it
+			if (logFile.writePosition + MappedLogRecord.SIZE <= logFile.mapped.capacity())
+			{
+				logFile.mapped.put((int) logFile.writePosition, new byte[MappedLogRecord.SIZE]);
+			}
+
+			return logFile;
+		}
+		catch (IOException | RuntimeException exception)
+		{
+			channel.close();
+			throw exception;
+		}
+	}
+
+
+	/**
+	 * Open a sealed log file whose records are already known, positioned for appending at the given position
+	 *
+	 * @param path the log file
+	 * @param writePosition the end of the last record
+	 * @return the opened log file
+	 * @throws IOException if the file is not a sealed log file or could not be opened
+	 */
+	static MappedLogFile open(final Path path, final long writePosition) throws IOException
+	{
+		final FileChannel channel = FileChannel.open(path, READ, WRITE);
+		try
+		{
+			final MappedLogFile logFile = new MappedLogFile(path, readHeader(path, channel), channel, writePosition);
+			logFile.map(Math.max(INITIAL_MAPPED_SIZE, writePosition));
+			return logFile;
+		}
+		catch (IOException | RuntimeException exception)
+		{
+			channel.close();
+			throw exception;
+		}
+	}
+
+
+	/**
+	 * Read the generation from the header of a log file, without opening it for appending
+	 *
+	 * @param path the log file
+	 * @return the generation of the log file
+	 * @throws IOException if the file is not a sealed log file
+	 */
+	static long generation(final Path path) throws IOException
+	{
+		try (final FileChannel channel = FileChannel.open(path, READ))
+		{
+			return readHeader(path, channel);
+		}
+	}
+
+
+	/**
+	 * Append a record
+	 *
+	 * @param record the record to append
+	 * @throws IOException if the log could not be extended
+	 */
+	void append(final MappedLogRecord record) throws IOException
+	{
+		if (writePosition + MappedLogRecord.SIZE > mapped.capacity())
+		{
+			if (mapped.capacity() >= MAXIMUM_MAPPED_SIZE)
+			{
+				throw new IOException(path.getFileName() + " has reached its maximum size.");
+			}
+			map(Math.min(MAXIMUM_MAPPED_SIZE, (long) mapped.capacity() * 2));
+		}
+
+		record.encode(mapped, (int) writePosition);
+		writePosition += MappedLogRecord.SIZE;
+	}
+
+
+	/**
+	 * Copy the records appended at or after a position to a log writer
+	 *
+	 * @param fromPosition the position of the first record to copy
+	 * @param writer the log writer
+	 * @throws IOException if the records could not be written
+	 */
+	void transferTo(final long fromPosition, final MappedLogWriter writer) throws IOException
+	{
+		for (long position = fromPosition; position < writePosition; position += MappedLogRecord.SIZE)
+		{
+			writer.write(MappedLogRecord.decode(mapped, (int) position));
+		}
+	}
+
+
+	/**
+	 * Write appended records through to the storage device
+	 */
+	void force()
+	{
+		mapped.force();
+	}
+
+
+	Path path()
+	{
+		return path;
+	}
+
+
+	long generation()
+	{
+		return generation;
+	}
+
+
+	long writePosition()
+	{
+		return writePosition;
+	}
+
+
+	/**
+	 * Get the number of records in the log, including records that have since been replaced or deleted
+	 *
+	 * @return the number of records appended to the log
+	 */
+	long recordCount()
+	{
+		return (writePosition - HEADER_SIZE) / MappedLogRecord.SIZE;
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		force();
+		channel.close();
+	}
+
+
+	private void map(final long size) throws IOException
+	{
+		// mapping beyond the end of the file extends it; the unwritten space reads as zeros
+		mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+
+	private static long readHeader(final Path path, final FileChannel channel) throws IOException
+	{
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining())
+		{
+			if (channel.read(header, header.position()) < 0)
+			{
+				throw new IOException(path.getFileName() + " is not a sealed death location log.");
+			}
+		}
+		header.flip();
+
+		if (header.getInt() != MAGIC)
+		{
+			throw new IOException(path.getFileName() + " is not a sealed death location log.");
+		}
+
+		final short version = header.getShort();
+		if (version > VERSION)
+		{
+			throw new IOException(path.getFileName() + " was written by a newer log format version (" + version + ").");
+		}
+
+		header.getShort();
+		return header.getLong();
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.mappedlog;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+
+public enum MappedLogMessage
+{
+	DATASTORE_INITIALIZE_NOTICE("{0} datastore initialized."),
+	DATASTORE_INITIALIZE_ERROR("The {0} datastore is already initialized."),
+	DATASTORE_NOT_INITIALIZED_ERROR("The {0} datastore is not initialized."),
+	DATASTORE_CLOSE_NOTICE("{0} datastore closed."),
+	DATASTORE_CLOSE_ERROR("An error occurred while closing the {0} datastore."),
+
+	LOG_REPLAYED_NOTICE("Replayed {1} log records into {0} death locations in {2} ms."),
+	APPEND_RECORD_ERROR("An error occurred while appending a record to the {0} datastore."),
+	COMPACTION_NOTICE("Compacted {0} log records to {1} death locations in {2} ms."),
+	COMPACTION_ERROR("An error occurred while compacting the {0} datastore."),
+	DELETE_RECORDS_NOTICE("{0} death location records deleted for {1}."),
+
+	BACKUP_NOTICE("Backed up the {0} datastore to {1} ({2} bytes) in {3} ms."),
+	BACKUP_ERROR("An error occurred while backing up the {0} datastore."),
+	;
+
+	private final String defaultMessage;
+
+
+	MappedLogMessage(final String defaultMessage)
+	{
+		this.defaultMessage = defaultMessage;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return defaultMessage;
+	}
+
+
+	public String getLocalizedMessage(final Locale locale)
+	{
+		try
+		{
+			ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			return bundle.getString(name());
+		}
+		catch (MissingResourceException exception)
+		{
+			return this.defaultMessage;
+		}
+	}
+
+
+	public String getLocalizedMessage(final Locale locale, final Object... objects)
+	{
+		try
+		{
+			final ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			String pattern = bundle.getString(name());
+			return MessageFormat.format(pattern, objects);
+		}
+		catch (MissingResourceException exception)
+		{
+			return MessageFormat.format(this.defaultMessage, objects);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.mappedlog;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+
+/**
+ * A fixed-size record of the death location log. Each record either puts a death location for a player and world,
+ * replacing any earlier record for the same key, or deletes it.
+ * <pre>
+ * int     record type (1 = put, 2 = delete; 0 marks unwritten space at the end of the log)
+ * long    player UUID most significant bits
+ * long    player UUID least significant bits
+ * long    world UUID most significant bits
+ * long    world UUID least significant bits
+ * double  x
+ * double  y
+ * double  z
+ * long    death time, in milliseconds since the epoch
+ * int     CRC32 of the preceding bytes of the record
+ * </pre>
+ */
+record MappedLogRecord(int type, UUID playerUid, UUID worldUid, double x, double y, double z, long deathTime)
+{
+	static final int SIZE = 72;
+	static final int TYPE_PUT = 1;
+	static final int TYPE_DELETE = 2;
+	private static final int CHECKSUM_OFFSET = SIZE - Integer.BYTES;
+
+
+	static MappedLogRecord put(final UUID playerUid, final UUID worldUid,
+	                           final double x, final double y, final double z, final long deathTime)
+	{
+		return new MappedLogRecord(TYPE_PUT, playerUid, worldUid, x, y, z, deathTime);
+	}
+
+
+	static MappedLogRecord delete(final UUID playerUid, final UUID worldUid)
+	{
+		return new MappedLogRecord(TYPE_DELETE, playerUid, worldUid, 0, 0, 0, 0);
+	}
+
+
+	/**
+	 * Write this record at the given position of a buffer, without changing the buffer position
+	 */
+	void encode(final ByteBuffer buffer, final int position)
+	{
+		buffer.putInt(position, type);
+		buffer.putLong(position + 4, playerUid.getMostSignificantBits());
+		buffer.putLong(position + 12, playerUid.getLeastSignificantBits());
+		buffer.putLong(position + 20, worldUid.getMostSignificantBits());
+		buffer.putLong(position + 28, worldUid.getLeastSignificantBits());
+		buffer.putDouble(position + 36, x);
+		buffer.putDouble(position + 44, y);
+		buffer.putDouble(position + 52, z);
+		buffer.putLong(position + 60, deathTime);
+		buffer.putInt(position + CHECKSUM_OFFSET, checksum(buffer, position));
+	}
+
+
+	/**
+	 * Read a record at the given position of a buffer, without changing the buffer position
+	 *
+	 * @return the record, or {@code null} if the position holds unwritten space or a torn or corrupt record
+	 */
+	static MappedLogRecord decode(final ByteBuffer buffer, final int position)
+	{
+		final int type = buffer.getInt(position);
+		if (type != TYPE_PUT && type != TYPE_DELETE)
+		{
+			return null;
+		}
+
+		if (buffer.getInt(position + CHECKSUM_OFFSET) != checksum(buffer, position))
+		{
+			return null;
+		}
+
+		return new MappedLogRecord(type,
+				new UUID(buffer.getLong(position + 4), buffer.getLong(position + 12)),
+				new UUID(buffer.getLong(position + 20), buffer.getLong(position + 28)),
+				buffer.getDouble(position + 36),
+				buffer.getDouble(position + 44),
+				buffer.getDouble(position + 52),
+				buffer.getLong(position + 60));
+	}
+
+
+	private static int checksum(final ByteBuffer buffer, final int position)
+	{
+		final CRC32 crc32 = new CRC32();
+		crc32.update(buffer.slice(position, CHECKSUM_OFFSET));
+		return (int) crc32.getValue();
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.mappedlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+
+/**
+ * Writes a new death location log file sequentially through a file channel, for compaction and backups.
+ * The header magic is written only when the file is sealed, so a file that was not completed is never
+ * mistaken for a valid log. Instances are not thread safe.
+ */
+final class MappedLogWriter implements Closeable
+{
+	private static final int BUFFER_RECORDS = 1024;
+
+	private final Path path;
+	private final long generation;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * MappedLogRecord.SIZE);
+	private long position = MappedLogFile.HEADER_SIZE;
+	private boolean sealed;
+
+
+	private MappedLogWriter(final Path path, final long generation, final FileChannel channel)
+	{
+		this.path = path;
+		this.generation = generation;
+		this.channel = channel;
+	}
+
+
+	/**
+	 * Create a log writer, replacing any existing file
+	 *
+	 * @param path the log file to create
+	 * @param generation the generation of the new log
+	 * @return a log writer positioned at the first record
+	 * @throws IOException if the file could not be created
+	 */
+	static MappedLogWriter create(final Path path, final long generation) throws IOException
+	{
+		return new MappedLogWriter(path, generation, FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING));
+	}
+
+
+	/**
+	 * Append a record
+	 *
+	 * @param record the record to write
+	 * @throws IOException if the record could not be written
+	 */
+	void write(final MappedLogRecord record) throws IOException
+	{
+		if (buffer.remaining() < MappedLogRecord.SIZE)
+		{
+			flush();
+		}
+		record.encode(buffer, buffer.position());
+		buffer.position(buffer.position() + MappedLogRecord.SIZE);
+	}
+
+
+	/**
+	 * Write the header and close the file, making it a valid log
+	 *
+	 * @return the end of the last record, for appending
+	 * @throws IOException if the file could not be completed
+	 */
+	long seal() throws IOException
+	{
+		flush();
+		channel.force(true);
+
+		final ByteBuffer header = ByteBuffer.allocate(MappedLogFile.HEADER_SIZE);
+		header.putInt(MappedLogFile.MAGIC);
+		header.putShort(MappedLogFile.VERSION);
+		header.putShort((short) 0);
+		header.putLong(generation);
+		header.flip();
+
+		long headerPosition = 0;
+		while (header.hasRemaining())
+		{
+			headerPosition += channel.write(header, headerPosition);
+		}
+
+		channel.force(true);
+		channel.close();
+		sealed = true;
+		return position;
+	}
+
+
+	Path path()
+	{
+		return path;
+	}
+
+
+	/**
+	 * Close the writer; if the log was not sealed, the file is removed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (!sealed)
+		{
+			channel.close();
+			Files.deleteIfExists(path);
+		}
+	}
+
+
+	private void flush() throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			position += channel.write(buffer, position);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.memory;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.BackupFolder;
+import com.winterhavenmc.deathcompass.adapters.storage.snapshot.DeathLocationSnapshotWriter;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+
+/**
+ * Provides a death location datastore held entirely in memory, for benchmarks, tests and servers
+ * where death locations need not survive a restart. Backups are written as snapshot files,
+ * which the import command can load into any datastore.
+ */
+public final class MemoryConnectionProvider implements ConnectionProvider
+{
+	final static String DATASTORE_NAME = "in-memory";
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final BackupFolder backupFolder;
+	private ScheduledExecutorService storageExecutor;
+	private MemoryDeathLocationRepository deathLocationRepository;
+	private boolean initialized;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 */
+	public MemoryConnectionProvider(final Plugin plugin)
+	{
+		this.plugin = plugin;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.backupFolder = new BackupFolder(plugin, DeathLocationSnapshotWriter.FILE_EXTENSION);
+	}
+
+
+	@Override
+	public ConnectionProvider connect()
+	{
+		// if data store is already initialized, log and return
+		if (this.initialized)
+		{
+			plugin.getLogger().info(MemoryMessage.DATASTORE_INITIALIZE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			return this;
+		}
+
+		// create single thread executor for datastore operations that run off the server thread
+		storageExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		final int maxRecords = plugin.getConfig().getInt("storage.memory.max-records", 0);
+		deathLocationRepository = new MemoryDeathLocationRepository(plugin, configRepository, storageExecutor, maxRecords);
+
+		// start scheduled backups, if enabled
+		if (plugin.getConfig().getBoolean("storage.backup.enabled", false))
+		{
+			final long backupInterval = Math.max(1, plugin.getConfig().getLong("storage.backup.interval", 60));
+			storageExecutor.scheduleWithFixedDelay(() -> backup().exceptionally(throwable -> null),
+					backupInterval, backupInterval, TimeUnit.MINUTES);
+		}
+
+		// set initialized true
+		this.initialized = true;
+		plugin.getLogger().info(MemoryMessage.DATASTORE_INITIALIZE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+
+		return this;
+	}
+
+
+	/**
+	 * Close datastore, after queued datastore operations finish
+	 */
+	@Override
+	public void close()
+	{
+		if (storageExecutor != null)
+		{
+			// periodic tasks are cancelled on shutdown; queued operations are allowed to finish
+			storageExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			storageExecutor.shutdown();
+			try
+			{
+				if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS))
+				{
+					storageExecutor.shutdownNow();
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				storageExecutor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (deathLocationRepository != null)
+		{
+			plugin.getLogger().info(MemoryMessage.DATASTORE_CLOSE_NOTICE.getLocalizedMessage(configRepository.locale(),
+					DATASTORE_NAME, deathLocationRepository.size()));
+		}
+
+		initialized = false;
+	}
+
+
+	/**
+	 * Get instance of DeathLocationRepository
+	 */
+	@Override
+	public DeathLocationRepository deathLocations()
+	{
+		return this.deathLocationRepository;
+	}
+
+
+	/**
+	 * Write the stored death locations to a new snapshot file in the backups folder, on the storage executor
+	 */
+	@Override
+	public CompletableFuture<DatastoreBackup> backup()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					MemoryMessage.DATASTORE_NOT_INITIALIZED_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME)));
+		}
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			final long startTime = System.nanoTime();
+			final Path backupPath;
+			try
+			{
+				// the snapshot writer moves its own temporary file into place when it finishes
+				backupPath = backupFolder.newBackupPath();
+				deathLocationRepository.writeSnapshot(backupPath);
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(MemoryMessage.BACKUP_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+				backupFolder.rotate();
+				throw new CompletionException(exception);
+			}
+
+			backupFolder.rotate();
+
+			final DatastoreBackup backup = new DatastoreBackup(backupPath.getFileName().toString(),
+					BackupFolder.sizeOf(backupPath), Duration.ofNanos(System.nanoTime() - startTime));
+
+			plugin.getLogger().info(MemoryMessage.BACKUP_NOTICE.getLocalizedMessage(configRepository.locale(),
+					DATASTORE_NAME, backup.name(), backup.size(), backup.duration().toMillis()));
+
+			return backup;
+		}, storageExecutor);
+	}
+
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.memory;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.adapters.storage.snapshot.DeathLocationSnapshotWriter;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.memory.MemoryConnectionProvider.DATASTORE_NAME;
+
+
+/**
+ * A death location repository held entirely in memory. The repository writes nothing to disk, so unless
+ * its changes are checkpointed elsewhere, death locations are lost when the server stops.
+ * <p>
+ * Lookups read a concurrent map without locking. Saves and deletes update the map and the save order under
+ * a single lock. If a maximum number of records is configured, the least recently saved records are discarded
+ * to make room for new ones. A change listener, if supplied, is told of each save and delete under the lock,
+ * so a datastore that checkpoints this repository to disk sees every change in order.
+ */
+public final class MemoryDeathLocationRepository implements DeathLocationRepository
+{
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final ExecutorService storageExecutor;
+	private final int maxRecords;
+	private final Map<Key, Entry> index = new ConcurrentHashMap<>();
+	private final Map<UUID, Integer> worldRecordCounts = new ConcurrentHashMap<>();
+	private final Map<UUID, String> worldNames = new ConcurrentHashMap<>();
+	private final Set<Key> saveOrder = new LinkedHashSet<>();
+	private final ChangeListener changeListener;
+	private final Object lock = new Object();
+	private boolean capacityReported;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param storageExecutor the executor for operations that run off the server thread
+	 * @param maxRecords the maximum number of records to hold, or zero for no limit
+	 */
+	MemoryDeathLocationRepository(final Plugin plugin,
+	                              final ConfigRepository configRepository,
+	                              final ExecutorService storageExecutor,
+	                              final int maxRecords)
+	{
+		this(plugin, configRepository, storageExecutor, maxRecords, null);
+	}
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param storageExecutor the executor for operations that run off the server thread
+	 * @param maxRecords the maximum number of records to hold, or zero for no limit
+	 * @param changeListener listener for saves and deletes; may be null. Records discarded to stay within
+	 *                       the maximum are not reported.
+	 */
+	public MemoryDeathLocationRepository(final Plugin plugin,
+	                                     final ConfigRepository configRepository,
+	                                     final ExecutorService storageExecutor,
+	                                     final int maxRecords,
+	                                     final ChangeListener changeListener)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.storageExecutor = storageExecutor;
+		this.maxRecords = Math.max(0, maxRecords);
+		this.changeListener = changeListener;
+	}
+
+
+	@Override
+	public DeathLocation getDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final Entry entry = index.get(new Key(playerUid, worldUid));
+		if (entry == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+		}
+
+		if (plugin.getServer().getWorld(worldUid) == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.WORLD_UNAVAILABLE);
+		}
+
+		return entry.deathLocation();
+	}
+
+
+	@Override
+	public int saveDeathLocation(final ValidDeathLocation deathLocation)
+	{
+		if (deathLocation == null) { return 0; }
+
+		synchronized (lock)
+		{
+			return put(deathLocation, System.currentTimeMillis(), true);
+		}
+	}
+
+
+	@Override
+	public int saveDeathLocations(final Collection<ValidDeathLocation> deathLocations)
+	{
+		if (deathLocations == null || deathLocations.isEmpty()) { return 0; }
+
+		final long deathTime = System.currentTimeMillis();
+		int count = 0;
+
+		synchronized (lock)
+		{
+			for (ValidDeathLocation deathLocation : deathLocations)
+			{
+				count += put(deathLocation, deathTime, true);
+			}
+		}
+
+		return count;
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress)
+	{
+		if (deathRecords == null) { return CompletableFuture.completedFuture(0); }
+
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (deathRecords)
+			{
+				final List<DeathRecord> batch = new ArrayList<>(batchSize);
+				final Iterator<DeathRecord> iterator = deathRecords.iterator();
+				while (iterator.hasNext())
+				{
+					batch.add(iterator.next());
+					if (batch.size() == batchSize || !iterator.hasNext())
+					{
+						count += putAll(batch);
+						batch.clear();
+						progressConsumer.accept(count);
+					}
+				}
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Store a batch of death records, keeping their death times, under the lock
+	 */
+	private int putAll(final Collection<DeathRecord> deathRecords)
+	{
+		int count = 0;
+		synchronized (lock)
+		{
+			for (DeathRecord deathRecord : deathRecords)
+			{
+				count += put(deathRecord.deathLocation(), deathRecord.deathTime(), true);
+			}
+		}
+		return count;
+	}
+
+
+	@Override
+	public DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final DeathLocation deathLocation = getDeathLocation(playerUid, worldUid);
+
+		synchronized (lock)
+		{
+			remove(new Key(playerUid, worldUid));
+		}
+
+		return deathLocation;
+	}
+
+
+	@Override
+	public Map<UUID, String> orphanedWorlds()
+	{
+		final Map<UUID, String> orphanedWorlds = new HashMap<>();
+		for (UUID worldUid : worldRecordCounts.keySet())
+		{
+			if (plugin.getServer().getWorld(worldUid) == null)
+			{
+				orphanedWorlds.put(worldUid, worldNames.getOrDefault(worldUid, worldUid.toString()));
+			}
+		}
+		return orphanedWorlds;
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress)
+	{
+		if (playerUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteMatching(entry -> entry.deathLocation().playerUid().equals(playerUid), "player " + playerUid, progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress)
+	{
+		if (worldUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteMatching(entry -> entry.deathLocation().worldUid().equals(worldUid), "world " + worldUid, progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress)
+	{
+		if (instant == null) { return CompletableFuture.completedFuture(0); }
+
+		final long cutoff = instant.toEpochMilli();
+		return deleteMatching(entry -> entry.deathTime() < cutoff, "records older than " + instant, progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor)
+	{
+		Objects.requireNonNull(visitor);
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			// visit a sorted copy of the keys, in the same order as the other datastores
+			final List<Key> keys = new ArrayList<>(index.keySet());
+			keys.sort(Comparator.comparing(Key::playerUid).thenComparing(Key::worldUid));
+
+			int count = 0;
+			for (Key key : keys)
+			{
+				final Entry entry = index.get(key);
+				if (entry != null)
+				{
+					count++;
+					if (!visitor.test(new DeathRecord(entry.deathLocation(), entry.deathTime())))
+					{
+						break;
+					}
+				}
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Store a death location loaded from another datastore, keeping its original death time,
+	 * without reporting it to the change listener
+	 *
+	 * @param deathLocation the death location
+	 * @param deathTime the time the death location was saved, in milliseconds since the epoch
+	 */
+	public void restore(final ValidDeathLocation deathLocation, final long deathTime)
+	{
+		if (deathLocation == null) { return; }
+
+		synchronized (lock)
+		{
+			put(deathLocation, deathTime, false);
+		}
+	}
+
+
+	/**
+	 * Get the number of stored death locations
+	 *
+	 * @return the number of stored death locations
+	 */
+	public int size()
+	{
+		return index.size();
+	}
+
+
+	/**
+	 * Write the stored death locations to a snapshot file, in key order, for a backup.
+	 * Runs on the storage executor.
+	 *
+	 * @param path the snapshot file to write
+	 * @throws IOException if the file could not be written
+	 */
+	void writeSnapshot(final Path path) throws IOException
+	{
+		final List<Entry> snapshot = index.values().stream()
+				.sorted(Comparator.comparing((Entry entry) -> entry.deathLocation().playerUid())
+						.thenComparing(entry -> entry.deathLocation().worldUid()))
+				.toList();
+
+		try (final DeathLocationSnapshotWriter writer = DeathLocationSnapshotWriter.open(path))
+		{
+			for (Entry entry : snapshot)
+			{
+				writer.write(entry.deathLocation(), entry.deathTime());
+			}
+			writer.finish(worldNames);
+		}
+	}
+
+
+	private CompletableFuture<Integer> deleteMatching(final Predicate<Entry> predicate,
+	                                                  final String description,
+	                                                  final IntConsumer progress)
+	{
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			final List<Key> keys = index.entrySet().stream()
+					.filter(entry -> predicate.test(entry.getValue()))
+					.map(Map.Entry::getKey)
+					.toList();
+
+			// remove in bounded batches, so saves from the server thread are not held up for long
+			int count = 0;
+			for (int start = 0; start < keys.size(); start += batchSize)
+			{
+				synchronized (lock)
+				{
+					for (Key key : keys.subList(start, Math.min(keys.size(), start + batchSize)))
+					{
+						count += remove(key);
+					}
+				}
+				progressConsumer.accept(count);
+			}
+
+			plugin.getLogger().info(MemoryMessage.DELETE_RECORDS_NOTICE.getLocalizedMessage(configRepository.locale(), count, description));
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Store a death location, discarding the least recently saved records if the maximum is exceeded;
+	 * must be called holding the lock
+	 */
+	private int put(final ValidDeathLocation deathLocation, final long deathTime, final boolean report)
+	{
+		final Key key = new Key(deathLocation.playerUid(), deathLocation.worldUid());
+
+		final World world = plugin.getServer().getWorld(deathLocation.worldUid());
+		if (world != null)
+		{
+			worldNames.put(deathLocation.worldUid(), world.getName());
+		}
+
+		// move the key to the end of the save order
+		saveOrder.remove(key);
+		saveOrder.add(key);
+
+		if (report && changeListener != null)
+		{
+			changeListener.saved(deathLocation, deathTime);
+		}
+
+		if (index.put(key, new Entry(deathLocation, deathTime)) == null)
+		{
+			worldRecordCounts.merge(deathLocation.worldUid(), 1, Integer::sum);
+
+			if (maxRecords > 0 && index.size() > maxRecords)
+			{
+				evictOldest();
+			}
+		}
+
+		return 1;
+	}
+
+
+	/**
+	 * Discard the least recently saved records until the maximum is no longer exceeded;
+	 * must be called holding the lock
+	 */
+	private void evictOldest()
+	{
+		if (!capacityReported)
+		{
+			plugin.getLogger().warning(MemoryMessage.CAPACITY_REACHED_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME, maxRecords));
+			capacityReported = true;
+		}
+
+		final Iterator<Key> iterator = saveOrder.iterator();
+		while (index.size() > maxRecords && iterator.hasNext())
+		{
+			final Key key = iterator.next();
+			iterator.remove();
+			removeFromIndex(key);
+		}
+	}
+
+
+	/**
+	 * Remove a death location, if present; must be called holding the lock
+	 */
+	private int remove(final Key key)
+	{
+		if (removeFromIndex(key))
+		{
+			saveOrder.remove(key);
+			if (changeListener != null)
+			{
+				changeListener.deleted(key.playerUid(), key.worldUid());
+			}
+			return 1;
+		}
+		return 0;
+	}
+
+
+	private boolean removeFromIndex(final Key key)
+	{
+		if (index.remove(key) != null)
+		{
+			worldRecordCounts.computeIfPresent(key.worldUid(), (worldUid, count) -> (count > 1) ? count - 1 : null);
+			return true;
+		}
+		return false;
+	}
+
+
+	private int batchSize()
+	{
+		return Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+	}
+
+
+	/**
+	 * Receives saves and deletes as they are applied, while the repository lock is held
+	 */
+	public interface ChangeListener
+	{
+		void saved(ValidDeathLocation deathLocation, long deathTime);
+		void deleted(UUID playerUid, UUID worldUid);
+	}
+
+
+	/**
+	 * The key of a death location
+	 */
+	private record Key(UUID playerUid, UUID worldUid) { }
+
+
+	/**
+	 * The death location for a key, with the time it was saved
+	 */
+	private record Entry(ValidDeathLocation deathLocation, long deathTime) { }
+
+}
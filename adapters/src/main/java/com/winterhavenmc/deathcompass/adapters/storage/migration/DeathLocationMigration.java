@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.migration;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * The background job of a migration: copies the death locations of the source repository to the target,
+ * verifies the copy by comparing checksums, repairs any differences, and then cuts reads over to the target.
+ * <p>
+ * Records are streamed from the source to the target through a small bounded queue, so neither side holds more
+ * than a few batches in memory. Verification divides the key space into buckets by the high byte of the player
+ * UUID, and compares a record count and an order-independent checksum for each bucket. Buckets that differ,
+ * because a record was copied just before a dual write changed it, or deleted while the copy was running,
+ * are copied again, written keys included, and their surplus target records deleted, until both sides agree.
+ * The cut-over is recorded in the migration state file, so a restart reads from the target without copying again.
+ */
+final class DeathLocationMigration
+{
+	final static String STATE_FILE = "migration.properties";
+
+	private final static int BUCKETS = 256;
+	private final static int MAX_VERIFY_ROUNDS = 5;
+	private final static long QUEUE_WAIT_MILLIS = 100;
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final DualWriteDeathLocationRepository repository;
+	private final DeathLocationRepository source;
+	private final DeathLocationRepository target;
+	private final String sourceName;
+	private final String targetName;
+	private final Path statePath;
+	private final int batchSize;
+	private volatile boolean cancelled;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param repository the dual write repository whose reads are cut over
+	 * @param source the repository being migrated from
+	 * @param target the repository being migrated to
+	 * @param sourceName the configuration name of the source storage type
+	 * @param targetName the configuration name of the target storage type
+	 * @param statePath the migration state file
+	 * @param batchSize the number of records per fetch and per queued batch
+	 */
+	DeathLocationMigration(final Plugin plugin,
+	                       final ConfigRepository configRepository,
+	                       final DualWriteDeathLocationRepository repository,
+	                       final DeathLocationRepository source,
+	                       final DeathLocationRepository target,
+	                       final String sourceName,
+	                       final String targetName,
+	                       final Path statePath,
+	                       final int batchSize)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.repository = repository;
+		this.source = source;
+		this.target = target;
+		this.sourceName = sourceName;
+		this.targetName = targetName;
+		this.statePath = statePath;
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+
+	/**
+	 * Cut over at once if the state file records a finished migration between the same storage types
+	 *
+	 * @return true if reads were cut over to the target
+	 */
+	boolean resume()
+	{
+		final Properties state = new Properties();
+		if (Files.exists(statePath))
+		{
+			try (final InputStream inputStream = Files.newInputStream(statePath))
+			{
+				state.load(inputStream);
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+			}
+		}
+
+		if (sourceName.equals(state.getProperty("source"))
+				&& targetName.equals(state.getProperty("target"))
+				&& "cut-over".equals(state.getProperty("phase")))
+		{
+			repository.cutOver();
+			plugin.getLogger().info(MigrationMessage.CUT_OVER_RESUMED_NOTICE.getLocalizedMessage(configRepository.locale(), sourceName, targetName));
+			return true;
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * Copy, verify and cut over, on the calling thread
+	 *
+	 * @return true if reads were cut over to the target
+	 */
+	boolean run()
+	{
+		final long startTime = System.nanoTime();
+		plugin.getLogger().info(MigrationMessage.MIGRATION_START_NOTICE.getLocalizedMessage(configRepository.locale(), sourceName, targetName));
+
+		final int copied = copy(deathLocation -> true, true);
+		if (cancelled) { return false; }
+		plugin.getLogger().info(MigrationMessage.COPY_COMPLETE_NOTICE.getLocalizedMessage(configRepository.locale(), copied, targetName));
+
+		for (int round = 1; round <= MAX_VERIFY_ROUNDS && !cancelled; round++)
+		{
+			final Set<Integer> differentBuckets = compareDigests();
+			if (cancelled) { return false; }
+
+			if (differentBuckets.isEmpty())
+			{
+				repository.cutOver();
+				writeState("cut-over");
+				plugin.getLogger().info(MigrationMessage.CUT_OVER_NOTICE.getLocalizedMessage(configRepository.locale(),
+						sourceName, targetName, Duration.ofNanos(System.nanoTime() - startTime).toSeconds()));
+				return true;
+			}
+
+			plugin.getLogger().info(MigrationMessage.VERIFY_MISMATCH_NOTICE.getLocalizedMessage(configRepository.locale(), differentBuckets.size(), round));
+			repair(differentBuckets);
+		}
+
+		if (!cancelled)
+		{
+			plugin.getLogger().warning(MigrationMessage.VERIFY_FAILED_ERROR.getLocalizedMessage(configRepository.locale(), targetName, MAX_VERIFY_ROUNDS));
+		}
+		return false;
+	}
+
+
+	/**
+	 * Stop the job at the next record
+	 */
+	void cancel()
+	{
+		this.cancelled = true;
+	}
+
+
+	/**
+	 * Stream the matching source records to the target, keeping their death times
+	 *
+	 * @param filter the records to copy
+	 * @param skipWritten whether to skip records written since the migration started, which the dual writes
+	 *                    have already brought up to date
+	 * @return the number of records copied
+	 */
+	private int copy(final Predicate<ValidDeathLocation> filter, final boolean skipWritten)
+	{
+		final BlockingQueue<DeathRecord> queue = new ArrayBlockingQueue<>(batchSize * 2);
+		final CompletableFuture<Void> sourceDone = new CompletableFuture<>();
+		final CompletableFuture<Integer> copied = target.saveDeathRecords(drain(queue, sourceDone, skipWritten), null);
+
+		source.forEachDeathRecord(batchSize, deathRecord ->
+		{
+			final ValidDeathLocation deathLocation = deathRecord.deathLocation();
+			if (!filter.test(deathLocation) || (skipWritten && written(deathLocation)))
+			{
+				return !cancelled;
+			}
+			return offer(queue, deathRecord, copied);
+		}).whenComplete((count, throwable) -> sourceDone.complete(null));
+
+		try
+		{
+			return copied.join();
+		}
+		catch (CompletionException | CancellationException exception)
+		{
+			plugin.getLogger().warning(MigrationMessage.COPY_ERROR.getLocalizedMessage(configRepository.locale(), targetName));
+			cancel();
+			return 0;
+		}
+	}
+
+
+	/**
+	 * Put a record on the queue, waiting while the queue is full unless the job is cancelled or the target has stopped
+	 */
+	private boolean offer(final BlockingQueue<DeathRecord> queue,
+	                      final DeathRecord deathRecord,
+	                      final CompletableFuture<Integer> copied)
+	{
+		try
+		{
+			while (!queue.offer(deathRecord, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+			{
+				if (cancelled || copied.isDone())
+				{
+					return false;
+				}
+			}
+			return !cancelled;
+		}
+		catch (InterruptedException interruptedException)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+
+	/**
+	 * A stream of the records put on a queue, which ends when the source is done and the queue is empty. Records are
+	 * checked again for dual writes as the target takes them, since a record may be written while it waits.
+	 */
+	private Stream<DeathRecord> drain(final BlockingQueue<DeathRecord> queue,
+	                                  final CompletableFuture<Void> sourceDone,
+	                                  final boolean skipWritten)
+	{
+		return StreamSupport.stream(new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.NONNULL)
+		{
+			@Override
+			public boolean tryAdvance(final Consumer<? super DeathRecord> action)
+			{
+				try
+				{
+					while (true)
+					{
+						// checked before polling, so a record put just before the source finished is not missed
+						final boolean done = sourceDone.isDone();
+						final DeathRecord deathRecord = queue.poll(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+						if (deathRecord != null && skipWritten && written(deathRecord.deathLocation()))
+						{
+							continue;
+						}
+						if (deathRecord != null)
+						{
+							action.accept(deathRecord);
+							return true;
+						}
+						if (done)
+						{
+							return false;
+						}
+					}
+				}
+				catch (InterruptedException interruptedException)
+				{
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}, false);
+	}
+
+
+	/**
+	 * Get the buckets whose record count or checksum differ between the source and the target
+	 */
+	private Set<Integer> compareDigests()
+	{
+		final Digest sourceDigest = digest(source);
+		final Digest targetDigest = digest(target);
+
+		final Set<Integer> differentBuckets = new TreeSet<>();
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			if (sourceDigest.counts()[bucket] != targetDigest.counts()[bucket]
+					|| sourceDigest.checksums()[bucket] != targetDigest.checksums()[bucket])
+			{
+				differentBuckets.add(bucket);
+			}
+		}
+		return differentBuckets;
+	}
+
+
+	private Digest digest(final DeathLocationRepository repository)
+	{
+		final Digest digest = new Digest(new long[BUCKETS], new long[BUCKETS]);
+		repository.forEachDeathLocation(batchSize, deathLocation ->
+		{
+			final int bucket = bucket(deathLocation.playerUid());
+			digest.counts()[bucket]++;
+			digest.checksums()[bucket] += checksum(deathLocation);
+			return !cancelled;
+		}).join();
+		return digest;
+	}
+
+
+	/**
+	 * Copy the source records of the given buckets to the target again, including records written since the
+	 * migration started, since a copy may have overwritten a dual write. Then delete target records in those
+	 * buckets that the source does not hold; a written record is looked up in the source again first, since it
+	 * may have been saved after the source was read.
+	 */
+	private void repair(final Set<Integer> buckets)
+	{
+		final Set<Key> surplusKeys = ConcurrentHashMap.newKeySet();
+		target.forEachDeathLocation(batchSize, deathLocation ->
+		{
+			if (buckets.contains(bucket(deathLocation.playerUid())))
+			{
+				surplusKeys.add(new Key(deathLocation.playerUid(), deathLocation.worldUid()));
+			}
+			return !cancelled;
+		}).join();
+
+		copy(deathLocation ->
+		{
+			final boolean inBucket = buckets.contains(bucket(deathLocation.playerUid()));
+			if (inBucket)
+			{
+				surplusKeys.remove(new Key(deathLocation.playerUid(), deathLocation.worldUid()));
+			}
+			return inBucket;
+		}, false);
+
+		for (Key key : surplusKeys)
+		{
+			if (cancelled) { return; }
+			if (!repository.written(key.playerUid(), key.worldUid()) || absentFromSource(key))
+			{
+				target.deleteDeathLocation(key.playerUid(), key.worldUid());
+			}
+		}
+	}
+
+
+	private boolean absentFromSource(final Key key)
+	{
+		return source.getDeathLocation(key.playerUid(), key.worldUid()) instanceof InvalidDeathLocation invalidDeathLocation
+				&& invalidDeathLocation.reason() == DeathLocationReason.RECORD_NOT_FOUND;
+	}
+
+
+	private boolean written(final ValidDeathLocation deathLocation)
+	{
+		return repository.written(deathLocation.playerUid(), deathLocation.worldUid());
+	}
+
+
+	private void writeState(final String phase)
+	{
+		final Properties state = new Properties();
+		state.setProperty("source", sourceName);
+		state.setProperty("target", targetName);
+		state.setProperty("phase", phase);
+
+		final Path temporaryPath = statePath.resolveSibling(statePath.getFileName() + ".tmp");
+		try
+		{
+			try (final OutputStream outputStream = Files.newOutputStream(temporaryPath))
+			{
+				state.store(outputStream, "death location datastore migration; delete this file to migrate again");
+			}
+			Files.move(temporaryPath, statePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(MigrationMessage.STATE_WRITE_ERROR.getLocalizedMessage(configRepository.locale()));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	private static int bucket(final UUID playerUid)
+	{
+		return (int) (playerUid.getMostSignificantBits() >>> 56);
+	}
+
+
+	/**
+	 * A well-mixed hash of every field of a death location, summed per bucket so the order of records does not matter
+	 */
+	private static long checksum(final ValidDeathLocation deathLocation)
+	{
+		long hash = mix(deathLocation.playerUid().getMostSignificantBits());
+		hash = mix(hash ^ deathLocation.playerUid().getLeastSignificantBits());
+		hash = mix(hash ^ deathLocation.worldUid().getMostSignificantBits());
+		hash = mix(hash ^ deathLocation.worldUid().getLeastSignificantBits());
+		hash = mix(hash ^ Double.doubleToLongBits(deathLocation.x()));
+		hash = mix(hash ^ Double.doubleToLongBits(deathLocation.y()));
+		return mix(hash ^ Double.doubleToLongBits(deathLocation.z()));
+	}
+
+
+	/**
+	 * The SplitMix64 finalizer
+	 */
+	private static long mix(long value)
+	{
+		value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+		return value ^ (value >>> 31);
+	}
+
+
+	/**
+	 * The record count and checksum of each bucket of a repository
+	 */
+	private record Digest(long[] counts, long[] checksums) { }
+
+
+	/**
+	 * The key of a death location
+	 */
+	private record Key(UUID playerUid, UUID worldUid) { }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.migration;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+
+/**
+ * A repository that writes every change to both the datastore being migrated from and the datastore being
+ * migrated to, and reads from the first until the migration cuts over to the second. Counts returned by
+ * writes are those of the datastore being read.
+ * <p>
+ * Keys written while the migration runs are remembered, so the background copy can skip records that
+ * the dual writes have already brought up to date.
+ */
+final class DualWriteDeathLocationRepository implements DeathLocationRepository
+{
+	private final DeathLocationRepository source;
+	private final DeathLocationRepository target;
+	private final ExecutorService migrationExecutor;
+	private final int batchSize;
+	private final Set<Key> writtenKeys = ConcurrentHashMap.newKeySet();
+	private volatile boolean cutOver;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param source the repository being migrated from
+	 * @param target the repository being migrated to
+	 * @param migrationExecutor the executor for stream saves, which are split between the two repositories
+	 * @param batchSize the number of records per batch of a stream save
+	 */
+	DualWriteDeathLocationRepository(final DeathLocationRepository source,
+	                                 final DeathLocationRepository target,
+	                                 final ExecutorService migrationExecutor,
+	                                 final int batchSize)
+	{
+		this.source = source;
+		this.target = target;
+		this.migrationExecutor = migrationExecutor;
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+
+	/**
+	 * Read from the target repository from now on
+	 */
+	void cutOver()
+	{
+		this.cutOver = true;
+	}
+
+
+	boolean isCutOver()
+	{
+		return cutOver;
+	}
+
+
+	/**
+	 * Check whether a key has been written since the migration started
+	 */
+	boolean written(final UUID playerUid, final UUID worldUid)
+	{
+		return writtenKeys.contains(new Key(playerUid, worldUid));
+	}
+
+
+	private DeathLocationRepository reader()
+	{
+		return (cutOver) ? target : source;
+	}
+
+
+	@Override
+	public DeathLocation getDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		return reader().getDeathLocation(playerUid, worldUid);
+	}
+
+
+	@Override
+	public int saveDeathLocation(final ValidDeathLocation deathLocation)
+	{
+		if (deathLocation == null) { return 0; }
+
+		writtenKeys.add(new Key(deathLocation.playerUid(), deathLocation.worldUid()));
+		final int sourceCount = source.saveDeathLocation(deathLocation);
+		final int targetCount = target.saveDeathLocation(deathLocation);
+		return (cutOver) ? targetCount : sourceCount;
+	}
+
+
+	@Override
+	public int saveDeathLocations(final Collection<ValidDeathLocation> deathLocations)
+	{
+		if (deathLocations == null || deathLocations.isEmpty()) { return 0; }
+
+		deathLocations.forEach(deathLocation -> writtenKeys.add(new Key(deathLocation.playerUid(), deathLocation.worldUid())));
+		final int sourceCount = source.saveDeathLocations(deathLocations);
+		final int targetCount = target.saveDeathLocations(deathLocations);
+		return (cutOver) ? targetCount : sourceCount;
+	}
+
+
+	/**
+	 * Save a stream of death records to both repositories, a batch at a time, so the stream is read only once
+	 * and is not collected into memory
+	 */
+	@Override
+	public CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress)
+	{
+		if (deathRecords == null) { return CompletableFuture.completedFuture(0); }
+
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (deathRecords)
+			{
+				final List<DeathRecord> batch = new ArrayList<>(batchSize);
+				final Iterator<DeathRecord> iterator = deathRecords.iterator();
+				while (iterator.hasNext())
+				{
+					batch.add(iterator.next());
+					if (batch.size() == batchSize || !iterator.hasNext())
+					{
+						count += saveBatch(batch);
+						batch.clear();
+						progressConsumer.accept(count);
+					}
+				}
+			}
+			return count;
+		}, migrationExecutor);
+	}
+
+
+	/**
+	 * Save a batch of death records to both repositories, keeping their death times, and wait for both to finish
+	 */
+	private int saveBatch(final List<DeathRecord> batch)
+	{
+		batch.forEach(deathRecord -> writtenKeys.add(new Key(deathRecord.deathLocation().playerUid(), deathRecord.deathLocation().worldUid())));
+		final List<DeathRecord> records = List.copyOf(batch);
+		final int sourceCount = source.saveDeathRecords(records.stream(), null).join();
+		final int targetCount = target.saveDeathRecords(records.stream(), null).join();
+		return (cutOver) ? targetCount : sourceCount;
+	}
+
+
+	@Override
+	public DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid != null && worldUid != null)
+		{
+			writtenKeys.add(new Key(playerUid, worldUid));
+		}
+
+		final DeathLocation sourceDeathLocation = source.deleteDeathLocation(playerUid, worldUid);
+		final DeathLocation targetDeathLocation = target.deleteDeathLocation(playerUid, worldUid);
+		return (cutOver) ? targetDeathLocation : sourceDeathLocation;
+	}
+
+
+	@Override
+	public Map<UUID, String> orphanedWorlds()
+	{
+		return reader().orphanedWorlds();
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress)
+	{
+		return both(source.deleteDeathLocationsByPlayer(playerUid, progress(false, progress)),
+				target.deleteDeathLocationsByPlayer(playerUid, progress(true, progress)));
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress)
+	{
+		return both(source.deleteDeathLocationsByWorld(worldUid, progress(false, progress)),
+				target.deleteDeathLocationsByWorld(worldUid, progress(true, progress)));
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress)
+	{
+		return both(source.deleteDeathLocationsOlderThan(instant, progress(false, progress)),
+				target.deleteDeathLocationsOlderThan(instant, progress(true, progress)));
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor)
+	{
+		return reader().forEachDeathRecord(fetchSize, visitor);
+	}
+
+
+	/**
+	 * Pass on the progress of the repository being read, and ignore the other
+	 */
+	private IntConsumer progress(final boolean ofTarget, final IntConsumer progress)
+	{
+		return (progress != null && ofTarget == cutOver) ? progress : null;
+	}
+
+
+	/**
+	 * Wait for an operation to finish on both repositories, and complete with the count of the one being read
+	 */
+	private CompletableFuture<Integer> both(final CompletableFuture<Integer> sourceFuture,
+	                                        final CompletableFuture<Integer> targetFuture)
+	{
+		final boolean readTarget = cutOver;
+		return sourceFuture.thenCombine(targetFuture, (sourceCount, targetCount) -> (readTarget) ? targetCount : sourceCount);
+	}
+
+
+	/**
+	 * The key of a death location
+	 */
+	private record Key(UUID playerUid, UUID worldUid) { }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.migration;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.StorageType;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Provides a datastore that migrates death locations from one storage type to another while the server runs.
+ * Changes are written to both datastores and read from the source, while a background job copies and verifies
+ * the existing records; once the copy is verified, reads are cut over to the target. Writes continue to go
+ * to both datastores, so the source stays complete until storage.type is changed to the target.
+ */
+public final class MigrationConnectionProvider implements ConnectionProvider
+{
+	private final static Set<StorageType> SQLITE_DATABASE_TYPES = EnumSet.of(StorageType.SQLITE, StorageType.CHECKPOINT);
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final String sourceName;
+	private final String targetName;
+	private ConnectionProvider sourceProvider;
+	private ConnectionProvider targetProvider;
+	private ExecutorService migrationExecutor;
+	private DualWriteDeathLocationRepository deathLocationRepository;
+	private DeathLocationMigration migration;
+	private boolean initialized;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 */
+	public MigrationConnectionProvider(final Plugin plugin)
+	{
+		this.plugin = plugin;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.sourceName = plugin.getConfig().getString("storage.migration.source", StorageType.SQLITE.configName());
+		this.targetName = plugin.getConfig().getString("storage.migration.target", StorageType.JDBC.configName());
+	}
+
+
+	@Override
+	public ConnectionProvider connect()
+	{
+		try
+		{
+			initialize();
+		}
+		catch (Exception exception)
+		{
+			plugin.getLogger().severe("Could not initialize the datastore!");
+			plugin.getLogger().severe(exception.getLocalizedMessage());
+		}
+
+		return this;
+	}
+
+
+	private void initialize()
+	{
+		// if data store is already initialized, log and return
+		if (this.initialized)
+		{
+			plugin.getLogger().info(MigrationMessage.DATASTORE_INITIALIZE_ERROR.getLocalizedMessage(configRepository.locale()));
+			return;
+		}
+
+		final StorageType sourceType = StorageType.named(sourceName).orElse(null);
+		final StorageType targetType = StorageType.named(targetName).orElse(null);
+		if (sourceType == null || targetType == null || sourceType == targetType
+				|| sourceType == StorageType.MIGRATION || targetType == StorageType.MIGRATION
+				|| (SQLITE_DATABASE_TYPES.contains(sourceType) && SQLITE_DATABASE_TYPES.contains(targetType)))
+		{
+			throw new IllegalStateException(MigrationMessage.DATASTORE_TYPES_INVALID_ERROR
+					.getLocalizedMessage(configRepository.locale(), sourceName, targetName));
+		}
+
+		sourceProvider = sourceType.createProvider(plugin).connect();
+		targetProvider = targetType.createProvider(plugin).connect();
+		if (sourceProvider.deathLocations() == null || targetProvider.deathLocations() == null)
+		{
+			close();
+			throw new IllegalStateException(MigrationMessage.MIGRATION_ERROR.getLocalizedMessage(configRepository.locale()));
+		}
+
+		// single thread executor for the migration job and for stream saves to both datastores
+		migrationExecutor = Executors.newSingleThreadExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Migration");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		final int batchSize = Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+		deathLocationRepository = new DualWriteDeathLocationRepository(sourceProvider.deathLocations(),
+				targetProvider.deathLocations(), migrationExecutor, batchSize);
+		migration = new DeathLocationMigration(plugin, configRepository, deathLocationRepository,
+				sourceProvider.deathLocations(), targetProvider.deathLocations(), sourceType.configName(), targetType.configName(),
+				plugin.getDataFolder().toPath().resolve(DeathLocationMigration.STATE_FILE), batchSize);
+
+		// set initialized true
+		this.initialized = true;
+		plugin.getLogger().info(MigrationMessage.DATASTORE_INITIALIZE_NOTICE.getLocalizedMessage(configRepository.locale(),
+				sourceType.configName(), targetType.configName()));
+
+		if (!migration.resume())
+		{
+			CompletableFuture.supplyAsync(migration::run, migrationExecutor).exceptionally(throwable ->
+			{
+				plugin.getLogger().warning(MigrationMessage.MIGRATION_ERROR.getLocalizedMessage(configRepository.locale()));
+				plugin.getLogger().warning(throwable.getLocalizedMessage());
+				return false;
+			});
+		}
+	}
+
+
+	/**
+	 * Stop the migration job, then close both datastores
+	 */
+	@Override
+	public void close()
+	{
+		if (migration != null)
+		{
+			migration.cancel();
+		}
+
+		if (migrationExecutor != null)
+		{
+			migrationExecutor.shutdown();
+			try
+			{
+				if (!migrationExecutor.awaitTermination(10, TimeUnit.SECONDS))
+				{
+					migrationExecutor.shutdownNow();
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				migrationExecutor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (targetProvider != null)
+		{
+			targetProvider.close();
+		}
+		if (sourceProvider != null)
+		{
+			sourceProvider.close();
+		}
+
+		if (initialized)
+		{
+			plugin.getLogger().info(MigrationMessage.DATASTORE_CLOSE_NOTICE.getLocalizedMessage(configRepository.locale()));
+		}
+		initialized = false;
+	}
+
+
+	/**
+	 * Get instance of DeathLocationRepository
+	 */
+	@Override
+	public DeathLocationRepository deathLocations()
+	{
+		return this.deathLocationRepository;
+	}
+
+
+	/**
+	 * Back up the datastore that reads currently use
+	 */
+	@Override
+	public CompletableFuture<DatastoreBackup> backup()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					MigrationMessage.MIGRATION_ERROR.getLocalizedMessage(configRepository.locale())));
+		}
+
+		return (deathLocationRepository.isCutOver()) ? targetProvider.backup() : sourceProvider.backup();
+	}
+
+
+	/**
+	 * Report the storage tiers of both datastores, source first
+	 */
+	@Override
+	public CompletableFuture<List<DatastoreTier>> tiers()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.completedFuture(List.of());
+		}
+
+		return sourceProvider.tiers().thenCombine(targetProvider.tiers(),
+				(sourceTiers, targetTiers) -> Stream.concat(sourceTiers.stream(), targetTiers.stream()).toList());
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.migration;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+
+public enum MigrationMessage
+{
+	DATASTORE_INITIALIZE_NOTICE("Migration datastore initialized, reading from {0} and writing to {0} and {1}."),
+	DATASTORE_INITIALIZE_ERROR("The migration datastore is already initialized."),
+	DATASTORE_TYPES_INVALID_ERROR("Cannot migrate from storage type ''{0}'' to ''{1}''. Set storage.migration.source and storage.migration.target to two different storage types that do not share a database."),
+	DATASTORE_CLOSE_NOTICE("Migration datastore closed."),
+
+	MIGRATION_START_NOTICE("Migrating death locations from {0} to {1} in the background."),
+	COPY_COMPLETE_NOTICE("{0} death locations copied to {1}. Verifying the copy."),
+	COPY_ERROR("An error occurred while copying death locations to {0}. The migration will be retried at the next startup."),
+	VERIFY_MISMATCH_NOTICE("{0} key ranges differ after verification round {1}. Copying them again."),
+	VERIFY_FAILED_ERROR("The copy in {0} still differs after {1} verification rounds. Reads stay on the old datastore; the migration will be retried at the next startup."),
+	CUT_OVER_NOTICE("Migration from {0} to {1} verified after {2} seconds. Reads now use {1}. Set storage.type to {1} at the next restart to finish."),
+	CUT_OVER_RESUMED_NOTICE("Migration from {0} to {1} was completed earlier. Reads use {1}. Set storage.type to {1} to finish."),
+	STATE_WRITE_ERROR("The migration state file could not be written. The migration will be verified again at the next startup."),
+	MIGRATION_ERROR("An error occurred while migrating death locations."),
+	;
+
+	private final String defaultMessage;
+
+
+	MigrationMessage(final String defaultMessage)
+	{
+		this.defaultMessage = defaultMessage;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return defaultMessage;
+	}
+
+
+	public String getLocalizedMessage(final Locale locale)
+	{
+		try
+		{
+			ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			return bundle.getString(name());
+		}
+		catch (MissingResourceException exception)
+		{
+			return this.defaultMessage;
+		}
+	}
+
+
+	public String getLocalizedMessage(final Locale locale, final Object... objects)
+	{
+		try
+		{
+			final ResourceBundle bundle = ResourceBundle.getBundle(getClass().getSimpleName(), locale);
+			String pattern = bundle.getString(name());
+			return MessageFormat.format(pattern, objects);
+		}
+		catch (MissingResourceException exception)
+		{
+			return MessageFormat.format(this.defaultMessage, objects);
+		}
+	}
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.pdc;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.BackupFolder;
+import com.winterhavenmc.deathcompass.adapters.storage.StorageType;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+
+
+/**
+ * Provides a death location datastore that keeps each player's death locations in the player's persistent data
+ * container, saved with the player's data by the server. Changes to players who are offline are kept in a small
+ * store file until they next join. On first startup, the death locations in an existing SQLite database
+ * are imported.
+ */
+public final class PdcConnectionProvider implements ConnectionProvider
+{
+	final static String DATASTORE_NAME = "player data";
+	final static String STORE_FILE = "pdc-offline.dat";
+	private final static String SQLITE_FILE = "deathlocations.db";
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final Path storePath;
+	private final BackupFolder backupFolder;
+	private ScheduledExecutorService storageExecutor;
+	private PdcOfflineStore offlineStore;
+	private PdcDeathLocationRepository deathLocationRepository;
+	private boolean initialized;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 */
+	public PdcConnectionProvider(final Plugin plugin)
+	{
+		this.plugin = plugin;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.storePath = plugin.getDataFolder().toPath().resolve(STORE_FILE);
+		this.backupFolder = new BackupFolder(plugin, ".dat");
+	}
+
+
+	@Override
+	public ConnectionProvider connect()
+	{
+		try
+		{
+			initialize();
+		}
+		catch (Exception exception)
+		{
+			plugin.getLogger().severe("Could not initialize the datastore!");
+			plugin.getLogger().severe(exception.getLocalizedMessage());
+		}
+
+		return this;
+	}
+
+
+	/**
+	 * Read the offline store and load the death locations of players already online
+	 *
+	 * @throws IOException if the offline store could not be read
+	 */
+	private void initialize() throws IOException
+	{
+		// if data store is already initialized, log and return
+		if (this.initialized)
+		{
+			plugin.getLogger().info(PdcMessage.DATASTORE_INITIALIZE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			return;
+		}
+
+		try
+		{
+			offlineStore = PdcOfflineStore.load(storePath);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(PdcMessage.STORE_READ_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			throw exception;
+		}
+
+		// create single thread executor for datastore operations that run off the server thread
+		storageExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		deathLocationRepository = new PdcDeathLocationRepository(plugin, configRepository, offlineStore, storageExecutor);
+		plugin.getServer().getPluginManager().registerEvents(deathLocationRepository, plugin);
+
+		// load players already online, as after a reload
+		plugin.getServer().getOnlinePlayers().forEach(deathLocationRepository::loadPlayer);
+
+		// write the offline store periodically, when it has changed
+		final long flushInterval = Math.max(1, plugin.getConfig().getLong("storage.pdc.flush-interval", 5));
+		storageExecutor.scheduleWithFixedDelay(this::writeOfflineStore, flushInterval, flushInterval, TimeUnit.SECONDS);
+
+		// set initialized true
+		this.initialized = true;
+		plugin.getLogger().info(PdcMessage.DATASTORE_INITIALIZE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+
+		if (plugin.getConfig().getBoolean("storage.pdc.import-sqlite", true)
+				&& !offlineStore.sqliteImported()
+				&& Files.exists(plugin.getDataFolder().toPath().resolve(SQLITE_FILE)))
+		{
+			importSqlite();
+		}
+	}
+
+
+	/**
+	 * Copy the death locations in the SQLite database into this datastore, keeping any already stored here.
+	 * The containers of offline players cannot be written, so their death locations go to the offline store and
+	 * reach their containers when they join. The death locations keep the death times recorded in the database.
+	 */
+	private void importSqlite()
+	{
+		plugin.getLogger().info(PdcMessage.IMPORT_START_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+
+		final long startTime = System.nanoTime();
+		final ConnectionProvider sqliteProvider = StorageType.SQLITE.createProvider(plugin).connect();
+		final DeathLocationRepository sqliteRepository = sqliteProvider.deathLocations();
+		if (sqliteRepository == null)
+		{
+			plugin.getLogger().warning(PdcMessage.IMPORT_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			sqliteProvider.close();
+			return;
+		}
+
+		final int[] count = new int[1];
+		sqliteRepository.forEachDeathRecord(plugin.getConfig().getInt("storage.batch-size", 500), deathRecord ->
+				{
+					count[0] += deathLocationRepository.importDeathLocation(deathRecord.deathLocation(), deathRecord.deathTime());
+					return true;
+				})
+				.whenComplete((visited, throwable) ->
+				{
+					if (throwable != null)
+					{
+						plugin.getLogger().warning(PdcMessage.IMPORT_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+						plugin.getLogger().warning(throwable.getLocalizedMessage());
+					}
+					else
+					{
+						offlineStore.markSqliteImported();
+						plugin.getLogger().info(PdcMessage.IMPORT_COMPLETE_NOTICE.getLocalizedMessage(configRepository.locale(),
+								DATASTORE_NAME, count[0], Duration.ofNanos(System.nanoTime() - startTime).toMillis()));
+					}
+				})
+				.whenCompleteAsync((visited, throwable) -> sqliteProvider.close(), this::runOnServerThread);
+	}
+
+
+	/**
+	 * Write the offline store to disk, after queued datastore operations finish
+	 */
+	@Override
+	public void close()
+	{
+		if (deathLocationRepository != null)
+		{
+			HandlerList.unregisterAll(deathLocationRepository);
+		}
+
+		if (storageExecutor != null)
+		{
+			// periodic tasks are cancelled on shutdown; queued operations are allowed to finish
+			storageExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			storageExecutor.shutdown();
+			try
+			{
+				if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS))
+				{
+					storageExecutor.shutdownNow();
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				storageExecutor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (offlineStore != null)
+		{
+			writeOfflineStore();
+			plugin.getLogger().info(PdcMessage.DATASTORE_CLOSE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+		}
+
+		initialized = false;
+	}
+
+
+	/**
+	 * Get instance of DeathLocationRepository
+	 */
+	@Override
+	public DeathLocationRepository deathLocations()
+	{
+		return this.deathLocationRepository;
+	}
+
+
+	/**
+	 * Copy the offline store to a new file in the backups folder, on the storage executor. The death locations
+	 * in players' containers are backed up with the server's player data.
+	 */
+	@Override
+	public CompletableFuture<DatastoreBackup> backup()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					PdcMessage.DATASTORE_NOT_INITIALIZED_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME)));
+		}
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			final long startTime = System.nanoTime();
+			final Path backupPath;
+			try
+			{
+				backupPath = backupFolder.newBackupPath();
+				offlineStore.writeTo(backupFolder.temporaryPath(backupPath));
+				backupFolder.complete(backupPath);
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(PdcMessage.BACKUP_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+				backupFolder.rotate();
+				throw new CompletionException(exception);
+			}
+
+			backupFolder.rotate();
+
+			final DatastoreBackup backup = new DatastoreBackup(backupPath.getFileName().toString(),
+					BackupFolder.sizeOf(backupPath), Duration.ofNanos(System.nanoTime() - startTime));
+
+			plugin.getLogger().info(PdcMessage.BACKUP_NOTICE.getLocalizedMessage(configRepository.locale(),
+					DATASTORE_NAME, backup.name(), backup.size(), backup.duration().toMillis()));
+
+			return backup;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Report the death locations held for online players, whose containers are saved with the server's player data,
+	 * and the offline store
+	 */
+	@Override
+	public CompletableFuture<List<DatastoreTier>> tiers()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.completedFuture(List.of());
+		}
+
+		return CompletableFuture.supplyAsync(() -> List.of(
+				new DatastoreTier("online players", deathLocationRepository.onlinePlayerSize(), 0),
+				new DatastoreTier("offline changes", offlineStore.size(), BackupFolder.sizeOf(storePath))), storageExecutor);
+	}
+
+
+	private void writeOfflineStore()
+	{
+		try
+		{
+			offlineStore.writeIfChanged(storePath);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(PdcMessage.STORE_WRITE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	private void runOnServerThread(final Runnable runnable)
+	{
+		if (plugin.isEnabled())
+		{
+			plugin.getServer().getScheduler().runTask(plugin, runnable);
+		}
+		else
+		{
+			runnable.run();
+		}
+	}
+
+}
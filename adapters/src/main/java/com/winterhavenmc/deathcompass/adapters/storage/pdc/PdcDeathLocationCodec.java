@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.pdc;
+
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+
+/**
+ * Encodes the death locations of one player, keyed by world, as the byte array stored in the player's
+ * persistent data container.
+ * <p>
+ * Encoding: version byte, entry count short, then for each entry the world UUID (two longs), the x, y and z
+ * coordinates (doubles) and the death time in milliseconds since the epoch (long).
+ */
+final class PdcDeathLocationCodec
+{
+	private final static byte VERSION = 1;
+	private final static int HEADER_BYTES = Byte.BYTES + Short.BYTES;
+	final static int ENTRY_BYTES = 2 * Long.BYTES + 3 * Double.BYTES + Long.BYTES;
+
+
+	/**
+	 * Private class constructor to prevent instantiation
+	 */
+	private PdcDeathLocationCodec()
+	{
+		throw new AssertionError();
+	}
+
+
+	/**
+	 * Encode the death locations of a player
+	 *
+	 * @param entries the death locations of the player, keyed by world UUID
+	 * @return the encoded death locations
+	 */
+	static byte[] encode(final Map<UUID, Entry> entries)
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + entries.size() * ENTRY_BYTES);
+		buffer.put(VERSION);
+		buffer.putShort((short) entries.size());
+
+		for (Entry entry : entries.values())
+		{
+			final ValidDeathLocation deathLocation = entry.deathLocation();
+			buffer.putLong(deathLocation.worldUid().getMostSignificantBits());
+			buffer.putLong(deathLocation.worldUid().getLeastSignificantBits());
+			buffer.putDouble(deathLocation.x());
+			buffer.putDouble(deathLocation.y());
+			buffer.putDouble(deathLocation.z());
+			buffer.putLong(entry.deathTime());
+		}
+
+		return buffer.array();
+	}
+
+
+	/**
+	 * Decode the death locations of a player
+	 *
+	 * @param playerUid the UUID of the player the death locations belong to
+	 * @param bytes the encoded death locations
+	 * @return the death locations of the player, keyed by world UUID
+	 * @throws IllegalArgumentException if the bytes are not a complete encoding of a known version
+	 */
+	static Map<UUID, Entry> decode(final UUID playerUid, final byte[] bytes)
+	{
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		try
+		{
+			if (buffer.get() != VERSION)
+			{
+				throw new IllegalArgumentException("Unknown death location encoding version.");
+			}
+
+			final int count = Short.toUnsignedInt(buffer.getShort());
+			final Map<UUID, Entry> entries = new LinkedHashMap<>(count * 2);
+			for (int i = 0; i < count; i++)
+			{
+				final UUID worldUid = new UUID(buffer.getLong(), buffer.getLong());
+				final DeathLocation deathLocation = DeathLocation.of(playerUid, worldUid, buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+				final long deathTime = buffer.getLong();
+				if (deathLocation instanceof ValidDeathLocation validDeathLocation)
+				{
+					entries.put(worldUid, new Entry(validDeathLocation, deathTime));
+				}
+			}
+			return entries;
+		}
+		catch (BufferUnderflowException exception)
+		{
+			throw new IllegalArgumentException("Truncated death location encoding.", exception);
+		}
+	}
+
+
+	/**
+	 * A death location, with the time it was saved
+	 */
+	record Entry(ValidDeathLocation deathLocation, long deathTime) { }
+
+}
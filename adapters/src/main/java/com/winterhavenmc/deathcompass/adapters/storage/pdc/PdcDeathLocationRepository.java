@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.pdc;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.adapters.storage.pdc.PdcDeathLocationCodec.Entry;
+import com.winterhavenmc.deathcompass.adapters.storage.pdc.PdcOfflineStore.Purge;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.pdc.PdcConnectionProvider.DATASTORE_NAME;
+
+
+/**
+ * A death location repository that keeps each player's death locations in the player's persistent data container,
+ * so they are saved with the player's data by the server and no database is read or written.
+ * <p>
+ * The death locations of online players are loaded from their containers when they join and held in memory,
+ * so lookups never touch the disk. Saves and deletes update the held map at once, and rewrite the container
+ * on the server thread. The containers of offline players cannot be read or written, so saves for offline
+ * players are kept in the offline store, and deletes are recorded there as purges; both are applied to the
+ * player's container when the player next joins. Lookups for offline players see only the offline store.
+ * A change whose container write finds the player gone, or cannot be scheduled because the plugin is being
+ * disabled, goes to the offline store the same way, so containers are only ever touched on the server thread.
+ */
+public final class PdcDeathLocationRepository implements DeathLocationRepository, Listener
+{
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final PdcOfflineStore offlineStore;
+	private final ExecutorService storageExecutor;
+	private final NamespacedKey deathLocationsKey;
+	private final NamespacedKey purgeNumberKey;
+	private final Map<UUID, Map<UUID, Entry>> onlinePlayers = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param offlineStore the store for changes to offline players
+	 * @param storageExecutor the executor for operations that run off the server thread
+	 */
+	PdcDeathLocationRepository(final Plugin plugin,
+	                           final ConfigRepository configRepository,
+	                           final PdcOfflineStore offlineStore,
+	                           final ExecutorService storageExecutor)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.offlineStore = offlineStore;
+		this.storageExecutor = storageExecutor;
+		this.deathLocationsKey = new NamespacedKey(plugin, "death_locations");
+		this.purgeNumberKey = new NamespacedKey(plugin, "death_locations_purge");
+	}
+
+
+	@Override
+	public DeathLocation getDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final Map<UUID, Entry> entries = onlinePlayers.get(playerUid);
+		final Entry entry = (entries != null) ? entries.get(worldUid) : offlineStore.get(playerUid, worldUid);
+		if (entry == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+		}
+
+		if (plugin.getServer().getWorld(worldUid) == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.WORLD_UNAVAILABLE);
+		}
+
+		return entry.deathLocation();
+	}
+
+
+	@Override
+	public int saveDeathLocation(final ValidDeathLocation deathLocation)
+	{
+		if (deathLocation == null) { return 0; }
+
+		return put(new Entry(deathLocation, System.currentTimeMillis()), false);
+	}
+
+
+	@Override
+	public int saveDeathLocations(final Collection<ValidDeathLocation> deathLocations)
+	{
+		if (deathLocations == null) { return 0; }
+
+		final long deathTime = System.currentTimeMillis();
+		int count = 0;
+		for (ValidDeathLocation deathLocation : deathLocations)
+		{
+			if (deathLocation != null)
+			{
+				count += put(new Entry(deathLocation, deathTime), false);
+			}
+		}
+		return count;
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress)
+	{
+		if (deathRecords == null) { return CompletableFuture.completedFuture(0); }
+
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (deathRecords)
+			{
+				int batched = 0;
+				final Iterator<DeathRecord> iterator = deathRecords.iterator();
+				while (iterator.hasNext())
+				{
+					final DeathRecord deathRecord = iterator.next();
+					count += put(new Entry(deathRecord.deathLocation(), deathRecord.deathTime()), false);
+					if (++batched == batchSize || !iterator.hasNext())
+					{
+						batched = 0;
+						progressConsumer.accept(count);
+					}
+				}
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Store a death location imported from another datastore, unless one is already stored for its player and world
+	 *
+	 * @param deathLocation the death location
+	 * @param deathTime the time the death location was saved, in milliseconds since the epoch
+	 * @return 1 if the death location was stored, otherwise 0
+	 */
+	int importDeathLocation(final ValidDeathLocation deathLocation, final long deathTime)
+	{
+		return put(new Entry(deathLocation, deathTime), true);
+	}
+
+
+	@Override
+	public DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final DeathLocation deathLocation = getDeathLocation(playerUid, worldUid);
+
+		final Map<UUID, Entry> entries = onlinePlayers.get(playerUid);
+		if (entries != null)
+		{
+			if (entries.remove(worldUid) != null)
+			{
+				final long cutoff = purgeCutoff();
+				runOnServerThread(() ->
+				{
+					if (!writeContainer(playerUid, entries))
+					{
+						offlineStore.addPurge(playerUid, worldUid, cutoff);
+					}
+				}, () -> offlineStore.addPurge(playerUid, worldUid, cutoff));
+			}
+		}
+		else
+		{
+			offlineStore.remove(playerUid, worldUid);
+			offlineStore.addPurge(playerUid, worldUid, purgeCutoff());
+		}
+
+		return deathLocation;
+	}
+
+
+	@Override
+	public Map<UUID, String> orphanedWorlds()
+	{
+		final Set<UUID> worldUids = new HashSet<>();
+		onlinePlayers.values().forEach(entries -> worldUids.addAll(entries.keySet()));
+		offlineStore.entries().forEach(entry -> worldUids.add(entry.deathLocation().worldUid()));
+
+		final Map<UUID, String> orphanedWorlds = new HashMap<>();
+		for (UUID worldUid : worldUids)
+		{
+			if (plugin.getServer().getWorld(worldUid) == null)
+			{
+				orphanedWorlds.put(worldUid, worldUid.toString());
+			}
+		}
+		return orphanedWorlds;
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress)
+	{
+		if (playerUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteMatching(entry -> entry.deathLocation().playerUid().equals(playerUid),
+				new Purge(playerUid, null, purgeCutoff(), 0),
+				PdcMessage.DELETE_PLAYER_DESCRIPTION.getLocalizedMessage(configRepository.locale(), playerUid), progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress)
+	{
+		if (worldUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteMatching(entry -> entry.deathLocation().worldUid().equals(worldUid),
+				new Purge(null, worldUid, purgeCutoff(), 0),
+				PdcMessage.DELETE_WORLD_DESCRIPTION.getLocalizedMessage(configRepository.locale(), worldUid), progress);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress)
+	{
+		if (instant == null) { return CompletableFuture.completedFuture(0); }
+
+		final Purge purge = new Purge(null, null, instant.toEpochMilli(), 0);
+		return deleteMatching(purge::matches, purge,
+				PdcMessage.DELETE_OLDER_THAN_DESCRIPTION.getLocalizedMessage(configRepository.locale(), instant), progress);
+	}
+
+
+	/**
+	 * Visit the death locations of online players and the offline store, in key order. The containers of
+	 * offline players cannot be read, so death locations held only there are not visited.
+	 */
+	@Override
+	public CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor)
+	{
+		Objects.requireNonNull(visitor);
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			final List<Entry> deathEntries = new ArrayList<>();
+			onlinePlayers.values().forEach(entries -> deathEntries.addAll(entries.values()));
+			deathEntries.addAll(offlineStore.entries());
+			deathEntries.sort(Comparator.comparing((Entry entry) -> entry.deathLocation().playerUid())
+					.thenComparing(entry -> entry.deathLocation().worldUid()));
+
+			int count = 0;
+			for (Entry entry : deathEntries)
+			{
+				count++;
+				if (!visitor.test(new DeathRecord(entry.deathLocation(), entry.deathTime())))
+				{
+					break;
+				}
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Load the death locations of a player who joins, applying changes made while the player was offline
+	 */
+	@EventHandler(priority = EventPriority.LOWEST)
+	void onPlayerJoin(final PlayerJoinEvent event)
+	{
+		loadPlayer(event.getPlayer());
+	}
+
+
+	/**
+	 * Release the death locations of a player who quits. Container writes still scheduled for the player
+	 * find the player gone, and put their change in the offline store instead.
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onPlayerQuit(final PlayerQuitEvent event)
+	{
+		onlinePlayers.remove(event.getPlayer().getUniqueId());
+	}
+
+
+	/**
+	 * Read the death locations of an online player from the player's container, apply the purges recorded since
+	 * the container was last written and the saves held in the offline store, and hold the result for lookups.
+	 * Runs on the server thread.
+	 *
+	 * @param player the player
+	 */
+	void loadPlayer(final Player player)
+	{
+		final UUID playerUid = player.getUniqueId();
+		final PersistentDataContainer container = player.getPersistentDataContainer();
+		final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+		final byte[] bytes = container.get(deathLocationsKey, PersistentDataType.BYTE_ARRAY);
+		if (bytes != null)
+		{
+			try
+			{
+				entries.putAll(PdcDeathLocationCodec.decode(playerUid, bytes));
+			}
+			catch (IllegalArgumentException exception)
+			{
+				plugin.getLogger().warning(PdcMessage.INVALID_PLAYER_DATA_ERROR.getLocalizedMessage(configRepository.locale(), player.getName()));
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+			}
+		}
+
+		final long purgeNumber = container.getOrDefault(purgeNumberKey, PersistentDataType.LONG, 0L);
+		for (Purge purge : offlineStore.purgesAfter(purgeNumber))
+		{
+			entries.values().removeIf(purge::matches);
+		}
+
+		// saves held offline are newer than the container; deletes have already removed them from the store
+		entries.putAll(offlineStore.take(playerUid));
+
+		onlinePlayers.put(playerUid, entries);
+		writeContainer(playerUid, entries);
+	}
+
+
+	/**
+	 * Get the number of death locations held for online players and in the offline store
+	 */
+	int size()
+	{
+		return onlinePlayerSize() + offlineStore.size();
+	}
+
+
+	/**
+	 * Get the number of death locations held for online players
+	 */
+	int onlinePlayerSize()
+	{
+		return onlinePlayers.values().stream().mapToInt(Map::size).sum();
+	}
+
+
+	private int put(final Entry entry, final boolean ifAbsent)
+	{
+		final UUID playerUid = entry.deathLocation().playerUid();
+		final Map<UUID, Entry> entries = onlinePlayers.get(playerUid);
+		if (entries == null)
+		{
+			if (ifAbsent)
+			{
+				return offlineStore.putIfAbsent(entry) ? 1 : 0;
+			}
+			offlineStore.put(entry);
+			return 1;
+		}
+
+		if (ifAbsent)
+		{
+			if (entries.putIfAbsent(entry.deathLocation().worldUid(), entry) != null)
+			{
+				return 0;
+			}
+		}
+		else
+		{
+			entries.put(entry.deathLocation().worldUid(), entry);
+		}
+
+		// a save for a player who quits before the write is kept in the offline store, and applied on the next join
+		runOnServerThread(() ->
+		{
+			if (!writeContainer(playerUid, entries))
+			{
+				offlineStore.putIfAbsent(entry);
+			}
+		}, () -> offlineStore.putIfAbsent(entry));
+		return 1;
+	}
+
+
+	/**
+	 * Remove the death locations matching a filter from online players and the offline store, and record a purge
+	 * for the containers of offline players. Runs on the server thread, so no player joins or quits in between.
+	 */
+	private CompletableFuture<Integer> deleteMatching(final Predicate<Entry> filter,
+	                                                  final Purge purge,
+	                                                  final String description,
+	                                                  final IntConsumer progress)
+	{
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+		final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+		runOnServerThread(() -> result.complete(deleteHeld(filter, purge, description, progressConsumer, true)),
+				() -> result.complete(deleteHeld(filter, purge, description, progressConsumer, false)));
+
+		return result;
+	}
+
+
+	/**
+	 * Record a purge, and remove the matching death locations held for online players and in the offline store.
+	 * Without container writes, the recorded purge removes them from the containers when the players next join.
+	 */
+	private int deleteHeld(final Predicate<Entry> filter,
+	                       final Purge purge,
+	                       final String description,
+	                       final IntConsumer progressConsumer,
+	                       final boolean writeContainers)
+	{
+		offlineStore.addPurge(purge.playerUid(), purge.worldUid(), purge.cutoff());
+
+		int count = 0;
+		for (Map.Entry<UUID, Map<UUID, Entry>> player : onlinePlayers.entrySet())
+		{
+			final int size = player.getValue().size();
+			player.getValue().values().removeIf(filter);
+			if (player.getValue().size() != size)
+			{
+				count += size - player.getValue().size();
+				if (writeContainers)
+				{
+					writeContainer(player.getKey(), player.getValue());
+				}
+			}
+		}
+		progressConsumer.accept(count);
+
+		count += offlineStore.removeMatching(filter);
+		progressConsumer.accept(count);
+
+		plugin.getLogger().info(PdcMessage.DELETE_RECORDS_NOTICE.getLocalizedMessage(configRepository.locale(), count, description));
+		return count;
+	}
+
+
+	/**
+	 * Get the cutoff for a purge of the death locations saved up to now, including this millisecond
+	 */
+	private static long purgeCutoff()
+	{
+		return System.currentTimeMillis() + 1;
+	}
+
+
+	/**
+	 * Write the held death locations of a player to the player's container; runs on the server thread
+	 *
+	 * @return false if the player is no longer online
+	 */
+	private boolean writeContainer(final UUID playerUid, final Map<UUID, Entry> entries)
+	{
+		final Player player = plugin.getServer().getPlayer(playerUid);
+		if (player == null || onlinePlayers.get(playerUid) != entries)
+		{
+			return false;
+		}
+
+		final PersistentDataContainer container = player.getPersistentDataContainer();
+		if (entries.isEmpty())
+		{
+			container.remove(deathLocationsKey);
+		}
+		else
+		{
+			container.set(deathLocationsKey, PersistentDataType.BYTE_ARRAY, PdcDeathLocationCodec.encode(entries));
+		}
+		container.set(purgeNumberKey, PersistentDataType.LONG, offlineStore.lastPurgeNumber());
+		return true;
+	}
+
+
+	/**
+	 * Run an action on the server thread. A disabled plugin cannot schedule tasks, so an action from another
+	 * thread is then replaced by its fallback, which must not touch player data containers.
+	 */
+	private void runOnServerThread(final Runnable runnable, final Runnable fallback)
+	{
+		if (plugin.getServer().isPrimaryThread())
+		{
+			runnable.run();
+		}
+		else if (plugin.isEnabled())
+		{
+			plugin.getServer().getScheduler().runTask(plugin, runnable);
+		}
+		else
+		{
+			fallback.run();
+		}
+	}
+
+
+	private int batchSize()
+	{
+		return Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.pdc;
+
+import com.winterhavenmc.deathcompass.adapters.storage.pdc.PdcDeathLocationCodec.Entry;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Predicate;
+
+
+/**
+ * Holds the changes for players who are not online, whose persistent data containers cannot be written,
+ * until they next join. Death locations saved for offline players are kept here, and deletes are kept as
+ * purges: numbered filters that remove matching death locations saved before the purge from a player's
+ * container when the player joins. The store is kept in memory and written to a single file.
+ * <p>
+ * File layout: magic int, version byte, flags byte (bit 0: SQLite import done), last purge number long,
+ * purge count int, then for each purge a flags byte (bit 0: player present, bit 1: world present), the present
+ * UUIDs as pairs of longs, the cutoff death time long and the purge number long; then player count int, and for
+ * each player the player UUID (two longs), the encoded length int and the death locations encoded as for
+ * a persistent data container.
+ */
+final class PdcOfflineStore
+{
+	private final static int MAGIC = 0x44435053; // "DCPS"
+	private final static byte VERSION = 1;
+	private final static int SQLITE_IMPORTED = 1;
+	private final static int PLAYER_PRESENT = 1;
+	private final static int WORLD_PRESENT = 2;
+
+	private final Map<UUID, Map<UUID, Entry>> players = new HashMap<>();
+	private final List<Purge> purges = new ArrayList<>();
+	private long lastPurgeNumber;
+	private boolean sqliteImported;
+	private boolean dirty;
+
+
+	/**
+	 * Read a store from its file, or create an empty store if the file does not exist
+	 *
+	 * @param path the store file
+	 * @return the store
+	 * @throws IOException if the file could not be read or is damaged
+	 */
+	static PdcOfflineStore load(final Path path) throws IOException
+	{
+		final PdcOfflineStore store = new PdcOfflineStore();
+		if (!Files.exists(path))
+		{
+			return store;
+		}
+
+		try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+		{
+			if (input.readInt() != MAGIC || input.readByte() != VERSION)
+			{
+				throw new IOException("Not a death location store: " + path);
+			}
+
+			store.sqliteImported = (input.readByte() & SQLITE_IMPORTED) != 0;
+			store.lastPurgeNumber = input.readLong();
+
+			final int purgeCount = input.readInt();
+			for (int i = 0; i < purgeCount; i++)
+			{
+				final int flags = input.readByte();
+				final UUID playerUid = ((flags & PLAYER_PRESENT) != 0) ? new UUID(input.readLong(), input.readLong()) : null;
+				final UUID worldUid = ((flags & WORLD_PRESENT) != 0) ? new UUID(input.readLong(), input.readLong()) : null;
+				store.purges.add(new Purge(playerUid, worldUid, input.readLong(), input.readLong()));
+			}
+
+			final int playerCount = input.readInt();
+			for (int i = 0; i < playerCount; i++)
+			{
+				final UUID playerUid = new UUID(input.readLong(), input.readLong());
+				final byte[] bytes = new byte[input.readInt()];
+				input.readFully(bytes);
+				store.players.put(playerUid, new HashMap<>(PdcDeathLocationCodec.decode(playerUid, bytes)));
+			}
+		}
+		catch (EOFException | IllegalArgumentException exception)
+		{
+			throw new IOException("Damaged death location store: " + path, exception);
+		}
+
+		return store;
+	}
+
+
+	/**
+	 * Write the store to a file, replacing it atomically, if it has changed since it was last written
+	 *
+	 * @param path the store file
+	 * @throws IOException if the file could not be written
+	 */
+	void writeIfChanged(final Path path) throws IOException
+	{
+		final byte[] bytes;
+		synchronized (this)
+		{
+			if (!dirty) { return; }
+			bytes = toBytes();
+			dirty = false;
+		}
+
+		try
+		{
+			write(path, bytes);
+		}
+		catch (IOException exception)
+		{
+			synchronized (this) { dirty = true; }
+			throw exception;
+		}
+	}
+
+
+	/**
+	 * Write the store to a file, whether or not it has changed
+	 *
+	 * @param path the file
+	 * @throws IOException if the file could not be written
+	 */
+	void writeTo(final Path path) throws IOException
+	{
+		final byte[] bytes;
+		synchronized (this)
+		{
+			bytes = toBytes();
+		}
+		write(path, bytes);
+	}
+
+
+	private static void write(final Path path, final byte[] bytes) throws IOException
+	{
+		Files.createDirectories(path.toAbsolutePath().getParent());
+		final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		Files.write(temporaryPath, bytes);
+		try
+		{
+			Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException exception)
+		{
+			Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+
+	private byte[] toBytes() throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DataOutputStream output = new DataOutputStream(bytes))
+		{
+			output.writeInt(MAGIC);
+			output.writeByte(VERSION);
+			output.writeByte(sqliteImported ? SQLITE_IMPORTED : 0);
+			output.writeLong(lastPurgeNumber);
+
+			output.writeInt(purges.size());
+			for (Purge purge : purges)
+			{
+				output.writeByte(((purge.playerUid() != null) ? PLAYER_PRESENT : 0) | ((purge.worldUid() != null) ? WORLD_PRESENT : 0));
+				if (purge.playerUid() != null)
+				{
+					output.writeLong(purge.playerUid().getMostSignificantBits());
+					output.writeLong(purge.playerUid().getLeastSignificantBits());
+				}
+				if (purge.worldUid() != null)
+				{
+					output.writeLong(purge.worldUid().getMostSignificantBits());
+					output.writeLong(purge.worldUid().getLeastSignificantBits());
+				}
+				output.writeLong(purge.cutoff());
+				output.writeLong(purge.number());
+			}
+
+			output.writeInt(players.size());
+			for (Map.Entry<UUID, Map<UUID, Entry>> player : players.entrySet())
+			{
+				final byte[] encoded = PdcDeathLocationCodec.encode(player.getValue());
+				output.writeLong(player.getKey().getMostSignificantBits());
+				output.writeLong(player.getKey().getLeastSignificantBits());
+				output.writeInt(encoded.length);
+				output.write(encoded);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+
+	synchronized Entry get(final UUID playerUid, final UUID worldUid)
+	{
+		final Map<UUID, Entry> entries = players.get(playerUid);
+		return (entries != null) ? entries.get(worldUid) : null;
+	}
+
+
+	synchronized void put(final Entry entry)
+	{
+		players.computeIfAbsent(entry.deathLocation().playerUid(), playerUid -> new HashMap<>())
+				.put(entry.deathLocation().worldUid(), entry);
+		dirty = true;
+	}
+
+
+	/**
+	 * Store a death location only if none is stored for its player and world
+	 *
+	 * @return true if the death location was stored
+	 */
+	synchronized boolean putIfAbsent(final Entry entry)
+	{
+		final boolean absent = players.computeIfAbsent(entry.deathLocation().playerUid(), playerUid -> new HashMap<>())
+				.putIfAbsent(entry.deathLocation().worldUid(), entry) == null;
+		dirty |= absent;
+		return absent;
+	}
+
+
+	synchronized boolean remove(final UUID playerUid, final UUID worldUid)
+	{
+		final Map<UUID, Entry> entries = players.get(playerUid);
+		if (entries == null || entries.remove(worldUid) == null)
+		{
+			return false;
+		}
+		if (entries.isEmpty())
+		{
+			players.remove(playerUid);
+		}
+		dirty = true;
+		return true;
+	}
+
+
+	/**
+	 * Remove the stored death locations that match a filter
+	 *
+	 * @return the number of death locations removed
+	 */
+	synchronized int removeMatching(final Predicate<Entry> filter)
+	{
+		int count = 0;
+		final Iterator<Map<UUID, Entry>> iterator = players.values().iterator();
+		while (iterator.hasNext())
+		{
+			final Map<UUID, Entry> entries = iterator.next();
+			final int size = entries.size();
+			entries.values().removeIf(filter);
+			count += size - entries.size();
+			if (entries.isEmpty())
+			{
+				iterator.remove();
+			}
+		}
+		dirty |= count > 0;
+		return count;
+	}
+
+
+	/**
+	 * Remove and return the stored death locations of a player
+	 *
+	 * @return the death locations of the player, keyed by world UUID; empty if none are stored
+	 */
+	synchronized Map<UUID, Entry> take(final UUID playerUid)
+	{
+		final Map<UUID, Entry> entries = players.remove(playerUid);
+		if (entries == null)
+		{
+			return Map.of();
+		}
+		dirty = true;
+		return entries;
+	}
+
+
+	/**
+	 * Record a purge, to be applied to the persistent data containers of offline players when they join
+	 *
+	 * @param playerUid the player whose death locations are purged, or null for all players
+	 * @param worldUid the world whose death locations are purged, or null for all worlds
+	 * @param cutoff death locations saved before this time, in milliseconds since the epoch, are purged
+	 */
+	synchronized void addPurge(final UUID playerUid, final UUID worldUid, final long cutoff)
+	{
+		purges.add(new Purge(playerUid, worldUid, cutoff, ++lastPurgeNumber));
+		dirty = true;
+	}
+
+
+	/**
+	 * Get the purges recorded after a purge number, oldest first
+	 */
+	synchronized List<Purge> purgesAfter(final long purgeNumber)
+	{
+		return purges.stream().filter(purge -> purge.number() > purgeNumber).toList();
+	}
+
+
+	synchronized long lastPurgeNumber()
+	{
+		return lastPurgeNumber;
+	}
+
+
+	/**
+	 * Get a copy of all stored death locations
+	 */
+	synchronized List<Entry> entries()
+	{
+		return players.values().stream().flatMap(entries -> entries.values().stream()).toList();
+	}
+
+
+	synchronized int size()
+	{
+		return players.values().stream().mapToInt(Map::size).sum();
+	}
+
+
+	synchronized boolean sqliteImported()
+	{
+		return sqliteImported;
+	}
+
+
+	synchronized void markSqliteImported()
+	{
+		sqliteImported = true;
+		dirty = true;
+	}
+
+
+	/**
+	 * A delete that could not be applied to the containers of offline players
+	 *
+	 * @param playerUid the player, or null for all players
+	 * @param worldUid the world, or null for all worlds
+	 * @param cutoff the death time before which matching death locations are deleted
+	 * @param number the sequence number of the purge
+	 */
+	record Purge(UUID playerUid, UUID worldUid, long cutoff, long number)
+	{
+		boolean matches(final Entry entry)
+		{
+			return (playerUid == null || playerUid.equals(entry.deathLocation().playerUid()))
+					&& (worldUid == null || worldUid.equals(entry.deathLocation().worldUid()))
+					&& entry.deathTime() < cutoff;
+		}
+	}
+
+}
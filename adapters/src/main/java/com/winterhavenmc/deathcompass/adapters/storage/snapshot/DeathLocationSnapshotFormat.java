@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.snapshot;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Constants and encoding helpers for the death location snapshot file format.
+ * <p>
+ * A snapshot file consists of a fixed size header, a run of variable length records, and a world dictionary.
+ * All multi-byte values are big-endian.
+ * <pre>
+ * header (32 bytes)
+ *   int    magic ("DCSN")
+ *   short  format version
+ *   short  flags (reserved, 0)
+ *   long   record count
+ *   long   dictionary offset
+ *   int    CRC32 of all bytes following the header
+ *   int    reserved (0)
+ *
+ * record
+ *   varlong  player UUID most significant bits, as difference from the previous record
+ *   varlong  player UUID least significant bits, as difference from the previous record, if the above is zero;
+ *   long       otherwise the least significant bits in full
+ *   varint   world dictionary index
+ *   long     block coordinates, packed as 26 bits x, 26 bits z, 12 bits y
+ *   long     death time, in milliseconds since the epoch (version 2 and later)
+ *
+ * dictionary
+ *   varint   world count
+ *   per world: long UUID most significant bits, long UUID least significant bits,
+ *              varint name length, UTF-8 name bytes
+ * </pre>
+ * Records are written in player order, so consecutive records for the same player encode the player UUID in two bytes.
+ * Version 1 records have no death time; they are read with the time the snapshot file was last modified.
+ */
+final class DeathLocationSnapshotFormat
+{
+	static final int MAGIC = 0x4443534E;
+	static final short VERSION = 2;
+	static final short VERSION_WITHOUT_DEATH_TIME = 1;
+	static final int HEADER_SIZE = 32;
+	static final int BUFFER_SIZE = 64 * 1024;
+	static final int MAX_VARLONG_SIZE = 10;
+	static final int MAX_RECORD_SIZE = MAX_VARLONG_SIZE + MAX_VARLONG_SIZE + MAX_VARLONG_SIZE + Long.BYTES + Long.BYTES;
+
+
+	/**
+	 * Private constructor to prevent instantiation
+	 */
+	private DeathLocationSnapshotFormat() { throw new AssertionError(); }
+
+
+	/**
+	 * Pack block coordinates into a long, using the same layout as Minecraft block positions.
+	 * Coordinates are truncated to the block containing the location.
+	 */
+	static long packCoordinates(final double x, final double y, final double z)
+	{
+		final long blockX = (long) Math.floor(x);
+		final long blockY = (long) Math.floor(y);
+		final long blockZ = (long) Math.floor(z);
+
+		return ((blockX & 0x3FFFFFFL) << 38) | ((blockZ & 0x3FFFFFFL) << 12) | (blockY & 0xFFFL);
+	}
+
+
+	static int unpackX(final long packed)
+	{
+		return (int) (packed >> 38);
+	}
+
+
+	static int unpackY(final long packed)
+	{
+		return (int) (packed << 52 >> 52);
+	}
+
+
+	static int unpackZ(final long packed)
+	{
+		return (int) (packed << 26 >> 38);
+	}
+
+
+	/**
+	 * Write a long as an unsigned variable length quantity, seven bits per byte
+	 */
+	static void putVarLong(final ByteBuffer buffer, long value)
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+
+	/**
+	 * Read an unsigned variable length quantity written by {@link #putVarLong}
+	 *
+	 * @throws BufferUnderflowException if the buffer ends before the value, or the value is longer than ten bytes
+	 */
+	static long getVarLong(final ByteBuffer buffer)
+	{
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7)
+		{
+			final byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.snapshot;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.snapshot.DeathLocationSnapshotFormat.*;
+import static java.nio.file.StandardOpenOption.READ;
+
+
+/**
+ * Reads death locations from a snapshot file through a file channel, one buffer at a time.
+ * The header and checksum are verified, and the world dictionary is read, when the first record is requested,
+ * so that all file reads happen on the thread that consumes the stream. Instances are not thread safe.
+ */
+public final class DeathLocationSnapshotReader implements Closeable
+{
+	private final Path path;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final List<UUID> worlds = new ArrayList<>();
+	private long recordCount;
+	private long recordsRead;
+	private long recordsEnd;
+	private long position;
+	private long previousMsb;
+	private long previousLsb;
+	private short version;
+	private long fileDeathTime;
+	private boolean initialized;
+
+
+	private DeathLocationSnapshotReader(final Path path, final FileChannel channel)
+	{
+		this.path = path;
+		this.channel = channel;
+	}
+
+
+	/**
+	 * Open a snapshot reader
+	 *
+	 * @param path the snapshot file
+	 * @return a snapshot reader
+	 * @throws IOException if the file could not be opened
+	 */
+	public static DeathLocationSnapshotReader open(final Path path) throws IOException
+	{
+		return new DeathLocationSnapshotReader(path, FileChannel.open(path, READ));
+	}
+
+
+	/**
+	 * Get a sequential stream of the records in the snapshot. Closing the stream closes the reader.
+	 * An {@link UncheckedIOException} is thrown from the stream if the file is not a valid snapshot,
+	 * fails checksum verification, or cannot be read.
+	 *
+	 * @return stream of death records, in the order they were written
+	 */
+	public Stream<DeathRecord> stream()
+	{
+		final Spliterator<DeathRecord> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL)
+		{
+			@Override
+			public boolean tryAdvance(final Consumer<? super DeathRecord> action)
+			{
+				try
+				{
+					final DeathRecord deathRecord = next();
+					if (deathRecord == null)
+					{
+						return false;
+					}
+					action.accept(deathRecord);
+					return true;
+				}
+				catch (IOException exception)
+				{
+					throw new UncheckedIOException(exception);
+				}
+			}
+		};
+
+		return StreamSupport.stream(spliterator, false).onClose(() ->
+		{
+			try
+			{
+				close();
+			}
+			catch (IOException exception)
+			{
+				throw new UncheckedIOException(exception);
+			}
+		});
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+
+	/**
+	 * Read the next record
+	 *
+	 * @return the next death record, or {@code null} if all records have been read
+	 * @throws IOException if the snapshot is invalid or could not be read
+	 */
+	private DeathRecord next() throws IOException
+	{
+		if (!initialized)
+		{
+			initialize();
+		}
+
+		// skip records that fail validation, rather than ending the stream
+		while (recordsRead < recordCount)
+		{
+			fill(MAX_RECORD_SIZE, recordsEnd);
+			try
+			{
+				final long msbDelta = getVarLong(buffer);
+				final long msb = previousMsb + msbDelta;
+				final long lsb = (msbDelta == 0) ? previousLsb + getVarLong(buffer) : buffer.getLong();
+				final long worldIndex = getVarLong(buffer);
+				final long packed = buffer.getLong();
+				final long deathTime = (version > VERSION_WITHOUT_DEATH_TIME) ? buffer.getLong() : fileDeathTime;
+
+				if (worldIndex < 0 || worldIndex >= worlds.size())
+				{
+					throw corrupt();
+				}
+
+				previousMsb = msb;
+				previousLsb = lsb;
+				recordsRead++;
+
+				if (DeathLocation.of(new UUID(msb, lsb), worlds.get((int) worldIndex),
+						unpackX(packed), unpackY(packed), unpackZ(packed)) instanceof ValidDeathLocation validDeathLocation)
+				{
+					return new DeathRecord(validDeathLocation, deathTime);
+				}
+			}
+			catch (BufferUnderflowException exception)
+			{
+				throw corrupt();
+			}
+		}
+
+		if (buffer.hasRemaining() || position < recordsEnd)
+		{
+			throw corrupt();
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Verify the header and checksum, and read the world dictionary
+	 */
+	private void initialize() throws IOException
+	{
+		initialized = true;
+
+		final long size = channel.size();
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining())
+		{
+			if (channel.read(header, header.position()) < 0)
+			{
+				throw new IOException(path.getFileName() + " is not a death location snapshot.");
+			}
+		}
+		header.flip();
+
+		if (header.getInt() != MAGIC)
+		{
+			throw new IOException(path.getFileName() + " is not a death location snapshot.");
+		}
+
+		version = header.getShort();
+		if (version > VERSION)
+		{
+			throw new IOException(path.getFileName() + " was written by a newer snapshot format version (" + version + ").");
+		}
+
+		// version 1 records carry no death time; the file time is the latest any of them could have been saved
+		if (version <= VERSION_WITHOUT_DEATH_TIME)
+		{
+			fileDeathTime = Files.getLastModifiedTime(path).toMillis();
+		}
+
+		header.getShort();
+		recordCount = header.getLong();
+		recordsEnd = header.getLong();
+		final int expectedChecksum = header.getInt();
+
+		if (recordCount < 0 || recordsEnd < HEADER_SIZE || recordsEnd > size)
+		{
+			throw corrupt();
+		}
+
+		// verify checksum of everything following the header, before any record is returned
+		final CRC32 checksum = new CRC32();
+		position = HEADER_SIZE;
+		buffer.clear();
+		while (channel.read(buffer, position) > 0)
+		{
+			position += buffer.position();
+			buffer.flip();
+			checksum.update(buffer);
+			buffer.clear();
+		}
+
+		if ((int) checksum.getValue() != expectedChecksum)
+		{
+			throw new IOException(path.getFileName() + " failed checksum verification.");
+		}
+
+		// read world dictionary
+		position = recordsEnd;
+		buffer.clear().limit(0);
+		try
+		{
+			fill(MAX_VARLONG_SIZE, size);
+			final long worldCount = getVarLong(buffer);
+			for (long i = 0; i < worldCount; i++)
+			{
+				fill(Long.BYTES * 2 + MAX_VARLONG_SIZE, size);
+				final UUID worldUid = new UUID(buffer.getLong(), buffer.getLong());
+				final int nameLength = (int) getVarLong(buffer);
+				if (nameLength < 0 || nameLength > BUFFER_SIZE)
+				{
+					throw corrupt();
+				}
+				fill(nameLength, size);
+				buffer.position(buffer.position() + nameLength);
+				worlds.add(worldUid);
+			}
+		}
+		catch (BufferUnderflowException | IllegalArgumentException exception)
+		{
+			throw corrupt();
+		}
+
+		// position at first record
+		position = HEADER_SIZE;
+		buffer.clear().limit(0);
+	}
+
+
+	/**
+	 * Ensure the buffer holds at least the given number of bytes, or all remaining bytes before the end position
+	 */
+	private void fill(final int minimum, final long end) throws IOException
+	{
+		if (buffer.remaining() >= minimum || position >= end)
+		{
+			return;
+		}
+
+		buffer.compact();
+		while (buffer.hasRemaining() && position < end)
+		{
+			buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + (end - position)));
+			final int count = channel.read(buffer, position);
+			if (count < 0)
+			{
+				break;
+			}
+			position += count;
+		}
+		buffer.flip();
+	}
+
+
+	private IOException corrupt()
+	{
+		return new IOException(path.getFileName() + " is truncated or corrupt.");
+	}
+
+}
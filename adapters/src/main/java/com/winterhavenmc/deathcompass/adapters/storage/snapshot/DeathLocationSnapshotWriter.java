@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.snapshot;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.snapshot.DeathLocationSnapshotFormat.*;
+import static java.nio.file.StandardOpenOption.*;
+
+
+/**
+ * Writes death locations to a snapshot file through a file channel, one record at a time.
+ * The snapshot is written to a temporary file that replaces the destination file only when
+ * {@link #finish} completes, so an interrupted export never leaves a partial snapshot behind.
+ * Instances are not thread safe.
+ */
+public final class DeathLocationSnapshotWriter implements Closeable
+{
+	public final static String FILE_EXTENSION = ".dcsnap";
+
+	private final Path path;
+	private final Path temporaryPath;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final CRC32 checksum = new CRC32();
+	private final Map<UUID, Integer> worldIndexes = new LinkedHashMap<>();
+	private long recordCount;
+	private long previousMsb;
+	private long previousLsb;
+	private boolean finished;
+
+
+	private DeathLocationSnapshotWriter(final Path path, final Path temporaryPath, final FileChannel channel)
+	{
+		this.path = path;
+		this.temporaryPath = temporaryPath;
+		this.channel = channel;
+	}
+
+
+	/**
+	 * Open a snapshot writer, creating parent directories if necessary
+	 *
+	 * @param path the destination snapshot file
+	 * @return a snapshot writer positioned at the first record
+	 * @throws IOException if the temporary file could not be created
+	 */
+	public static DeathLocationSnapshotWriter open(final Path path) throws IOException
+	{
+		final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		if (path.getParent() != null)
+		{
+			Files.createDirectories(path.getParent());
+		}
+
+		final FileChannel channel = FileChannel.open(temporaryPath, CREATE, WRITE, TRUNCATE_EXISTING);
+		channel.position(HEADER_SIZE);
+		return new DeathLocationSnapshotWriter(path, temporaryPath, channel);
+	}
+
+
+	/**
+	 * Append a death location record
+	 *
+	 * @param deathRecord the death location and death time to write
+	 * @throws IOException if the record could not be written
+	 */
+	public void write(final DeathRecord deathRecord) throws IOException
+	{
+		write(deathRecord.deathLocation(), deathRecord.deathTime());
+	}
+
+
+	/**
+	 * Append a death location record
+	 *
+	 * @param deathLocation the death location to write
+	 * @param deathTime the time the death location was saved, in milliseconds since the epoch
+	 * @throws IOException if the record could not be written
+	 */
+	public void write(final ValidDeathLocation deathLocation, final long deathTime) throws IOException
+	{
+		if (buffer.remaining() < MAX_RECORD_SIZE)
+		{
+			flush();
+		}
+
+		final long msb = deathLocation.playerUid().getMostSignificantBits();
+		final long lsb = deathLocation.playerUid().getLeastSignificantBits();
+		final long msbDelta = msb - previousMsb;
+
+		putVarLong(buffer, msbDelta);
+		if (msbDelta == 0)
+		{
+			putVarLong(buffer, lsb - previousLsb);
+		}
+		else
+		{
+			buffer.putLong(lsb);
+		}
+
+		Integer worldIndex = worldIndexes.get(deathLocation.worldUid());
+		if (worldIndex == null)
+		{
+			worldIndex = worldIndexes.size();
+			worldIndexes.put(deathLocation.worldUid(), worldIndex);
+		}
+		putVarLong(buffer, worldIndex);
+
+		buffer.putLong(packCoordinates(deathLocation.x(), deathLocation.y(), deathLocation.z()));
+		buffer.putLong(deathTime);
+
+		previousMsb = msb;
+		previousLsb = lsb;
+		recordCount++;
+	}
+
+
+	/**
+	 * Write the world dictionary and header, and move the completed snapshot into place
+	 *
+	 * @param worldNames names of worlds, by world UUID; worlds without a name are written with an empty name
+	 * @return the number of records written
+	 * @throws IOException if the snapshot could not be completed
+	 */
+	public long finish(final Map<UUID, String> worldNames) throws IOException
+	{
+		flush();
+		final long dictionaryOffset = channel.position();
+
+		putVarLong(buffer, worldIndexes.size());
+		for (UUID worldUid : worldIndexes.keySet())
+		{
+			final byte[] name = worldNames.getOrDefault(worldUid, "").getBytes(StandardCharsets.UTF_8);
+			if (buffer.remaining() < Long.BYTES * 2 + MAX_VARLONG_SIZE + name.length)
+			{
+				flush();
+			}
+			buffer.putLong(worldUid.getMostSignificantBits());
+			buffer.putLong(worldUid.getLeastSignificantBits());
+			putVarLong(buffer, name.length);
+			buffer.put(name);
+		}
+		flush();
+
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.putShort((short) 0);
+		header.putLong(recordCount);
+		header.putLong(dictionaryOffset);
+		header.putInt((int) checksum.getValue());
+		header.putInt(0);
+		header.flip();
+
+		long position = 0;
+		while (header.hasRemaining())
+		{
+			position += channel.write(header, position);
+		}
+
+		channel.force(true);
+		channel.close();
+
+		try
+		{
+			Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException exception)
+		{
+			Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		finished = true;
+		return recordCount;
+	}
+
+
+	/**
+	 * Get the number of records written so far
+	 *
+	 * @return the number of records written
+	 */
+	public long recordCount()
+	{
+		return recordCount;
+	}
+
+
+	/**
+	 * Close the writer; if the snapshot was not finished, the temporary file is removed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (!finished)
+		{
+			channel.close();
+			Files.deleteIfExists(temporaryPath);
+		}
+	}
+
+
+	private void flush() throws IOException
+	{
+		buffer.flip();
+		checksum.update(buffer.duplicate());
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
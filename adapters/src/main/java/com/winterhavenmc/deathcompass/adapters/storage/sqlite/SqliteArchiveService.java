@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteConnectionProvider.DATASTORE_NAME;
+
+
+/**
+ * Moves the death locations of players who have not played recently out of the SQLite datastore
+ * into a compressed archive file, and moves them back when a player returns.
+ * <p>
+ * At a regular interval, players whose newest death location and last login are both older than the configured
+ * number of days are archived in groups, each group on its own task on the storage thread, so other datastore
+ * operations are not held up for the whole run. When an archived player joins, their death locations are restored
+ * on the storage thread. A player who joins while a run is in progress is skipped by the rest of the run.
+ */
+final class SqliteArchiveService implements Listener
+{
+	final static String ARCHIVE_NAME = "SQLite archive";
+	private final static String ARCHIVE_FOLDER = "archive";
+	private final static String ARCHIVE_FILE = "deathlocations.archive";
+	private final static long FIRST_RUN_DELAY_TICKS = 5 * 60 * 20;
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final SqliteDeathLocationRepository repository;
+	private final ExecutorService storageExecutor;
+	private final SqliteDeathLocationArchive archive;
+	private final Set<UUID> joinedPlayers = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean running = new AtomicBoolean();
+	private BukkitTask archiveTask;
+
+
+	private SqliteArchiveService(final Plugin plugin,
+	                             final ConfigRepository configRepository,
+	                             final SqliteDeathLocationRepository repository,
+	                             final ExecutorService storageExecutor,
+	                             final SqliteDeathLocationArchive archive)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.repository = repository;
+		this.storageExecutor = storageExecutor;
+		this.archive = archive;
+	}
+
+
+	/**
+	 * Open the archive file and attach it to the repository, so purges also apply to archived players
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param repository the SQLite repository
+	 * @param storageExecutor the executor of the SQLite repository
+	 * @return the archive service
+	 * @throws IOException if the archive file could not be opened
+	 */
+	static SqliteArchiveService open(final Plugin plugin,
+	                                 final ConfigRepository configRepository,
+	                                 final SqliteDeathLocationRepository repository,
+	                                 final ExecutorService storageExecutor) throws IOException
+	{
+		final Path archivePath = plugin.getDataFolder().toPath().resolve(ARCHIVE_FOLDER).resolve(ARCHIVE_FILE);
+		final SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(archivePath);
+		if (archive.truncated())
+		{
+			plugin.getLogger().warning(SqliteMessage.ARCHIVE_TRUNCATED_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+		}
+
+		repository.attachArchive(archive);
+
+		final SqliteArchiveService archiveService = new SqliteArchiveService(plugin, configRepository, repository, storageExecutor, archive);
+		plugin.getServer().getPluginManager().registerEvents(archiveService, plugin);
+		return archiveService;
+	}
+
+
+	/**
+	 * Schedule archive runs, the first a few minutes after startup and then at the configured interval
+	 */
+	void start()
+	{
+		final long intervalTicks = Math.max(1, plugin.getConfig().getLong("storage.archive.interval", 24)) * 60 * 60 * 20;
+		archiveTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::archiveInactivePlayers, FIRST_RUN_DELAY_TICKS, intervalTicks);
+	}
+
+
+	/**
+	 * Archive the death locations of inactive players, if a run is not already in progress
+	 *
+	 * @return future that completes with the number of death locations archived
+	 */
+	CompletableFuture<Integer> archiveInactivePlayers()
+	{
+		if (!running.compareAndSet(false, true))
+		{
+			return CompletableFuture.completedFuture(0);
+		}
+
+		final long startTime = System.nanoTime();
+		final int inactiveDays = Math.max(1, plugin.getConfig().getInt("storage.archive.inactive-days", 90));
+		final long cutoff = System.currentTimeMillis() - Duration.ofDays(inactiveDays).toMillis();
+		final int batchSize = Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+		final Set<UUID> archivedPlayers = ConcurrentHashMap.newKeySet();
+
+		joinedPlayers.clear();
+
+		return CompletableFuture.supplyAsync(() -> selectInactivePlayers(cutoff), storageExecutor)
+				.thenApplyAsync(playerUids -> playerUids.stream()
+						.filter(playerUid -> isInactive(plugin.getServer().getOfflinePlayer(playerUid), cutoff))
+						.toList(), this::runOnServerThread)
+				.thenCompose(playerUids ->
+				{
+					CompletableFuture<Integer> future = CompletableFuture.completedFuture(0);
+					for (int start = 0; start < playerUids.size(); start += batchSize)
+					{
+						final List<UUID> group = playerUids.subList(start, Math.min(start + batchSize, playerUids.size()));
+						future = future.thenApplyAsync(count -> count + archiveGroup(group, archivedPlayers), storageExecutor);
+					}
+					return future.thenApplyAsync(count ->
+					{
+						compactIfNeeded();
+						return count;
+					}, storageExecutor);
+				})
+				.whenComplete((count, throwable) ->
+				{
+					if (throwable == null)
+					{
+						plugin.getLogger().info(SqliteMessage.ARCHIVE_NOTICE.getLocalizedMessage(configRepository.locale(),
+								count, archivedPlayers.size(), inactiveDays, Duration.ofNanos(System.nanoTime() - startTime).toMillis()));
+					}
+					running.set(false);
+				});
+	}
+
+
+	/**
+	 * Restore the death locations of an archived player who joins, on the storage thread
+	 */
+	@EventHandler
+	void onPlayerJoin(final PlayerJoinEvent event)
+	{
+		final UUID playerUid = event.getPlayer().getUniqueId();
+
+		// recorded before the check below, so a run in progress cannot archive the player after the check
+		joinedPlayers.add(playerUid);
+		if (!running.get() && !archive.contains(playerUid))
+		{
+			return;
+		}
+
+		CompletableFuture.runAsync(() -> restorePlayer(playerUid), storageExecutor);
+	}
+
+
+	/**
+	 * Get the record count and size of the archive
+	 *
+	 * @return the archive tier
+	 */
+	DatastoreTier tier() throws IOException
+	{
+		return new DatastoreTier(ARCHIVE_NAME, archive.recordCount(), archive.size());
+	}
+
+
+	/**
+	 * Cancel scheduled runs and close the archive file. The storage executor must be shut down first,
+	 * so no archive task is in progress.
+	 */
+	void close()
+	{
+		if (archiveTask != null)
+		{
+			archiveTask.cancel();
+		}
+		HandlerList.unregisterAll(this);
+
+		try
+		{
+			archive.close();
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	private List<UUID> selectInactivePlayers(final long cutoff)
+	{
+		try
+		{
+			return new ArrayList<>(repository.selectInactivePlayers(cutoff));
+		}
+		catch (SQLException sqlException)
+		{
+			plugin.getLogger().warning(SqliteMessage.ARCHIVE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			throw new CompletionException(sqlException);
+		}
+	}
+
+
+	private static boolean isInactive(final OfflinePlayer offlinePlayer, final long cutoff)
+	{
+		return !offlinePlayer.isOnline() && offlinePlayer.getLastPlayed() < cutoff;
+	}
+
+
+	private int archiveGroup(final List<UUID> group, final Set<UUID> archivedPlayers)
+	{
+		final List<UUID> playerUids = group.stream().filter(playerUid -> !joinedPlayers.contains(playerUid)).toList();
+		try
+		{
+			final int count = repository.archivePlayers(playerUids, archive);
+			archivedPlayers.addAll(playerUids);
+			return count;
+		}
+		catch (SQLException | IOException exception)
+		{
+			plugin.getLogger().warning(SqliteMessage.ARCHIVE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			throw new CompletionException(exception);
+		}
+	}
+
+
+	private void restorePlayer(final UUID playerUid)
+	{
+		try
+		{
+			final int count = repository.restorePlayer(playerUid, archive);
+			if (count > 0 && plugin.getConfig().getBoolean("debug"))
+			{
+				plugin.getLogger().info(SqliteMessage.ARCHIVE_RESTORE_NOTICE.getLocalizedMessage(configRepository.locale(), count, playerUid));
+			}
+		}
+		catch (SQLException | IOException exception)
+		{
+			plugin.getLogger().warning(SqliteMessage.ARCHIVE_RESTORE_ERROR.getLocalizedMessage(configRepository.locale(), playerUid));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	private void compactIfNeeded()
+	{
+		try
+		{
+			if (archive.needsCompaction())
+			{
+				final long previousSize = archive.size();
+				archive.compact();
+				plugin.getLogger().info(SqliteMessage.ARCHIVE_COMPACT_NOTICE.getLocalizedMessage(configRepository.locale(),
+						DATASTORE_NAME, previousSize, archive.size()));
+			}
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(SqliteMessage.ARCHIVE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	private void runOnServerThread(final Runnable runnable)
+	{
+		if (plugin.isEnabled())
+		{
+			plugin.getServer().getScheduler().runTask(plugin, runnable);
+		}
+		else
+		{
+			runnable.run();
+		}
+	}
+
+}
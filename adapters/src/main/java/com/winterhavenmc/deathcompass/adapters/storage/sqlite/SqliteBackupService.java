@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.storage.BackupFolder;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteConnectionProvider.DATASTORE_NAME;
+
+
+/**
+ * Copies the SQLite datastore to rotated backup files using the driver's online backup facility.
+ * <p>
+ * Each backup opens its own connection to the database file and runs on a dedicated thread. The database is
+ * copied in a single step: SQLite restarts a stepped backup whenever another connection writes to the database,
+ * so a backup taken in small steps on a busy server might never finish. While the copy runs, a write from the
+ * plugin connections waits for it under the driver's busy timeout; the datastore is small enough that the copy
+ * takes a fraction of that. Backups are written to a temporary file that is renamed into place only when complete,
+ * so a backup file is never a torn copy.
+ */
+final class SqliteBackupService
+{
+	private final static int BUSY_RETRIES = 100;
+	private final static int BUSY_DELAY = 10;
+	private final static int ALL_PAGES = -1;
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final String dataFilePath;
+	private final BackupFolder backupFolder;
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final ScheduledExecutorService backupExecutor;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param dataFilePath the path of the datastore file
+	 */
+	SqliteBackupService(final Plugin plugin, final ConfigRepository configRepository, final String dataFilePath)
+	{
+		this(plugin, configRepository, dataFilePath, new BackupFolder(plugin, ".db"), plugin.getName() + "-Backup");
+	}
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param dataFilePath the path of the datastore file
+	 * @param backupFolder the folder that backups are written to and rotated in
+	 * @param threadName the name of the backup thread
+	 */
+	SqliteBackupService(final Plugin plugin,
+	                    final ConfigRepository configRepository,
+	                    final String dataFilePath,
+	                    final BackupFolder backupFolder,
+	                    final String threadName)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.dataFilePath = dataFilePath;
+		this.backupFolder = backupFolder;
+		this.backupExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, threadName);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+
+	/**
+	 * Schedule periodic backups, if enabled in the configuration
+	 */
+	void start()
+	{
+		if (!plugin.getConfig().getBoolean("storage.backup.enabled", false))
+		{
+			return;
+		}
+
+		final long interval = Math.max(1, plugin.getConfig().getLong("storage.backup.interval", 60));
+
+		backupExecutor.scheduleAtFixedRate(() ->
+		{
+			// scheduled backups skip a cycle, rather than queue, if a triggered backup is still running
+			if (running.compareAndSet(false, true))
+			{
+				try
+				{
+					runBackup();
+				}
+				catch (CompletionException exception)
+				{
+					// already logged by runBackup
+				}
+				catch (RuntimeException exception)
+				{
+					// an uncaught exception would cancel the schedule
+					plugin.getLogger().warning(exception.getLocalizedMessage());
+				}
+				finally
+				{
+					running.set(false);
+				}
+			}
+		}, interval, interval, TimeUnit.MINUTES);
+	}
+
+
+	/**
+	 * Start a backup on the backup thread
+	 *
+	 * @return future that completes with the details of the backup, or completes exceptionally
+	 * if a backup is already in progress or the backup fails
+	 */
+	CompletableFuture<DatastoreBackup> backup()
+	{
+		if (!running.compareAndSet(false, true))
+		{
+			final String message = SqliteMessage.BACKUP_IN_PROGRESS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME);
+			plugin.getLogger().warning(message);
+			return CompletableFuture.failedFuture(new IllegalStateException(message));
+		}
+
+		try
+		{
+			return CompletableFuture.supplyAsync(this::runBackup, backupExecutor)
+					.whenComplete((backup, throwable) -> running.set(false));
+		}
+		catch (RejectedExecutionException exception)
+		{
+			running.set(false);
+			return CompletableFuture.failedFuture(exception);
+		}
+	}
+
+
+	/**
+	 * Stop scheduled backups, allowing a backup in progress a short time to finish
+	 */
+	void close()
+	{
+		backupExecutor.shutdownNow();
+		try
+		{
+			backupExecutor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException interruptedException)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private DatastoreBackup runBackup()
+	{
+		final long startTime = System.nanoTime();
+
+		final Path backupPath;
+		try
+		{
+			backupPath = backupFolder.newBackupPath();
+
+			// a separate connection, so the backup never holds the lock on the plugin datastore connection;
+			// the busy delay and retries apply only while a write holds the database when the copy starts
+			try (final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dataFilePath))
+			{
+				final int result = connection.unwrap(SQLiteConnection.class).getDatabase()
+						.backup("main", backupFolder.temporaryPath(backupPath).toString(), null, BUSY_DELAY, BUSY_RETRIES, ALL_PAGES);
+
+				if (result != SQLiteErrorCode.SQLITE_OK.code)
+				{
+					throw new SQLException("Backup failed with result code " + result + ".", null, result);
+				}
+			}
+
+			backupFolder.complete(backupPath);
+		}
+		catch (SQLException | IOException exception)
+		{
+			plugin.getLogger().warning(SqliteMessage.BACKUP_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			backupFolder.rotate();
+			throw new CompletionException(exception);
+		}
+
+		backupFolder.rotate();
+
+		final DatastoreBackup backup = new DatastoreBackup(backupPath.getFileName().toString(),
+				BackupFolder.sizeOf(backupPath), Duration.ofNanos(System.nanoTime() - startTime));
+
+		plugin.getLogger().info(SqliteMessage.BACKUP_NOTICE.getLocalizedMessage(configRepository.locale(),
+				DATASTORE_NAME, backup.name(), backup.size(), backup.duration().toMillis()));
+
+		return backup;
+	}
+
+}
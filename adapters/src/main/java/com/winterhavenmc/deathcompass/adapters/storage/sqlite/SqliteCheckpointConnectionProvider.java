@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.memory.MemoryDeathLocationRepository;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteConnectionProvider.DATASTORE_NAME;
+
+
+/**
+ * Provides a memory-first death location datastore. All reads and writes go to an in-memory repository,
+ * loaded from the SQLite database at startup. Changed death locations are written back to the database
+ * in a single transaction every {@code storage.checkpoint.interval} seconds, and when the datastore is closed,
+ * so at most one interval of changes is lost if the server stops without closing the datastore.
+ */
+public final class SqliteCheckpointConnectionProvider implements ConnectionProvider
+{
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final SqliteConnectionProvider sqliteProvider;
+	private final Map<Key, Change> pendingChanges = new ConcurrentHashMap<>();
+	private ExecutorService storageExecutor;
+	private SqliteDeathLocationRepository sqliteRepository;
+	private MemoryDeathLocationRepository deathLocationRepository;
+	private BukkitTask checkpointTask;
+	private boolean initialized;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 */
+	public SqliteCheckpointConnectionProvider(final Plugin plugin)
+	{
+		this.plugin = plugin;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.sqliteProvider = new SqliteConnectionProvider(plugin, false, false);
+	}
+
+
+	@Override
+	public ConnectionProvider connect()
+	{
+		// initialize data store
+		try
+		{
+			this.initialize();
+		}
+		catch (Exception exception)
+		{
+			plugin.getLogger().severe("Could not initialize the datastore!");
+			plugin.getLogger().severe(exception.getLocalizedMessage());
+		}
+
+		// return initialized data store
+		return this;
+	}
+
+
+	/**
+	 * Initialize datastore
+	 */
+	private void initialize()
+	{
+		// if data store is already initialized, log and return
+		if (this.initialized)
+		{
+			plugin.getLogger().info(SqliteMessage.DATASTORE_INITIALIZE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			return;
+		}
+
+		// open the database, updating the schema and creating tables if necessary
+		sqliteProvider.connect();
+		storageExecutor = sqliteProvider.storageExecutor();
+		sqliteRepository = sqliteProvider.sqliteDeathLocations();
+		if (storageExecutor == null || sqliteRepository == null)
+		{
+			throw new IllegalStateException(SqliteMessage.DATASTORE_NOT_INITIALIZED_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+		}
+
+		// all death locations are held in memory, so there is no record limit; changes are recorded for the next checkpoint
+		deathLocationRepository = new MemoryDeathLocationRepository(plugin, configRepository, storageExecutor, 0, new ChangeRecorder());
+
+		// load the database into memory, on the storage thread that owns the connection
+		final long startTime = System.nanoTime();
+		final int count = CompletableFuture.supplyAsync(() ->
+		{
+			try
+			{
+				return sqliteRepository.loadAll(deathLocationRepository::restore);
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.CHECKPOINT_LOAD_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				throw new CompletionException(sqlException);
+			}
+		}, storageExecutor).join();
+
+		// write changes back to the database periodically, on the storage thread
+		final long interval = checkpointInterval();
+		checkpointTask = plugin.getServer().getScheduler().runTaskTimer(plugin,
+				() -> CompletableFuture.runAsync(this::checkpoint, storageExecutor), interval * 20, interval * 20);
+
+		// set initialized true
+		this.initialized = true;
+		plugin.getLogger().info(SqliteMessage.CHECKPOINT_LOAD_NOTICE.getLocalizedMessage(configRepository.locale(),
+				count, (System.nanoTime() - startTime) / 1_000_000, interval));
+	}
+
+
+	/**
+	 * Write a final checkpoint after queued datastore operations finish, then close the database
+	 */
+	@Override
+	public void close()
+	{
+		if (checkpointTask != null)
+		{
+			checkpointTask.cancel();
+			checkpointTask = null;
+		}
+
+		if (initialized)
+		{
+			CompletableFuture.runAsync(this::checkpoint, storageExecutor).join();
+		}
+
+		sqliteProvider.close();
+		initialized = false;
+	}
+
+
+	/**
+	 * Get instance of DeathLocationRepository
+	 */
+	@Override
+	public DeathLocationRepository deathLocations()
+	{
+		return this.deathLocationRepository;
+	}
+
+
+	/**
+	 * Write a checkpoint, so the backup holds all changes made so far, then back up the database
+	 */
+	@Override
+	public CompletableFuture<DatastoreBackup> backup()
+	{
+		if (!initialized)
+		{
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					SqliteMessage.DATASTORE_NOT_INITIALIZED_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME)));
+		}
+
+		return CompletableFuture.runAsync(this::checkpoint, storageExecutor)
+				.thenCompose(ignored -> sqliteProvider.backup());
+	}
+
+
+	/**
+	 * Report the tiers of the checkpoint database, which holds the changes made up to the last checkpoint
+	 */
+	@Override
+	public CompletableFuture<List<DatastoreTier>> tiers()
+	{
+		return sqliteProvider.tiers();
+	}
+
+
+	/**
+	 * Write pending changes to the database in a single transaction. Runs on the storage executor.
+	 * A change is cleared only if it was not replaced while the checkpoint was written; if the transaction fails,
+	 * all changes remain pending for the next checkpoint.
+	 */
+	private void checkpoint()
+	{
+		if (pendingChanges.isEmpty())
+		{
+			return;
+		}
+
+		final long startTime = System.nanoTime();
+		final List<Change> changes = List.copyOf(pendingChanges.values());
+
+		try
+		{
+			sqliteRepository.writeCheckpoint(changes);
+		}
+		catch (SQLException sqlException)
+		{
+			plugin.getLogger().warning(SqliteMessage.CHECKPOINT_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			return;
+		}
+
+		changes.forEach(change -> pendingChanges.remove(new Key(change.playerUid(), change.worldUid()), change));
+
+		if (plugin.getConfig().getBoolean("debug"))
+		{
+			plugin.getLogger().info(SqliteMessage.CHECKPOINT_NOTICE.getLocalizedMessage(configRepository.locale(),
+					changes.size(), (System.nanoTime() - startTime) / 1_000_000));
+		}
+	}
+
+
+	private long checkpointInterval()
+	{
+		return Math.max(1, plugin.getConfig().getLong("storage.checkpoint.interval", 30));
+	}
+
+
+	/**
+	 * Records each save and delete in the in-memory repository as a pending change, replacing any earlier change
+	 * for the same player and world
+	 */
+	private final class ChangeRecorder implements MemoryDeathLocationRepository.ChangeListener
+	{
+		@Override
+		public void saved(final ValidDeathLocation deathLocation, final long deathTime)
+		{
+			pendingChanges.put(new Key(deathLocation.playerUid(), deathLocation.worldUid()),
+					new Change(deathLocation.playerUid(), deathLocation.worldUid(), deathLocation, deathTime));
+		}
+
+
+		@Override
+		public void deleted(final UUID playerUid, final UUID worldUid)
+		{
+			pendingChanges.put(new Key(playerUid, worldUid), new Change(playerUid, worldUid, null, 0));
+		}
+	}
+
+
+	private record Key(UUID playerUid, UUID worldUid) { }
+
+
+	/**
+	 * A change to be written at the next checkpoint
+	 *
+	 * @param playerUid the player UUID
+	 * @param worldUid the world UUID
+	 * @param deathLocation the saved death location, or null if the death location was deleted
+	 * @param deathTime the time the death location was saved
+	 */
+	record Change(UUID playerUid, UUID worldUid, ValidDeathLocation deathLocation, long deathTime) { }
+
+}
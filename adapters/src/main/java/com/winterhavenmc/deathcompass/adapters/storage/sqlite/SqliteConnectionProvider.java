@@ -19,6 +19,8 @@ package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
 
 import com.winterhavenmc.deathcompass.adapters.storage.sqlite.schema.SqliteSchemaUpdater;
 import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
 import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
 
 import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
@@ -27,7 +29,17 @@ import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepos
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 
 public final class SqliteConnectionProvider implements ConnectionProvider
@@ -35,10 +47,17 @@ public final class SqliteConnectionProvider implements ConnectionProvider
 	private final Plugin plugin;
 	private final ConfigRepository configRepository;
 	private final String dataFilePath;
+	private final boolean partitioned;
+	private final boolean archived;
 	private Connection connection;
+	private Connection storageConnection;
+	private ExecutorService storageExecutor;
+	private SqliteBackupService backupService;
+	private SqliteArchiveService archiveService;
 	private boolean initialized;
 
 	private SqliteDeathLocationRepository deathLocationRepository;
+	private SqlitePartitionedDeathLocationRepository partitionedRepository;
 	final static String DATASTORE_NAME = "SQLite";
 
 	/**
@@ -47,10 +66,28 @@ public final class SqliteConnectionProvider implements ConnectionProvider
 	 * @param plugin instance of main class
 	 */
 	public SqliteConnectionProvider(final Plugin plugin)
+	{
+		this(plugin,
+				plugin.getConfig().getBoolean("storage.sqlite.partition-by-world", false),
+				plugin.getConfig().getBoolean("storage.archive.enabled", false));
+	}
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param partitioned true to keep the death locations of each world in a separate database file
+	 * @param archived true to move the death locations of inactive players to an archive file;
+	 * ignored if partitioned is true
+	 */
+	SqliteConnectionProvider(final Plugin plugin, final boolean partitioned, final boolean archived)
 	{
 		this.plugin = plugin;
 		this.configRepository = BukkitConfigRepository.create(plugin);
 		this.dataFilePath = plugin.getDataFolder() + File.separator + "deathlocations.db";
+		this.partitioned = partitioned;
+		this.archived = archived;
 	}
 
 
@@ -89,22 +126,97 @@ public final class SqliteConnectionProvider implements ConnectionProvider
 
 		Class.forName(jdbcDriverName);
 
+		if (partitioned)
+		{
+			initializePartitioned();
+			return;
+		}
+
 		// create database url
 		String jdbc = "jdbc:sqlite";
 		String dbUrl = jdbc + ":" + dataFilePath;
 
-		// create a database connection
+		// create a database connection for the server thread, and another for the storage thread
 		connection = DriverManager.getConnection(dbUrl);
+		storageConnection = DriverManager.getConnection(dbUrl);
+
+		// create single thread executor for datastore operations that run off the server thread
+		storageExecutor = Executors.newSingleThreadExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage");
+			thread.setDaemon(true);
+			return thread;
+		});
 
 		// instantiate datastore adapters
-		deathLocationRepository = new SqliteDeathLocationRepository(plugin, connection, configRepository);
+		deathLocationRepository = new SqliteDeathLocationRepository(plugin, connection, storageConnection, configRepository, storageExecutor);
 
 		// update schema if necessary
 		SqliteSchemaUpdater schemaUpdater = SqliteSchemaUpdater.create(plugin, connection, configRepository, deathLocationRepository);
 		schemaUpdater.update();
 
 		// create tables if necessary
-		createDeathLocationTable(connection);
+		createSchema(plugin, configRepository, connection);
+
+		// start scheduled backups, if enabled
+		backupService = new SqliteBackupService(plugin, configRepository, dataFilePath);
+		backupService.start();
+
+		// move inactive players to the archive at the configured interval, if enabled
+		if (archived)
+		{
+			try
+			{
+				archiveService = SqliteArchiveService.open(plugin, configRepository, deathLocationRepository, storageExecutor);
+				archiveService.start();
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(SqliteMessage.ARCHIVE_OPEN_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+			}
+		}
+
+		// detect orphaned worlds once all plugins have loaded their worlds
+		plugin.getServer().getScheduler().runTask(plugin, deathLocationRepository::detectOrphanedWorlds);
+
+		// build the lookup index after startup, then rebuild it at the configured interval
+		if (plugin.getConfig().getBoolean("storage.index.enabled"))
+		{
+			final long rebuildTicks = Math.max(1, plugin.getConfig().getLong("storage.index.rebuild-interval", 360)) * 60 * 20;
+			plugin.getServer().getScheduler().runTaskTimer(plugin, deathLocationRepository::rebuildLookupIndex, 1L, rebuildTicks);
+		}
+
+		// set initialized true
+		this.initialized = true;
+		plugin.getLogger().info(SqliteMessage.DATASTORE_INITIALIZE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+	}
+
+
+	/**
+	 * Initialize the datastore with one database file for each world, opened when a world is first used
+	 */
+	private void initializePartitioned()
+	{
+		// create single thread executor for operations that span partitions
+		storageExecutor = Executors.newSingleThreadExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		partitionedRepository = new SqlitePartitionedDeathLocationRepository(plugin, configRepository, storageExecutor);
+
+		// detect orphaned worlds once all plugins have loaded their worlds
+		plugin.getServer().getScheduler().runTask(plugin, partitionedRepository::detectOrphanedWorlds);
+
+		// rebuild the lookup index of each open partition at the configured interval
+		if (plugin.getConfig().getBoolean("storage.index.enabled"))
+		{
+			final long rebuildTicks = Math.max(1, plugin.getConfig().getLong("storage.index.rebuild-interval", 360)) * 60 * 20;
+			plugin.getServer().getScheduler().runTaskTimer(plugin, partitionedRepository::rebuildLookupIndex, rebuildTicks, rebuildTicks);
+		}
 
 		// set initialized true
 		this.initialized = true;
@@ -118,8 +230,45 @@ public final class SqliteConnectionProvider implements ConnectionProvider
 	@Override
 	public void close()
 	{
+		if (backupService != null)
+		{
+			backupService.close();
+		}
+
+		// allow queued datastore operations to finish before closing connection
+		if (storageExecutor != null)
+		{
+			storageExecutor.shutdown();
+			try
+			{
+				if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS))
+				{
+					storageExecutor.shutdownNow();
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				storageExecutor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (archiveService != null)
+		{
+			archiveService.close();
+		}
+
+		if (partitionedRepository != null)
+		{
+			partitionedRepository.close();
+			plugin.getLogger().info(SqliteMessage.DATASTORE_CLOSE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			initialized = false;
+			return;
+		}
+
 		try
 		{
+			storageConnection.close();
 			connection.close();
 			plugin.getLogger().info(SqliteMessage.DATASTORE_CLOSE_NOTICE.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
 		}
@@ -139,12 +288,100 @@ public final class SqliteConnectionProvider implements ConnectionProvider
 	 */
 	@Override
 	public DeathLocationRepository deathLocations()
+	{
+		return (partitionedRepository != null) ? partitionedRepository : this.deathLocationRepository;
+	}
+
+
+	@Override
+	public CompletableFuture<DatastoreBackup> backup()
+	{
+		if (partitionedRepository != null)
+		{
+			return partitionedRepository.backup();
+		}
+
+		if (backupService == null)
+		{
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					SqliteMessage.DATASTORE_NOT_INITIALIZED_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME)));
+		}
+
+		return backupService.backup();
+	}
+
+
+	/**
+	 * Count the records of the database, and of the archive if enabled, on the storage thread
+	 */
+	@Override
+	public CompletableFuture<List<DatastoreTier>> tiers()
+	{
+		if (partitionedRepository != null)
+		{
+			return partitionedRepository.tier().thenApply(List::of);
+		}
+
+		if (deathLocationRepository == null)
+		{
+			return CompletableFuture.completedFuture(List.of());
+		}
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			try
+			{
+				final List<DatastoreTier> tiers = new ArrayList<>();
+				tiers.add(new DatastoreTier(DATASTORE_NAME, deathLocationRepository.count(), Files.size(Path.of(dataFilePath))));
+				if (archiveService != null)
+				{
+					tiers.add(archiveService.tier());
+				}
+				return tiers;
+			}
+			catch (SQLException | IOException exception)
+			{
+				plugin.getLogger().warning(SqliteMessage.SELECT_ALL_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+				throw new CompletionException(exception);
+			}
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Get the executor for datastore operations that run off the server thread
+	 */
+	ExecutorService storageExecutor()
+	{
+		return this.storageExecutor;
+	}
+
+
+	/**
+	 * Get the SQLite repository, for datastores that use the SQLite database as a checkpoint
+	 */
+	SqliteDeathLocationRepository sqliteDeathLocations()
 	{
 		return this.deathLocationRepository;
 	}
 
 
-	private void createDeathLocationTable(final Connection connection)
+	/**
+	 * Create the death location table and its indexes, if they do not exist
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param connection the database connection
+	 */
+	static void createSchema(final Plugin plugin, final ConfigRepository configRepository, final Connection connection)
+	{
+		createDeathLocationTable(plugin, configRepository, connection);
+		createIndexes(plugin, configRepository, connection);
+	}
+
+
+	private static void createDeathLocationTable(final Plugin plugin, final ConfigRepository configRepository, final Connection connection)
 	{
 		try (final Statement statement = connection.createStatement())
 		{
@@ -157,4 +394,21 @@ public final class SqliteConnectionProvider implements ConnectionProvider
 		}
 	}
 
+
+	private static void createIndexes(final Plugin plugin, final ConfigRepository configRepository, final Connection connection)
+	{
+		for (String indexQuery : List.of("CreateWorldIndex", "CreateDeathTimeIndex"))
+		{
+			try (final Statement statement = connection.createStatement())
+			{
+				statement.executeUpdate(SqliteQueries.getQuery(indexQuery));
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.CREATE_INDEX_ERROR.getLocalizedMessage(configRepository.locale(), indexQuery));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			}
+		}
+	}
+
 }
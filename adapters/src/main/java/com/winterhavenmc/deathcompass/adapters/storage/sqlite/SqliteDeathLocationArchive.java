@@ -0,0 +1,604 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static java.nio.file.StandardOpenOption.*;
+
+
+/**
+ * An append-only file of compressed death location records for players who have not played recently.
+ * <p>
+ * The file is a sequence of segments. An archive segment lists the players it holds, with their record
+ * counts, followed by the deflated records of those players. A release segment lists players whose records
+ * have left the archive, because they were restored to the datastore or purged. Segments are only ever
+ * appended, and the players held by the archive are found by scanning the segment headers when the file
+ * is opened. An incomplete segment at the end of the file, left by a crash during an append, is discarded.
+ * When more of the file is taken by released records than by held records, {@link #compact} rewrites it.
+ * <p>
+ * Methods are synchronized, but the datastore calls the methods that change the archive only from its
+ * storage thread.
+ */
+final class SqliteDeathLocationArchive implements Closeable
+{
+	private final static int MAGIC = 0x44434152; // "DCAR"
+	private final static byte ARCHIVED = 1;
+	private final static byte RELEASED = 2;
+	private final static int HEADER_SIZE = 20;
+	private final static int ENTRY_SIZE = 28;
+	private final static long MIN_COMPACTION_SIZE = 64 * 1024;
+
+	private final Path path;
+	private FileChannel channel;
+	private final Map<UUID, Placement> players = new HashMap<>();
+	private final Map<Long, Segment> segments = new HashMap<>();
+	private long recordCount;
+	private boolean truncated;
+
+
+	private SqliteDeathLocationArchive(final Path path)
+	{
+		this.path = path;
+	}
+
+
+	/**
+	 * Open an archive file, creating it and its parent directories if necessary
+	 *
+	 * @param path the archive file
+	 * @return the open archive
+	 * @throws IOException if the file could not be opened or read
+	 */
+	static SqliteDeathLocationArchive open(final Path path) throws IOException
+	{
+		if (path.getParent() != null)
+		{
+			Files.createDirectories(path.getParent());
+		}
+
+		final SqliteDeathLocationArchive archive = new SqliteDeathLocationArchive(path);
+		archive.load();
+		return archive;
+	}
+
+
+	/**
+	 * Check whether the archive holds records for a player
+	 *
+	 * @param playerUid the player UUID
+	 * @return {@code true} if the player has archived records, {@code false} if not
+	 */
+	synchronized boolean contains(final UUID playerUid)
+	{
+		return players.containsKey(playerUid);
+	}
+
+
+	/**
+	 * Append the records of a group of players as one compressed segment. A player already in the archive
+	 * is replaced by the appended records.
+	 *
+	 * @param deathLocations the records to archive, by player
+	 * @throws IOException if the segment could not be written
+	 */
+	synchronized void append(final Map<UUID, List<ArchivedDeathLocation>> deathLocations) throws IOException
+	{
+		if (deathLocations.isEmpty()) { return; }
+
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		try (final DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(payload)))
+		{
+			for (List<ArchivedDeathLocation> playerDeathLocations : deathLocations.values())
+			{
+				for (ArchivedDeathLocation archived : playerDeathLocations)
+				{
+					writeRecord(output, archived);
+				}
+			}
+		}
+
+		final ByteBuffer entries = ByteBuffer.allocate(deathLocations.size() * ENTRY_SIZE);
+		for (Map.Entry<UUID, List<ArchivedDeathLocation>> entry : deathLocations.entrySet())
+		{
+			entries.putLong(entry.getKey().getMostSignificantBits());
+			entries.putLong(entry.getKey().getLeastSignificantBits());
+			entries.putInt(entry.getValue().size());
+			entries.putLong(entry.getValue().stream().mapToLong(ArchivedDeathLocation::deathTime).max().orElse(0));
+		}
+
+		final long offset = writeSegment(ARCHIVED, deathLocations.size(), entries.array(), payload.toByteArray());
+
+		final Segment segment = segments.get(offset);
+		for (Map.Entry<UUID, List<ArchivedDeathLocation>> entry : deathLocations.entrySet())
+		{
+			final long newestDeathTime = entry.getValue().stream().mapToLong(ArchivedDeathLocation::deathTime).max().orElse(0);
+			place(entry.getKey(), new Placement(offset, entry.getValue().size(), newestDeathTime));
+			segment.livePlayers++;
+		}
+	}
+
+
+	/**
+	 * Read the archived records of a player
+	 *
+	 * @param playerUid the player UUID
+	 * @return the player's archived records, or an empty list if the player is not in the archive
+	 * @throws IOException if the records could not be read
+	 */
+	synchronized List<ArchivedDeathLocation> read(final UUID playerUid) throws IOException
+	{
+		final Placement placement = players.get(playerUid);
+		if (placement == null)
+		{
+			return List.of();
+		}
+
+		final List<ArchivedDeathLocation> deathLocations = new ArrayList<>(placement.recordCount());
+		readSegment(placement.segmentOffset(), archived ->
+		{
+			if (archived.deathLocation().playerUid().equals(playerUid))
+			{
+				deathLocations.add(archived);
+			}
+		});
+		return deathLocations;
+	}
+
+
+	/**
+	 * Release players from the archive, so their records are no longer held
+	 *
+	 * @param playerUids the players to release; players not in the archive are ignored
+	 * @return the number of records released
+	 * @throws IOException if the release could not be written
+	 */
+	synchronized int release(final Collection<UUID> playerUids) throws IOException
+	{
+		final List<UUID> released = playerUids.stream().distinct().filter(players::containsKey).toList();
+		if (released.isEmpty())
+		{
+			return 0;
+		}
+
+		final ByteBuffer entries = ByteBuffer.allocate(released.size() * ENTRY_SIZE);
+		for (UUID playerUid : released)
+		{
+			entries.putLong(playerUid.getMostSignificantBits());
+			entries.putLong(playerUid.getLeastSignificantBits());
+			entries.putInt(0);
+			entries.putLong(0);
+		}
+
+		writeSegment(RELEASED, released.size(), entries.array(), new byte[0]);
+
+		int count = 0;
+		for (UUID playerUid : released)
+		{
+			count += place(playerUid, null);
+		}
+		return count;
+	}
+
+
+	/**
+	 * Release the players whose newest archived record is older than a time
+	 *
+	 * @param time the time, in milliseconds since the epoch
+	 * @return the number of records released
+	 * @throws IOException if the release could not be written
+	 */
+	synchronized int releaseOlderThan(final long time) throws IOException
+	{
+		return release(players.entrySet().stream()
+				.filter(entry -> entry.getValue().newestDeathTime() < time)
+				.map(Map.Entry::getKey)
+				.toList());
+	}
+
+
+	/**
+	 * Check whether released records take more of the file than held records
+	 *
+	 * @return {@code true} if the archive should be compacted, {@code false} if not
+	 */
+	synchronized boolean needsCompaction() throws IOException
+	{
+		final long liveSize = segments.values().stream().filter(segment -> segment.livePlayers > 0).mapToLong(Segment::length).sum();
+		final long deadSize = channel.size() - liveSize;
+		return deadSize > MIN_COMPACTION_SIZE && deadSize > liveSize;
+	}
+
+
+	/**
+	 * Rewrite the archive with only the records it holds, one segment at a time,
+	 * and replace the file with the rewritten file
+	 *
+	 * @throws IOException if the archive could not be rewritten
+	 */
+	synchronized void compact() throws IOException
+	{
+		final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		final List<Long> liveOffsets = segments.entrySet().stream()
+				.filter(entry -> entry.getValue().livePlayers > 0)
+				.map(Map.Entry::getKey)
+				.sorted()
+				.toList();
+
+		try (final SqliteDeathLocationArchive compacted = new SqliteDeathLocationArchive(temporaryPath))
+		{
+			compacted.channel = FileChannel.open(temporaryPath, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+			for (long offset : liveOffsets)
+			{
+				final Map<UUID, List<ArchivedDeathLocation>> live = new LinkedHashMap<>();
+				readSegment(offset, archived ->
+				{
+					final Placement placement = players.get(archived.deathLocation().playerUid());
+					if (placement != null && placement.segmentOffset() == offset)
+					{
+						live.computeIfAbsent(archived.deathLocation().playerUid(), playerUid -> new ArrayList<>()).add(archived);
+					}
+				});
+				compacted.append(live);
+			}
+			compacted.channel.force(true);
+		}
+
+		channel.close();
+		try
+		{
+			Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException exception)
+		{
+			Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		load();
+	}
+
+
+	/**
+	 * Check whether an incomplete segment was discarded when the archive was opened
+	 *
+	 * @return {@code true} if the file was truncated, {@code false} if not
+	 */
+	synchronized boolean truncated()
+	{
+		return truncated;
+	}
+
+
+	/**
+	 * Get the number of players held by the archive
+	 *
+	 * @return the number of archived players
+	 */
+	synchronized int playerCount()
+	{
+		return players.size();
+	}
+
+
+	/**
+	 * Get the number of records held by the archive
+	 *
+	 * @return the number of archived records
+	 */
+	synchronized long recordCount()
+	{
+		return recordCount;
+	}
+
+
+	/**
+	 * Get the size of the archive file
+	 *
+	 * @return the file size, in bytes
+	 */
+	synchronized long size() throws IOException
+	{
+		return channel.size();
+	}
+
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		channel.close();
+	}
+
+
+	/**
+	 * Open the file and rebuild the player table from the segment headers
+	 */
+	private void load() throws IOException
+	{
+		channel = FileChannel.open(path, CREATE, READ, WRITE);
+		players.clear();
+		segments.clear();
+		recordCount = 0;
+
+		final long fileSize = channel.size();
+		long offset = 0;
+		while (offset < fileSize)
+		{
+			final long length = loadSegment(offset, fileSize);
+			if (length < 0)
+			{
+				// an incomplete segment can only be the last one, left by an interrupted append
+				channel.truncate(offset);
+				truncated = true;
+				break;
+			}
+			offset += length;
+		}
+		channel.position(offset);
+	}
+
+
+	/**
+	 * Read the header and player entries of the segment at an offset, verifying its checksum
+	 *
+	 * @return the length of the segment, or -1 if the segment is incomplete or corrupt
+	 */
+	private long loadSegment(final long offset, final long fileSize) throws IOException
+	{
+		if (fileSize - offset < HEADER_SIZE)
+		{
+			return -1;
+		}
+
+		final ByteBuffer header = readFully(offset, HEADER_SIZE);
+		final int magic = header.getInt();
+		final byte type = header.get();
+		header.position(header.position() + 3);
+		final int playerCount = header.getInt();
+		final int payloadLength = header.getInt();
+		final int checksum = header.getInt();
+
+		final long length = HEADER_SIZE + (long) playerCount * ENTRY_SIZE + payloadLength;
+		if (magic != MAGIC || (type != ARCHIVED && type != RELEASED) || playerCount < 0 || payloadLength < 0
+				|| length > fileSize - offset)
+		{
+			return -1;
+		}
+
+		final ByteBuffer body = readFully(offset + HEADER_SIZE, (int) (length - HEADER_SIZE));
+		final CRC32 crc = new CRC32();
+		crc.update(body.duplicate());
+		if ((int) crc.getValue() != checksum)
+		{
+			return -1;
+		}
+
+		final Segment segment = new Segment(length);
+		segments.put(offset, segment);
+		for (int i = 0; i < playerCount; i++)
+		{
+			final UUID playerUid = new UUID(body.getLong(), body.getLong());
+			final int playerRecordCount = body.getInt();
+			final long newestDeathTime = body.getLong();
+
+			if (type == ARCHIVED)
+			{
+				place(playerUid, new Placement(offset, playerRecordCount, newestDeathTime));
+				segment.livePlayers++;
+			}
+			else
+			{
+				place(playerUid, null);
+			}
+		}
+		return length;
+	}
+
+
+	/**
+	 * Point a player at a new placement, or remove the player if the placement is null
+	 *
+	 * @return the number of records of the player's previous placement
+	 */
+	private int place(final UUID playerUid, final Placement placement)
+	{
+		final Placement previous = (placement != null) ? players.put(playerUid, placement) : players.remove(playerUid);
+		if (placement != null)
+		{
+			recordCount += placement.recordCount();
+		}
+		if (previous == null)
+		{
+			return 0;
+		}
+
+		recordCount -= previous.recordCount();
+		final Segment previousSegment = segments.get(previous.segmentOffset());
+		if (previousSegment != null)
+		{
+			previousSegment.livePlayers--;
+		}
+		return previous.recordCount();
+	}
+
+
+	/**
+	 * Append a segment at the end of the file and force it to disk
+	 *
+	 * @return the offset of the segment
+	 */
+	private long writeSegment(final byte type, final int playerCount, final byte[] entries, final byte[] payload) throws IOException
+	{
+		final CRC32 crc = new CRC32();
+		crc.update(entries);
+		crc.update(payload);
+
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + entries.length + payload.length);
+		buffer.putInt(MAGIC);
+		buffer.put(type);
+		buffer.put(new byte[3]);
+		buffer.putInt(playerCount);
+		buffer.putInt(payload.length);
+		buffer.putInt((int) crc.getValue());
+		buffer.put(entries);
+		buffer.put(payload);
+		buffer.flip();
+
+		final long offset = channel.size();
+		long position = offset;
+		while (buffer.hasRemaining())
+		{
+			position += channel.write(buffer, position);
+		}
+		channel.force(false);
+
+		segments.put(offset, new Segment(position - offset));
+		return offset;
+	}
+
+
+	/**
+	 * Inflate the records of the archive segment at an offset, passing each to a consumer
+	 */
+	private void readSegment(final long offset, final RecordConsumer consumer) throws IOException
+	{
+		final ByteBuffer header = readFully(offset, HEADER_SIZE);
+		header.position(8);
+		final int playerCount = header.getInt();
+		final int payloadLength = header.getInt();
+
+		final ByteBuffer entries = readFully(offset + HEADER_SIZE, playerCount * ENTRY_SIZE);
+		long segmentRecordCount = 0;
+		for (int i = 0; i < playerCount; i++)
+		{
+			entries.position(i * ENTRY_SIZE + 16);
+			segmentRecordCount += entries.getInt();
+		}
+
+		final ByteBuffer payload = readFully(offset + HEADER_SIZE + (long) playerCount * ENTRY_SIZE, payloadLength);
+		try (final DataInputStream input = new DataInputStream(new InflaterInputStream(
+				new ByteArrayInputStream(payload.array(), 0, payloadLength))))
+		{
+			for (long i = 0; i < segmentRecordCount; i++)
+			{
+				consumer.accept(readRecord(input));
+			}
+		}
+	}
+
+
+	private ByteBuffer readFully(final long position, final int length) throws IOException
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer, position + buffer.position()) < 0)
+			{
+				throw new EOFException();
+			}
+		}
+		return buffer.flip();
+	}
+
+
+	private static void writeRecord(final DataOutputStream output, final ArchivedDeathLocation archived) throws IOException
+	{
+		final ValidDeathLocation deathLocation = archived.deathLocation();
+		output.writeLong(deathLocation.playerUid().getMostSignificantBits());
+		output.writeLong(deathLocation.playerUid().getLeastSignificantBits());
+		output.writeLong(deathLocation.worldUid().getMostSignificantBits());
+		output.writeLong(deathLocation.worldUid().getLeastSignificantBits());
+		output.writeUTF(archived.worldName());
+		output.writeDouble(deathLocation.x());
+		output.writeDouble(deathLocation.y());
+		output.writeDouble(deathLocation.z());
+		output.writeLong(archived.deathTime());
+	}
+
+
+	private static ArchivedDeathLocation readRecord(final DataInputStream input) throws IOException
+	{
+		final UUID playerUid = new UUID(input.readLong(), input.readLong());
+		final UUID worldUid = new UUID(input.readLong(), input.readLong());
+		final String worldName = input.readUTF();
+		final DeathLocation deathLocation = DeathLocation.of(playerUid, worldUid, input.readDouble(), input.readDouble(), input.readDouble());
+		final long deathTime = input.readLong();
+
+		if (deathLocation instanceof ValidDeathLocation validDeathLocation)
+		{
+			return new ArchivedDeathLocation(validDeathLocation, worldName, deathTime);
+		}
+		throw new IOException("Archived record for player " + playerUid + " is invalid.");
+	}
+
+
+	/**
+	 * An archived death location, with the world name and death time stored with it in the datastore
+	 *
+	 * @param deathLocation the death location
+	 * @param worldName the stored world name
+	 * @param deathTime the time of death, in milliseconds since the epoch
+	 */
+	record ArchivedDeathLocation(ValidDeathLocation deathLocation, String worldName, long deathTime) { }
+
+
+	/**
+	 * The archive segment holding a player's records
+	 */
+	private record Placement(long segmentOffset, int recordCount, long newestDeathTime) { }
+
+
+	/**
+	 * A segment of the file, with the number of players whose current records it holds
+	 */
+	private static final class Segment
+	{
+		private final long length;
+		private int livePlayers;
+
+		private Segment(final long length)
+		{
+			this.length = length;
+		}
+
+		private long length()
+		{
+			return length;
+		}
+	}
+
+
+	@FunctionalInterface
+	private interface RecordConsumer
+	{
+		void accept(ArchivedDeathLocation archived) throws IOException;
+	}
+
+}
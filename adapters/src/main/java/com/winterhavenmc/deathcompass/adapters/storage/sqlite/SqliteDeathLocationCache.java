@@ -28,6 +28,7 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -45,7 +46,7 @@ final class SqliteDeathLocationCache implements Listener
 	 */
 	SqliteDeathLocationCache(final Plugin plugin)
 	{
-		deathLocationMap = new HashMap<>();
+		deathLocationMap = new ConcurrentHashMap<>();
 		plugin.getServer().getPluginManager().registerEvents(this, plugin);
 	}
 
@@ -60,15 +61,7 @@ final class SqliteDeathLocationCache implements Listener
 		final UUID playerUid = deathLocation.playerUid();
 		final UUID worldUid = deathLocation.worldUid();
 
-		Map<UUID, ValidDeathLocation> playerMap = deathLocationMap.get(playerUid);
-
-		if (playerMap == null)
-		{
-			playerMap = new HashMap<>();
-		}
-
-		playerMap.put(worldUid, deathLocation);
-		deathLocationMap.put(playerUid, playerMap);
+		deathLocationMap.computeIfAbsent(playerUid, uuid -> new ConcurrentHashMap<>()).put(worldUid, deathLocation);
 	}
 
 
@@ -84,9 +77,62 @@ final class SqliteDeathLocationCache implements Listener
 	{
 		if (playerUid == null) return new InvalidDeathLocation(DeathLocationReason.PARAMETER_PLAYER_UUID_NULL);
 		else if (worldUid == null) return new InvalidDeathLocation(DeathLocationReason.PARAMETER_WORLD_UUID_NULL);
-		else if (deathLocationMap.get(playerUid) == null) return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL);
-		else if (deathLocationMap.get(playerUid).get(worldUid) == null) return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL);
-		else return deathLocationMap.get(playerUid).get(worldUid);
+
+		// single lookups of each map, so a concurrent eviction cannot remove an entry between checks
+		final Map<UUID, ValidDeathLocation> playerMap = deathLocationMap.get(playerUid);
+		if (playerMap == null) return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL);
+
+		final ValidDeathLocation deathLocation = playerMap.get(worldUid);
+		return (deathLocation != null)
+				? deathLocation
+				: new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL);
+	}
+
+
+	/**
+	 * Remove cached death location for player uuid / world uuid
+	 *
+	 * @param playerUid player UUID of the entry to be removed
+	 * @param worldUid  world UID of the entry to be removed
+	 */
+	void evict(final UUID playerUid, final UUID worldUid)
+	{
+		final Map<UUID, ValidDeathLocation> playerMap = deathLocationMap.get(playerUid);
+		if (playerMap != null)
+		{
+			playerMap.remove(worldUid);
+		}
+	}
+
+
+	/**
+	 * Remove all cached death locations for a player
+	 *
+	 * @param playerUid player UUID of the entries to be removed
+	 */
+	void evictPlayer(final UUID playerUid)
+	{
+		deathLocationMap.remove(playerUid);
+	}
+
+
+	/**
+	 * Remove all cached death locations for a world
+	 *
+	 * @param worldUid world UID of the entries to be removed
+	 */
+	void evictWorld(final UUID worldUid)
+	{
+		deathLocationMap.values().forEach(playerMap -> playerMap.remove(worldUid));
+	}
+
+
+	/**
+	 * Remove all cached death locations
+	 */
+	void clear()
+	{
+		deathLocationMap.clear();
 	}
 
 
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+
+/**
+ * Steps through the rows of the SelectAllDeathLocations query one at a time, in key order.
+ * Rows that do not map to a valid death location are skipped. Instances are not thread safe.
+ */
+final class SqliteDeathLocationCursor implements AutoCloseable
+{
+	private final PreparedStatement preparedStatement;
+	private final ResultSet resultSet;
+	private final SqliteDeathLocationRowMapper rowMapper;
+
+
+	SqliteDeathLocationCursor(final PreparedStatement preparedStatement,
+	                          final ResultSet resultSet,
+	                          final SqliteDeathLocationRowMapper rowMapper)
+	{
+		this.preparedStatement = preparedStatement;
+		this.resultSet = resultSet;
+		this.rowMapper = rowMapper;
+	}
+
+
+	/**
+	 * Advance to the next valid death location
+	 *
+	 * @return the next death location, or {@code null} if there are no more rows
+	 * @throws SQLException if the next row could not be read
+	 */
+	ValidDeathLocation next() throws SQLException
+	{
+		while (resultSet.next())
+		{
+			if (rowMapper.mapByIndex(resultSet) instanceof ValidDeathLocation validDeathLocation)
+			{
+				return validDeathLocation;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Get the death time of the row last returned by {@link #next}
+	 *
+	 * @return the death time, in milliseconds since the epoch
+	 * @throws SQLException if the column could not be read
+	 */
+	long deathTime() throws SQLException
+	{
+		return resultSet.getLong(8);
+	}
+
+
+	@Override
+	public void close() throws SQLException
+	{
+		try
+		{
+			resultSet.close();
+		}
+		finally
+		{
+			preparedStatement.close();
+		}
+	}
+
+}
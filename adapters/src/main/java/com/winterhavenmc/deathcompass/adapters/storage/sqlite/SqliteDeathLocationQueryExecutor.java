@@ -17,6 +17,8 @@
 
 package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
 
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
 import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
 import org.bukkit.World;
 import org.bukkit.plugin.Plugin;
@@ -24,8 +26,8 @@ import org.bukkit.plugin.Plugin;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Collection;
-import java.util.UUID;
+import java.time.Instant;
+import java.util.*;
 
 public final class SqliteDeathLocationQueryExecutor
 {
@@ -41,8 +43,25 @@ public final class SqliteDeathLocationQueryExecutor
 	}
 
 
+	ResultSet selectAllDeathLocations(final int fetchSize,
+	                                  final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setFetchSize(fetchSize);
+		return preparedStatement.executeQuery();
+	}
+
+
+	int insertDeathLocation(final ValidDeathLocation deathLocation,
+	                        final String worldName,
+	                        final PreparedStatement preparedStatement) throws SQLException
+	{
+		return insertDeathLocation(deathLocation, worldName, System.currentTimeMillis(), preparedStatement);
+	}
+
+
 	int insertDeathLocation(final ValidDeathLocation deathLocation,
 	                        final String worldName,
+	                        final long deathTime,
 	                        final PreparedStatement preparedStatement) throws SQLException
 	{
 		preparedStatement.setLong(  1, deathLocation.playerUid().getMostSignificantBits());
@@ -53,6 +72,7 @@ public final class SqliteDeathLocationQueryExecutor
 		preparedStatement.setDouble(6, deathLocation.x());
 		preparedStatement.setDouble(7, deathLocation.y());
 		preparedStatement.setDouble(8, deathLocation.z());
+		preparedStatement.setLong(  9, deathTime);
 		return preparedStatement.executeUpdate();
 	}
 
@@ -61,8 +81,19 @@ public final class SqliteDeathLocationQueryExecutor
 	                           final Plugin plugin,
 	                           final PreparedStatement preparedStatement) throws SQLException
 	{
-		for (ValidDeathLocation deathLocation : deathLocations)
+		final long deathTime = System.currentTimeMillis();
+		return insertDeathRecords(deathLocations.stream().map(deathLocation -> new DeathRecord(deathLocation, deathTime)).toList(),
+				plugin, preparedStatement);
+	}
+
+
+	int[] insertDeathRecords(final Collection<DeathRecord> deathRecords,
+	                         final Plugin plugin,
+	                         final PreparedStatement preparedStatement) throws SQLException
+	{
+		for (DeathRecord deathRecord : deathRecords)
 		{
+			final ValidDeathLocation deathLocation = deathRecord.deathLocation();
 			World world = plugin.getServer().getWorld(deathLocation.worldUid());
 			if (world != null)
 			{
@@ -75,6 +106,7 @@ public final class SqliteDeathLocationQueryExecutor
 				preparedStatement.setDouble(6, deathLocation.x());
 				preparedStatement.setDouble(7, deathLocation.y());
 				preparedStatement.setDouble(8, deathLocation.z());
+				preparedStatement.setLong(  9, deathRecord.deathTime());
 				preparedStatement.addBatch();
 			}
 		}
@@ -93,4 +125,112 @@ public final class SqliteDeathLocationQueryExecutor
 		return preparedStatement.executeUpdate();
 	}
 
+
+	int deleteDeathLocationsByWorld(final UUID worldUid,
+	                                final int batchSize,
+	                                final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setLong(1, worldUid.getMostSignificantBits());
+		preparedStatement.setLong(2, worldUid.getLeastSignificantBits());
+		preparedStatement.setInt( 3, batchSize);
+		return preparedStatement.executeUpdate();
+	}
+
+
+	int deleteDeathLocationsByPlayer(final UUID playerUid,
+	                                 final int batchSize,
+	                                 final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+		preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+		preparedStatement.setInt( 3, batchSize);
+		return preparedStatement.executeUpdate();
+	}
+
+
+	int deleteDeathLocationsOlderThan(final Instant instant,
+	                                  final int batchSize,
+	                                  final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setLong(1, instant.toEpochMilli());
+		preparedStatement.setInt( 2, batchSize);
+		return preparedStatement.executeUpdate();
+	}
+
+
+	int deletePlayerDeathLocations(final UUID playerUid,
+	                               final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+		preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+		return preparedStatement.executeUpdate();
+	}
+
+
+	List<UUID> selectInactivePlayers(final long time,
+	                                 final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setLong(1, time);
+		final List<UUID> playerUids = new ArrayList<>();
+		try (final ResultSet resultSet = preparedStatement.executeQuery())
+		{
+			while (resultSet.next())
+			{
+				playerUids.add(new UUID(resultSet.getLong("playerUidMsb"), resultSet.getLong("playerUidLsb")));
+			}
+		}
+		return playerUids;
+	}
+
+
+	List<SqliteDeathLocationArchive.ArchivedDeathLocation> selectArchivedDeathLocations(final UUID playerUid,
+	                                                                                  final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+		preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+		final List<SqliteDeathLocationArchive.ArchivedDeathLocation> deathLocations = new ArrayList<>();
+		try (final ResultSet resultSet = preparedStatement.executeQuery())
+		{
+			while (resultSet.next())
+			{
+				final UUID worldUid = new UUID(resultSet.getLong("worldUidMsb"), resultSet.getLong("worldUidLsb"));
+				final String worldName = resultSet.getString("worldname");
+				if (DeathLocation.of(playerUid, worldUid, resultSet.getDouble("x"), resultSet.getDouble("y"), resultSet.getDouble("z"))
+						instanceof ValidDeathLocation deathLocation)
+				{
+					deathLocations.add(new SqliteDeathLocationArchive.ArchivedDeathLocation(deathLocation,
+							(worldName != null) ? worldName : worldUid.toString(), resultSet.getLong("deathTime")));
+				}
+			}
+		}
+		return deathLocations;
+	}
+
+
+	boolean selectWorldExists(final UUID worldUid,
+	                          final PreparedStatement preparedStatement) throws SQLException
+	{
+		preparedStatement.setLong(1, worldUid.getMostSignificantBits());
+		preparedStatement.setLong(2, worldUid.getLeastSignificantBits());
+		try (final ResultSet resultSet = preparedStatement.executeQuery())
+		{
+			return resultSet.next();
+		}
+	}
+
+
+	Map<UUID, String> selectWorlds(final PreparedStatement preparedStatement) throws SQLException
+	{
+		final Map<UUID, String> worlds = new HashMap<>();
+		try (final ResultSet resultSet = preparedStatement.executeQuery())
+		{
+			while (resultSet.next())
+			{
+				worlds.put(new UUID(resultSet.getLong("worldUidMsb"), resultSet.getLong("worldUidLsb")),
+						resultSet.getString("worldname"));
+			}
+		}
+		return worlds;
+	}
+
 }
@@ -22,38 +22,116 @@ import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
 import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
 import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
 import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
 
 import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
 
 import org.bukkit.World;
 import org.bukkit.plugin.Plugin;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteConnectionProvider.DATASTORE_NAME;
 
 
+/**
+ * SQLite death location repository. Single record lookups, saves and deletes made on the server thread use the
+ * server connection; everything run on the storage executor, including batch transactions, uses a separate
+ * storage connection. A connection is never used by two threads at once, and a death saved during an import or
+ * archive run is written in its own transaction rather than in the batch transaction, so a rollback of the batch
+ * does not lose it.
+ */
 public final class SqliteDeathLocationRepository implements DeathLocationRepository
 {
 	private final Plugin plugin;
 	private final Connection connection;
+	private final Connection storageConnection;
 	private final ConfigRepository configRepository;
+	private final ExecutorService storageExecutor;
 	private final SqliteDeathLocationCache sqliteDeathLocationCache;
+	private final SqliteOrphanedWorldRegistry orphanedWorldRegistry;
 	private final SqliteDeathLocationQueryExecutor queryExecutor = new SqliteDeathLocationQueryExecutor();
 	private final SqliteDeathLocationRowMapper rowMapper = new SqliteDeathLocationRowMapper();
+	private final Path lookupIndexFolder;
+	private volatile LookupIndex lookupIndex;
+	private volatile Set<IndexKey> pendingWrittenKeys;
+	private volatile SqliteDeathLocationArchive archive;
+
+	private final static String LOOKUP_INDEX_FOLDER = "index";
+	private final static int FULL_SCAN_FETCH_SIZE = 1000;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param connection the database connection used on the server thread
+	 * @param storageConnection the database connection used on the storage executor
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param storageExecutor the executor for operations that run off the server thread
+	 */
+	public SqliteDeathLocationRepository(final Plugin plugin,
+	                                     final Connection connection,
+	                                     final Connection storageConnection,
+	                                     final ConfigRepository configRepository,
+	                                     final ExecutorService storageExecutor)
+	{
+		this(plugin, connection, storageConnection, configRepository, storageExecutor, new SqliteDeathLocationCache(plugin), null,
+				plugin.getDataFolder().toPath().resolve(LOOKUP_INDEX_FOLDER));
+	}
 
 
-	public SqliteDeathLocationRepository(final Plugin plugin, final Connection connection, final ConfigRepository configRepository)
+	/**
+	 * Class constructor for a repository that shares its cache and orphaned world registry with other repositories,
+	 * as the world partitions of a partitioned datastore do
+	 *
+	 * @param plugin instance of main class
+	 * @param connection the database connection used on the server thread
+	 * @param storageConnection the database connection used on the storage executor
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param storageExecutor the single thread executor for operations that run off the server thread
+	 * @param cache the death location cache
+	 * @param orphanedWorldRegistry the orphaned world registry, or null to create one for this repository
+	 * @param lookupIndexFolder the folder for this repository's lookup index files
+	 */
+	SqliteDeathLocationRepository(final Plugin plugin,
+	                              final Connection connection,
+	                              final Connection storageConnection,
+	                              final ConfigRepository configRepository,
+	                              final ExecutorService storageExecutor,
+	                              final SqliteDeathLocationCache cache,
+	                              final SqliteOrphanedWorldRegistry orphanedWorldRegistry,
+	                              final Path lookupIndexFolder)
 	{
 		this.plugin = plugin;
 		this.connection = connection;
+		this.storageConnection = storageConnection;
 		this.configRepository = configRepository;
-		this.sqliteDeathLocationCache = new SqliteDeathLocationCache(plugin);
+		this.storageExecutor = storageExecutor;
+		this.sqliteDeathLocationCache = cache;
+		this.orphanedWorldRegistry = (orphanedWorldRegistry != null)
+				? orphanedWorldRegistry
+				: new SqliteOrphanedWorldRegistry(plugin, configRepository, cache, this::hasStoredRecords);
+		this.lookupIndexFolder = lookupIndexFolder;
 	}
 
 
@@ -63,6 +141,12 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
 		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
 
+		// if world is known to be orphaned, do not query datastore
+		if (orphanedWorldRegistry.isOrphaned(worldUid))
+		{
+			return new InvalidDeathLocation(DeathLocationReason.WORLD_UNAVAILABLE);
+		}
+
 		// try cache first
 		DeathLocation cachedDeathLocation = sqliteDeathLocationCache.get(playerUid, worldUid);
 
@@ -72,6 +156,18 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 			return validDeathLocation;
 		}
 
+		// then the lookup index, which answers for keys that have not been written since it was built
+		final DeathLocation indexedDeathLocation = findInLookupIndex(playerUid, worldUid);
+		if (indexedDeathLocation instanceof ValidDeathLocation validDeathLocation)
+		{
+			sqliteDeathLocationCache.put(validDeathLocation);
+			return validDeathLocation;
+		}
+		else if (indexedDeathLocation != null)
+		{
+			return indexedDeathLocation;
+		}
+
 		try (final PreparedStatement preparedStatement = connection.prepareStatement(SqliteQueries.getQuery("SelectLocation"));
 		     final ResultSet resultSet = queryExecutor.selectDeathLocation(playerUid, worldUid, preparedStatement))
 		{
@@ -85,8 +181,9 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 				}
 				else
 				{
-					plugin.getLogger().warning(SqliteMessage.SELECT_RECORD_WORLD_INVALID_ERROR
-							.getLocalizedMessage(configRepository.locale(), resultSet.getString("WorldName")));
+					// remember world as orphaned, so subsequent lookups skip the datastore
+					orphanedWorldRegistry.add(worldUid, resultSet.getString("WorldName"));
+					return new InvalidDeathLocation(DeathLocationReason.WORLD_UNAVAILABLE);
 				}
 			}
 			return new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
@@ -115,6 +212,7 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 			try (final PreparedStatement preparedStatement = connection.prepareStatement(SqliteQueries.getQuery("InsertLocation")))
 			{
 				count += queryExecutor.insertDeathLocation(deathLocation, worldName, preparedStatement);
+				markWritten(deathLocation.playerUid(), deathLocation.worldUid());
 			}
 			catch (SQLException sqlException)
 			{
@@ -142,6 +240,7 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 		{
 			int[] results = queryExecutor.insertDeathLocations(deathLocations, plugin, preparedStatement);
 			count = IntStream.of(results).sum();
+			deathLocations.forEach(deathLocation -> markWritten(deathLocation.playerUid(), deathLocation.worldUid()));
 		}
 		catch (SQLException sqlException)
 		{
@@ -153,7 +252,88 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 	}
 
 
-	@SuppressWarnings("unused")
+	@Override
+	public CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress)
+	{
+		if (deathRecords == null) { return CompletableFuture.completedFuture(0); }
+
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		// saved records replace existing records, so cached entries and the lookup index are invalidated, and the
+		// index is discarded again after each batch commits, in case an index built before the save was swapped in
+		sqliteDeathLocationCache.clear();
+		invalidateLookupIndex();
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (deathRecords;
+			     final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("InsertLocation")))
+			{
+				final List<DeathRecord> batch = new ArrayList<>(batchSize);
+				final Iterator<DeathRecord> iterator = deathRecords.iterator();
+				while (iterator.hasNext())
+				{
+					batch.add(iterator.next());
+					if (batch.size() == batchSize || !iterator.hasNext())
+					{
+						count += insertInTransaction(batch, preparedStatement);
+						batch.clear();
+						progressConsumer.accept(count);
+					}
+				}
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.INSERT_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+			return count;
+		}, storageExecutor).whenCompleteAsync((count, throwable) ->
+		{
+			sqliteDeathLocationCache.clear();
+			rebuildLookupIndex();
+		}, this::runOnServerThread);
+	}
+
+
+	/**
+	 * Insert a batch of death records in a single transaction on the storage connection, keeping their death times,
+	 * and rolling back the batch if any insert fails. The lookup index is discarded once the batch commits.
+	 * Runs on the storage executor.
+	 *
+	 * @param batch the death records to insert
+	 * @param preparedStatement the prepared insert statement
+	 * @return the number of records inserted
+	 * @throws SQLException if the batch could not be inserted
+	 */
+	private int insertInTransaction(final Collection<DeathRecord> batch,
+	                                final PreparedStatement preparedStatement) throws SQLException
+	{
+		final boolean autoCommit = storageConnection.getAutoCommit();
+		storageConnection.setAutoCommit(false);
+		try
+		{
+			final int[] results = queryExecutor.insertDeathRecords(batch, plugin, preparedStatement);
+			storageConnection.commit();
+			invalidateLookupIndex();
+			return IntStream.of(results).sum();
+		}
+		catch (SQLException sqlException)
+		{
+			storageConnection.rollback();
+			throw sqlException;
+		}
+		finally
+		{
+			storageConnection.setAutoCommit(autoCommit);
+		}
+	}
+
+
+	@Override
 	public DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid)
 	{
 		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
@@ -164,6 +344,8 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 		try (final PreparedStatement preparedStatement = connection.prepareStatement(SqliteQueries.getQuery("DeleteLocation")))
 		{
 			int rowsAffected = queryExecutor.deleteDeathLocation(playerUid, worldUid, preparedStatement);
+			sqliteDeathLocationCache.evict(playerUid, worldUid);
+			markWritten(playerUid, worldUid);
 			if (plugin.getConfig().getBoolean("debug"))
 			{
 				plugin.getLogger().info(rowsAffected + " rows deleted.");
@@ -179,4 +361,685 @@ public final class SqliteDeathLocationRepository implements DeathLocationReposit
 		return deathLocation;
 	}
 
+
+	@Override
+	public Map<UUID, String> orphanedWorlds()
+	{
+		return orphanedWorldRegistry.orphanedWorlds();
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress)
+	{
+		if (playerUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteInBatches("DeleteLocationsByPlayer",
+				(preparedStatement, batchSize) -> queryExecutor.deleteDeathLocationsByPlayer(playerUid, batchSize, preparedStatement),
+				"player " + playerUid,
+				progress,
+				() -> sqliteDeathLocationCache.evictPlayer(playerUid))
+				.thenApplyAsync(count -> count + releaseArchived(archive -> archive.release(List.of(playerUid))), storageExecutor);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress)
+	{
+		if (worldUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return deleteInBatches("DeleteLocationsByWorld",
+				(preparedStatement, batchSize) -> queryExecutor.deleteDeathLocationsByWorld(worldUid, batchSize, preparedStatement),
+				"world " + worldUid,
+				progress,
+				() -> sqliteDeathLocationCache.evictWorld(worldUid))
+				.thenApply(count ->
+				{
+					orphanedWorldRegistry.remove(worldUid);
+					return count;
+				});
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress)
+	{
+		if (instant == null) { return CompletableFuture.completedFuture(0); }
+
+		// cached entries do not carry a death time, so the whole cache is invalidated
+		return deleteInBatches("DeleteLocationsOlderThan",
+				(preparedStatement, batchSize) -> queryExecutor.deleteDeathLocationsOlderThan(instant, batchSize, preparedStatement),
+				"records older than " + instant,
+				progress,
+				sqliteDeathLocationCache::clear)
+				.thenApplyAsync(count -> count + releaseArchived(archive -> archive.releaseOlderThan(instant.toEpochMilli())), storageExecutor);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor)
+	{
+		Objects.requireNonNull(visitor);
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			try
+			{
+				return visitAll(fetchSize, visitor);
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.SELECT_ALL_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Step through all stored death locations, with their death times, in key order on the calling thread
+	 *
+	 * @param fetchSize the number of rows to fetch at a time
+	 * @param visitor the visitor, which returns false to stop iteration
+	 * @return the number of death locations visited
+	 * @throws SQLException if the death locations could not be selected
+	 */
+	private int visitAll(final int fetchSize, final Predicate<DeathRecord> visitor) throws SQLException
+	{
+		int count = 0;
+		try (final SqliteDeathLocationCursor cursor = openCursor(fetchSize))
+		{
+			// rows are stepped through one at a time, so memory use does not grow with the size of the table
+			ValidDeathLocation deathLocation;
+			while ((deathLocation = cursor.next()) != null)
+			{
+				count++;
+				if (!visitor.test(new DeathRecord(deathLocation, cursor.deathTime())))
+				{
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Open a cursor over all stored death locations in key order, on the storage connection. Must be used on
+	 * the storage executor.
+	 *
+	 * @param fetchSize the number of rows to fetch at a time
+	 * @return the cursor, which the caller must close
+	 * @throws SQLException if the death locations could not be selected
+	 */
+	SqliteDeathLocationCursor openCursor(final int fetchSize) throws SQLException
+	{
+		final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("SelectAllDeathLocations"));
+		try
+		{
+			return new SqliteDeathLocationCursor(preparedStatement,
+					queryExecutor.selectAllDeathLocations(Math.max(1, fetchSize), preparedStatement), rowMapper);
+		}
+		catch (SQLException sqlException)
+		{
+			preparedStatement.close();
+			throw sqlException;
+		}
+	}
+
+
+	/**
+	 * Run a delete query repeatedly on the storage executor until fewer than a full batch of rows is deleted.
+	 * Cache entries are evicted before the first batch, and again on the server thread after the last batch,
+	 * so entries cached from rows read while the delete was in progress do not survive it. The lookup index
+	 * is discarded before the first batch, and again on the storage thread after each batch commits, so an index
+	 * built before the delete ran cannot be swapped in over it; it is rebuilt once the delete is complete.
+	 *
+	 * @param queryName the name of the batched delete query
+	 * @param batchDelete the function that binds parameters and executes one batch
+	 * @param description description of the deleted records, for logging
+	 * @param progress consumer of the running total of deleted records, called on the storage thread
+	 * @param eviction the cache eviction for the deleted records
+	 * @return future that completes with the number of records deleted
+	 */
+	private CompletableFuture<Integer> deleteInBatches(final String queryName,
+	                                                   final BatchDelete batchDelete,
+	                                                   final String description,
+	                                                   final IntConsumer progress,
+	                                                   final Runnable eviction)
+	{
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		eviction.run();
+		invalidateLookupIndex();
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+			try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery(queryName)))
+			{
+				// delete in bounded batches, so each statement holds the database lock only briefly
+				int deleted;
+				do
+				{
+					deleted = batchDelete.delete(preparedStatement, batchSize);
+					count += deleted;
+					if (deleted > 0)
+					{
+						invalidateLookupIndex();
+						progressConsumer.accept(count);
+					}
+				}
+				while (deleted == batchSize);
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.DELETE_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+
+			plugin.getLogger().info(SqliteMessage.DELETE_RECORDS_NOTICE.getLocalizedMessage(configRepository.locale(), count, description));
+			return count;
+		}, storageExecutor).whenCompleteAsync((count, throwable) ->
+		{
+			eviction.run();
+			rebuildLookupIndex();
+		}, this::runOnServerThread);
+	}
+
+
+	private int batchSize()
+	{
+		return Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+	}
+
+
+	private void runOnServerThread(final Runnable runnable)
+	{
+		if (plugin.isEnabled())
+		{
+			plugin.getServer().getScheduler().runTask(plugin, runnable);
+		}
+		else
+		{
+			runnable.run();
+		}
+	}
+
+
+	/**
+	 * Select stored worlds off the server thread, then mark any that are not loaded as orphaned
+	 */
+	void detectOrphanedWorlds()
+	{
+		CompletableFuture.supplyAsync(this::selectWorlds, storageExecutor)
+				.thenAccept(storedWorlds -> plugin.getServer().getScheduler()
+						.runTask(plugin, () -> orphanedWorldRegistry.reconcile(storedWorlds)));
+	}
+
+
+	/**
+	 * Check off the server thread whether any death locations are stored for a world
+	 *
+	 * @param worldUid the world UID
+	 * @return future that completes with {@code true} if the world has stored records, {@code false} if not
+	 */
+	CompletableFuture<Boolean> hasStoredRecords(final UUID worldUid)
+	{
+		return CompletableFuture.supplyAsync(() ->
+		{
+			try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("SelectWorldExists")))
+			{
+				return queryExecutor.selectWorldExists(worldUid, preparedStatement);
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.SELECT_WORLDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				return false;
+			}
+		}, storageExecutor);
+	}
+
+
+	private Map<UUID, String> selectWorlds()
+	{
+		try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("SelectWorlds")))
+		{
+			return queryExecutor.selectWorlds(preparedStatement);
+		}
+		catch (SQLException sqlException)
+		{
+			plugin.getLogger().warning(SqliteMessage.SELECT_WORLDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			return Map.of();
+		}
+	}
+
+
+	/**
+	 * Read every stored death location with its death time. Must be called on the storage executor.
+	 *
+	 * @param consumer receives each death location and the time it was saved
+	 * @return the number of death locations read
+	 * @throws SQLException if the death locations could not be selected
+	 */
+	int loadAll(final ObjLongConsumer<ValidDeathLocation> consumer) throws SQLException
+	{
+		int count = 0;
+		try (final SqliteDeathLocationCursor cursor = openCursor(FULL_SCAN_FETCH_SIZE))
+		{
+			ValidDeathLocation deathLocation;
+			while ((deathLocation = cursor.next()) != null)
+			{
+				consumer.accept(deathLocation, cursor.deathTime());
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Insert a batch of death records in a single transaction. Must be called on the storage executor.
+	 *
+	 * @param batch the death records to insert
+	 * @return the number of records inserted
+	 * @throws SQLException if the batch could not be inserted
+	 */
+	int insertBatch(final Collection<DeathRecord> batch) throws SQLException
+	{
+		try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("InsertLocation")))
+		{
+			return insertInTransaction(batch, preparedStatement);
+		}
+	}
+
+
+	/**
+	 * Count the stored death locations. Must be called on the storage executor.
+	 *
+	 * @return the number of stored death locations
+	 * @throws SQLException if the records could not be counted
+	 */
+	int count() throws SQLException
+	{
+		try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("CountLocations"));
+		     final ResultSet resultSet = preparedStatement.executeQuery())
+		{
+			return resultSet.next() ? resultSet.getInt(1) : 0;
+		}
+	}
+
+
+	/**
+	 * Attach the archive of inactive players, so purges by player and by age also release archived records
+	 *
+	 * @param archive the archive
+	 */
+	void attachArchive(final SqliteDeathLocationArchive archive)
+	{
+		this.archive = archive;
+	}
+
+
+	/**
+	 * Release records from the attached archive, if any, on the storage thread
+	 *
+	 * @param release the release to run against the archive
+	 * @return the number of records released
+	 */
+	private int releaseArchived(final ArchiveRelease release)
+	{
+		final SqliteDeathLocationArchive current = archive;
+		if (current == null)
+		{
+			return 0;
+		}
+
+		try
+		{
+			return release.release(current);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(SqliteMessage.DELETE_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+			throw new CompletionException(exception);
+		}
+	}
+
+
+	/**
+	 * Select the players whose newest stored death location is older than a time. Must be called on the
+	 * storage executor.
+	 *
+	 * @param time the time, in milliseconds since the epoch
+	 * @return the UUIDs of the players
+	 * @throws SQLException if the players could not be selected
+	 */
+	List<UUID> selectInactivePlayers(final long time) throws SQLException
+	{
+		try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("SelectInactivePlayers")))
+		{
+			return queryExecutor.selectInactivePlayers(time, preparedStatement);
+		}
+	}
+
+
+	/**
+	 * Move the death locations of a group of players from the table to the archive. Must be called on the
+	 * storage executor.
+	 * The records are appended to the archive before they are deleted, so a failure between the two leaves
+	 * them in both, and restoring them later does not replace the stored copies.
+	 *
+	 * @param playerUids the players to archive
+	 * @param archive the archive to append to
+	 * @return the number of records archived
+	 * @throws SQLException if the records could not be selected or deleted
+	 * @throws IOException if the records could not be appended to the archive
+	 */
+	int archivePlayers(final Collection<UUID> playerUids, final SqliteDeathLocationArchive archive) throws SQLException, IOException
+	{
+		final Map<UUID, List<SqliteDeathLocationArchive.ArchivedDeathLocation>> archived = new LinkedHashMap<>();
+		try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("SelectLocationsByPlayer")))
+		{
+			for (UUID playerUid : playerUids)
+			{
+				final List<SqliteDeathLocationArchive.ArchivedDeathLocation> deathLocations =
+						queryExecutor.selectArchivedDeathLocations(playerUid, preparedStatement);
+				if (!deathLocations.isEmpty())
+				{
+					archived.put(playerUid, deathLocations);
+				}
+			}
+		}
+
+		archive.append(archived);
+
+		final boolean autoCommit = storageConnection.getAutoCommit();
+		storageConnection.setAutoCommit(false);
+		try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("DeletePlayerLocations")))
+		{
+			int count = 0;
+			for (UUID playerUid : archived.keySet())
+			{
+				count += queryExecutor.deletePlayerDeathLocations(playerUid, preparedStatement);
+			}
+			storageConnection.commit();
+			archived.values().forEach(deathLocations -> deathLocations.forEach(deathLocation ->
+					markWritten(deathLocation.deathLocation().playerUid(), deathLocation.deathLocation().worldUid())));
+			return count;
+		}
+		catch (SQLException sqlException)
+		{
+			storageConnection.rollback();
+			throw sqlException;
+		}
+		finally
+		{
+			storageConnection.setAutoCommit(autoCommit);
+		}
+	}
+
+
+	/**
+	 * Move the death locations of a player from the archive back to the table. Must be called on the
+	 * storage executor.
+	 * Archived records do not replace records saved since the player returned.
+	 *
+	 * @param playerUid the player to restore
+	 * @param archive the archive to restore from
+	 * @return the number of records restored
+	 * @throws SQLException if the records could not be inserted
+	 * @throws IOException if the records could not be read from or released in the archive
+	 */
+	int restorePlayer(final UUID playerUid, final SqliteDeathLocationArchive archive) throws SQLException, IOException
+	{
+		final List<SqliteDeathLocationArchive.ArchivedDeathLocation> archived = archive.read(playerUid);
+		if (archived.isEmpty())
+		{
+			return 0;
+		}
+
+		int count = 0;
+		final boolean autoCommit = storageConnection.getAutoCommit();
+		storageConnection.setAutoCommit(false);
+		try (final PreparedStatement preparedStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("InsertLocationIfAbsent")))
+		{
+			for (SqliteDeathLocationArchive.ArchivedDeathLocation deathLocation : archived)
+			{
+				count += queryExecutor.insertDeathLocation(deathLocation.deathLocation(), deathLocation.worldName(),
+						deathLocation.deathTime(), preparedStatement);
+			}
+			storageConnection.commit();
+		}
+		catch (SQLException sqlException)
+		{
+			storageConnection.rollback();
+			throw sqlException;
+		}
+		finally
+		{
+			storageConnection.setAutoCommit(autoCommit);
+		}
+
+		archived.forEach(deathLocation -> markWritten(deathLocation.deathLocation().playerUid(), deathLocation.deathLocation().worldUid()));
+		archive.release(List.of(playerUid));
+		return count;
+	}
+
+
+	/**
+	 * Write changed death locations to the table in a single transaction, keeping their original death times.
+	 * Must be called on the storage executor. If any change fails, none are written.
+	 *
+	 * @param changes the changes to write; a change without a death location is a delete
+	 * @return the number of changes written
+	 * @throws SQLException if the changes could not be written
+	 */
+	int writeCheckpoint(final Collection<SqliteCheckpointConnectionProvider.Change> changes) throws SQLException
+	{
+		final boolean autoCommit = storageConnection.getAutoCommit();
+		storageConnection.setAutoCommit(false);
+		try (final PreparedStatement insertStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("InsertLocation"));
+		     final PreparedStatement deleteStatement = storageConnection.prepareStatement(SqliteQueries.getQuery("DeleteLocation")))
+		{
+			for (SqliteCheckpointConnectionProvider.Change change : changes)
+			{
+				if (change.deathLocation() != null)
+				{
+					final World world = plugin.getServer().getWorld(change.worldUid());
+					final String worldName = (world != null) ? world.getName() : change.worldUid().toString();
+					queryExecutor.insertDeathLocation(change.deathLocation(), worldName, change.deathTime(), insertStatement);
+				}
+				else
+				{
+					queryExecutor.deleteDeathLocation(change.playerUid(), change.worldUid(), deleteStatement);
+				}
+			}
+			storageConnection.commit();
+			return changes.size();
+		}
+		catch (SQLException sqlException)
+		{
+			storageConnection.rollback();
+			throw sqlException;
+		}
+		finally
+		{
+			storageConnection.setAutoCommit(autoCommit);
+		}
+	}
+
+
+	/**
+	 * Look up a death location in the lookup index
+	 *
+	 * @param playerUid the player UUID
+	 * @param worldUid the world UUID
+	 * @return the indexed death location, an invalid death location if the index proves there is no record,
+	 * or {@code null} if the datastore must be queried
+	 */
+	private DeathLocation findInLookupIndex(final UUID playerUid, final UUID worldUid)
+	{
+		final LookupIndex current = lookupIndex;
+		if (current == null || current.writtenKeys().contains(new IndexKey(playerUid, worldUid)))
+		{
+			return null;
+		}
+
+		// every row present when the build began is in the index, so an unwritten key that is absent has no record
+		final ValidDeathLocation deathLocation = current.index().find(playerUid, worldUid);
+		if (deathLocation == null)
+		{
+			return new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+		}
+
+		// locations in worlds that are not loaded are read from the datastore, which registers the world as orphaned
+		return (plugin.getServer().getWorld(worldUid) != null) ? deathLocation : null;
+	}
+
+
+	/**
+	 * Record a key written to the table, so the lookup index is bypassed for it. Must be called after the write,
+	 * and reads the pending set before the current index, so a write is never missed by both.
+	 */
+	private void markWritten(final UUID playerUid, final UUID worldUid)
+	{
+		final Set<IndexKey> pending = pendingWrittenKeys;
+		final LookupIndex current = lookupIndex;
+
+		if (pending != null)
+		{
+			pending.add(new IndexKey(playerUid, worldUid));
+		}
+		if (current != null)
+		{
+			current.writtenKeys().add(new IndexKey(playerUid, worldUid));
+		}
+	}
+
+
+	/**
+	 * Discard the lookup index, so all lookups go to the datastore until it is rebuilt. Builds run on the storage
+	 * executor, so a call made there after a write commits discards any index that was built before the write.
+	 */
+	private void invalidateLookupIndex()
+	{
+		lookupIndex = null;
+	}
+
+
+	/**
+	 * Queue a rebuild of the lookup index on the storage executor, if the index is enabled
+	 */
+	void rebuildLookupIndex()
+	{
+		if (plugin.getConfig().getBoolean("storage.index.enabled") && !storageExecutor.isShutdown())
+		{
+			CompletableFuture.runAsync(this::buildLookupIndex, storageExecutor);
+		}
+	}
+
+
+	/**
+	 * Write a new index file from the table, then map it and swap it in. Keys written while the table is read
+	 * are collected in a pending set that becomes the written key set of the new index.
+	 */
+	private void buildLookupIndex()
+	{
+		final long startTime = System.nanoTime();
+		final Set<IndexKey> writtenKeys = ConcurrentHashMap.newKeySet();
+		pendingWrittenKeys = writtenKeys;
+
+		try
+		{
+			Files.createDirectories(lookupIndexFolder);
+
+			// each build gets a new file name, since a mapped file cannot be replaced on all platforms
+			final Path path = lookupIndexFolder.resolve("deathlocations-" + System.currentTimeMillis() + ".idx");
+			final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+			try (final SqliteLookupIndex.Writer writer = SqliteLookupIndex.Writer.create(temporaryPath))
+			{
+				visitAll(FULL_SCAN_FETCH_SIZE, deathRecord ->
+				{
+					try
+					{
+						writer.write(deathRecord.deathLocation());
+						return true;
+					}
+					catch (IOException ioException)
+					{
+						throw new UncheckedIOException(ioException);
+					}
+				});
+				writer.finish();
+			}
+			Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE);
+
+			final SqliteLookupIndex index = SqliteLookupIndex.open(path);
+			lookupIndex = new LookupIndex(index, writtenKeys);
+			deleteStaleIndexFiles(path);
+
+			plugin.getLogger().info(SqliteMessage.LOOKUP_INDEX_NOTICE.getLocalizedMessage(configRepository.locale(),
+					index.recordCount(), Files.size(path), (System.nanoTime() - startTime) / 1_000_000));
+		}
+		catch (IOException | UncheckedIOException | SQLException exception)
+		{
+			plugin.getLogger().warning(SqliteMessage.LOOKUP_INDEX_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+		finally
+		{
+			pendingWrittenKeys = null;
+		}
+	}
+
+
+	private void deleteStaleIndexFiles(final Path current)
+	{
+		try (final Stream<Path> paths = Files.list(lookupIndexFolder))
+		{
+			// files still mapped by an earlier index may not be deletable yet, and are removed by a later build
+			paths.filter(path -> !path.equals(current)).forEach(path ->
+			{
+				try
+				{
+					Files.deleteIfExists(path);
+				}
+				catch (IOException ignored)
+				{
+				}
+			});
+		}
+		catch (IOException ignored)
+		{
+		}
+	}
+
+
+	private record IndexKey(UUID playerUid, UUID worldUid) { }
+
+
+	private record LookupIndex(SqliteLookupIndex index, Set<IndexKey> writtenKeys) { }
+
+
+	@FunctionalInterface
+	private interface BatchDelete
+	{
+		int delete(PreparedStatement preparedStatement, int batchSize) throws SQLException;
+	}
+
+
+	@FunctionalInterface
+	private interface ArchiveRelease
+	{
+		int release(SqliteDeathLocationArchive archive) throws IOException;
+	}
+
 }
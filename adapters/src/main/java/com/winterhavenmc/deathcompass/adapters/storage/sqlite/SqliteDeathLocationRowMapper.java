@@ -46,4 +46,22 @@ public final class SqliteDeathLocationRowMapper
 				: new InvalidDeathLocation(DeathLocationReason.WORLD_UNAVAILABLE);
 	}
 
+
+	/**
+	 * Map a row of the SelectAllDeathLocations query by column index. The world is not resolved, so records for
+	 * worlds that are not loaded are returned as valid death locations.
+	 * Column order: playerUidMsb, playerUidLsb, worldUidMsb, worldUidLsb, x, y, z, deathTime
+	 *
+	 * @param resultSet the result set, positioned on the row to be mapped
+	 * @return a ValidDeathLocation if validation checks pass, or an InvalidDeathLocation if validation fails
+	 * @throws SQLException if a column could not be read
+	 */
+	public DeathLocation mapByIndex(final ResultSet resultSet) throws SQLException
+	{
+		final UUID playerUid = new UUID(resultSet.getLong(1), resultSet.getLong(2));
+		final UUID worldUid = new UUID(resultSet.getLong(3), resultSet.getLong(4));
+
+		return DeathLocation.of(playerUid, worldUid, resultSet.getDouble(5), resultSet.getDouble(6), resultSet.getDouble(7));
+	}
+
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static java.nio.file.StandardOpenOption.*;
+
+
+/**
+ * An immutable, memory-mapped lookup index of death locations, built from the DeathLocations table and
+ * binary searched by player and world. Pages of the index are loaded by the operating system as they are touched,
+ * so the index costs no heap, and lookups of keys that have not been used recently do not query the database.
+ * <p>
+ * The file holds a header followed by fixed-width records, sorted as signed longs in the order of the
+ * DeathLocations unique key.
+ * <pre>
+ * header (32 bytes)
+ *   int    magic ("DCIX")
+ *   short  format version
+ *   short  reserved (0)
+ *   long   record count
+ *   long   reserved (0)
+ *   long   reserved (0)
+ *
+ * record (56 bytes)
+ *   long   player UUID most significant bits
+ *   long   player UUID least significant bits
+ *   long   world UUID most significant bits
+ *   long   world UUID least significant bits
+ *   double x
+ *   double y
+ *   double z
+ * </pre>
+ */
+final class SqliteLookupIndex
+{
+	private final static int MAGIC = 0x44434958;
+	private final static short VERSION = 1;
+	private final static int HEADER_SIZE = 32;
+	private final static int RECORD_SIZE = 56;
+	private final static long MAXIMUM_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+	private final Path path;
+	private final MappedByteBuffer mapped;
+	private final long recordCount;
+
+
+	private SqliteLookupIndex(final Path path, final MappedByteBuffer mapped, final long recordCount)
+	{
+		this.path = path;
+		this.mapped = mapped;
+		this.recordCount = recordCount;
+	}
+
+
+	/**
+	 * Map an index file read-only
+	 *
+	 * @param path the index file
+	 * @return the index
+	 * @throws IOException if the file is not a complete index file or could not be mapped
+	 */
+	static SqliteLookupIndex open(final Path path) throws IOException
+	{
+		try (final FileChannel channel = FileChannel.open(path, READ))
+		{
+			final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (mapped.capacity() < HEADER_SIZE || mapped.getInt(0) != MAGIC || mapped.getShort(4) > VERSION)
+			{
+				throw new IOException(path.getFileName() + " is not a death location index.");
+			}
+
+			final long recordCount = mapped.getLong(8);
+			if (recordCount < 0 || HEADER_SIZE + recordCount * RECORD_SIZE != mapped.capacity())
+			{
+				throw new IOException(path.getFileName() + " is truncated or corrupt.");
+			}
+
+			// the mapping remains valid after the channel is closed
+			return new SqliteLookupIndex(path, mapped, recordCount);
+		}
+	}
+
+
+	/**
+	 * Find the death location for a player and world by binary search
+	 *
+	 * @param playerUid the player UUID
+	 * @param worldUid the world UUID
+	 * @return the indexed death location, or {@code null} if the index holds no record for the player and world
+	 */
+	ValidDeathLocation find(final UUID playerUid, final UUID worldUid)
+	{
+		long low = 0;
+		long high = recordCount - 1;
+
+		while (low <= high)
+		{
+			final long middle = (low + high) >>> 1;
+			final int position = (int) (HEADER_SIZE + middle * RECORD_SIZE);
+			final int comparison = compare(position, playerUid, worldUid);
+
+			if (comparison < 0)
+			{
+				low = middle + 1;
+			}
+			else if (comparison > 0)
+			{
+				high = middle - 1;
+			}
+			else
+			{
+				return (DeathLocation.of(playerUid, worldUid,
+						mapped.getDouble(position + 32),
+						mapped.getDouble(position + 40),
+						mapped.getDouble(position + 48)) instanceof ValidDeathLocation validDeathLocation)
+						? validDeathLocation
+						: null;
+			}
+		}
+
+		return null;
+	}
+
+
+	Path path()
+	{
+		return path;
+	}
+
+
+	long recordCount()
+	{
+		return recordCount;
+	}
+
+
+	private int compare(final int position, final UUID playerUid, final UUID worldUid)
+	{
+		int comparison = Long.compare(mapped.getLong(position), playerUid.getMostSignificantBits());
+		if (comparison == 0)
+		{
+			comparison = Long.compare(mapped.getLong(position + 8), playerUid.getLeastSignificantBits());
+		}
+		if (comparison == 0)
+		{
+			comparison = Long.compare(mapped.getLong(position + 16), worldUid.getMostSignificantBits());
+		}
+		if (comparison == 0)
+		{
+			comparison = Long.compare(mapped.getLong(position + 24), worldUid.getLeastSignificantBits());
+		}
+		return comparison;
+	}
+
+
+	/**
+	 * Writes an index file sequentially from death locations supplied in key order.
+	 * The header is written last, so an interrupted build never leaves a file that opens as a valid index.
+	 */
+	static final class Writer implements Closeable
+	{
+		private final static int BUFFER_RECORDS = 1024;
+
+		private final Path path;
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE);
+		private long position = HEADER_SIZE;
+		private long recordCount;
+		private long previousPlayerMsb = Long.MIN_VALUE;
+		private long previousPlayerLsb = Long.MIN_VALUE;
+		private long previousWorldMsb = Long.MIN_VALUE;
+		private long previousWorldLsb = Long.MIN_VALUE;
+		private boolean finished;
+
+
+		private Writer(final Path path, final FileChannel channel)
+		{
+			this.path = path;
+			this.channel = channel;
+		}
+
+
+		static Writer create(final Path path) throws IOException
+		{
+			return new Writer(path, FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING));
+		}
+
+
+		/**
+		 * Append a death location, which must follow the previous one in key order
+		 *
+		 * @param deathLocation the death location
+		 * @throws IOException if the record is out of order, the index is full, or the record could not be written
+		 */
+		void write(final ValidDeathLocation deathLocation) throws IOException
+		{
+			final long playerMsb = deathLocation.playerUid().getMostSignificantBits();
+			final long playerLsb = deathLocation.playerUid().getLeastSignificantBits();
+			final long worldMsb = deathLocation.worldUid().getMostSignificantBits();
+			final long worldLsb = deathLocation.worldUid().getLeastSignificantBits();
+
+			// binary search depends on key order; the first record compares greater than the initial values
+			int comparison = Long.compare(playerMsb, previousPlayerMsb);
+			if (comparison == 0) comparison = Long.compare(playerLsb, previousPlayerLsb);
+			if (comparison == 0) comparison = Long.compare(worldMsb, previousWorldMsb);
+			if (comparison == 0) comparison = Long.compare(worldLsb, previousWorldLsb);
+			if (comparison <= 0 && recordCount > 0)
+			{
+				throw new IOException("Death locations were not supplied in key order.");
+			}
+
+			if (recordCount >= MAXIMUM_RECORDS)
+			{
+				throw new IOException(path.getFileName() + " has reached its maximum size.");
+			}
+
+			if (buffer.remaining() < RECORD_SIZE)
+			{
+				flush();
+			}
+
+			buffer.putLong(playerMsb).putLong(playerLsb).putLong(worldMsb).putLong(worldLsb);
+			buffer.putDouble(deathLocation.x()).putDouble(deathLocation.y()).putDouble(deathLocation.z());
+
+			previousPlayerMsb = playerMsb;
+			previousPlayerLsb = playerLsb;
+			previousWorldMsb = worldMsb;
+			previousWorldLsb = worldLsb;
+			recordCount++;
+		}
+
+
+		/**
+		 * Write the header and close the file
+		 *
+		 * @throws IOException if the file could not be completed
+		 */
+		void finish() throws IOException
+		{
+			flush();
+
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(recordCount).putLong(0).putLong(0);
+			header.flip();
+
+			long headerPosition = 0;
+			while (header.hasRemaining())
+			{
+				headerPosition += channel.write(header, headerPosition);
+			}
+
+			channel.close();
+			finished = true;
+		}
+
+
+		/**
+		 * Close the writer; if the index was not finished, the file is removed
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			if (!finished)
+			{
+				channel.close();
+				Files.deleteIfExists(path);
+			}
+		}
+
+
+		private void flush() throws IOException
+		{
+			buffer.flip();
+			while (buffer.hasRemaining())
+			{
+				position += channel.write(buffer, position);
+			}
+			buffer.clear();
+		}
+	}
+
+}
@@ -27,11 +27,13 @@ public enum SqliteMessage
 {
 	DATASTORE_INITIALIZE_NOTICE("{0} datastore initialized."),
 	DATASTORE_INITIALIZE_ERROR("The {0} datastore is already initialized."),
+	DATASTORE_NOT_INITIALIZED_ERROR("The {0} datastore is not initialized."),
 	DATASTORE_FOREIGN_KEYS_ERROR("An error occurred while attempting to enable foreign keys in the {0} datastore."),
 	DATASTORE_CLOSE_NOTICE("{0} datastore connection closed."),
 	DATASTORE_CLOSE_ERROR("An error occurred while closing the {0} datastore connection."),
 
 	CREATE_DEATH_LOCATION_TABLE_ERROR("An error occurred while trying to create the DeathLocation table in the {0} datastore."),
+	CREATE_INDEX_ERROR("An error occurred while trying to create the {0} index in the SQLite datastore."),
 
 	SCHEMA_VERSION_ERROR("Could not read schema version."),
 	SCHEMA_UPDATE_ERROR("An error occurred while trying to update the datastore schema."),
@@ -40,12 +42,43 @@ public enum SqliteMessage
 	SCHEMA_UPDATE_PLAYER_UUID_INVALID("Player UUID in datastore is invalid!"),
 	SCHEMA_UPDATE_WORLD_INVALID("Stored record has invalid world '{0}'. Skipping record."),
 	SCHEMA_UPDATE_SELECT_ALL_ERROR("An error occurred while trying to select all records from the SQLite datastore."),
+	SCHEMA_DEATH_TIME_ADDED_NOTICE("Death time column added to {0} existing death location records."),
 
 	SELECT_RECORD_ERROR("An error occurred while trying to select a record from the {0} datastore."),
 	SELECT_RECORD_WORLD_INVALID_ERROR("World '{0}' is not loaded!"),
+	SELECT_ALL_RECORDS_ERROR("An error occurred while iterating over all records in the {0} datastore."),
+	SELECT_WORLDS_ERROR("An error occurred while trying to select stored worlds from the {0} datastore."),
 	INSERT_RECORD_ERROR("An error occurred while inserting a record into the {0} datastore."),
 	INSERT_RECORD_WORLD_INVALID_ERROR("An error occurred while inserting a record in the {0} datastore. World invalid!"),
 	DELETE_RECORD_ERROR("An error occurred while attempting to delete a record from the {0} datastore."),
+	DELETE_RECORDS_ERROR("An error occurred while attempting to delete records from the {0} datastore."),
+	DELETE_RECORDS_NOTICE("{0} death location records deleted for {1}."),
+
+	BACKUP_NOTICE("Backed up the {0} datastore to {1} ({2} bytes) in {3} ms."),
+	BACKUP_ERROR("An error occurred while backing up the {0} datastore."),
+	BACKUP_IN_PROGRESS_ERROR("A backup of the {0} datastore is already in progress."),
+
+	LOOKUP_INDEX_NOTICE("Built lookup index of {0} death locations ({1} bytes) in {2} ms."),
+	LOOKUP_INDEX_ERROR("An error occurred while building the lookup index for the {0} datastore."),
+
+	CHECKPOINT_LOAD_NOTICE("Loaded {0} death locations into memory in {1} ms. Changes are written to the datastore every {2} seconds."),
+	CHECKPOINT_LOAD_ERROR("An error occurred while loading death locations from the {0} datastore into memory."),
+	CHECKPOINT_NOTICE("Checkpointed {0} changed death locations in {1} ms."),
+	CHECKPOINT_ERROR("An error occurred while writing a checkpoint to the {0} datastore. Changes will be retried at the next checkpoint."),
+
+	ARCHIVE_NOTICE("Archived {0} death locations of {1} players inactive for {2} days in {3} ms."),
+	ARCHIVE_ERROR("An error occurred while archiving inactive players from the {0} datastore."),
+	ARCHIVE_OPEN_ERROR("An error occurred while opening the {0} archive. Inactive players will not be archived."),
+	ARCHIVE_TRUNCATED_NOTICE("Discarded an incomplete segment at the end of the {0} archive."),
+	ARCHIVE_RESTORE_NOTICE("Restored {0} archived death locations for player {1}."),
+	ARCHIVE_RESTORE_ERROR("An error occurred while restoring archived death locations for player {0}."),
+	ARCHIVE_COMPACT_NOTICE("Compacted the {0} archive from {1} to {2} bytes."),
+
+	PARTITION_OPEN_ERROR("An error occurred while opening the datastore partition for world {0}."),
+	PARTITION_DROPPED_NOTICE("{0} death location records deleted with the datastore partition for world {1}."),
+	PARTITIONS_NAME("{0} world partitions"),
+
+	ORPHANED_WORLD_NOTICE("Stored death locations reference world ''{0}'' ({1}), which is not loaded. Lookups for this world are suspended."),
 	;
 
 	private final String defaultMessage;
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+
+/**
+ * Tracks worlds referenced by stored death locations that are not loaded on the server,
+ * so that lookups for those worlds can be answered without querying the datastore
+ */
+final class SqliteOrphanedWorldRegistry implements Listener
+{
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final SqliteDeathLocationCache deathLocationCache;
+	private final Function<UUID, CompletableFuture<Boolean>> storedWorldCheck;
+	private final Map<UUID, String> orphanedWorlds = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param plugin instance of plugin main class
+	 * @param configRepository the plugin configuration repository
+	 * @param deathLocationCache the death location cache to be evicted when a world is unloaded
+	 * @param storedWorldCheck function that checks off the server thread whether a world has stored records
+	 */
+	SqliteOrphanedWorldRegistry(final Plugin plugin,
+	                            final ConfigRepository configRepository,
+	                            final SqliteDeathLocationCache deathLocationCache,
+	                            final Function<UUID, CompletableFuture<Boolean>> storedWorldCheck)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.deathLocationCache = deathLocationCache;
+		this.storedWorldCheck = storedWorldCheck;
+		plugin.getServer().getPluginManager().registerEvents(this, plugin);
+	}
+
+
+	/**
+	 * Check if a world is known to be orphaned
+	 *
+	 * @param worldUid the world UID to check
+	 * @return {@code true} if the world is not loaded and has stored records, {@code false} if not
+	 */
+	boolean isOrphaned(final UUID worldUid)
+	{
+		return orphanedWorlds.containsKey(worldUid);
+	}
+
+
+	/**
+	 * Mark a world as orphaned, logging a notice the first time it is seen
+	 *
+	 * @param worldUid the world UID
+	 * @param worldName the world name stored with the death location records
+	 */
+	void add(final UUID worldUid, final String worldName)
+	{
+		if (orphanedWorlds.putIfAbsent(worldUid, worldName) == null)
+		{
+			deathLocationCache.evictWorld(worldUid);
+			plugin.getLogger().info(SqliteMessage.ORPHANED_WORLD_NOTICE
+					.getLocalizedMessage(configRepository.locale(), worldName, worldUid));
+		}
+	}
+
+
+	/**
+	 * Remove a world from the orphaned world registry
+	 *
+	 * @param worldUid the world UID
+	 */
+	void remove(final UUID worldUid)
+	{
+		orphanedWorlds.remove(worldUid);
+	}
+
+
+	/**
+	 * Compare stored worlds against loaded worlds, marking any that are not loaded as orphaned.
+	 * Must be called on the server thread.
+	 *
+	 * @param storedWorlds map of stored world names keyed by world UID
+	 */
+	void reconcile(final Map<UUID, String> storedWorlds)
+	{
+		storedWorlds.forEach((worldUid, worldName) ->
+		{
+			if (plugin.getServer().getWorld(worldUid) == null)
+			{
+				add(worldUid, worldName);
+			}
+		});
+	}
+
+
+	/**
+	 * Get an unmodifiable copy of the orphaned world map
+	 *
+	 * @return map of world names keyed by world UID
+	 */
+	Map<UUID, String> orphanedWorlds()
+	{
+		return Map.copyOf(orphanedWorlds);
+	}
+
+
+	/**
+	 * Mark world as orphaned when it is unloaded, if it has stored records. The check runs off the server thread,
+	 * and the world is not marked if it has been loaded again by the time the check completes.
+	 *
+	 * @param event the event handled by this listener
+	 */
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onWorldUnload(final WorldUnloadEvent event)
+	{
+		final UUID worldUid = event.getWorld().getUID();
+		final String worldName = event.getWorld().getName();
+
+		deathLocationCache.evictWorld(worldUid);
+
+		storedWorldCheck.apply(worldUid).thenAccept(hasStoredRecords ->
+		{
+			if (hasStoredRecords && plugin.isEnabled())
+			{
+				plugin.getServer().getScheduler().runTask(plugin, () ->
+				{
+					if (plugin.getServer().getWorld(worldUid) == null)
+					{
+						add(worldUid, worldName);
+					}
+				});
+			}
+		});
+	}
+
+
+	/**
+	 * Resume lookups for world when it is loaded
+	 *
+	 * @param event the event handled by this listener
+	 */
+	@EventHandler
+	void onWorldLoad(final WorldLoadEvent event)
+	{
+		remove(event.getWorld().getUID());
+	}
+
+}
@@ -0,0 +1,763 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreTier;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteConnectionProvider.DATASTORE_NAME;
+
+
+/**
+ * A death location repository that keeps the death locations of each world in a separate SQLite database file.
+ * <p>
+ * Partition files are opened on first use and routed by world UUID, so a lookup for a world without a file
+ * is answered without opening one. Each partition has its own connection and storage thread, so bulk operations
+ * on different worlds run in parallel. Deleting the death locations of a world closes and deletes its file,
+ * rather than deleting its rows. Operations that span worlds run on a coordinating storage thread, which hands
+ * each read and write of a partition to that partition's storage thread, so a partition connection is only
+ * used by one thread.
+ */
+final class SqlitePartitionedDeathLocationRepository implements DeathLocationRepository
+{
+	private final static String PARTITION_FOLDER = "partitions";
+	private final static String PARTITION_EXTENSION = ".db";
+	private final static String LOOKUP_INDEX_FOLDER = "index";
+
+	private final Plugin plugin;
+	private final ConfigRepository configRepository;
+	private final Path partitionFolder;
+	private final Path lookupIndexFolder;
+	private final ExecutorService storageExecutor;
+	private final SqliteDeathLocationCache sqliteDeathLocationCache;
+	private final SqliteOrphanedWorldRegistry orphanedWorldRegistry;
+	private final Map<UUID, SqliteWorldPartition> partitions = new ConcurrentHashMap<>();
+	private final Object partitionLock = new Object();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param storageExecutor the executor for operations that span partitions
+	 */
+	SqlitePartitionedDeathLocationRepository(final Plugin plugin,
+	                                         final ConfigRepository configRepository,
+	                                         final ExecutorService storageExecutor)
+	{
+		this.plugin = plugin;
+		this.configRepository = configRepository;
+		this.storageExecutor = storageExecutor;
+		this.partitionFolder = plugin.getDataFolder().toPath().resolve(PARTITION_FOLDER);
+		this.lookupIndexFolder = plugin.getDataFolder().toPath().resolve(LOOKUP_INDEX_FOLDER);
+		this.sqliteDeathLocationCache = new SqliteDeathLocationCache(plugin);
+		this.orphanedWorldRegistry = new SqliteOrphanedWorldRegistry(plugin, configRepository, sqliteDeathLocationCache,
+				worldUid -> CompletableFuture.supplyAsync(() -> Files.exists(partitionPath(worldUid)), storageExecutor));
+	}
+
+
+	@Override
+	public DeathLocation getDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final SqliteWorldPartition partition = partition(worldUid, false);
+		return (partition != null)
+				? partition.repository().getDeathLocation(playerUid, worldUid)
+				: new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+	}
+
+
+	@Override
+	public int saveDeathLocation(final ValidDeathLocation deathLocation)
+	{
+		if (deathLocation == null) { return 0; }
+
+		final SqliteWorldPartition partition = partition(deathLocation.worldUid(), true);
+		return (partition != null) ? partition.repository().saveDeathLocation(deathLocation) : 0;
+	}
+
+
+	@Override
+	public int saveDeathLocations(final Collection<ValidDeathLocation> deathLocations)
+	{
+		if (deathLocations == null || deathLocations.isEmpty()) { return 0; }
+
+		int count = 0;
+		for (Map.Entry<UUID, List<ValidDeathLocation>> entry : groupByWorld(deathLocations).entrySet())
+		{
+			final SqliteWorldPartition partition = partition(entry.getKey(), true);
+			if (partition != null)
+			{
+				count += partition.repository().saveDeathLocations(entry.getValue());
+			}
+		}
+		return count;
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress)
+	{
+		if (deathRecords == null) { return CompletableFuture.completedFuture(0); }
+
+		final int batchSize = batchSize();
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		// saved records replace existing records, so cached entries are invalidated
+		sqliteDeathLocationCache.clear();
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			// records are gathered into a batch for each world, and each full batch is inserted in its partition
+			final Map<UUID, List<DeathRecord>> batches = new HashMap<>();
+			int count = 0;
+			try (deathRecords)
+			{
+				final Iterator<DeathRecord> iterator = deathRecords.iterator();
+				while (iterator.hasNext())
+				{
+					final DeathRecord deathRecord = iterator.next();
+					final UUID worldUid = deathRecord.deathLocation().worldUid();
+					final List<DeathRecord> batch = batches.computeIfAbsent(worldUid, key -> new ArrayList<>());
+					batch.add(deathRecord);
+					if (batch.size() == batchSize)
+					{
+						count += insertBatch(worldUid, batch);
+						progressConsumer.accept(count);
+					}
+				}
+
+				for (Map.Entry<UUID, List<DeathRecord>> entry : batches.entrySet())
+				{
+					count += insertBatch(entry.getKey(), entry.getValue());
+				}
+				progressConsumer.accept(count);
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.INSERT_RECORD_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+			return count;
+		}, storageExecutor).whenCompleteAsync((count, throwable) ->
+		{
+			sqliteDeathLocationCache.clear();
+			rebuildLookupIndex();
+		}, this::runOnServerThread);
+	}
+
+
+	@Override
+	public DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid)
+	{
+		if (playerUid == null) { return new InvalidDeathLocation(DeathLocationReason.PLAYER_UUID_NULL); }
+		if (worldUid == null) { return new InvalidDeathLocation(DeathLocationReason.WORLD_UUID_NULL); }
+
+		final SqliteWorldPartition partition = partition(worldUid, false);
+		return (partition != null)
+				? partition.repository().deleteDeathLocation(playerUid, worldUid)
+				: new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND);
+	}
+
+
+	@Override
+	public Map<UUID, String> orphanedWorlds()
+	{
+		return orphanedWorldRegistry.orphanedWorlds();
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress)
+	{
+		if (playerUid == null) { return CompletableFuture.completedFuture(0); }
+
+		return forAllPartitions(progress, (partition, partitionProgress) ->
+				partition.repository().deleteDeathLocationsByPlayer(playerUid, partitionProgress));
+	}
+
+
+	/**
+	 * Delete the death locations of a world by closing and deleting its partition file
+	 */
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress)
+	{
+		if (worldUid == null) { return CompletableFuture.completedFuture(0); }
+
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+
+		sqliteDeathLocationCache.evictWorld(worldUid);
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			int count = 0;
+
+			// the partition is dropped under the lock, so a save for the world cannot reopen the file meanwhile
+			synchronized (partitionLock)
+			{
+				SqliteWorldPartition partition = partitions.remove(worldUid);
+				try
+				{
+					if (partition == null && Files.exists(partitionPath(worldUid)))
+					{
+						partition = openPartition(worldUid);
+					}
+					if (partition != null)
+					{
+						count = partition.drop();
+					}
+				}
+				catch (SQLException | IOException exception)
+				{
+					plugin.getLogger().warning(SqliteMessage.DELETE_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+					plugin.getLogger().warning(exception.getLocalizedMessage());
+					throw new CompletionException(exception);
+				}
+			}
+
+			progressConsumer.accept(count);
+			plugin.getLogger().info(SqliteMessage.PARTITION_DROPPED_NOTICE.getLocalizedMessage(configRepository.locale(), count, worldUid));
+			return count;
+		}, storageExecutor).whenCompleteAsync((count, throwable) ->
+		{
+			sqliteDeathLocationCache.evictWorld(worldUid);
+			orphanedWorldRegistry.remove(worldUid);
+		}, this::runOnServerThread);
+	}
+
+
+	@Override
+	public CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress)
+	{
+		if (instant == null) { return CompletableFuture.completedFuture(0); }
+
+		return forAllPartitions(progress, (partition, partitionProgress) ->
+				partition.repository().deleteDeathLocationsOlderThan(instant, partitionProgress));
+	}
+
+
+	/**
+	 * Visit all death locations in player order, by merging the ordered rows of every partition. Rows are read
+	 * from each partition in pages on its own storage thread.
+	 */
+	@Override
+	public CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor)
+	{
+		Objects.requireNonNull(visitor);
+
+		return CompletableFuture.supplyAsync(() ->
+		{
+			final Comparator<Head> order = Comparator
+					.comparing((Head head) -> head.deathRecord().deathLocation().playerUid())
+					.thenComparing(head -> head.deathRecord().deathLocation().worldUid());
+			final PriorityQueue<Head> heads = new PriorityQueue<>(order);
+			final List<PartitionReader> readers = new ArrayList<>();
+
+			int count = 0;
+			try
+			{
+				for (SqliteWorldPartition partition : openAllPartitions())
+				{
+					final PartitionReader reader = new PartitionReader(partition, Math.max(1, fetchSize));
+					readers.add(reader);
+					final DeathRecord first = reader.next();
+					if (first != null)
+					{
+						heads.add(new Head(first, reader));
+					}
+				}
+
+				// each partition holds a single world, so no two heads have the same key
+				Head head;
+				while ((head = heads.poll()) != null)
+				{
+					count++;
+					if (!visitor.test(head.deathRecord()))
+					{
+						break;
+					}
+					final DeathRecord next = head.reader().next();
+					if (next != null)
+					{
+						heads.add(new Head(next, head.reader()));
+					}
+				}
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().warning(SqliteMessage.SELECT_ALL_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+				plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				throw new CompletionException(sqlException);
+			}
+			finally
+			{
+				readers.forEach(PartitionReader::close);
+			}
+			return count;
+		}, storageExecutor);
+	}
+
+
+	/**
+	 * Back up every partition, each to its own subfolder of the backups folder
+	 *
+	 * @return future that completes with the combined size and duration of the partition backups
+	 */
+	CompletableFuture<DatastoreBackup> backup()
+	{
+		final long startTime = System.nanoTime();
+
+		return CompletableFuture.supplyAsync(this::openAllPartitions, storageExecutor)
+				.thenCompose(openPartitions ->
+				{
+					final List<CompletableFuture<DatastoreBackup>> backups = openPartitions.stream()
+							.map(SqliteWorldPartition::backup)
+							.toList();
+
+					return CompletableFuture.allOf(backups.toArray(CompletableFuture[]::new))
+							.thenApply(ignored -> new DatastoreBackup(
+									SqliteMessage.PARTITIONS_NAME.getLocalizedMessage(configRepository.locale(), backups.size()),
+									backups.stream().mapToLong(backup -> backup.join().size()).sum(),
+									Duration.ofNanos(System.nanoTime() - startTime)));
+				});
+	}
+
+
+	/**
+	 * Count the records and total the file sizes of every partition, each on its own storage thread
+	 *
+	 * @return future that completes with the combined tier of all partitions
+	 */
+	CompletableFuture<DatastoreTier> tier()
+	{
+		return CompletableFuture.supplyAsync(this::openAllPartitions, storageExecutor)
+				.thenCompose(openPartitions ->
+				{
+					final List<CompletableFuture<DatastoreTier>> tiers = openPartitions.stream()
+							.map(partition -> CompletableFuture.supplyAsync(() ->
+							{
+								try
+								{
+									return new DatastoreTier(DATASTORE_NAME, partition.repository().count(),
+											Files.size(partitionPath(partition.worldUid())));
+								}
+								catch (SQLException | IOException exception)
+								{
+									plugin.getLogger().warning(SqliteMessage.SELECT_ALL_RECORDS_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+									plugin.getLogger().warning(exception.getLocalizedMessage());
+									throw new CompletionException(exception);
+								}
+							}, partition.storageExecutor()))
+							.toList();
+
+					return CompletableFuture.allOf(tiers.toArray(CompletableFuture[]::new))
+							.thenApply(ignored -> new DatastoreTier(
+									DATASTORE_NAME + " (" + SqliteMessage.PARTITIONS_NAME.getLocalizedMessage(configRepository.locale(), tiers.size()) + ")",
+									tiers.stream().mapToLong(tier -> tier.join().records()).sum(),
+									tiers.stream().mapToLong(tier -> tier.join().size()).sum()));
+				});
+	}
+
+
+	/**
+	 * Mark the worlds of partition files whose world is not loaded as orphaned. World names are not known
+	 * without opening the files, so orphaned worlds are named by UUID.
+	 */
+	void detectOrphanedWorlds()
+	{
+		final Map<UUID, String> storedWorlds = new HashMap<>();
+		partitionWorlds().forEach(worldUid -> storedWorlds.put(worldUid, worldUid.toString()));
+		orphanedWorldRegistry.reconcile(storedWorlds);
+	}
+
+
+	/**
+	 * Queue a rebuild of the lookup index of each open partition, if the index is enabled
+	 */
+	void rebuildLookupIndex()
+	{
+		partitions.values().forEach(partition -> partition.repository().rebuildLookupIndex());
+	}
+
+
+	/**
+	 * Close all open partitions
+	 */
+	void close()
+	{
+		synchronized (partitionLock)
+		{
+			for (SqliteWorldPartition partition : partitions.values())
+			{
+				try
+				{
+					partition.close();
+				}
+				catch (SQLException sqlException)
+				{
+					plugin.getLogger().warning(SqliteMessage.DATASTORE_CLOSE_ERROR.getLocalizedMessage(configRepository.locale(), DATASTORE_NAME));
+					plugin.getLogger().warning(sqlException.getLocalizedMessage());
+				}
+			}
+			partitions.clear();
+		}
+	}
+
+
+	/**
+	 * Get the partition for a world, opening its file if it exists or if {@code create} is true
+	 *
+	 * @param worldUid the world UUID
+	 * @param create true to create the partition file if it does not exist
+	 * @return the partition, or {@code null} if there is no partition file and none was created,
+	 * or the file could not be opened
+	 */
+	private SqliteWorldPartition partition(final UUID worldUid, final boolean create)
+	{
+		final SqliteWorldPartition partition = partitions.get(worldUid);
+		if (partition != null)
+		{
+			return partition;
+		}
+
+		synchronized (partitionLock)
+		{
+			if (partitions.containsKey(worldUid))
+			{
+				return partitions.get(worldUid);
+			}
+
+			if (!create && !Files.exists(partitionPath(worldUid)))
+			{
+				return null;
+			}
+
+			try
+			{
+				final SqliteWorldPartition opened = openPartition(worldUid);
+				partitions.put(worldUid, opened);
+				return opened;
+			}
+			catch (SQLException | IOException exception)
+			{
+				plugin.getLogger().warning(SqliteMessage.PARTITION_OPEN_ERROR.getLocalizedMessage(configRepository.locale(), worldUid));
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+				return null;
+			}
+		}
+	}
+
+
+	private SqliteWorldPartition openPartition(final UUID worldUid) throws SQLException, IOException
+	{
+		Files.createDirectories(partitionFolder);
+		return SqliteWorldPartition.open(plugin, configRepository, partitionPath(worldUid), worldUid,
+				sqliteDeathLocationCache, orphanedWorldRegistry, lookupIndexFolder.resolve(worldUid.toString()));
+	}
+
+
+	/**
+	 * Open the partition of every world that has a partition file
+	 */
+	private List<SqliteWorldPartition> openAllPartitions()
+	{
+		return partitionWorlds().stream()
+				.map(worldUid -> partition(worldUid, false))
+				.filter(Objects::nonNull)
+				.toList();
+	}
+
+
+	/**
+	 * Run an operation on every partition, each on its own storage thread, and combine the results
+	 *
+	 * @param progress consumer of the running total across all partitions; may be null
+	 * @param operation the operation, given a partition and a consumer of that partition's running total
+	 * @return future that completes with the sum of the partition results
+	 */
+	private CompletableFuture<Integer> forAllPartitions(final IntConsumer progress,
+	                                                   final PartitionOperation operation)
+	{
+		final IntConsumer progressConsumer = (progress != null) ? progress : count -> { };
+		final Map<UUID, Integer> partitionTotals = new ConcurrentHashMap<>();
+
+		return CompletableFuture.supplyAsync(this::openAllPartitions, storageExecutor)
+				.thenCompose(openPartitions ->
+				{
+					final List<CompletableFuture<Integer>> results = openPartitions.stream()
+							.map(partition -> operation.apply(partition, count ->
+							{
+								partitionTotals.put(partition.worldUid(), count);
+								progressConsumer.accept(partitionTotals.values().stream().mapToInt(Integer::intValue).sum());
+							}))
+							.toList();
+
+					return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+							.thenApply(ignored -> results.stream().mapToInt(CompletableFuture::join).sum());
+				});
+	}
+
+
+	private int insertBatch(final UUID worldUid, final List<DeathRecord> batch) throws SQLException
+	{
+		final SqliteWorldPartition partition = partition(worldUid, true);
+		if (partition == null)
+		{
+			throw new SQLException(SqliteMessage.PARTITION_OPEN_ERROR.getLocalizedMessage(configRepository.locale(), worldUid));
+		}
+
+		final int count = onPartitionThread(partition, () -> partition.repository().insertBatch(batch));
+		batch.clear();
+		return count;
+	}
+
+
+	/**
+	 * Run a datastore operation on the storage thread of a partition and wait for its result
+	 *
+	 * @param partition the partition
+	 * @param operation the operation
+	 * @return the result of the operation
+	 * @throws SQLException if the operation failed
+	 */
+	private static <T> T onPartitionThread(final SqliteWorldPartition partition,
+	                                       final PartitionCall<T> operation) throws SQLException
+	{
+		try
+		{
+			return CompletableFuture.supplyAsync(() ->
+			{
+				try
+				{
+					return operation.call();
+				}
+				catch (SQLException sqlException)
+				{
+					throw new CompletionException(sqlException);
+				}
+			}, partition.storageExecutor()).join();
+		}
+		catch (CompletionException | CancellationException | RejectedExecutionException exception)
+		{
+			if (exception.getCause() instanceof SQLException sqlException)
+			{
+				throw sqlException;
+			}
+			throw new SQLException(exception);
+		}
+	}
+
+
+	/**
+	 * Get the worlds that have a partition file
+	 */
+	private Set<UUID> partitionWorlds()
+	{
+		final Set<UUID> worldUids = new HashSet<>(partitions.keySet());
+
+		if (Files.isDirectory(partitionFolder))
+		{
+			try (final Stream<Path> files = Files.list(partitionFolder))
+			{
+				files.map(path -> path.getFileName().toString())
+						.filter(fileName -> fileName.endsWith(PARTITION_EXTENSION))
+						.map(fileName -> fileName.substring(0, fileName.length() - PARTITION_EXTENSION.length()))
+						.map(this::parseWorldUid)
+						.filter(Objects::nonNull)
+						.forEach(worldUids::add);
+			}
+			catch (IOException exception)
+			{
+				plugin.getLogger().warning(exception.getLocalizedMessage());
+			}
+		}
+
+		return worldUids;
+	}
+
+
+	private UUID parseWorldUid(final String name)
+	{
+		try
+		{
+			return UUID.fromString(name);
+		}
+		catch (IllegalArgumentException exception)
+		{
+			return null;
+		}
+	}
+
+
+	private Path partitionPath(final UUID worldUid)
+	{
+		return partitionFolder.resolve(worldUid + PARTITION_EXTENSION);
+	}
+
+
+	private static Map<UUID, List<ValidDeathLocation>> groupByWorld(final Collection<ValidDeathLocation> deathLocations)
+	{
+		final Map<UUID, List<ValidDeathLocation>> groups = new HashMap<>();
+		for (ValidDeathLocation deathLocation : deathLocations)
+		{
+			groups.computeIfAbsent(deathLocation.worldUid(), worldUid -> new ArrayList<>()).add(deathLocation);
+		}
+		return groups;
+	}
+
+
+	private int batchSize()
+	{
+		return Math.max(1, plugin.getConfig().getInt("storage.batch-size", 500));
+	}
+
+
+	private void runOnServerThread(final Runnable runnable)
+	{
+		if (plugin.isEnabled())
+		{
+			plugin.getServer().getScheduler().runTask(plugin, runnable);
+		}
+		else
+		{
+			runnable.run();
+		}
+	}
+
+
+	/**
+	 * Reads the ordered rows of a partition in pages, each read on the partition's storage thread.
+	 * Used by a single coordinating thread.
+	 */
+	private final class PartitionReader
+	{
+		private final SqliteWorldPartition partition;
+		private final int pageSize;
+		private final Deque<DeathRecord> page = new ArrayDeque<>();
+		private SqliteDeathLocationCursor cursor;
+		private boolean exhausted;
+
+
+		PartitionReader(final SqliteWorldPartition partition, final int pageSize)
+		{
+			this.partition = partition;
+			this.pageSize = pageSize;
+		}
+
+
+		DeathRecord next() throws SQLException
+		{
+			if (page.isEmpty() && !exhausted)
+			{
+				onPartitionThread(partition, this::readPage);
+			}
+			return page.poll();
+		}
+
+
+		private Void readPage() throws SQLException
+		{
+			if (cursor == null)
+			{
+				cursor = partition.repository().openCursor(pageSize);
+			}
+			while (page.size() < pageSize)
+			{
+				final ValidDeathLocation deathLocation = cursor.next();
+				if (deathLocation == null)
+				{
+					exhausted = true;
+					break;
+				}
+				page.add(new DeathRecord(deathLocation, cursor.deathTime()));
+			}
+			return null;
+		}
+
+
+		void close()
+		{
+			if (cursor == null)
+			{
+				return;
+			}
+
+			try
+			{
+				onPartitionThread(partition, () ->
+				{
+					cursor.close();
+					return null;
+				});
+			}
+			catch (SQLException sqlException)
+			{
+				plugin.getLogger().fine(sqlException.getLocalizedMessage());
+			}
+		}
+	}
+
+
+	/**
+	 * The next death record of a partition reader, for the merge in {@link #forEachDeathRecord}
+	 */
+	private record Head(DeathRecord deathRecord, PartitionReader reader) { }
+
+
+	@FunctionalInterface
+	private interface PartitionCall<T>
+	{
+		T call() throws SQLException;
+	}
+
+
+	@FunctionalInterface
+	private interface PartitionOperation
+	{
+		CompletableFuture<Integer> apply(SqliteWorldPartition partition, IntConsumer progress);
+	}
+
+}
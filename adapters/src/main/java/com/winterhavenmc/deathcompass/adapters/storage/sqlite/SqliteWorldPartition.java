@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.storage.BackupFolder;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The database file holding the death locations of a single world, with its own connections, storage thread
+ * and backup service, so operations on different worlds do not wait for each other
+ */
+final class SqliteWorldPartition
+{
+	private final static List<String> FILE_SUFFIXES = List.of("", "-journal", "-wal", "-shm");
+
+	private final UUID worldUid;
+	private final Path path;
+	private final Connection connection;
+	private final Connection storageConnection;
+	private final ExecutorService storageExecutor;
+	private final SqliteDeathLocationRepository repository;
+	private final SqliteBackupService backupService;
+
+
+	private SqliteWorldPartition(final UUID worldUid,
+	                             final Path path,
+	                             final Connection connection,
+	                             final Connection storageConnection,
+	                             final ExecutorService storageExecutor,
+	                             final SqliteDeathLocationRepository repository,
+	                             final SqliteBackupService backupService)
+	{
+		this.worldUid = worldUid;
+		this.path = path;
+		this.connection = connection;
+		this.storageConnection = storageConnection;
+		this.storageExecutor = storageExecutor;
+		this.repository = repository;
+		this.backupService = backupService;
+	}
+
+
+	/**
+	 * Open the partition file for a world, creating it if it does not exist
+	 *
+	 * @param plugin instance of main class
+	 * @param configRepository the configuration repository, for the log locale
+	 * @param path the partition file
+	 * @param worldUid the world UUID
+	 * @param cache the death location cache shared by all partitions
+	 * @param orphanedWorldRegistry the orphaned world registry shared by all partitions
+	 * @param lookupIndexFolder the folder for the lookup index files of this partition
+	 * @return the open partition
+	 * @throws SQLException if the partition file could not be opened
+	 */
+	static SqliteWorldPartition open(final Plugin plugin,
+	                                 final ConfigRepository configRepository,
+	                                 final Path path,
+	                                 final UUID worldUid,
+	                                 final SqliteDeathLocationCache cache,
+	                                 final SqliteOrphanedWorldRegistry orphanedWorldRegistry,
+	                                 final Path lookupIndexFolder) throws SQLException
+	{
+		final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+		SqliteConnectionProvider.createSchema(plugin, configRepository, connection);
+		final Connection storageConnection = DriverManager.getConnection("jdbc:sqlite:" + path);
+
+		final String threadSuffix = worldUid.toString().substring(0, 8);
+		final ExecutorService storageExecutor = Executors.newSingleThreadExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage-" + threadSuffix);
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		final SqliteDeathLocationRepository repository = new SqliteDeathLocationRepository(plugin, connection,
+				storageConnection, configRepository, storageExecutor, cache, orphanedWorldRegistry, lookupIndexFolder);
+
+		// backups of each partition are kept and rotated in their own subfolder
+		final SqliteBackupService backupService = new SqliteBackupService(plugin, configRepository, path.toString(),
+				new BackupFolder(plugin, worldUid.toString(), ".db"), plugin.getName() + "-Backup-" + threadSuffix);
+		backupService.start();
+
+		repository.rebuildLookupIndex();
+
+		return new SqliteWorldPartition(worldUid, path, connection, storageConnection, storageExecutor, repository, backupService);
+	}
+
+
+	UUID worldUid()
+	{
+		return worldUid;
+	}
+
+
+	SqliteDeathLocationRepository repository()
+	{
+		return repository;
+	}
+
+
+	ExecutorService storageExecutor()
+	{
+		return storageExecutor;
+	}
+
+
+	CompletableFuture<DatastoreBackup> backup()
+	{
+		return backupService.backup();
+	}
+
+
+	/**
+	 * Close the partition, after queued operations on its storage thread finish
+	 *
+	 * @throws SQLException if the connection could not be closed
+	 */
+	void close() throws SQLException
+	{
+		backupService.close();
+		shutDownStorageExecutor();
+		closeConnections();
+	}
+
+
+	/**
+	 * Close the partition and delete its database file, with any journal files
+	 *
+	 * @return the number of death locations the partition held
+	 * @throws SQLException if the partition could not be counted or closed
+	 * @throws IOException if the file could not be deleted
+	 */
+	int drop() throws SQLException, IOException
+	{
+		backupService.close();
+
+		// the storage thread has finished, so the storage connection may be used on the calling thread to count
+		shutDownStorageExecutor();
+		final int count = repository.count();
+		closeConnections();
+
+		for (String suffix : FILE_SUFFIXES)
+		{
+			Files.deleteIfExists(path.resolveSibling(path.getFileName() + suffix));
+		}
+
+		return count;
+	}
+
+
+	private void shutDownStorageExecutor()
+	{
+		storageExecutor.shutdown();
+		try
+		{
+			if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS))
+			{
+				storageExecutor.shutdownNow();
+			}
+		}
+		catch (InterruptedException interruptedException)
+		{
+			storageExecutor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private void closeConnections() throws SQLException
+	{
+		try
+		{
+			storageConnection.close();
+		}
+		finally
+		{
+			connection.close();
+		}
+	}
+
+}
@@ -31,6 +31,9 @@ import java.util.logging.Logger;
 
 public sealed interface SqliteSchemaUpdater permits SqliteSchemaUpdaterFromV0, SqliteSchemaUpdaterNoOp
 {
+	int CURRENT_VERSION = 1;
+
+
 	void update();
 
 
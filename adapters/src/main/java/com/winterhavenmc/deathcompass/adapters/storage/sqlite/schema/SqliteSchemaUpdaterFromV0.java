@@ -63,6 +63,12 @@ public final class SqliteSchemaUpdaterFromV0 implements SqliteSchemaUpdater
 		{
 			updateDeathLocationTableSchema(connection, schemaVersion);
 		}
+		else if (schemaVersion == 0 && tableExists(connection, "DeathLocations") && !addDeathTimeColumn(connection))
+		{
+			// leave schema version unchanged, so the update is retried on next startup
+			return;
+		}
+		setSchemaVersion(connection, plugin.getLogger(), CURRENT_VERSION);
 	}
 
 
@@ -83,7 +89,32 @@ public final class SqliteSchemaUpdaterFromV0 implements SqliteSchemaUpdater
 
 		int count = deathLocationRepository.saveDeathLocations(existingDeathLocations);
 		plugin.getLogger().info(SqliteMessage.SCHEMA_DEATH_LOCATIONS_MIGRATED_NOTICE
-				.getLocalizedMessage(configRepository.locale(), count, schemaVersion));
+				.getLocalizedMessage(configRepository.locale(), count, CURRENT_VERSION));
+	}
+
+
+	private boolean addDeathTimeColumn(final Connection connection)
+	{
+		try (final Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate(SqliteQueries.getQuery("AddDeathTimeColumn"));
+
+			// existing records have no known death time, so they are stamped with the time of migration
+			try (final PreparedStatement preparedStatement = connection.prepareStatement(SqliteQueries.getQuery("UpdateDeathTime")))
+			{
+				preparedStatement.setLong(1, System.currentTimeMillis());
+				int count = preparedStatement.executeUpdate();
+				plugin.getLogger().info(SqliteMessage.SCHEMA_DEATH_TIME_ADDED_NOTICE
+						.getLocalizedMessage(configRepository.locale(), count));
+			}
+			return true;
+		}
+		catch (SQLException sqlException)
+		{
+			plugin.getLogger().warning(SqliteMessage.SCHEMA_UPDATE_ERROR.getLocalizedMessage(configRepository.locale()));
+			plugin.getLogger().warning(sqlException.getLocalizedMessage());
+			return false;
+		}
 	}
 
 
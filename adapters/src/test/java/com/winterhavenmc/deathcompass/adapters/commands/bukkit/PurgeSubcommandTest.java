@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+import com.winterhavenmc.library.messagebuilder.MessageBuilder;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PurgeSubcommandTest
+{
+	@Mock JavaPlugin pluginMock;
+	@Mock Server serverMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock CommandSender senderMock;
+	@Mock OfflinePlayer offlinePlayerMock;
+	@Mock ConnectionProvider datastoreMock;
+	@Mock DeathLocationRepository deathLocationsMock;
+
+	private final MessageBuilder messageBuilderMock = mock(MessageBuilder.class, RETURNS_DEEP_STUBS);
+	private final UUID playerUid = new UUID(42, 42);
+
+	private PurgeSubcommand purgeSubcommand;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(eq(pluginMock), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(senderMock.hasPermission("deathcompass.purge")).thenReturn(true);
+		when(offlinePlayerMock.getName()).thenReturn("Notch");
+		when(offlinePlayerMock.getUniqueId()).thenReturn(playerUid);
+		when(serverMock.getOfflinePlayers()).thenReturn(new OfflinePlayer[] { offlinePlayerMock });
+		when(datastoreMock.deathLocations()).thenReturn(deathLocationsMock);
+		when(deathLocationsMock.deleteDeathLocationsByPlayer(any(), any())).thenReturn(CompletableFuture.completedFuture(1));
+
+		purgeSubcommand = new PurgeSubcommand(new CommandCtx(pluginMock, messageBuilderMock, datastoreMock, null, null));
+	}
+
+
+	@Test
+	void onCommand_purges_player_by_uuid_without_offline_player_lookup()
+	{
+		// Act
+		purgeSubcommand.onCommand(senderMock, List.of("player", playerUid.toString()));
+
+		// Assert
+		verify(serverMock, never()).getOfflinePlayers();
+		verify(schedulerMock, never()).runTaskAsynchronously(any(), any(Runnable.class));
+		verify(deathLocationsMock).deleteDeathLocationsByPlayer(eq(playerUid), any());
+	}
+
+
+	@Test
+	void onCommand_resolves_offline_player_name_off_the_server_thread()
+	{
+		// Arrange
+		final ArgumentCaptor<Runnable> lookupCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+		// Act
+		purgeSubcommand.onCommand(senderMock, List.of("player", "notch"));
+
+		// Assert
+		verify(serverMock, never()).getOfflinePlayers();
+		verify(schedulerMock).runTaskAsynchronously(eq(pluginMock), lookupCaptor.capture());
+
+		// Act
+		lookupCaptor.getValue().run();
+
+		// Assert
+		verify(serverMock).getOfflinePlayers();
+		verify(deathLocationsMock).deleteDeathLocationsByPlayer(eq(playerUid), any());
+	}
+
+
+	@Test
+	void onCommand_reports_unknown_offline_player_on_the_server_thread()
+	{
+		// Arrange
+		final ArgumentCaptor<Runnable> lookupCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+		// Act
+		purgeSubcommand.onCommand(senderMock, List.of("player", "Herobrine"));
+		verify(schedulerMock).runTaskAsynchronously(eq(pluginMock), lookupCaptor.capture());
+		lookupCaptor.getValue().run();
+
+		// Assert
+		verify(schedulerMock).runTask(eq(pluginMock), any(Runnable.class));
+		verify(messageBuilderMock).compose(senderMock, MessageId.COMMAND_FAIL_PURGE_PLAYER_INVALID);
+		verify(deathLocationsMock, never()).deleteDeathLocationsByPlayer(any(), any());
+	}
+
+}
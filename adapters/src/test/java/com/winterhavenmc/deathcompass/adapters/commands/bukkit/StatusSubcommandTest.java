@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.commands.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.CommandCtx;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
+import com.winterhavenmc.deathcompass.adapters.util.Macro;
+import com.winterhavenmc.deathcompass.adapters.util.MessageId;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
+
+import com.winterhavenmc.library.messagebuilder.MessageBuilder;
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StatusSubcommandTest
+{
+	@Mock JavaPlugin pluginMock;
+	@Mock PluginDescriptionFile descriptionMock;
+	@Mock CommandSender senderMock;
+	@Mock ConnectionProvider datastoreMock;
+	@Mock DeathCompassItems itemsMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private final MessageBuilder messageBuilderMock = mock(MessageBuilder.class, RETURNS_DEEP_STUBS);
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private StatusSubcommand statusSubcommand;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getDescription()).thenReturn(descriptionMock);
+		when(descriptionMock.getName()).thenReturn("DeathCompass");
+		when(descriptionMock.getVersion()).thenReturn("1.0.0");
+		when(senderMock.hasPermission("deathcompass.status")).thenReturn(true);
+		when(datastoreMock.tiers()).thenReturn(new CompletableFuture<>());
+		when(itemsMock.builds()).thenReturn(3L);
+		when(itemsMock.buildsAvoided()).thenReturn(97L);
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+
+		statusSubcommand = new StatusSubcommand(new CommandCtx(pluginMock, messageBuilderMock, datastoreMock, itemsMock,
+				new SettingsHolder(pluginMock)));
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		mockedConfigRepository.close();
+	}
+
+
+	@Test
+	void onCommand_reports_item_cache_counts_as_macros()
+	{
+		// Act
+		statusSubcommand.onCommand(senderMock, List.of());
+
+		// Assert
+		verify(messageBuilderMock.compose(senderMock, MessageId.COMMAND_STATUS_ITEM_CACHE)).setMacro(Macro.COUNT, 3L);
+		verify(messageBuilderMock.compose(senderMock, MessageId.COMMAND_STATUS_ITEM_CACHE).setMacro(Macro.COUNT, 3L))
+				.setMacro(Macro.AVOIDED_COUNT, 97L);
+	}
+
+}
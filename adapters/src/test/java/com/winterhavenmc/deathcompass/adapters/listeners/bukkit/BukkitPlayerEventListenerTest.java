@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BukkitPlayerEventListenerTest
+{
+	private final static UUID PLAYER_UID = new UUID(-42, 1);
+
+	@Mock JavaPlugin pluginMock;
+	@Mock Server serverMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock Plugin deathChestPluginMock;
+	@Mock ConfigRepository configRepositoryMock;
+	@Mock DeathCompassItems itemsMock;
+	@Mock Player playerMock;
+	@Mock PlayerInventory inventoryMock;
+	@Mock World worldMock;
+	@Mock Location spawnLocationMock;
+	@Mock Block blockMock;
+	@Mock Tag<Material> tagMock;
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private MockedStatic<Bukkit> mockedBukkit;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+		when(playerMock.getUniqueId()).thenReturn(PLAYER_UID);
+		when(playerMock.getInventory()).thenReturn(inventoryMock);
+		when(playerMock.getWorld()).thenReturn(worldMock);
+		when(worldMock.getSpawnLocation()).thenReturn(spawnLocationMock);
+		when(inventoryMock.getContents()).thenReturn(new ItemStack[0]);
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+
+		// sign tags are looked up from the server, so they are answered by a tag that holds no materials
+		mockedBukkit = mockStatic(Bukkit.class);
+		mockedBukkit.when(() -> Bukkit.getTag(any(), any(), any())).thenAnswer(invocation -> tagMock);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		mockedBukkit.close();
+		mockedConfigRepository.close();
+	}
+
+
+	private BukkitPlayerEventListener listener()
+	{
+		return (BukkitPlayerEventListener) new BukkitPlayerEventListener()
+				.init(new ListenerCtx(pluginMock, null, null, itemsMock, null, new SettingsHolder(pluginMock)));
+	}
+
+
+	private PlayerInteractEvent interact(final Material material, final String owner)
+	{
+		when(blockMock.getType()).thenReturn(material);
+		when(blockMock.getMetadata(BukkitPlayerEventListener.DEATH_CHEST_OWNER_KEY))
+				.thenReturn(List.of(new FixedMetadataValue(deathChestPluginMock, owner)));
+		return new PlayerInteractEvent(playerMock, Action.RIGHT_CLICK_BLOCK, null, blockMock, null);
+	}
+
+
+	@Test
+	void init_does_not_register_death_chest_handlers_without_SavageDeathChest()
+	{
+		// Act
+		listener();
+
+		// Assert
+		verify(pluginManagerMock, never()).registerEvents(
+				argThat((Listener listener) -> listener.getClass().getSimpleName().equals("DeathChestHandlers")), any());
+	}
+
+
+	@Test
+	void init_registers_death_chest_handlers_with_SavageDeathChest()
+	{
+		// Arrange
+		when(pluginManagerMock.getPlugin(BukkitPlayerEventListener.DEATH_CHEST_PLUGIN)).thenReturn(deathChestPluginMock);
+
+		// Act
+		listener();
+
+		// Assert
+		verify(pluginManagerMock).registerEvents(
+				argThat((Listener listener) -> listener.getClass().getSimpleName().equals("DeathChestHandlers")), any());
+	}
+
+
+	@Test
+	void onPlayerInteract_removes_compasses_when_owner_opens_death_chest()
+	{
+		// Act
+		listener().onPlayerInteract(interact(Material.CHEST, PLAYER_UID.toString()));
+
+		// Assert
+		verify(itemsMock).removeDeathCompasses(inventoryMock);
+		verify(playerMock).setCompassTarget(spawnLocationMock);
+	}
+
+
+	@Test
+	void onPlayerInteract_ignores_death_chest_of_other_player()
+	{
+		// Act
+		listener().onPlayerInteract(interact(Material.CHEST, new UUID(42, 2).toString()));
+
+		// Assert
+		verify(itemsMock, never()).removeDeathCompasses(any());
+	}
+
+
+	@Test
+	void onPlayerInteract_skips_metadata_lookup_for_other_blocks()
+	{
+		// Act
+		listener().onPlayerInteract(interact(Material.DIRT, PLAYER_UID.toString()));
+
+		// Assert
+		verify(blockMock, never()).getMetadata(any());
+		verify(itemsMock, never()).removeDeathCompasses(any());
+	}
+
+}
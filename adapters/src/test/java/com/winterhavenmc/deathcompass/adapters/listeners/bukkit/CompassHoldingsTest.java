@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CompassHoldingsTest
+{
+	@Mock JavaPlugin pluginMock;
+	@Mock Server serverMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock DeathCompassItems itemsMock;
+	@Mock Player playerMock;
+	@Mock PlayerInventory inventoryMock;
+	@Mock ItemStack compassMock;
+	@Mock ItemStack otherItemMock;
+	@Mock Item itemEntityMock;
+	@Mock InventoryView viewMock;
+
+	private CompassHoldings compassHoldings;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(playerMock.getUniqueId()).thenReturn(new UUID(-42, 1));
+		when(playerMock.getInventory()).thenReturn(inventoryMock);
+		when(inventoryMock.getContents()).thenReturn(new ItemStack[] { otherItemMock, compassMock, null });
+		when(compassMock.getAmount()).thenReturn(1);
+		when(itemsMock.isDeathCompass(compassMock)).thenReturn(true);
+		when(itemsMock.isDeathCompassMaterial(compassMock)).thenReturn(true);
+		when(viewMock.getPlayer()).thenReturn(playerMock);
+
+		compassHoldings = new CompassHoldings(new ListenerCtx(pluginMock, null, null, itemsMock, null, null));
+	}
+
+
+	@Test
+	void count_scans_inventory_only_once()
+	{
+		// Act
+		final int first = compassHoldings.count(playerMock);
+		final int second = compassHoldings.count(playerMock);
+
+		// Assert
+		assertEquals(1, first);
+		assertEquals(1, second);
+		verify(inventoryMock, times(1)).getContents();
+	}
+
+
+	@Test
+	void drop_of_last_compass_discards_count()
+	{
+		// Arrange
+		compassHoldings.count(playerMock);
+		when(itemEntityMock.getItemStack()).thenReturn(compassMock);
+
+		// Act
+		compassHoldings.onDrop(new PlayerDropItemEvent(playerMock, itemEntityMock));
+
+		// Assert
+		when(inventoryMock.getContents()).thenReturn(new ItemStack[] { otherItemMock, null, null });
+		assertFalse(compassHoldings.contains(playerMock));
+		verify(inventoryMock, times(2)).getContents();
+	}
+
+
+	@Test
+	void drop_of_other_item_leaves_count_unchanged()
+	{
+		// Arrange
+		compassHoldings.count(playerMock);
+		when(itemEntityMock.getItemStack()).thenReturn(otherItemMock);
+
+		// Act
+		compassHoldings.onDrop(new PlayerDropItemEvent(playerMock, itemEntityMock));
+
+		// Assert
+		assertEquals(1, compassHoldings.count(playerMock));
+	}
+
+
+	@Test
+	void add_adjusts_count_and_invalidate_rescans()
+	{
+		// Arrange
+		compassHoldings.count(playerMock);
+
+		// Act
+		compassHoldings.add(playerMock, 1);
+		final int added = compassHoldings.count(playerMock);
+		compassHoldings.invalidate(playerMock);
+		final int rescanned = compassHoldings.count(playerMock);
+
+		// Assert
+		assertEquals(2, added);
+		assertEquals(1, rescanned);
+		verify(inventoryMock, times(2)).getContents();
+	}
+
+
+	@Test
+	void clear_discards_count()
+	{
+		// Arrange
+		compassHoldings.count(playerMock);
+		when(inventoryMock.getContents()).thenReturn(new ItemStack[] { otherItemMock, null, null });
+
+		// Act
+		compassHoldings.clear(playerMock);
+
+		// Assert
+		assertEquals(0, compassHoldings.count(playerMock));
+		verify(inventoryMock, times(2)).getContents();
+	}
+
+
+	@Test
+	void handlers_are_registered_only_while_a_player_is_counted()
+	{
+		// Arrange
+		compassHoldings.register();
+		final boolean listeningBeforeCount = compassHoldings.isListening();
+
+		// Act
+		compassHoldings.count(playerMock);
+		final boolean listeningWhileCounted = compassHoldings.isListening();
+		compassHoldings.clear(playerMock);
+
+		// Assert
+		assertFalse(listeningBeforeCount);
+		assertTrue(listeningWhileCounted);
+		assertFalse(compassHoldings.isListening());
+		verify(pluginManagerMock, times(1)).registerEvents(compassHoldings, pluginMock);
+	}
+
+
+	@Test
+	void player_without_compass_is_not_counted()
+	{
+		// Arrange
+		compassHoldings.register();
+		when(inventoryMock.getContents()).thenReturn(new ItemStack[] { otherItemMock, null, null });
+
+		// Act
+		final boolean contains = compassHoldings.contains(playerMock);
+
+		// Assert
+		assertFalse(contains);
+		assertFalse(compassHoldings.isListening());
+		verify(pluginManagerMock, never()).registerEvents(any(), any());
+	}
+
+
+	@Test
+	void inventory_close_discards_count_only_when_cursor_holds_compass_material()
+	{
+		// Arrange
+		compassHoldings.count(playerMock);
+		when(viewMock.getCursor()).thenReturn(otherItemMock);
+
+		// Act
+		compassHoldings.onInventoryClose(new InventoryCloseEvent(viewMock));
+		compassHoldings.count(playerMock);
+		when(viewMock.getCursor()).thenReturn(compassMock);
+		compassHoldings.onInventoryClose(new InventoryCloseEvent(viewMock));
+		compassHoldings.count(playerMock);
+
+		// Assert
+		verify(inventoryMock, times(2)).getContents();
+	}
+
+}
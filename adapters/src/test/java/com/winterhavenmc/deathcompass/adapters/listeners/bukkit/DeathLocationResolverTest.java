@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeathLocationResolverTest
+{
+	private final static UUID PLAYER_UID = new UUID(-42, 1);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@Mock JavaPlugin pluginMock;
+	@Mock ConnectionProvider datastoreMock;
+	@Mock DeathLocationRepository repositoryMock;
+	@Mock Server serverMock;
+	@Mock Player playerMock;
+	@Mock World world1Mock;
+	@Mock World world2Mock;
+
+	private SettingsHolder settings;
+	private DeathLocationResolver resolver;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(datastoreMock.deathLocations()).thenReturn(repositoryMock);
+		when(world1Mock.getUID()).thenReturn(WORLD_1);
+		when(world2Mock.getUID()).thenReturn(WORLD_2);
+		when(playerMock.getUniqueId()).thenReturn(PLAYER_UID);
+		when(playerMock.getWorld()).thenReturn(world1Mock);
+		when(repositoryMock.getDeathLocation(any(UUID.class), any(UUID.class)))
+				.thenReturn(new InvalidDeathLocation(DeathLocationReason.RECORD_NOT_FOUND));
+
+		settings = new SettingsHolder(pluginMock);
+		resolver = new DeathLocationResolver(new ListenerCtx(pluginMock, null, datastoreMock, null, null, settings));
+	}
+
+
+	@Test
+	void resolve_uses_last_death_location_in_current_world()
+	{
+		// Arrange
+		when(playerMock.getLastDeathLocation()).thenReturn(new Location(world1Mock, 1, 2, 3));
+
+		// Act
+		final Optional<Location> result = resolver.resolve(playerMock);
+
+		// Assert
+		assertEquals(Optional.of(new Location(world1Mock, 1, 2, 3)), result);
+		assertEquals(1, resolver.nativeHits());
+		assertEquals(0, resolver.storageLookups());
+		verify(repositoryMock, never()).getDeathLocation(any(UUID.class), any(UUID.class));
+	}
+
+
+	@Test
+	void resolve_queries_datastore_when_last_death_is_in_another_world()
+	{
+		// Arrange
+		when(playerMock.getLastDeathLocation()).thenReturn(new Location(world2Mock, 1, 2, 3));
+
+		// Act
+		final Optional<Location> result = resolver.resolve(playerMock);
+
+		// Assert
+		assertTrue(result.isEmpty());
+		assertEquals(0, resolver.nativeHits());
+		assertEquals(1, resolver.storageLookups());
+		verify(repositoryMock).getDeathLocation(PLAYER_UID, WORLD_1);
+	}
+
+
+	@Test
+	void resolve_returns_stored_location_when_player_has_not_died_since_join()
+	{
+		// Arrange
+		try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class))
+		{
+			mockedBukkit.when(Bukkit::getServer).thenReturn(serverMock);
+			when(serverMock.getWorld(WORLD_1)).thenReturn(world1Mock);
+			when(repositoryMock.getDeathLocation(PLAYER_UID, WORLD_1)).thenReturn(DeathLocation.of(PLAYER_UID, WORLD_1, 4, 5, 6));
+
+			// Act
+			final Optional<Location> result = resolver.resolve(playerMock);
+
+			// Assert
+			assertEquals(Optional.of(new Location(world1Mock, 4, 5, 6)), result);
+			assertEquals(1, resolver.storageLookups());
+		}
+	}
+
+
+	@Test
+	void resolve_skips_last_death_location_when_disabled()
+	{
+		// Arrange
+		pluginMock.getConfig().set("native-death-location", false);
+		settings.reload();
+		when(playerMock.getLastDeathLocation()).thenReturn(new Location(world1Mock, 1, 2, 3));
+
+		// Act
+		resolver.resolve(playerMock);
+
+		// Assert
+		assertEquals(0, resolver.nativeHits());
+		assertEquals(1, resolver.storageLookups());
+	}
+
+}
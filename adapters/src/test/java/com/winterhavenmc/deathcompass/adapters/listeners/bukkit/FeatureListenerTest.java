@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.events.ConfigReloadEvent;
+import com.winterhavenmc.deathcompass.adapters.util.Settings;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
+
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FeatureListenerTest
+{
+	@Mock JavaPlugin pluginMock;
+	@Mock Server serverMock;
+	@Mock PluginManager pluginManagerMock;
+
+	private final Listener handlers = new Listener() { };
+	private YamlConfiguration config;
+	private SettingsHolder settings;
+	private FeatureListener featureListener;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		config = new YamlConfiguration();
+		when(pluginMock.getConfig()).thenAnswer(invocation -> config);
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+
+		settings = new SettingsHolder(pluginMock);
+		featureListener = new FeatureListener(new ListenerCtx(pluginMock, null, null, null, null, settings),
+				Settings::preventStorage, handlers);
+	}
+
+
+	@Test
+	void register_skips_handlers_of_disabled_feature()
+	{
+		// Arrange
+		config.set("prevent-storage", false);
+		settings.reload();
+
+		// Act
+		featureListener.register();
+
+		// Assert
+		assertFalse(featureListener.isRegistered());
+		verify(pluginManagerMock).registerEvents(featureListener, pluginMock);
+		verify(pluginManagerMock, never()).registerEvents(handlers, pluginMock);
+	}
+
+
+	@Test
+	void reload_registers_and_unregisters_handlers()
+	{
+		// Arrange
+		config.set("prevent-storage", false);
+		settings.reload();
+		featureListener.register();
+
+		// Act
+		config.set("prevent-storage", true);
+		settings.reload();
+		featureListener.onConfigReload(new ConfigReloadEvent());
+		final boolean registeredWhenEnabled = featureListener.isRegistered();
+		config.set("prevent-storage", false);
+		settings.reload();
+		featureListener.onConfigReload(new ConfigReloadEvent());
+
+		// Assert
+		assertTrue(registeredWhenEnabled);
+		assertFalse(featureListener.isRegistered());
+		verify(pluginManagerMock, times(1)).registerEvents(handlers, pluginMock);
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.events.ConfigReloadEvent;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
+
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HopperTransferGuardTest
+{
+	@Mock JavaPlugin pluginMock;
+	@Mock Server serverMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock BukkitTask taskMock;
+	@Mock DeathCompassItems itemsMock;
+	@Mock Inventory sourceMock;
+	@Mock Inventory destinationMock;
+	@Mock ItemStack compassMock;
+	@Mock ItemStack deathCompassMock;
+	@Mock ItemStack otherItemMock;
+
+	private YamlConfiguration config;
+	private SettingsHolder settings;
+	private HopperTransferGuard guard;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		config = new YamlConfiguration();
+		when(pluginMock.getConfig()).thenAnswer(invocation -> config);
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTaskTimer(eq(pluginMock), any(Runnable.class), anyLong(), anyLong())).thenReturn(taskMock);
+		when(itemsMock.isDeathCompassMaterial(compassMock)).thenReturn(true);
+		when(itemsMock.isDeathCompassMaterial(deathCompassMock)).thenReturn(true);
+		when(itemsMock.isDeathCompass(deathCompassMock)).thenReturn(true);
+
+		settings = new SettingsHolder(pluginMock);
+		guard = new HopperTransferGuard(new ListenerCtx(pluginMock, null, null, itemsMock, null, settings));
+	}
+
+
+	private InventoryMoveItemEvent transfer(final ItemStack itemStack)
+	{
+		final InventoryMoveItemEvent event = mock(InventoryMoveItemEvent.class);
+		when(event.getSource()).thenReturn(sourceMock);
+		when(event.getDestination()).thenReturn(destinationMock);
+		when(event.getItem()).thenReturn(itemStack);
+		return event;
+	}
+
+
+	@Test
+	void isBlocked_passes_items_of_other_materials_without_identity_check()
+	{
+		// Act
+		final boolean result = guard.isBlocked(transfer(otherItemMock));
+
+		// Assert
+		assertFalse(result);
+		verify(itemsMock, never()).isDeathCompass(any());
+	}
+
+
+	@Test
+	void isBlocked_blocks_death_compass_after_plain_compass_between_same_inventories()
+	{
+		// Act
+		final boolean compassResult = guard.isBlocked(transfer(compassMock));
+		final boolean deathCompassResult = guard.isBlocked(transfer(deathCompassMock));
+
+		// Assert
+		assertFalse(compassResult);
+		assertTrue(deathCompassResult);
+	}
+
+
+	@Test
+	void startReports_does_not_schedule_timer_without_debug()
+	{
+		// Act
+		guard.startReports();
+
+		// Assert
+		assertFalse(guard.isReporting());
+		verify(schedulerMock, never()).runTaskTimer(eq(pluginMock), any(Runnable.class), anyLong(), anyLong());
+	}
+
+
+	@Test
+	void reload_schedules_and_cancels_timer_with_debug()
+	{
+		// Arrange
+		guard.startReports();
+
+		// Act
+		config.set("debug", true);
+		settings.reload();
+		guard.onConfigReload(new ConfigReloadEvent());
+		final boolean reportingWithDebug = guard.isReporting();
+		config.set("debug", false);
+		settings.reload();
+		guard.onConfigReload(new ConfigReloadEvent());
+
+		// Assert
+		assertTrue(reportingWithDebug);
+		assertFalse(guard.isReporting());
+		verify(taskMock).cancel();
+	}
+
+}
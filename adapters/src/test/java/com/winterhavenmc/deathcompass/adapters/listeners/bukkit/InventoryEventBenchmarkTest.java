@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.listeners.bukkit;
+
+import com.winterhavenmc.deathcompass.adapters.context.ListenerCtx;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
+import com.winterhavenmc.deathcompass.adapters.ports.listeners.InventoryEventListener;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
+
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+/**
+ * Measures the cost of the inventory click, drag and hopper transfer handlers for items that are not death compasses.
+ * Excluded from the default build; run with {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryEventBenchmarkTest
+{
+	private final static int EVENT_COUNT = 200_000;
+
+	@Mock Server serverMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+
+	// stub-only mocks do not record their many invocations
+	private final JavaPlugin pluginMock = mock(JavaPlugin.class, withSettings().stubOnly());
+	private final DeathCompassItems itemsMock = mock(DeathCompassItems.class, withSettings().stubOnly());
+	private final ItemStack itemStackMock = mock(ItemStack.class, withSettings().stubOnly());
+	private final InventoryClickEvent clickEventMock = mock(InventoryClickEvent.class, withSettings().stubOnly());
+	private final InventoryDragEvent dragEventMock = mock(InventoryDragEvent.class, withSettings().stubOnly());
+	private final InventoryMoveItemEvent moveEventMock = mock(InventoryMoveItemEvent.class, withSettings().stubOnly());
+
+	private InventoryEventListener listener;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		pluginMock.getConfig().set("prevent-storage", true);
+
+		// a stack of dirt, rejected by its material
+		when(itemStackMock.getType()).thenReturn(Material.DIRT);
+		when(itemsMock.isDeathCompassMaterial(any())).thenAnswer(invocation ->
+				invocation.getArgument(0) instanceof ItemStack itemStack && itemStack.getType() == Material.COMPASS);
+		when(itemsMock.isDeathCompass(any())).thenThrow(new AssertionError("full identity check reached"));
+		when(clickEventMock.getAction()).thenReturn(InventoryAction.PLACE_ALL);
+		when(clickEventMock.getCurrentItem()).thenReturn(itemStackMock);
+		when(clickEventMock.getCursor()).thenReturn(itemStackMock);
+		when(dragEventMock.getOldCursor()).thenReturn(itemStackMock);
+		when(dragEventMock.getRawSlots()).thenReturn(Set.of(0, 1, 2));
+		when(moveEventMock.getItem()).thenReturn(itemStackMock);
+
+		listener = new BukkitInventoryEventListener().init(new ListenerCtx(pluginMock, null, null, itemsMock, null,
+				new SettingsHolder(pluginMock)));
+	}
+
+
+	@Test
+	void benchmark_click_drag_and_hopper_for_other_items()
+	{
+		// warm up
+		time(() -> listener.onInventoryClick(clickEventMock));
+		time(() -> listener.onInventoryDrag(dragEventMock));
+		time(() -> listener.onInventoryMoveItem(moveEventMock));
+
+		final long clickNanos = time(() -> listener.onInventoryClick(clickEventMock));
+		final long dragNanos = time(() -> listener.onInventoryDrag(dragEventMock));
+		final long moveNanos = time(() -> listener.onInventoryMoveItem(moveEventMock));
+
+		// Assert
+		System.out.printf("inventory click %,.1f ns/event, inventory drag %,.1f ns/event, hopper transfer %,.1f ns/event (%,d events)%n",
+				(double) clickNanos / EVENT_COUNT, (double) dragNanos / EVENT_COUNT, (double) moveNanos / EVENT_COUNT, EVENT_COUNT);
+	}
+
+
+	private static long time(final Runnable handler)
+	{
+		final long startTime = System.nanoTime();
+		for (int i = 0; i < EVENT_COUNT; i++)
+		{
+			handler.run();
+		}
+		return System.nanoTime() - startTime;
+	}
+
+}
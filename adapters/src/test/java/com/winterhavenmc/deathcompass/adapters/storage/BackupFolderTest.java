@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BackupFolderTest
+{
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+
+	private final YamlConfiguration configuration = new YamlConfiguration();
+	private Path backups;
+
+
+	@BeforeEach
+	void setUp() throws IOException
+	{
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getConfig()).thenReturn(configuration);
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("BackupFolderTest"));
+
+		backups = Files.createDirectories(dataFolder.resolve("backups"));
+	}
+
+
+	private List<String> backupFiles(final Path folder) throws IOException
+	{
+		try (final Stream<Path> files = Files.list(folder))
+		{
+			return files.map(path -> path.getFileName().toString()).sorted().toList();
+		}
+	}
+
+
+	@Test
+	void newBackupPath_names_backup_for_current_time_in_backups_folder() throws IOException
+	{
+		// Arrange
+		final BackupFolder backupFolder = new BackupFolder(pluginMock, ".db");
+
+		// Act
+		final Path backupPath = backupFolder.newBackupPath();
+
+		// Assert
+		assertEquals(backups, backupPath.getParent());
+		assertTrue(backupPath.getFileName().toString().matches("deathlocations-\\d{8}-\\d{6}\\.db"));
+	}
+
+
+	@Test
+	void complete_moves_temporary_file_into_place() throws IOException
+	{
+		// Arrange
+		final BackupFolder backupFolder = new BackupFolder(pluginMock, ".db");
+		final Path backupPath = backupFolder.newBackupPath();
+		Files.writeString(backupFolder.temporaryPath(backupPath), "backup");
+
+		// Act
+		backupFolder.complete(backupPath);
+
+		// Assert
+		assertEquals("backup", Files.readString(backupPath));
+		assertFalse(Files.exists(backupFolder.temporaryPath(backupPath)));
+	}
+
+
+	@Test
+	void rotate_removes_oldest_backups_beyond_keep_and_abandoned_temporary_files() throws IOException
+	{
+		// Arrange
+		configuration.set("storage.backup.keep", 2);
+		Files.createFile(backups.resolve("deathlocations-20250101-000000.db"));
+		Files.createFile(backups.resolve("deathlocations-20250102-000000.db"));
+		Files.createFile(backups.resolve("deathlocations-20250103-000000.db"));
+		Files.createFile(backups.resolve("deathlocations-20250104-000000.db.tmp"));
+		Files.createFile(backups.resolve("unrelated.db"));
+
+		// Act
+		new BackupFolder(pluginMock, ".db").rotate();
+
+		// Assert
+		assertEquals(List.of("deathlocations-20250102-000000.db", "deathlocations-20250103-000000.db", "unrelated.db"),
+				backupFiles(backups));
+	}
+
+
+	@Test
+	void rotate_counts_backups_of_each_extension_and_subfolder_separately() throws IOException
+	{
+		// Arrange
+		configuration.set("storage.backup.keep", 1);
+		final Path subfolder = Files.createDirectories(backups.resolve("partition"));
+		Files.createFile(backups.resolve("deathlocations-20250101-000000.db"));
+		Files.createFile(backups.resolve("deathlocations-20250102-000000.snapshot"));
+		Files.createFile(subfolder.resolve("deathlocations-20250101-000000.db"));
+		Files.createFile(subfolder.resolve("deathlocations-20250102-000000.db"));
+
+		// Act
+		new BackupFolder(pluginMock, ".db").rotate();
+		new BackupFolder(pluginMock, "partition", ".db").rotate();
+
+		// Assert
+		assertEquals(List.of("deathlocations-20250101-000000.db", "deathlocations-20250102-000000.snapshot", "partition"),
+				backupFiles(backups));
+		assertEquals(List.of("deathlocations-20250102-000000.db"), backupFiles(subfolder));
+	}
+
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+/**
+ * Behavior that every datastore implementation must share, run against each storage type
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeathLocationRepositoryContractTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private ConnectionProvider provider;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("DeathLocationRepositoryContractTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		// the jdbc datastore runs against an embedded H2 database in MySQL compatibility mode
+		pluginMock.getConfig().set("storage.jdbc.url", "jdbc:h2:file:" + dataFolder.resolve("deathlocations") + ";MODE=MySQL");
+		pluginMock.getConfig().set("storage.jdbc.dialect", "mysql");
+		pluginMock.getConfig().set("storage.jdbc.driver", "org.h2.Driver");
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		if (provider != null)
+		{
+			provider.close();
+		}
+		mockedConfigRepository.close();
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void getDeathLocation_returns_saved_location(final StorageType storageType)
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+
+		// Act
+		final int count = repository.saveDeathLocation(deathLocation);
+		final DeathLocation result = repository.getDeathLocation(PLAYER_1, WORLD_1);
+
+		// Assert
+		assertEquals(1, count);
+		assertEquals(deathLocation, result);
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void getDeathLocation_with_no_record_returns_record_not_found(final StorageType storageType)
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+
+		// Act
+		final DeathLocation result = repository.getDeathLocation(PLAYER_1, WORLD_1);
+
+		// Assert
+		assertInstanceOf(InvalidDeathLocation.class, result);
+		assertEquals(DeathLocationReason.RECORD_NOT_FOUND, ((InvalidDeathLocation) result).reason());
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void getDeathLocation_with_null_parameters_returns_invalid(final StorageType storageType)
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+
+		// Act
+		final DeathLocation nullPlayerResult = repository.getDeathLocation(null, WORLD_1);
+		final DeathLocation nullWorldResult = repository.getDeathLocation(PLAYER_1, null);
+
+		// Assert
+		assertEquals(DeathLocationReason.PLAYER_UUID_NULL, ((InvalidDeathLocation) nullPlayerResult).reason());
+		assertEquals(DeathLocationReason.WORLD_UUID_NULL, ((InvalidDeathLocation) nullWorldResult).reason());
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void saveDeathLocation_replaces_existing_location(final StorageType storageType)
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		final ValidDeathLocation replacement = deathLocation(PLAYER_1, WORLD_1, 4, 5, 6);
+
+		// Act
+		repository.saveDeathLocation(replacement);
+
+		// Assert
+		assertEquals(replacement, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		assertEquals(1, visitAll(repository).size());
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void saveDeathLocations_saves_collection(final StorageType storageType)
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		final List<ValidDeathLocation> deathLocations = List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9));
+
+		// Act
+		final int count = repository.saveDeathLocations(deathLocations);
+
+		// Assert
+		assertEquals(3, count);
+		deathLocations.forEach(deathLocation ->
+				assertEquals(deathLocation, repository.getDeathLocation(deathLocation.playerUid(), deathLocation.worldUid())));
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void saveDeathLocations_stream_saves_all_and_reports_progress(final StorageType storageType) throws Exception
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		final List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+		final Stream<ValidDeathLocation> deathLocations = Stream.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_2, WORLD_2, 4, 5, 6));
+
+		// Act
+		final int count = repository.saveDeathLocations(deathLocations, progress::add).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(2, count);
+		assertEquals(2, progress.getLast());
+		assertInstanceOf(ValidDeathLocation.class, repository.getDeathLocation(PLAYER_2, WORLD_2));
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void saveDeathRecords_keeps_death_times(final StorageType storageType) throws Exception
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		final long deathTime = Instant.now().minusSeconds(7200).toEpochMilli();
+		final Stream<DeathRecord> deathRecords = Stream.of(
+				new DeathRecord(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3), deathTime),
+				new DeathRecord(deathLocation(PLAYER_2, WORLD_2, 4, 5, 6), deathTime));
+
+		// Act
+		repository.saveDeathRecords(deathRecords, null).get(10, TimeUnit.SECONDS);
+		final List<DeathRecord> visited = Collections.synchronizedList(new ArrayList<>());
+		repository.forEachDeathRecord(100, visited::add).get(10, TimeUnit.SECONDS);
+		final int purged = repository.deleteDeathLocationsOlderThan(Instant.now().minusSeconds(3600), null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(2, visited.size());
+		assertTrue(visited.stream().allMatch(deathRecord -> deathRecord.deathTime() == deathTime));
+		assertEquals(2, purged);
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void deleteDeathLocation_returns_deleted_location(final StorageType storageType)
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		repository.saveDeathLocation(deathLocation);
+
+		// Act
+		final DeathLocation result = repository.deleteDeathLocation(PLAYER_1, WORLD_1);
+
+		// Assert
+		assertEquals(deathLocation, result);
+		assertInstanceOf(InvalidDeathLocation.class, repository.getDeathLocation(PLAYER_1, WORLD_1));
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void deleteDeathLocationsByPlayer_deletes_only_that_player(final StorageType storageType) throws Exception
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		repository.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+
+		// Act
+		final int count = repository.deleteDeathLocationsByPlayer(PLAYER_1, null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(2, count);
+		assertInstanceOf(InvalidDeathLocation.class, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		assertInstanceOf(InvalidDeathLocation.class, repository.getDeathLocation(PLAYER_1, WORLD_2));
+		assertInstanceOf(ValidDeathLocation.class, repository.getDeathLocation(PLAYER_2, WORLD_1));
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void deleteDeathLocationsByWorld_deletes_only_that_world(final StorageType storageType) throws Exception
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		repository.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+
+		// Act
+		final int count = repository.deleteDeathLocationsByWorld(WORLD_1, null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(2, count);
+		assertInstanceOf(InvalidDeathLocation.class, repository.getDeathLocation(PLAYER_2, WORLD_1));
+		assertInstanceOf(ValidDeathLocation.class, repository.getDeathLocation(PLAYER_1, WORLD_2));
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void deleteDeathLocationsOlderThan_deletes_earlier_records(final StorageType storageType) throws Exception
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		repository.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_2, WORLD_2, 4, 5, 6)));
+
+		// Act
+		final int pastCount = repository.deleteDeathLocationsOlderThan(Instant.now().minusSeconds(3600), null).get(10, TimeUnit.SECONDS);
+		final int futureCount = repository.deleteDeathLocationsOlderThan(Instant.now().plusSeconds(3600), null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(0, pastCount);
+		assertEquals(2, futureCount);
+		assertTrue(visitAll(repository).isEmpty());
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void forEachDeathLocation_visits_in_player_order(final StorageType storageType)
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		final List<ValidDeathLocation> deathLocations = new ArrayList<>(List.of(
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3)));
+		repository.saveDeathLocations(deathLocations);
+		deathLocations.sort(Comparator.comparing(ValidDeathLocation::playerUid).thenComparing(ValidDeathLocation::worldUid));
+
+		// Act
+		final List<ValidDeathLocation> result = visitAll(repository);
+
+		// Assert
+		assertEquals(deathLocations, result);
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void forEachDeathLocation_stops_when_visitor_returns_false(final StorageType storageType) throws Exception
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect(storageType);
+		repository.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+
+		// Act
+		final int count = repository.forEachDeathLocation(1, deathLocation -> false).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(1, count);
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void saved_locations_survive_restart_for_persistent_datastores(final StorageType storageType)
+	{
+		assumeTrue(storageType != StorageType.MEMORY);
+
+		// Arrange
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		connect(storageType).saveDeathLocation(deathLocation);
+		provider.close();
+
+		// Act
+		final DeathLocation result = connect(storageType).getDeathLocation(PLAYER_1, WORLD_1);
+
+		// Assert
+		assertEquals(deathLocation, result);
+	}
+
+
+	private DeathLocationRepository connect(final StorageType storageType)
+	{
+		provider = storageType.createProvider(pluginMock).connect();
+		return provider.deathLocations();
+	}
+
+
+	private static List<ValidDeathLocation> visitAll(final DeathLocationRepository repository)
+	{
+		final List<ValidDeathLocation> visited = Collections.synchronizedList(new ArrayList<>());
+		repository.forEachDeathLocation(100, visited::add).join();
+		return visited;
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+/**
+ * Compares save, lookup and startup times of the datastore implementations.
+ * Excluded from the default build; run with {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StorageBenchmarkTest
+{
+	private final static int RECORD_COUNT = 20_000;
+	private final static UUID WORLD_UID = new UUID(12345, 54321);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("StorageBenchmarkTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(worldMock.getName()).thenReturn("world");
+		when(worldMock.getUID()).thenReturn(WORLD_UID);
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		// the jdbc datastore runs against an embedded H2 database in MySQL compatibility mode
+		pluginMock.getConfig().set("storage.jdbc.url", "jdbc:h2:file:" + dataFolder.resolve("deathlocations") + ";MODE=MySQL");
+		pluginMock.getConfig().set("storage.jdbc.dialect", "mysql");
+		pluginMock.getConfig().set("storage.jdbc.driver", "org.h2.Driver");
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(StorageType.class)
+	void benchmark_saves_lookups_and_startup(final StorageType storageType)
+	{
+		try (MockedStatic<BukkitConfigRepository> mockedConfigRepository = mockStatic(BukkitConfigRepository.class))
+		{
+			mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+
+			// Arrange
+			final Random random = new Random(42);
+			final List<ValidDeathLocation> deathLocations = new ArrayList<>(RECORD_COUNT);
+			for (int i = 0; i < RECORD_COUNT; i++)
+			{
+				deathLocations.add((ValidDeathLocation) DeathLocation.of(new UUID(random.nextLong(), random.nextLong()),
+						WORLD_UID, random.nextInt(10_000), random.nextInt(320), random.nextInt(10_000)));
+			}
+
+			// Act
+			final ConnectionProvider provider = storageType.createProvider(pluginMock).connect();
+			final long saveNanos = time(() -> deathLocations.forEach(provider.deathLocations()::saveDeathLocation));
+
+			// restart with an empty cache, so lookups read the datastore; the in-memory datastore is not restarted
+			final ConnectionProvider restarted;
+			final long startupNanos;
+			if (storageType == StorageType.MEMORY)
+			{
+				restarted = provider;
+				startupNanos = 0;
+			}
+			else
+			{
+				provider.close();
+				restarted = storageType.createProvider(pluginMock);
+				startupNanos = time(restarted::connect);
+			}
+			final long lookupNanos = time(() -> deathLocations.forEach(deathLocation ->
+					assertEquals(deathLocation, restarted.deathLocations()
+							.getDeathLocation(deathLocation.playerUid(), deathLocation.worldUid()))));
+			restarted.close();
+
+			// Assert
+			System.out.printf("%-10s %,d records: save %,.1f us/op, lookup %,.1f us/op, startup %,d ms%n",
+					storageType, RECORD_COUNT,
+					saveNanos / 1000.0 / RECORD_COUNT,
+					lookupNanos / 1000.0 / RECORD_COUNT,
+					startupNanos / 1_000_000);
+		}
+	}
+
+
+	private static long time(final Runnable runnable)
+	{
+		final long startTime = System.nanoTime();
+		runnable.run();
+		return System.nanoTime() - startTime;
+	}
+
+}
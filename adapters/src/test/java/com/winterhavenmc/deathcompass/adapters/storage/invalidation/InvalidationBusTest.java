@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.invalidation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InvalidationBusTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+
+	@Mock Plugin pluginMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private final List<InvalidationBus> buses = new ArrayList<>();
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("InvalidationBusTest"));
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		buses.forEach(InvalidationBus::close);
+	}
+
+
+	@Test
+	void batch_encoding_round_trips_wildcards()
+	{
+		// Arrange
+		final InvalidationBatch batch = new InvalidationBatch(UUID.randomUUID(), List.of(
+				Invalidation.of(PLAYER_1, WORLD_1),
+				Invalidation.ofPlayer(PLAYER_2),
+				Invalidation.ofWorld(WORLD_1),
+				Invalidation.all()));
+
+		// Act
+		final InvalidationBatch result = InvalidationBatch.decode(batch.encode());
+
+		// Assert
+		assertEquals(batch, result);
+	}
+
+
+	@Test
+	void decode_rejects_foreign_and_truncated_data()
+	{
+		// Arrange
+		final ByteBuffer encoded = new InvalidationBatch(UUID.randomUUID(), List.of(Invalidation.of(PLAYER_1, WORLD_1))).encode();
+		final ByteBuffer truncated = encoded.slice(0, encoded.limit() - 1);
+
+		// Act & Assert
+		assertThrows(IllegalArgumentException.class, () -> InvalidationBatch.decode(ByteBuffer.wrap(new byte[32])));
+		assertThrows(IllegalArgumentException.class, () -> InvalidationBatch.decode(truncated));
+	}
+
+
+	@Test
+	void published_invalidations_are_batched_deduplicated_and_not_delivered_to_publisher()
+	{
+		// Arrange
+		final LoopbackInvalidationTransport.Channel channel = new LoopbackInvalidationTransport.Channel();
+		final RecordingTransport transport = new RecordingTransport(new LoopbackInvalidationTransport(channel));
+		final InvalidationBus publisher = open(transport);
+		final InvalidationBus subscriber = open(new LoopbackInvalidationTransport(channel));
+		final List<Invalidation> published = new CopyOnWriteArrayList<>();
+		final List<Invalidation> received = new CopyOnWriteArrayList<>();
+		publisher.subscribe(published::add);
+		subscriber.subscribe(received::add);
+
+		// Act
+		publisher.publish(Invalidation.of(PLAYER_1, WORLD_1));
+		publisher.publish(Invalidation.of(PLAYER_1, WORLD_1));
+		publisher.publish(Invalidation.ofPlayer(PLAYER_2));
+		publisher.flush();
+
+		// Assert
+		assertEquals(1, transport.sent.size());
+		assertEquals(List.of(Invalidation.of(PLAYER_1, WORLD_1), Invalidation.ofPlayer(PLAYER_2)), received);
+		assertTrue(published.isEmpty());
+	}
+
+
+	@Test
+	void invalidation_of_all_replaces_pending_batch()
+	{
+		// Arrange
+		final LoopbackInvalidationTransport.Channel channel = new LoopbackInvalidationTransport.Channel();
+		final InvalidationBus publisher = open(new LoopbackInvalidationTransport(channel));
+		final InvalidationBus subscriber = open(new LoopbackInvalidationTransport(channel));
+		final List<Invalidation> received = new CopyOnWriteArrayList<>();
+		subscriber.subscribe(received::add);
+
+		// Act
+		publisher.publish(Invalidation.of(PLAYER_1, WORLD_1));
+		publisher.publish(Invalidation.all());
+		publisher.publish(Invalidation.ofPlayer(PLAYER_2));
+		publisher.flush();
+
+		// Assert
+		assertEquals(List.of(Invalidation.all()), received);
+	}
+
+
+	@Test
+	void udp_transport_delivers_batches_between_nodes() throws Exception
+	{
+		// Arrange
+		final InetAddress loopback = InetAddress.getLoopbackAddress();
+		final UdpInvalidationTransport receiverTransport = new UdpInvalidationTransport(new InetSocketAddress(loopback, 0),
+				List.of(new InetSocketAddress(loopback, 25700)), "receiver");
+		final InvalidationBus subscriber = open(receiverTransport);
+		final InvalidationBus publisher = open(new UdpInvalidationTransport(new InetSocketAddress(loopback, 0),
+				List.of(new InetSocketAddress(loopback, receiverTransport.localPort())), "publisher"));
+		final List<Invalidation> received = new CopyOnWriteArrayList<>();
+		subscriber.subscribe(received::add);
+
+		// Act
+		publisher.publish(Invalidation.of(PLAYER_1, WORLD_1));
+		publisher.flush();
+
+		// Assert
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (received.isEmpty() && System.nanoTime() < deadline)
+		{
+			Thread.sleep(10);
+		}
+		assertEquals(List.of(Invalidation.of(PLAYER_1, WORLD_1)), received);
+	}
+
+
+	@Test
+	void udp_transport_accepts_datagrams_only_from_peer_addresses() throws Exception
+	{
+		// Arrange
+		final InetAddress peerAddress = InetAddress.getByName("127.0.0.2");
+		final UdpInvalidationTransport transport = new UdpInvalidationTransport(new InetSocketAddress(0),
+				List.of(new InetSocketAddress(peerAddress, 25700)), "receiver");
+
+		// Act
+		final boolean peerAccepted = transport.isPeer(peerAddress);
+		final boolean otherAccepted = transport.isPeer(InetAddress.getByName("127.0.0.1"));
+
+		// Assert
+		assertTrue(peerAccepted);
+		assertFalse(otherAccepted);
+	}
+
+
+	private InvalidationBus open(final InvalidationTransport transport)
+	{
+		// a long flush interval, so the tests decide when batches are sent
+		final InvalidationBus bus = new InvalidationBus(pluginMock, configRepositoryMock, transport, TimeUnit.HOURS.toMillis(1));
+		try
+		{
+			bus.open();
+		}
+		catch (Exception exception)
+		{
+			fail(exception);
+		}
+		buses.add(bus);
+		return bus;
+	}
+
+
+	/**
+	 * A transport that records the batches it sends
+	 */
+	private static final class RecordingTransport implements InvalidationTransport
+	{
+		private final InvalidationTransport delegate;
+		private final List<InvalidationBatch> sent = new CopyOnWriteArrayList<>();
+
+		private RecordingTransport(final InvalidationTransport delegate)
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void open(final Consumer<InvalidationBatch> receiver) throws IOException
+		{
+			delegate.open(receiver);
+		}
+
+		@Override
+		public void send(final InvalidationBatch batch) throws IOException
+		{
+			sent.add(batch);
+			delegate.send(batch);
+		}
+
+		@Override
+		public int maxBatchSize()
+		{
+			return delegate.maxBatchSize();
+		}
+
+		@Override
+		public void close()
+		{
+			delegate.close();
+		}
+	}
+
+}
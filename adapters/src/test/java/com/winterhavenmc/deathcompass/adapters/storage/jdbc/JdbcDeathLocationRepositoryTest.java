@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.jdbc;
+
+import com.winterhavenmc.deathcompass.adapters.storage.invalidation.InvalidationBus;
+import com.winterhavenmc.deathcompass.adapters.storage.invalidation.LoopbackInvalidationTransport;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.plugin.Plugin;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+/**
+ * Runs the queries of each dialect against an embedded H2 database in the matching compatibility mode
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JdbcDeathLocationRepositoryTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private ExecutorService executor;
+	private JdbcDataSource dataSource;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("JdbcDeathLocationRepositoryTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+
+	@AfterEach
+	void tearDown() throws Exception
+	{
+		executor.shutdownNow();
+		if (dataSource != null)
+		{
+			try (final Connection connection = dataSource.getConnection();
+			     final Statement statement = connection.createStatement())
+			{
+				statement.execute("SHUTDOWN");
+			}
+		}
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(JdbcDialect.class)
+	void saveDeathLocation_upsert_replaces_existing_row(final JdbcDialect dialect) throws Exception
+	{
+		// Arrange
+		final JdbcDeathLocationRepository repository = repository(dialect);
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+
+		// Act
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 4, 5, 6));
+		drain();
+
+		// Assert
+		assertEquals(1, repository.count());
+		assertEquals(List.of(4.0, 5.0, 6.0), selectCoordinates(PLAYER_1, WORLD_1));
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(JdbcDialect.class)
+	void deleteDeathLocationsByPlayer_deletes_in_batches_and_reports_progress(final JdbcDialect dialect) throws Exception
+	{
+		// Arrange
+		pluginMock.getConfig().set("storage.batch-size", 1);
+		final JdbcDeathLocationRepository repository = repository(dialect);
+		repository.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+		final List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+
+		// Act
+		final int count = repository.deleteDeathLocationsByPlayer(PLAYER_1, progress::add).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(2, count);
+		assertEquals(List.of(1, 2), progress);
+		assertEquals(1, repository.count());
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(JdbcDialect.class)
+	void loaded_player_is_answered_without_database(final JdbcDialect dialect) throws Exception
+	{
+		// Arrange
+		final JdbcDeathLocationRepository repository = repository(dialect);
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		repository.saveDeathLocation(deathLocation);
+		drain();
+
+		// Act
+		repository.onAsyncPlayerPreLogin(new AsyncPlayerPreLoginEvent("player", InetAddress.getLoopbackAddress(), PLAYER_1));
+		try (final Connection connection = dataSource.getConnection();
+		     final Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("DELETE FROM deathcompass_locations");
+		}
+
+		// Assert
+		assertTrue(repository.isLoaded(PLAYER_1));
+		assertEquals(deathLocation, repository.getDeathLocation(PLAYER_1, WORLD_1));
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(JdbcDialect.class)
+	void login_does_not_wait_for_storage_executor_and_sees_pending_writes(final JdbcDialect dialect) throws Exception
+	{
+		// Arrange
+		final JdbcDeathLocationRepository repository = repository(dialect);
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		drain();
+		final CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() ->
+		{
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException exception)
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+		final ValidDeathLocation pending = deathLocation(PLAYER_1, WORLD_2, 4, 5, 6);
+		repository.saveDeathLocation(pending);
+
+		try
+		{
+			// Act
+			repository.onAsyncPlayerPreLogin(new AsyncPlayerPreLoginEvent("player", InetAddress.getLoopbackAddress(), PLAYER_1));
+
+			// Assert
+			assertTrue(repository.isLoaded(PLAYER_1));
+			assertEquals(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3), repository.getDeathLocation(PLAYER_1, WORLD_1));
+			assertEquals(pending, repository.getDeathLocation(PLAYER_1, WORLD_2));
+		}
+		finally
+		{
+			release.countDown();
+		}
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(JdbcDialect.class)
+	void save_on_another_node_reloads_loaded_player(final JdbcDialect dialect) throws Exception
+	{
+		// Arrange
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		final ExecutorService otherExecutor = Executors.newSingleThreadExecutor();
+		final LoopbackInvalidationTransport.Channel channel = new LoopbackInvalidationTransport.Channel();
+		final InvalidationBus bus = new InvalidationBus(pluginMock, configRepositoryMock, new LoopbackInvalidationTransport(channel), TimeUnit.HOURS.toMillis(1));
+		final InvalidationBus otherBus = new InvalidationBus(pluginMock, configRepositoryMock, new LoopbackInvalidationTransport(channel), TimeUnit.HOURS.toMillis(1));
+		final JdbcDeathLocationRepository repository = repository(dialect);
+		final JdbcDeathLocationRepository otherRepository = new JdbcDeathLocationRepository(pluginMock, configRepositoryMock, dataSource, dialect,
+				queries(dialect), otherExecutor);
+		bus.open();
+		otherBus.open();
+		repository.attachInvalidationBus(bus);
+		otherRepository.attachInvalidationBus(otherBus);
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		drain();
+		repository.onAsyncPlayerPreLogin(new AsyncPlayerPreLoginEvent("player", InetAddress.getLoopbackAddress(), PLAYER_1));
+		final ValidDeathLocation replacement = deathLocation(PLAYER_1, WORLD_1, 4, 5, 6);
+
+		try
+		{
+			// Act
+			otherRepository.saveDeathLocation(replacement);
+			otherExecutor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+			otherBus.flush();
+			drain();
+
+			// Assert
+			assertEquals(replacement, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		}
+		finally
+		{
+			bus.close();
+			otherBus.close();
+			otherExecutor.shutdownNow();
+		}
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(JdbcDialect.class)
+	void forEachDeathLocation_visits_in_signed_key_order(final JdbcDialect dialect) throws Exception
+	{
+		// Arrange
+		final JdbcDeathLocationRepository repository = repository(dialect);
+		final List<ValidDeathLocation> deathLocations = new ArrayList<>(List.of(
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3)));
+		repository.saveDeathLocations(deathLocations);
+		deathLocations.sort(Comparator.comparing(ValidDeathLocation::playerUid).thenComparing(ValidDeathLocation::worldUid));
+		final List<ValidDeathLocation> visited = Collections.synchronizedList(new ArrayList<>());
+
+		// Act
+		final int count = repository.forEachDeathLocation(1, visited::add).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(3, count);
+		assertEquals(deathLocations, visited);
+	}
+
+
+	private JdbcDeathLocationRepository repository(final JdbcDialect dialect) throws SQLException
+	{
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + dialect.name().toLowerCase() + ";DB_CLOSE_DELAY=-1;" + compatibilityMode(dialect));
+
+		final JdbcQueries queries = queries(dialect);
+		try (final Connection connection = dataSource.getConnection();
+		     final Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate(queries.getQuery("CreateDeathLocationTable"));
+			for (String indexQuery : List.of("CreateWorldIndex", "CreateDeathTimeIndex"))
+			{
+				if (!queries.getQuery(indexQuery).isBlank())
+				{
+					statement.executeUpdate(queries.getQuery(indexQuery));
+				}
+			}
+		}
+
+		return new JdbcDeathLocationRepository(pluginMock, configRepositoryMock, dataSource, dialect, queries, executor);
+	}
+
+
+	private static JdbcQueries queries(final JdbcDialect dialect)
+	{
+		return (dialect == JdbcDialect.POSTGRESQL)
+				? JdbcQueries.of(dialect, "jdbc-postgresql-h2.properties")
+				: JdbcQueries.of(dialect);
+	}
+
+
+	private static String compatibilityMode(final JdbcDialect dialect)
+	{
+		return switch (dialect)
+		{
+			case MYSQL -> "MODE=MySQL";
+			case MARIADB -> "MODE=MariaDB";
+			case POSTGRESQL -> "MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+		};
+	}
+
+
+	private List<Double> selectCoordinates(final UUID playerUid, final UUID worldUid) throws SQLException
+	{
+		try (final Connection connection = dataSource.getConnection();
+		     final PreparedStatement preparedStatement = connection.prepareStatement(
+				     "SELECT x, y, z FROM deathcompass_locations WHERE player_uid_msb = ? AND player_uid_lsb = ? "
+						     + "AND world_uid_msb = ? AND world_uid_lsb = ?"))
+		{
+			preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+			preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+			preparedStatement.setLong(3, worldUid.getMostSignificantBits());
+			preparedStatement.setLong(4, worldUid.getLeastSignificantBits());
+			try (final ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				assertTrue(resultSet.next());
+				return List.of(resultSet.getDouble(1), resultSet.getDouble(2), resultSet.getDouble(3));
+			}
+		}
+	}
+
+
+	/**
+	 * Wait for writes queued on the storage executor to finish
+	 */
+	private void drain() throws Exception
+	{
+		executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.memory;
+
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MemoryDeathLocationRepositoryTest
+{
+	private final static UUID WORLD_UID = new UUID(12345, 54321);
+
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private ExecutorService executor;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("MemoryDeathLocationRepositoryTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		executor.shutdownNow();
+	}
+
+
+	@Test
+	void saveDeathLocation_over_maximum_discards_least_recently_saved()
+	{
+		// Arrange
+		final MemoryDeathLocationRepository repository = new MemoryDeathLocationRepository(pluginMock, configRepositoryMock, executor, 2);
+		final ValidDeathLocation first = deathLocation(1);
+		final ValidDeathLocation second = deathLocation(2);
+		final ValidDeathLocation third = deathLocation(3);
+
+		// Act
+		repository.saveDeathLocation(first);
+		repository.saveDeathLocation(second);
+		repository.saveDeathLocation(third);
+
+		// Assert
+		assertEquals(2, repository.size());
+		assertNotEquals(first, repository.getDeathLocation(first.playerUid(), WORLD_UID));
+		assertEquals(second, repository.getDeathLocation(second.playerUid(), WORLD_UID));
+		assertEquals(third, repository.getDeathLocation(third.playerUid(), WORLD_UID));
+	}
+
+
+	@Test
+	void saveDeathLocation_again_moves_location_to_end_of_save_order()
+	{
+		// Arrange
+		final MemoryDeathLocationRepository repository = new MemoryDeathLocationRepository(pluginMock, configRepositoryMock, executor, 2);
+		final ValidDeathLocation first = deathLocation(1);
+		final ValidDeathLocation second = deathLocation(2);
+		final ValidDeathLocation third = deathLocation(3);
+
+		// Act
+		repository.saveDeathLocation(first);
+		repository.saveDeathLocation(second);
+		repository.saveDeathLocation(first);
+		repository.saveDeathLocation(third);
+
+		// Assert
+		assertEquals(2, repository.size());
+		assertEquals(first, repository.getDeathLocation(first.playerUid(), WORLD_UID));
+		assertNotEquals(second, repository.getDeathLocation(second.playerUid(), WORLD_UID));
+	}
+
+
+	@Test
+	void saveDeathLocation_with_no_maximum_keeps_all()
+	{
+		// Arrange
+		final MemoryDeathLocationRepository repository = new MemoryDeathLocationRepository(pluginMock, configRepositoryMock, executor, 0);
+
+		// Act
+		for (int i = 0; i < 100; i++)
+		{
+			repository.saveDeathLocation(deathLocation(i));
+		}
+
+		// Assert
+		assertEquals(100, repository.size());
+	}
+
+
+	private static ValidDeathLocation deathLocation(final int player)
+	{
+		return (ValidDeathLocation) DeathLocation.of(new UUID(0, player), WORLD_UID, player, 64, player);
+	}
+
+}
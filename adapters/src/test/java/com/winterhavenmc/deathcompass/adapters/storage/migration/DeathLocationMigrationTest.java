@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.migration;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.adapters.storage.memory.MemoryDeathLocationRepository;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeathLocationMigrationTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private final List<ExecutorService> executors = new ArrayList<>();
+	private MemoryDeathLocationRepository source;
+	private MemoryDeathLocationRepository target;
+	private DualWriteDeathLocationRepository repository;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("DeathLocationMigrationTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		source = new MemoryDeathLocationRepository(pluginMock, configRepositoryMock, executor(), 0, null);
+		target = new MemoryDeathLocationRepository(pluginMock, configRepositoryMock, executor(), 0, null);
+		repository = new DualWriteDeathLocationRepository(source, target, executor(), 2);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		executors.forEach(ExecutorService::shutdownNow);
+	}
+
+
+	@Test
+	void run_copies_records_and_cuts_over_reads()
+	{
+		// Arrange
+		source.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+
+		// Act
+		final boolean cutOver = migration("sqlite", "jdbc").run();
+		source.deleteDeathLocation(PLAYER_2, WORLD_1);
+
+		// Assert
+		assertTrue(cutOver);
+		assertTrue(repository.isCutOver());
+		assertEquals(3, target.size());
+		assertInstanceOf(ValidDeathLocation.class, repository.getDeathLocation(PLAYER_2, WORLD_1));
+	}
+
+
+	@Test
+	void run_repairs_stale_and_surplus_target_records()
+	{
+		// Arrange
+		source.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+		target.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 10, 20, 30),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6)));
+
+		// Act
+		final boolean cutOver = migration("sqlite", "jdbc").run();
+
+		// Assert
+		assertTrue(cutOver);
+		assertEquals(visitAll(source), visitAll(target));
+	}
+
+
+	@Test
+	void run_does_not_copy_over_a_dual_write_made_during_the_copy()
+	{
+		// Arrange
+		final ValidDeathLocation deleted = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		final ValidDeathLocation kept = deathLocation(PLAYER_2, WORLD_1, 7, 8, 9);
+		source.saveDeathLocations(List.of(deleted, kept));
+		final CountDownLatch dualWritten = new CountDownLatch(1);
+		final AtomicBoolean interleaved = new AtomicBoolean();
+
+		// the copy reads the record, then a dual write deletes it before the target saves it
+		final DeathLocationRepository interleavingSource = mock(DeathLocationRepository.class, delegatesTo(source));
+		doAnswer(invocation ->
+		{
+			final Predicate<DeathRecord> visitor = invocation.getArgument(1);
+			return source.forEachDeathRecord(invocation.getArgument(0), deathRecord ->
+			{
+				final boolean more = visitor.test(deathRecord);
+				if (deathRecord.deathLocation().equals(deleted) && interleaved.compareAndSet(false, true))
+				{
+					repository.deleteDeathLocation(PLAYER_1, WORLD_1);
+					dualWritten.countDown();
+				}
+				return more;
+			});
+		}).when(interleavingSource).forEachDeathRecord(anyInt(), any());
+
+		final DeathLocationRepository waitingTarget = mock(DeathLocationRepository.class, delegatesTo(target));
+		doAnswer(invocation ->
+		{
+			final Stream<DeathRecord> deathRecords = invocation.getArgument(0);
+			return target.saveDeathRecords(StreamSupport.stream(() ->
+			{
+				awaitQuietly(dualWritten);
+				return deathRecords.spliterator();
+			}, Spliterator.NONNULL, false), invocation.getArgument(1));
+		}).when(waitingTarget).saveDeathRecords(any(), any());
+
+		final DeathLocationMigration migration = new DeathLocationMigration(pluginMock, configRepositoryMock, repository,
+				interleavingSource, waitingTarget, "sqlite", "jdbc", dataFolder.resolve(DeathLocationMigration.STATE_FILE), 2);
+
+		// Act
+		final boolean cutOver = migration.run();
+
+		// Assert
+		assertTrue(interleaved.get());
+		assertTrue(cutOver);
+		assertEquals(List.of(kept), visitAll(target));
+	}
+
+
+	@Test
+	void resume_cuts_over_only_for_the_same_storage_types()
+	{
+		// Arrange
+		source.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		migration("sqlite", "jdbc").run();
+		final DualWriteDeathLocationRepository restartedRepository = new DualWriteDeathLocationRepository(source, target, executor(), 2);
+		final DualWriteDeathLocationRepository otherRepository = new DualWriteDeathLocationRepository(source, target, executor(), 2);
+
+		// Act
+		final boolean resumed = migration(restartedRepository, "sqlite", "jdbc").resume();
+		final boolean otherResumed = migration(otherRepository, "sqlite", "log").resume();
+
+		// Assert
+		assertTrue(resumed);
+		assertTrue(restartedRepository.isCutOver());
+		assertFalse(otherResumed);
+		assertFalse(otherRepository.isCutOver());
+	}
+
+
+	@Test
+	void dual_write_stream_save_writes_both_repositories() throws Exception
+	{
+		// Arrange
+		final Stream<ValidDeathLocation> deathLocations = Stream.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9));
+
+		// Act
+		final int count = repository.saveDeathLocations(deathLocations, null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(3, count);
+		assertEquals(3, source.size());
+		assertEquals(3, target.size());
+		assertTrue(repository.written(PLAYER_2, WORLD_1));
+	}
+
+
+	private DeathLocationMigration migration(final String sourceName, final String targetName)
+	{
+		return migration(repository, sourceName, targetName);
+	}
+
+
+	private DeathLocationMigration migration(final DualWriteDeathLocationRepository repository,
+	                                         final String sourceName, final String targetName)
+	{
+		return new DeathLocationMigration(pluginMock, configRepositoryMock, repository, source, target,
+				sourceName, targetName, dataFolder.resolve(DeathLocationMigration.STATE_FILE), 2);
+	}
+
+
+	private ExecutorService executor()
+	{
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		executors.add(executor);
+		return executor;
+	}
+
+
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private static List<ValidDeathLocation> visitAll(final MemoryDeathLocationRepository repository)
+	{
+		final List<ValidDeathLocation> visited = Collections.synchronizedList(new ArrayList<>());
+		repository.forEachDeathLocation(100, visited::add).join();
+		return visited;
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.pdc;
+
+import com.winterhavenmc.deathcompass.adapters.storage.pdc.PdcDeathLocationCodec.Entry;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PdcDeathLocationRepositoryTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock Player playerMock;
+	@Mock PersistentDataContainer containerMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private final Map<NamespacedKey, Object> containerValues = new HashMap<>();
+	private ExecutorService storageExecutor;
+	private PdcOfflineStore offlineStore;
+	private PdcDeathLocationRepository repository;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("PdcDeathLocationRepositoryTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		// the player's container is backed by a map
+		when(playerMock.getUniqueId()).thenReturn(PLAYER_1);
+		when(playerMock.getName()).thenReturn("player1");
+		when(playerMock.getPersistentDataContainer()).thenReturn(containerMock);
+		when(containerMock.get(any(NamespacedKey.class), any(PersistentDataType.class)))
+				.thenAnswer(invocation -> containerValues.get(invocation.getArgument(0, NamespacedKey.class)));
+		when(containerMock.getOrDefault(any(NamespacedKey.class), any(PersistentDataType.class), any()))
+				.thenAnswer(invocation -> containerValues.getOrDefault(invocation.getArgument(0, NamespacedKey.class), invocation.getArgument(2)));
+		doAnswer(invocation -> containerValues.put(invocation.getArgument(0), invocation.getArgument(2)))
+				.when(containerMock).set(any(NamespacedKey.class), any(PersistentDataType.class), any());
+		doAnswer(invocation -> containerValues.remove(invocation.getArgument(0, NamespacedKey.class)))
+				.when(containerMock).remove(any(NamespacedKey.class));
+
+		storageExecutor = Executors.newSingleThreadExecutor();
+		offlineStore = new PdcOfflineStore();
+		repository = new PdcDeathLocationRepository(pluginMock, configRepositoryMock, offlineStore, storageExecutor);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		storageExecutor.shutdownNow();
+	}
+
+
+	@Test
+	void save_for_offline_player_is_written_to_container_on_join()
+	{
+		// Arrange
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		repository.saveDeathLocation(deathLocation);
+
+		// Act
+		join();
+
+		// Assert
+		assertEquals(0, offlineStore.size());
+		assertEquals(deathLocation, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		assertEquals(deathLocation, containerLocations().get(WORLD_1).deathLocation());
+	}
+
+
+	@Test
+	void save_for_online_player_writes_container()
+	{
+		// Arrange
+		join();
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_2, 4, 5, 6);
+
+		// Act
+		final int count = repository.saveDeathLocation(deathLocation);
+
+		// Assert
+		assertEquals(1, count);
+		assertEquals(0, offlineStore.size());
+		assertEquals(deathLocation, containerLocations().get(WORLD_2).deathLocation());
+	}
+
+
+	@Test
+	void delete_for_offline_player_is_applied_to_container_on_join()
+	{
+		// Arrange
+		join();
+		repository.saveDeathLocations(List.of(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3), deathLocation(PLAYER_1, WORLD_2, 4, 5, 6)));
+		quit();
+
+		// Act
+		repository.deleteDeathLocation(PLAYER_1, WORLD_1);
+		join();
+
+		// Assert
+		assertInstanceOf(InvalidDeathLocation.class, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		assertInstanceOf(ValidDeathLocation.class, repository.getDeathLocation(PLAYER_1, WORLD_2));
+		assertEquals(Set.of(WORLD_2), containerLocations().keySet());
+	}
+
+
+	@Test
+	void delete_whose_container_write_finds_player_gone_is_applied_on_join()
+	{
+		// Arrange
+		join();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		final List<Runnable> scheduled = new ArrayList<>();
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			scheduled.add(invocation.getArgument(1, Runnable.class));
+			return null;
+		});
+
+		// Act
+		repository.deleteDeathLocation(PLAYER_1, WORLD_1);
+		quit();
+		scheduled.forEach(Runnable::run);
+		join();
+
+		// Assert
+		assertInstanceOf(InvalidDeathLocation.class, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		assertTrue(containerLocations().isEmpty());
+	}
+
+
+	@Test
+	void save_while_disabled_off_server_thread_does_not_touch_container()
+	{
+		// Arrange
+		join();
+		clearInvocations(schedulerMock);
+		when(pluginMock.isEnabled()).thenReturn(false);
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_2, 4, 5, 6);
+
+		// Act
+		repository.saveDeathLocation(deathLocation);
+		quit();
+		join();
+
+		// Assert
+		verify(schedulerMock, never()).runTask(any(Plugin.class), any(Runnable.class));
+		assertEquals(deathLocation, containerLocations().get(WORLD_2).deathLocation());
+	}
+
+
+	@Test
+	void deleteDeathLocationsByWorld_removes_online_and_offline_records() throws Exception
+	{
+		// Arrange
+		join();
+		repository.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+
+		// Act
+		final int count = repository.deleteDeathLocationsByWorld(WORLD_1, null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(2, count);
+		assertEquals(Set.of(WORLD_2), containerLocations().keySet());
+		assertEquals(0, offlineStore.size());
+		assertEquals(1, offlineStore.purgesAfter(0).size());
+	}
+
+
+	@Test
+	void purge_does_not_remove_later_saves_for_offline_player()
+	{
+		// Arrange
+		join();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		quit();
+		offlineStore.addPurge(PLAYER_1, null, Instant.now().plusSeconds(60).toEpochMilli());
+		final ValidDeathLocation later = deathLocation(PLAYER_1, WORLD_2, 4, 5, 6);
+		offlineStore.put(new Entry(later, Instant.now().plusSeconds(120).toEpochMilli()));
+
+		// Act
+		join();
+
+		// Assert
+		assertEquals(Set.of(WORLD_2), containerLocations().keySet());
+		assertEquals(later, repository.getDeathLocation(PLAYER_1, WORLD_2));
+	}
+
+
+	@Test
+	void damaged_container_is_discarded_on_join()
+	{
+		// Arrange
+		containerValues.put(new NamespacedKey("deathcompass", "death_locations"), new byte[] { 1, 0 });
+
+		// Act
+		join();
+
+		// Assert
+		assertEquals(DeathLocationReason.RECORD_NOT_FOUND,
+				((InvalidDeathLocation) repository.getDeathLocation(PLAYER_1, WORLD_1)).reason());
+	}
+
+
+	@Test
+	void offline_store_survives_write_and_load() throws Exception
+	{
+		// Arrange
+		final Path path = dataFolder.resolve(PdcConnectionProvider.STORE_FILE);
+		offlineStore.put(new Entry(deathLocation(PLAYER_1, WORLD_1, 1.5, 2, -3.25), 1000));
+		offlineStore.put(new Entry(deathLocation(PLAYER_2, WORLD_2, 4, 5, 6), 2000));
+		offlineStore.addPurge(null, WORLD_1, 3000);
+		offlineStore.markSqliteImported();
+
+		// Act
+		offlineStore.writeIfChanged(path);
+		final PdcOfflineStore loaded = PdcOfflineStore.load(path);
+
+		// Assert
+		assertEquals(new Entry(deathLocation(PLAYER_1, WORLD_1, 1.5, 2, -3.25), 1000), loaded.get(PLAYER_1, WORLD_1));
+		assertEquals(new Entry(deathLocation(PLAYER_2, WORLD_2, 4, 5, 6), 2000), loaded.get(PLAYER_2, WORLD_2));
+		assertEquals(offlineStore.purgesAfter(0), loaded.purgesAfter(0));
+		assertEquals(1, loaded.lastPurgeNumber());
+		assertTrue(loaded.sqliteImported());
+	}
+
+
+	private void join()
+	{
+		when(serverMock.getPlayer(PLAYER_1)).thenReturn(playerMock);
+		repository.loadPlayer(playerMock);
+	}
+
+
+	private void quit()
+	{
+		when(serverMock.getPlayer(PLAYER_1)).thenReturn(null);
+		final PlayerQuitEvent event = mock(PlayerQuitEvent.class);
+		when(event.getPlayer()).thenReturn(playerMock);
+		repository.onPlayerQuit(event);
+	}
+
+
+	private Map<UUID, Entry> containerLocations()
+	{
+		final byte[] bytes = (byte[]) containerValues.get(new NamespacedKey("deathcompass", "death_locations"));
+		return (bytes != null) ? PdcDeathLocationCodec.decode(PLAYER_1, bytes) : Map.of();
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.snapshot;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathRecord;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class DeathLocationSnapshotTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@TempDir Path tempDir;
+
+
+	private static DeathRecord deathRecord(final UUID playerUid, final UUID worldUid,
+	                                       final double x, final double y, final double z, final long deathTime)
+	{
+		return new DeathRecord((ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z), deathTime);
+	}
+
+
+	private List<DeathRecord> write(final Path path, final List<DeathRecord> deathRecords) throws IOException
+	{
+		try (DeathLocationSnapshotWriter writer = DeathLocationSnapshotWriter.open(path))
+		{
+			for (DeathRecord deathRecord : deathRecords)
+			{
+				writer.write(deathRecord);
+			}
+			writer.finish(Map.of(WORLD_1, "world", WORLD_2, "world_nether"));
+		}
+		return deathRecords;
+	}
+
+
+	private static List<DeathRecord> read(final Path path) throws IOException
+	{
+		try (Stream<DeathRecord> stream = DeathLocationSnapshotReader.open(path).stream())
+		{
+			return stream.toList();
+		}
+	}
+
+
+	@Test
+	void read_returns_written_records_with_death_times() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("export" + DeathLocationSnapshotWriter.FILE_EXTENSION);
+		final List<DeathRecord> written = write(path, List.of(
+				deathRecord(PLAYER_1, WORLD_1, 100, 64, -200, 1000L),
+				deathRecord(PLAYER_1, WORLD_2, -3000, -60, 3000, 2000L),
+				deathRecord(PLAYER_2, WORLD_1, 0, 320, 0, 3000L)));
+
+		// Act
+		final List<DeathRecord> result = read(path);
+
+		// Assert
+		assertEquals(written, result);
+		assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+	}
+
+
+	@Test
+	void read_truncates_coordinates_to_block() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("export" + DeathLocationSnapshotWriter.FILE_EXTENSION);
+		write(path, List.of(deathRecord(PLAYER_1, WORLD_1, 10.75, 64.5, -0.25, 1000L)));
+
+		// Act
+		final ValidDeathLocation result = read(path).getFirst().deathLocation();
+
+		// Assert
+		assertEquals(10, result.x());
+		assertEquals(64, result.y());
+		assertEquals(-1, result.z());
+	}
+
+
+	@Test
+	void read_rejects_corrupted_record() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("export" + DeathLocationSnapshotWriter.FILE_EXTENSION);
+		write(path, List.of(
+				deathRecord(PLAYER_1, WORLD_1, 1, 2, 3, 1000L),
+				deathRecord(PLAYER_2, WORLD_2, 4, 5, 6, 2000L)));
+
+		final byte[] bytes = Files.readAllBytes(path);
+		bytes[DeathLocationSnapshotFormat.HEADER_SIZE + 4] ^= 0x01;
+		Files.write(path, bytes);
+
+		// Act
+		final UncheckedIOException exception = assertThrows(UncheckedIOException.class, () -> read(path));
+
+		// Assert
+		assertTrue(exception.getCause().getMessage().contains("checksum"));
+	}
+
+
+	@Test
+	void read_rejects_truncated_file() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("export" + DeathLocationSnapshotWriter.FILE_EXTENSION);
+		write(path, List.of(
+				deathRecord(PLAYER_1, WORLD_1, 1, 2, 3, 1000L),
+				deathRecord(PLAYER_2, WORLD_2, 4, 5, 6, 2000L)));
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.truncate(DeathLocationSnapshotFormat.HEADER_SIZE + 4);
+		}
+
+		// Act
+		final UncheckedIOException exception = assertThrows(UncheckedIOException.class, () -> read(path));
+
+		// Assert
+		assertTrue(exception.getCause().getMessage().contains("truncated"));
+	}
+
+
+	@Test
+	void close_without_finish_removes_temporary_file() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("export" + DeathLocationSnapshotWriter.FILE_EXTENSION);
+
+		// Act
+		try (DeathLocationSnapshotWriter writer = DeathLocationSnapshotWriter.open(path))
+		{
+			writer.write(deathRecord(PLAYER_1, WORLD_1, 1, 2, 3, 1000L));
+		}
+
+		// Assert
+		assertFalse(Files.exists(path));
+		assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DatastoreBackup;
+import com.winterhavenmc.deathcompass.adapters.storage.BackupFolder;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SqliteBackupServiceTest
+{
+	private final static int ROWS = 20_000;
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private Path dataFile;
+	private SqliteBackupService backupService;
+
+
+	@BeforeEach
+	void setUp() throws SQLException
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("SqliteBackupServiceTest"));
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		dataFile = dataFolder.resolve("deathlocations.db");
+		try (final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dataFile);
+		     final Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("CREATE TABLE Rows (id INTEGER PRIMARY KEY, payload TEXT NOT NULL)");
+			connection.setAutoCommit(false);
+			try (final PreparedStatement insert = connection.prepareStatement("INSERT INTO Rows (payload) VALUES (?)"))
+			{
+				for (int i = 0; i < ROWS; i++)
+				{
+					insert.setString(1, "payload-" + i);
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+			connection.commit();
+		}
+
+		backupService = new SqliteBackupService(pluginMock, configRepositoryMock, dataFile.toString(),
+				new BackupFolder(pluginMock, ".db"), "SqliteBackupServiceTest");
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		backupService.close();
+	}
+
+
+	private static int countRows(final Path path) throws SQLException
+	{
+		try (final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+		     final Statement statement = connection.createStatement();
+		     final ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM Rows"))
+		{
+			return resultSet.getInt(1);
+		}
+	}
+
+
+	@Test
+	void backup_copies_datastore_to_completed_backup_file() throws Exception
+	{
+		// Act
+		final DatastoreBackup backup = backupService.backup().get(30, TimeUnit.SECONDS);
+
+		// Assert
+		final Path backupPath = dataFolder.resolve("backups").resolve(backup.name());
+		assertTrue(Files.exists(backupPath));
+		assertEquals(Files.size(backupPath), backup.size());
+		assertEquals(ROWS, countRows(backupPath));
+		try (final Stream<Path> files = Files.list(backupPath.getParent()))
+		{
+			assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")));
+		}
+	}
+
+
+	@Test
+	void backup_finishes_while_another_connection_writes() throws Exception
+	{
+		// Arrange
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final AtomicInteger writes = new AtomicInteger();
+		final Thread writer = new Thread(() ->
+		{
+			try (final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dataFile);
+			     final PreparedStatement insert = connection.prepareStatement("INSERT INTO Rows (payload) VALUES ('concurrent')"))
+			{
+				while (writing.get())
+				{
+					insert.executeUpdate();
+					writes.incrementAndGet();
+				}
+			}
+			catch (SQLException exception)
+			{
+				writing.set(false);
+			}
+		});
+		writer.start();
+
+		// Act
+		final DatastoreBackup backup;
+		try
+		{
+			backup = backupService.backup().get(30, TimeUnit.SECONDS);
+		}
+		finally
+		{
+			writing.set(false);
+			writer.join();
+		}
+
+		// Assert
+		assertTrue(writes.get() > 0);
+		assertTrue(countRows(dataFolder.resolve("backups").resolve(backup.name())) >= ROWS);
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.StorageType;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SqliteCheckpointConnectionProviderTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private ConnectionProvider provider;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("SqliteCheckpointConnectionProviderTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		if (provider != null)
+		{
+			provider.close();
+		}
+		mockedConfigRepository.close();
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+
+	/**
+	 * Get the number of records in the SQLite database; counted on the storage thread, after any queued checkpoint
+	 */
+	private long storedRecords()
+	{
+		return provider.tiers().join().getFirst().records();
+	}
+
+
+	/**
+	 * Run the scheduled checkpoint task, as the server scheduler would at the end of an interval
+	 */
+	private void runCheckpointTask()
+	{
+		final ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(schedulerMock).runTaskTimer(eq(pluginMock), taskCaptor.capture(), anyLong(), anyLong());
+		taskCaptor.getValue().run();
+	}
+
+
+	@Test
+	void connect_loads_death_locations_stored_in_database()
+	{
+		// Arrange
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		final ConnectionProvider sqliteProvider = StorageType.SQLITE.createProvider(pluginMock).connect();
+		sqliteProvider.deathLocations().saveDeathLocation(deathLocation);
+		sqliteProvider.close();
+
+		// Act
+		provider = StorageType.CHECKPOINT.createProvider(pluginMock).connect();
+
+		// Assert
+		assertEquals(deathLocation, provider.deathLocations().getDeathLocation(PLAYER_1, WORLD_1));
+	}
+
+
+	@Test
+	void saveDeathLocation_is_written_to_database_at_next_checkpoint()
+	{
+		// Arrange
+		provider = StorageType.CHECKPOINT.createProvider(pluginMock).connect();
+		final DeathLocationRepository repository = provider.deathLocations();
+
+		// Act
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.saveDeathLocation(deathLocation(PLAYER_2, WORLD_1, 4, 5, 6));
+		final long beforeCheckpoint = storedRecords();
+		runCheckpointTask();
+		final long afterCheckpoint = storedRecords();
+
+		// Assert
+		assertEquals(0, beforeCheckpoint);
+		assertEquals(2, afterCheckpoint);
+	}
+
+
+	@Test
+	void deleteDeathLocation_is_written_to_database_at_next_checkpoint()
+	{
+		// Arrange
+		provider = StorageType.CHECKPOINT.createProvider(pluginMock).connect();
+		final DeathLocationRepository repository = provider.deathLocations();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		runCheckpointTask();
+
+		// Act
+		repository.deleteDeathLocation(PLAYER_1, WORLD_1);
+		final long beforeCheckpoint = storedRecords();
+		runCheckpointTask();
+		final long afterCheckpoint = storedRecords();
+
+		// Assert
+		assertEquals(1, beforeCheckpoint);
+		assertEquals(0, afterCheckpoint);
+	}
+
+
+	@Test
+	void close_writes_final_checkpoint()
+	{
+		// Arrange
+		provider = StorageType.CHECKPOINT.createProvider(pluginMock).connect();
+		final ValidDeathLocation deathLocation = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		provider.deathLocations().saveDeathLocation(deathLocation);
+
+		// Act
+		provider.close();
+		provider = StorageType.SQLITE.createProvider(pluginMock).connect();
+
+		// Assert
+		assertEquals(deathLocation, provider.deathLocations().getDeathLocation(PLAYER_1, WORLD_1));
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SqliteDeathLocationArchiveTest
+{
+	private final static UUID WORLD_UID = new UUID(12345, 54321);
+
+	@TempDir Path tempDir;
+
+
+	private static SqliteDeathLocationArchive.ArchivedDeathLocation archived(final UUID playerUid, final double x, final long deathTime)
+	{
+		return new SqliteDeathLocationArchive.ArchivedDeathLocation(
+				(ValidDeathLocation) DeathLocation.of(playerUid, WORLD_UID, x, 64, -x), "world", deathTime);
+	}
+
+
+	private static Map<UUID, List<SqliteDeathLocationArchive.ArchivedDeathLocation>> group(final List<UUID> playerUids, final long deathTime)
+	{
+		final Map<UUID, List<SqliteDeathLocationArchive.ArchivedDeathLocation>> group = new LinkedHashMap<>();
+		for (int i = 0; i < playerUids.size(); i++)
+		{
+			group.put(playerUids.get(i), List.of(archived(playerUids.get(i), i, deathTime)));
+		}
+		return group;
+	}
+
+
+	private static List<UUID> players(final int count)
+	{
+		final List<UUID> playerUids = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+		{
+			playerUids.add(UUID.randomUUID());
+		}
+		return playerUids;
+	}
+
+
+	@Test
+	void read_returns_appended_records_after_reopen() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("deathlocations.archive");
+		final List<UUID> playerUids = players(100);
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(path))
+		{
+			archive.append(group(playerUids, 1000L));
+		}
+
+		// Act
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(path))
+		{
+			final List<SqliteDeathLocationArchive.ArchivedDeathLocation> records = archive.read(playerUids.get(42));
+
+			// Assert
+			assertEquals(100, archive.playerCount());
+			assertEquals(1, records.size());
+			assertEquals(42, records.getFirst().deathLocation().x());
+			assertEquals("world", records.getFirst().worldName());
+			assertEquals(1000L, records.getFirst().deathTime());
+		}
+	}
+
+
+	@Test
+	void release_removes_players_and_survives_reopen() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("deathlocations.archive");
+		final List<UUID> playerUids = players(10);
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(path))
+		{
+			archive.append(group(playerUids, 1000L));
+
+			// Act
+			final int released = archive.release(playerUids.subList(0, 4));
+
+			// Assert
+			assertEquals(4, released);
+			assertFalse(archive.contains(playerUids.getFirst()));
+		}
+
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(path))
+		{
+			assertEquals(6, archive.playerCount());
+			assertTrue(archive.read(playerUids.getFirst()).isEmpty());
+		}
+	}
+
+
+	@Test
+	void releaseOlderThan_releases_players_whose_newest_record_is_older() throws IOException
+	{
+		// Arrange
+		final List<UUID> oldPlayers = players(3);
+		final List<UUID> newPlayers = players(2);
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(tempDir.resolve("deathlocations.archive")))
+		{
+			archive.append(group(oldPlayers, 1000L));
+			archive.append(group(newPlayers, 5000L));
+
+			// Act
+			final int released = archive.releaseOlderThan(2000L);
+
+			// Assert
+			assertEquals(3, released);
+			assertEquals(2, archive.playerCount());
+		}
+	}
+
+
+	@Test
+	void compact_keeps_held_records_and_shrinks_file() throws IOException
+	{
+		// Arrange
+		final List<UUID> playerUids = players(5000);
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(tempDir.resolve("deathlocations.archive")))
+		{
+			archive.append(group(playerUids, 1000L));
+			archive.release(playerUids.subList(0, 4000));
+			final long previousSize = archive.size();
+
+			// Act
+			assertTrue(archive.needsCompaction());
+			archive.compact();
+
+			// Assert
+			assertTrue(archive.size() < previousSize);
+			assertEquals(1000, archive.playerCount());
+			assertEquals(1, archive.read(playerUids.getLast()).size());
+		}
+	}
+
+
+	@Test
+	void open_discards_incomplete_last_segment() throws IOException
+	{
+		// Arrange
+		final Path path = tempDir.resolve("deathlocations.archive");
+		final List<UUID> playerUids = players(10);
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(path))
+		{
+			archive.append(group(playerUids, 1000L));
+		}
+		Files.write(path, new byte[] { 0x44, 0x43, 0x41, 0x52, 1, 0, 0, 0, 0, 0 }, StandardOpenOption.APPEND);
+
+		// Act
+		try (SqliteDeathLocationArchive archive = SqliteDeathLocationArchive.open(path))
+		{
+			// Assert
+			assertTrue(archive.truncated());
+			assertEquals(10, archive.playerCount());
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.StorageType;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SqliteDeathLocationCursorTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock ConfigRepository configRepositoryMock;
+	@Mock PreparedStatement preparedStatementMock;
+	@Mock ResultSet resultSetMock;
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private ConnectionProvider provider;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("SqliteDeathLocationCursorTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		if (provider != null)
+		{
+			provider.close();
+		}
+		mockedConfigRepository.close();
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+
+	private SqliteDeathLocationRepository connect()
+	{
+		provider = StorageType.SQLITE.createProvider(pluginMock).connect();
+		return (SqliteDeathLocationRepository) provider.deathLocations();
+	}
+
+
+	@Test
+	void next_skips_rows_that_do_not_map_to_valid_death_location() throws SQLException
+	{
+		// Arrange
+		when(resultSetMock.next()).thenReturn(true, true, false);
+		when(resultSetMock.getLong(1)).thenReturn(PLAYER_1.getMostSignificantBits());
+		when(resultSetMock.getLong(2)).thenReturn(PLAYER_1.getLeastSignificantBits());
+		when(resultSetMock.getLong(3)).thenReturn(0L, WORLD_1.getMostSignificantBits());
+		when(resultSetMock.getLong(4)).thenReturn(0L, WORLD_1.getLeastSignificantBits());
+		when(resultSetMock.getDouble(anyInt())).thenReturn(1.5);
+		when(resultSetMock.getLong(8)).thenReturn(1234L);
+
+		// Act
+		final List<ValidDeathLocation> deathLocations = new ArrayList<>();
+		final List<Long> deathTimes = new ArrayList<>();
+		try (final SqliteDeathLocationCursor cursor = new SqliteDeathLocationCursor(preparedStatementMock, resultSetMock,
+				new SqliteDeathLocationRowMapper()))
+		{
+			ValidDeathLocation deathLocation;
+			while ((deathLocation = cursor.next()) != null)
+			{
+				deathLocations.add(deathLocation);
+				deathTimes.add(cursor.deathTime());
+			}
+		}
+
+		// Assert
+		assertEquals(List.of(deathLocation(PLAYER_1, WORLD_1, 1.5, 1.5, 1.5)), deathLocations);
+		assertEquals(List.of(1234L), deathTimes);
+	}
+
+
+	@Test
+	void close_closes_statement_when_result_set_close_fails() throws SQLException
+	{
+		// Arrange
+		doThrow(new SQLException("closed")).when(resultSetMock).close();
+		final SqliteDeathLocationCursor cursor = new SqliteDeathLocationCursor(preparedStatementMock, resultSetMock,
+				new SqliteDeathLocationRowMapper());
+
+		// Act
+		assertThrows(SQLException.class, cursor::close);
+
+		// Assert
+		verify(preparedStatementMock).close();
+	}
+
+
+	@Test
+	void forEachDeathLocation_with_fetch_size_one_visits_every_row_in_key_order()
+	{
+		// Arrange
+		final SqliteDeathLocationRepository repository = connect();
+		final List<ValidDeathLocation> saved = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+		{
+			final ValidDeathLocation deathLocation = deathLocation(new UUID(i - 25, i), WORLD_1, i, 64, -i);
+			repository.saveDeathLocation(deathLocation);
+			saved.add(deathLocation);
+		}
+
+		// Act
+		final List<ValidDeathLocation> visited = new ArrayList<>();
+		final int count = repository.forEachDeathLocation(1, visited::add).join();
+
+		// Assert
+		assertEquals(50, count);
+		assertEquals(saved, visited);
+	}
+
+
+	@Test
+	void forEachDeathLocation_visits_records_of_worlds_that_are_not_loaded()
+	{
+		// Arrange
+		final SqliteDeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.saveDeathLocation(deathLocation(PLAYER_2, WORLD_1, 4, 5, 6));
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(null);
+
+		// Act
+		final List<ValidDeathLocation> visited = new ArrayList<>();
+		repository.forEachDeathLocation(100, visited::add).join();
+
+		// Assert
+		assertEquals(List.of(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3), deathLocation(PLAYER_2, WORLD_1, 4, 5, 6)), visited);
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.StorageType;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SqliteLookupIndexTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private ConnectionProvider provider;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("SqliteLookupIndexTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		pluginMock.getConfig().set("storage.index.enabled", true);
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		if (provider != null)
+		{
+			provider.close();
+		}
+		mockedConfigRepository.close();
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+
+	private SqliteDeathLocationRepository connect()
+	{
+		provider = StorageType.SQLITE.createProvider(pluginMock).connect();
+		return (SqliteDeathLocationRepository) provider.deathLocations();
+	}
+
+
+	/**
+	 * Wait for the tasks already queued on the storage thread, which include any queued index build
+	 */
+	private static void awaitStorageThread(final SqliteDeathLocationRepository repository)
+	{
+		repository.forEachDeathLocation(1, deathLocation -> false).join();
+	}
+
+
+	private Path indexPath(final List<ValidDeathLocation> deathLocations) throws IOException
+	{
+		final Path path = dataFolder.resolve("test.idx");
+		try (SqliteLookupIndex.Writer writer = SqliteLookupIndex.Writer.create(path))
+		{
+			for (ValidDeathLocation deathLocation : deathLocations)
+			{
+				writer.write(deathLocation);
+			}
+			writer.finish();
+		}
+		return path;
+	}
+
+
+	@Test
+	void find_returns_written_records_and_null_for_missing_keys() throws IOException
+	{
+		// Arrange
+		final ValidDeathLocation first = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		final ValidDeathLocation second = deathLocation(PLAYER_1, WORLD_2, 4, 5, 6);
+		final ValidDeathLocation third = deathLocation(PLAYER_2, WORLD_1, 7, 8, 9);
+		final SqliteLookupIndex index = SqliteLookupIndex.open(indexPath(List.of(first, second, third)));
+
+		// Act & Assert
+		assertEquals(3, index.recordCount());
+		assertEquals(first, index.find(PLAYER_1, WORLD_1));
+		assertEquals(second, index.find(PLAYER_1, WORLD_2));
+		assertEquals(third, index.find(PLAYER_2, WORLD_1));
+		assertNull(index.find(PLAYER_2, WORLD_2));
+	}
+
+
+	@Test
+	void writer_rejects_records_out_of_key_order() throws IOException
+	{
+		// Arrange
+		try (SqliteLookupIndex.Writer writer = SqliteLookupIndex.Writer.create(dataFolder.resolve("test.idx")))
+		{
+			writer.write(deathLocation(PLAYER_2, WORLD_1, 1, 2, 3));
+
+			// Act & Assert
+			assertThrows(IOException.class, () -> writer.write(deathLocation(PLAYER_1, WORLD_1, 4, 5, 6)));
+		}
+	}
+
+
+	@Test
+	void getDeathLocation_returns_writes_newer_than_index()
+	{
+		// Arrange
+		final SqliteDeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.rebuildLookupIndex();
+		awaitStorageThread(repository);
+
+		final ValidDeathLocation replacement = deathLocation(PLAYER_1, WORLD_1, 4, 5, 6);
+		final ValidDeathLocation added = deathLocation(PLAYER_2, WORLD_2, 7, 8, 9);
+
+		// Act
+		repository.saveDeathLocation(replacement);
+		repository.saveDeathLocation(added);
+
+		// Assert
+		assertEquals(replacement, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		assertEquals(added, repository.getDeathLocation(PLAYER_2, WORLD_2));
+	}
+
+
+	@Test
+	void getDeathLocation_answers_unwritten_missing_key_from_index()
+	{
+		// Arrange
+		final SqliteDeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.rebuildLookupIndex();
+		awaitStorageThread(repository);
+
+		// Act
+		final DeathLocation result = repository.getDeathLocation(PLAYER_2, WORLD_1);
+
+		// Assert
+		assertEquals(DeathLocationReason.RECORD_NOT_FOUND, ((InvalidDeathLocation) result).reason());
+	}
+
+
+	@Test
+	void getDeathLocation_after_purge_ignores_index_built_before_purge() throws Exception
+	{
+		// Arrange
+		final SqliteDeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.saveDeathLocation(deathLocation(PLAYER_2, WORLD_1, 4, 5, 6));
+
+		// Act
+		// a build queued ahead of the purge swaps in an index that still holds the purged rows
+		repository.rebuildLookupIndex();
+		repository.deleteDeathLocationsByPlayer(PLAYER_1, null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(DeathLocationReason.RECORD_NOT_FOUND,
+				((InvalidDeathLocation) repository.getDeathLocation(PLAYER_1, WORLD_1)).reason());
+		assertInstanceOf(ValidDeathLocation.class, repository.getDeathLocation(PLAYER_2, WORLD_1));
+	}
+
+
+	@Test
+	void getDeathLocation_after_stream_save_ignores_index_built_before_save() throws Exception
+	{
+		// Arrange
+		final SqliteDeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		final ValidDeathLocation imported = deathLocation(PLAYER_2, WORLD_2, 4, 5, 6);
+
+		// Act
+		repository.rebuildLookupIndex();
+		repository.saveDeathLocations(Stream.of(imported), null).get(10, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(imported, repository.getDeathLocation(PLAYER_2, WORLD_2));
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SqliteOrphanedWorldRegistryTest
+{
+	private final static UUID STORED_WORLD = new UUID(12345, 54321);
+	private final static UUID EMPTY_WORLD = new UUID(54321, 12345);
+
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock ConfigRepository configRepositoryMock;
+	@Mock World storedWorldMock;
+	@Mock World emptyWorldMock;
+
+	private SqliteOrphanedWorldRegistry registry;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("SqliteOrphanedWorldRegistryTest"));
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+		when(storedWorldMock.getUID()).thenReturn(STORED_WORLD);
+		when(storedWorldMock.getName()).thenReturn("stored");
+		when(emptyWorldMock.getUID()).thenReturn(EMPTY_WORLD);
+		when(emptyWorldMock.getName()).thenReturn("empty");
+
+		final Set<UUID> storedWorlds = Set.of(STORED_WORLD);
+		registry = new SqliteOrphanedWorldRegistry(pluginMock, configRepositoryMock, new SqliteDeathLocationCache(pluginMock),
+				worldUid -> CompletableFuture.completedFuture(storedWorlds.contains(worldUid)));
+	}
+
+
+	@Test
+	void onWorldUnload_marks_world_with_stored_records_as_orphaned()
+	{
+		// Act
+		registry.onWorldUnload(new WorldUnloadEvent(storedWorldMock));
+
+		// Assert
+		assertTrue(registry.isOrphaned(STORED_WORLD));
+		assertEquals("stored", registry.orphanedWorlds().get(STORED_WORLD));
+	}
+
+
+	@Test
+	void onWorldUnload_ignores_world_without_stored_records()
+	{
+		// Act
+		registry.onWorldUnload(new WorldUnloadEvent(emptyWorldMock));
+
+		// Assert
+		assertFalse(registry.isOrphaned(EMPTY_WORLD));
+		assertTrue(registry.orphanedWorlds().isEmpty());
+	}
+
+
+	@Test
+	void onWorldUnload_ignores_world_loaded_again_before_check_completes()
+	{
+		// Arrange
+		when(serverMock.getWorld(STORED_WORLD)).thenReturn(storedWorldMock);
+
+		// Act
+		registry.onWorldUnload(new WorldUnloadEvent(storedWorldMock));
+
+		// Assert
+		assertFalse(registry.isOrphaned(STORED_WORLD));
+	}
+
+
+	@Test
+	void reconcile_marks_only_stored_worlds_that_are_not_loaded()
+	{
+		// Arrange
+		when(serverMock.getWorld(EMPTY_WORLD)).thenReturn(emptyWorldMock);
+
+		// Act
+		registry.reconcile(Map.of(STORED_WORLD, "stored", EMPTY_WORLD, "empty"));
+
+		// Assert
+		assertTrue(registry.isOrphaned(STORED_WORLD));
+		assertFalse(registry.isOrphaned(EMPTY_WORLD));
+	}
+
+}
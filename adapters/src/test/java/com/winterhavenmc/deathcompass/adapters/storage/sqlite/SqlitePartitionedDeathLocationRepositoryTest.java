@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.storage.sqlite;
+
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.ports.storage.DeathLocationRepository;
+import com.winterhavenmc.deathcompass.adapters.storage.StorageType;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocationReason;
+import com.winterhavenmc.deathcompass.models.deathlocation.InvalidDeathLocation;
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SqlitePartitionedDeathLocationRepositoryTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+	private final static UUID WORLD_1 = new UUID(12345, 54321);
+	private final static UUID WORLD_2 = new UUID(54321, 12345);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock Server serverMock;
+	@Mock World worldMock;
+	@Mock PluginManager pluginManagerMock;
+	@Mock BukkitScheduler schedulerMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private ConnectionProvider provider;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("SqlitePartitionedDeathLocationRepositoryTest"));
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getServer()).thenReturn(serverMock);
+		when(pluginMock.isEnabled()).thenReturn(true);
+		when(serverMock.getWorld(any(UUID.class))).thenReturn(worldMock);
+		when(serverMock.getPluginManager()).thenReturn(pluginManagerMock);
+		when(serverMock.getScheduler()).thenReturn(schedulerMock);
+		when(schedulerMock.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation ->
+		{
+			invocation.getArgument(1, Runnable.class).run();
+			return null;
+		});
+		when(worldMock.getName()).thenReturn("world");
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+
+		pluginMock.getConfig().set("storage.sqlite.partition-by-world", true);
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		if (provider != null)
+		{
+			provider.close();
+		}
+		mockedConfigRepository.close();
+	}
+
+
+	private static ValidDeathLocation deathLocation(final UUID playerUid, final UUID worldUid,
+	                                                final double x, final double y, final double z)
+	{
+		return (ValidDeathLocation) DeathLocation.of(playerUid, worldUid, x, y, z);
+	}
+
+
+	private DeathLocationRepository connect()
+	{
+		provider = StorageType.SQLITE.createProvider(pluginMock).connect();
+		final DeathLocationRepository repository = provider.deathLocations();
+		assertInstanceOf(SqlitePartitionedDeathLocationRepository.class, repository);
+		return repository;
+	}
+
+
+	private Path partitionPath(final UUID worldUid)
+	{
+		return dataFolder.resolve("partitions").resolve(worldUid + ".db");
+	}
+
+
+	private static List<ValidDeathLocation> visitAll(final DeathLocationRepository repository)
+	{
+		final List<ValidDeathLocation> deathLocations = new ArrayList<>();
+		repository.forEachDeathLocation(2, deathLocation -> deathLocations.add(deathLocation)).join();
+		return deathLocations;
+	}
+
+
+	@Test
+	void saveDeathLocation_writes_each_world_to_its_own_partition_file()
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect();
+		final ValidDeathLocation world1Location = deathLocation(PLAYER_1, WORLD_1, 1, 2, 3);
+		final ValidDeathLocation world2Location = deathLocation(PLAYER_1, WORLD_2, 4, 5, 6);
+
+		// Act
+		repository.saveDeathLocation(world1Location);
+		repository.saveDeathLocation(world2Location);
+
+		// Assert
+		assertTrue(Files.exists(partitionPath(WORLD_1)));
+		assertTrue(Files.exists(partitionPath(WORLD_2)));
+		assertEquals(world1Location, repository.getDeathLocation(PLAYER_1, WORLD_1));
+		assertEquals(world2Location, repository.getDeathLocation(PLAYER_1, WORLD_2));
+	}
+
+
+	@Test
+	void getDeathLocation_for_world_without_partition_does_not_create_partition_file()
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect();
+
+		// Act
+		final DeathLocation result = repository.getDeathLocation(PLAYER_1, WORLD_1);
+
+		// Assert
+		assertEquals(DeathLocationReason.RECORD_NOT_FOUND, ((InvalidDeathLocation) result).reason());
+		assertFalse(Files.exists(partitionPath(WORLD_1)));
+	}
+
+
+	@Test
+	void saveDeathLocations_routes_collection_to_partitions_by_world()
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect();
+
+		// Act
+		final int count = repository.saveDeathLocations(List.of(
+				deathLocation(PLAYER_1, WORLD_1, 1, 2, 3),
+				deathLocation(PLAYER_1, WORLD_2, 4, 5, 6),
+				deathLocation(PLAYER_2, WORLD_1, 7, 8, 9)));
+
+		// Assert
+		assertEquals(3, count);
+		assertTrue(Files.exists(partitionPath(WORLD_1)));
+		assertTrue(Files.exists(partitionPath(WORLD_2)));
+		assertEquals(3, visitAll(repository).size());
+	}
+
+
+	@Test
+	void deleteDeathLocationsByWorld_deletes_partition_file_and_keeps_other_worlds()
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.saveDeathLocation(deathLocation(PLAYER_2, WORLD_1, 4, 5, 6));
+		final ValidDeathLocation world2Location = deathLocation(PLAYER_1, WORLD_2, 7, 8, 9);
+		repository.saveDeathLocation(world2Location);
+
+		// Act
+		final int count = repository.deleteDeathLocationsByWorld(WORLD_1, null).join();
+
+		// Assert
+		assertEquals(2, count);
+		assertFalse(Files.exists(partitionPath(WORLD_1)));
+		assertEquals(DeathLocationReason.RECORD_NOT_FOUND,
+				((InvalidDeathLocation) repository.getDeathLocation(PLAYER_1, WORLD_1)).reason());
+		assertEquals(world2Location, repository.getDeathLocation(PLAYER_1, WORLD_2));
+	}
+
+
+	@Test
+	void saveDeathLocation_after_world_purge_opens_new_partition()
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.deleteDeathLocationsByWorld(WORLD_1, null).join();
+		final ValidDeathLocation replacement = deathLocation(PLAYER_2, WORLD_1, 4, 5, 6);
+
+		// Act
+		repository.saveDeathLocation(replacement);
+
+		// Assert
+		assertTrue(Files.exists(partitionPath(WORLD_1)));
+		assertEquals(replacement, repository.getDeathLocation(PLAYER_2, WORLD_1));
+		assertEquals(List.of(replacement), visitAll(repository));
+	}
+
+
+	@Test
+	void deleteDeathLocationsByPlayer_deletes_from_every_partition()
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 1, 2, 3));
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_2, 4, 5, 6));
+		final ValidDeathLocation otherPlayerLocation = deathLocation(PLAYER_2, WORLD_1, 7, 8, 9);
+		repository.saveDeathLocation(otherPlayerLocation);
+
+		// Act
+		final int count = repository.deleteDeathLocationsByPlayer(PLAYER_1, null).join();
+
+		// Assert
+		assertEquals(2, count);
+		assertEquals(List.of(otherPlayerLocation), visitAll(repository));
+	}
+
+
+	@Test
+	void forEachDeathLocation_merges_partitions_in_player_order()
+	{
+		// Arrange
+		final DeathLocationRepository repository = connect();
+		repository.saveDeathLocation(deathLocation(PLAYER_2, WORLD_1, 1, 2, 3));
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_2, 4, 5, 6));
+		repository.saveDeathLocation(deathLocation(PLAYER_1, WORLD_1, 7, 8, 9));
+
+		// Act
+		final List<UUID> playerUids = visitAll(repository).stream().map(ValidDeathLocation::playerUid).toList();
+
+		// Assert
+		assertEquals(List.of(PLAYER_1, PLAYER_1, PLAYER_2), playerUids);
+	}
+
+}
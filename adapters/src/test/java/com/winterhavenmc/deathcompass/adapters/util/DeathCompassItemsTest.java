@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.util;
+
+import com.winterhavenmc.library.messagebuilder.MessageBuilder;
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeathCompassItemsTest
+{
+	private final static NamespacedKey TAG_KEY = new NamespacedKey("deathcompass", "death_compass");
+
+	@Mock Plugin pluginMock;
+	@Mock ConfigRepository configRepositoryMock;
+	@Mock ItemStack prototypeMock;
+	@Mock ItemStack cloneMock;
+	@Mock ItemMeta prototypeMetaMock;
+	@Mock PersistentDataContainer prototypeContainerMock;
+	@Mock Inventory inventoryMock;
+
+	private final MessageBuilder messageBuilderMock = mock(MessageBuilder.class, RETURNS_DEEP_STUBS);
+	private final YamlConfiguration configuration = new YamlConfiguration();
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private DeathCompassItems items;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getName()).thenReturn("DeathCompass");
+		when(pluginMock.getConfig()).thenReturn(configuration);
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+		when(prototypeMock.getType()).thenReturn(Material.COMPASS);
+		when(prototypeMock.getItemMeta()).thenReturn(prototypeMetaMock);
+		when(prototypeMock.clone()).thenReturn(cloneMock);
+		when(prototypeMetaMock.getPersistentDataContainer()).thenReturn(prototypeContainerMock);
+		when(messageBuilderMock.items().createItem(any())).thenReturn(Optional.of(prototypeMock));
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+
+		items = new DeathCompassItems(pluginMock, messageBuilderMock, new SettingsHolder(pluginMock));
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		mockedConfigRepository.close();
+	}
+
+
+	private static ItemStack itemStack(final Material material, final boolean tagged)
+	{
+		final ItemStack itemStack = mock(ItemStack.class);
+		final ItemMeta itemMeta = mock(ItemMeta.class);
+		final PersistentDataContainer container = mock(PersistentDataContainer.class);
+		when(itemStack.getType()).thenReturn(material);
+		when(itemStack.hasItemMeta()).thenReturn(true);
+		when(itemStack.getItemMeta()).thenReturn(itemMeta);
+		when(itemMeta.getPersistentDataContainer()).thenReturn(container);
+		when(container.has(TAG_KEY, PersistentDataType.BYTE)).thenReturn(tagged);
+		return itemStack;
+	}
+
+
+	@Test
+	void create_tags_prototype_and_clones_it_for_later_compasses()
+	{
+		// Act
+		final ItemStack first = items.create();
+		final ItemStack second = items.create();
+
+		// Assert
+		assertSame(cloneMock, first);
+		assertSame(cloneMock, second);
+		assertEquals(1, items.builds());
+		assertEquals(1, items.buildsAvoided());
+		verify(prototypeContainerMock).set(TAG_KEY, PersistentDataType.BYTE, (byte) 1);
+		verify(prototypeMock).setItemMeta(prototypeMetaMock);
+	}
+
+
+	@Test
+	void invalidate_discards_prototype()
+	{
+		// Arrange
+		items.create();
+
+		// Act
+		items.invalidate();
+		items.create();
+
+		// Assert
+		assertEquals(2, items.builds());
+	}
+
+
+	@Test
+	void isDeathCompass_identifies_tagged_compass_without_item_definition_check()
+	{
+		// Arrange
+		final ItemStack itemStack = itemStack(Material.COMPASS, true);
+
+		// Act
+		final boolean result = items.isDeathCompass(itemStack);
+
+		// Assert
+		assertTrue(result);
+		verify(messageBuilderMock.items(), never()).isItem(any());
+	}
+
+
+	@Test
+	void isDeathCompass_rejects_other_material_without_reading_item_meta()
+	{
+		// Arrange
+		final ItemStack itemStack = itemStack(Material.DIRT, true);
+
+		// Act
+		final boolean result = items.isDeathCompass(itemStack);
+
+		// Assert
+		assertFalse(result);
+		verify(itemStack, never()).getItemMeta();
+	}
+
+
+	@Test
+	void isDeathCompass_checks_item_definition_for_untagged_compass_when_legacy_check_enabled()
+	{
+		// Arrange
+		final ItemStack itemStack = itemStack(Material.COMPASS, false);
+		when(messageBuilderMock.items().isItem(itemStack)).thenReturn(true);
+
+		// Act
+		final boolean result = items.isDeathCompass(itemStack);
+
+		// Assert
+		assertTrue(result);
+	}
+
+
+	@Test
+	void isDeathCompass_rejects_untagged_compass_when_legacy_check_disabled()
+	{
+		// Arrange
+		configuration.set("legacy-compass-check", false);
+		items = new DeathCompassItems(pluginMock, messageBuilderMock, new SettingsHolder(pluginMock));
+		final ItemStack itemStack = itemStack(Material.COMPASS, false);
+		when(messageBuilderMock.items().isItem(itemStack)).thenReturn(true);
+
+		// Act
+		final boolean result = items.isDeathCompass(itemStack);
+
+		// Assert
+		assertFalse(result);
+	}
+
+
+	@Test
+	void tagLegacyDeathCompasses_tags_only_untagged_compasses_matching_item_definition()
+	{
+		// Arrange
+		final ItemStack legacyCompass = itemStack(Material.COMPASS, false);
+		final ItemStack plainCompass = itemStack(Material.COMPASS, false);
+		final ItemStack taggedCompass = itemStack(Material.COMPASS, true);
+		when(messageBuilderMock.items().isItem(legacyCompass)).thenReturn(true);
+		when(inventoryMock.getSize()).thenReturn(4);
+		when(inventoryMock.getItem(0)).thenReturn(legacyCompass);
+		when(inventoryMock.getItem(1)).thenReturn(plainCompass);
+		when(inventoryMock.getItem(2)).thenReturn(taggedCompass);
+		when(inventoryMock.getItem(3)).thenReturn(null);
+
+		// Act
+		final int count = items.tagLegacyDeathCompasses(inventoryMock);
+
+		// Assert
+		assertEquals(1, count);
+		verify(legacyCompass.getItemMeta().getPersistentDataContainer()).set(TAG_KEY, PersistentDataType.BYTE, (byte) 1);
+		verify(inventoryMock).setItem(0, legacyCompass);
+		verify(inventoryMock, never()).setItem(eq(1), any());
+		verify(inventoryMock, never()).setItem(eq(2), any());
+	}
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.util;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PendingRespawnsTest
+{
+	private final static UUID PLAYER_1 = new UUID(-42, 1);
+	private final static UUID PLAYER_2 = new UUID(42, 2);
+
+	@TempDir Path dataFolder;
+	@Mock Plugin pluginMock;
+	@Mock ConfigRepository configRepositoryMock;
+
+	private final Logger logger = Logger.getLogger("PendingRespawnsTest");
+	private final List<String> warnings = new ArrayList<>();
+	private final Handler handler = new Handler()
+	{
+		@Override public void publish(final LogRecord record) { warnings.add(record.getMessage()); }
+		@Override public void flush() { }
+		@Override public void close() { }
+	};
+
+	private MockedStatic<BukkitConfigRepository> mockedConfigRepository;
+	private PendingRespawns pendingRespawns;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		when(pluginMock.getDataFolder()).thenReturn(dataFolder.toFile());
+		when(pluginMock.getConfig()).thenReturn(new YamlConfiguration());
+		when(pluginMock.getLogger()).thenReturn(logger);
+		when(configRepositoryMock.locale()).thenReturn(Locale.US);
+		logger.addHandler(handler);
+
+		mockedConfigRepository = mockStatic(BukkitConfigRepository.class);
+		mockedConfigRepository.when(() -> BukkitConfigRepository.create(pluginMock)).thenReturn(configRepositoryMock);
+
+		pendingRespawns = new PendingRespawns(pluginMock, new SettingsHolder(pluginMock));
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		logger.removeHandler(handler);
+		mockedConfigRepository.close();
+	}
+
+
+	@Test
+	void remove_reports_player_added_before_expiry()
+	{
+		// Arrange
+		pendingRespawns.add(PLAYER_1);
+
+		// Act
+		final boolean firstResult = pendingRespawns.remove(PLAYER_1);
+		final boolean secondResult = pendingRespawns.remove(PLAYER_1);
+
+		// Assert
+		assertTrue(firstResult);
+		assertFalse(secondResult);
+	}
+
+
+	@Test
+	void sweep_removes_expired_entries()
+	{
+		// Arrange
+		pendingRespawns.add(PLAYER_1);
+		pendingRespawns.add(PLAYER_2);
+
+		// Act
+		final int count = pendingRespawns.sweep(Long.MAX_VALUE);
+
+		// Assert
+		assertEquals(2, count);
+		assertEquals(0, pendingRespawns.size());
+	}
+
+
+	@Test
+	void save_and_load_keep_pending_entries_across_reload()
+	{
+		// Arrange
+		pendingRespawns.add(PLAYER_1);
+		pendingRespawns.save();
+
+		// Act
+		final PendingRespawns reloaded = new PendingRespawns(pluginMock, new SettingsHolder(pluginMock));
+		reloaded.load();
+
+		// Assert
+		assertTrue(reloaded.remove(PLAYER_1));
+		assertFalse(Files.exists(dataFolder.resolve("pending-respawns.dat")));
+	}
+
+
+	@Test
+	void load_skips_expired_entries() throws IOException
+	{
+		// Arrange
+		try (final DataOutputStream output = new DataOutputStream(Files.newOutputStream(dataFolder.resolve("pending-respawns.dat"))))
+		{
+			output.writeInt(2);
+			output.writeLong(PLAYER_1.getMostSignificantBits());
+			output.writeLong(PLAYER_1.getLeastSignificantBits());
+			output.writeLong(Long.MAX_VALUE);
+			output.writeLong(PLAYER_2.getMostSignificantBits());
+			output.writeLong(PLAYER_2.getLeastSignificantBits());
+			output.writeLong(1L);
+		}
+
+		// Act
+		pendingRespawns.load();
+
+		// Assert
+		assertEquals(1, pendingRespawns.size());
+		assertTrue(pendingRespawns.remove(PLAYER_1));
+	}
+
+
+	@Test
+	void load_logs_localized_warning_for_truncated_file() throws IOException
+	{
+		// Arrange
+		Files.write(dataFolder.resolve("pending-respawns.dat"), new byte[] { 0, 0, 0, 1, 0 });
+
+		// Act
+		pendingRespawns.load();
+
+		// Assert
+		assertEquals(PendingRespawnsMessage.LOAD_ERROR.getLocalizedMessage(Locale.US, "pending-respawns.dat"), warnings.getFirst());
+		assertFalse(Files.exists(dataFolder.resolve("pending-respawns.dat")));
+	}
+
+}
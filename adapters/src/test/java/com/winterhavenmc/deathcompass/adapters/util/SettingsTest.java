@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.util;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class SettingsTest
+{
+	private final YamlConfiguration configuration = new YamlConfiguration();
+	private final List<String> warnings = new ArrayList<>();
+
+
+	@Test
+	void of_uses_defaults_for_missing_values()
+	{
+		// Act
+		final Settings settings = Settings.of(configuration, warnings::add);
+
+		// Assert
+		assertEquals(new Settings("en-US", false, true, true, true, 20, 600, true, true, 500), settings);
+		assertTrue(warnings.isEmpty());
+	}
+
+
+	@Test
+	void of_reads_configured_values()
+	{
+		// Arrange
+		configuration.set("language", "de-DE");
+		configuration.set("debug", true);
+		configuration.set("sound-effects", false);
+		configuration.set("destroy-on-drop", false);
+		configuration.set("prevent-storage", false);
+		configuration.set("target-delay", 0);
+		configuration.set("pending-respawn-expiry", 30);
+		configuration.set("legacy-compass-check", false);
+		configuration.set("native-death-location", false);
+		configuration.set("storage.batch-size", 1000);
+
+		// Act
+		final Settings settings = Settings.of(configuration, warnings::add);
+
+		// Assert
+		assertEquals(new Settings("de-DE", true, false, false, false, 0, 30, false, false, 1000), settings);
+		assertTrue(warnings.isEmpty());
+	}
+
+
+	@Test
+	void of_replaces_value_of_wrong_type_with_default_and_reports_it()
+	{
+		// Arrange
+		configuration.set("sound-effects", "yes");
+		configuration.set("target-delay", 2.5);
+		configuration.set("language", List.of("en-US"));
+
+		// Act
+		final Settings settings = Settings.of(configuration, warnings::add);
+
+		// Assert
+		assertTrue(settings.soundEffects());
+		assertEquals(20, settings.targetDelay());
+		assertEquals("en-US", settings.language());
+		assertEquals(3, warnings.size());
+	}
+
+
+	@Test
+	void of_replaces_out_of_range_number_with_default_and_reports_it()
+	{
+		// Arrange
+		configuration.set("pending-respawn-expiry", 0);
+		configuration.set("storage.batch-size", Long.MAX_VALUE);
+
+		// Act
+		final Settings settings = Settings.of(configuration, warnings::add);
+
+		// Assert
+		assertEquals(600, settings.pendingRespawnExpiry());
+		assertEquals(500, settings.batchSize());
+		assertEquals(2, warnings.size());
+		assertTrue(warnings.getFirst().contains("pending-respawn-expiry"));
+	}
+
+
+	@Test
+	void reload_publishes_new_snapshot_and_leaves_previous_unchanged()
+	{
+		// Arrange
+		final Plugin pluginMock = mock(Plugin.class);
+		when(pluginMock.getConfig()).thenReturn(configuration);
+		when(pluginMock.getLogger()).thenReturn(Logger.getLogger("SettingsTest"));
+		final SettingsHolder holder = new SettingsHolder(pluginMock);
+		final Settings previous = holder.get();
+		configuration.set("debug", true);
+
+		// Act
+		holder.reload();
+
+		// Assert
+		assertFalse(previous.debug());
+		assertTrue(holder.get().debug());
+	}
+
+}
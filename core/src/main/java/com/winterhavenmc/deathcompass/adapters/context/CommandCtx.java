@@ -17,7 +17,11 @@
 
 package com.winterhavenmc.deathcompass.adapters.context;
 
+import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
 import com.winterhavenmc.library.messagebuilder.MessageBuilder;
 import org.bukkit.plugin.java.JavaPlugin;
 
-public record CommandCtx(JavaPlugin plugin, MessageBuilder messageBuilder) { }
+public record CommandCtx(JavaPlugin plugin, MessageBuilder messageBuilder, ConnectionProvider datastore, DeathCompassItems items,
+                         SettingsHolder settings) { }
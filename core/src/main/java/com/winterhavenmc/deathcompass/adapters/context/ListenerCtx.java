@@ -18,7 +18,11 @@
 package com.winterhavenmc.deathcompass.adapters.context;
 
 import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
+import com.winterhavenmc.deathcompass.adapters.util.PendingRespawns;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
 import com.winterhavenmc.library.messagebuilder.MessageBuilder;
 import org.bukkit.plugin.java.JavaPlugin;
 
-public record ListenerCtx(JavaPlugin plugin, MessageBuilder messageBuilder, ConnectionProvider datastore) { }
+public record ListenerCtx(JavaPlugin plugin, MessageBuilder messageBuilder, ConnectionProvider datastore, DeathCompassItems items,
+                          PendingRespawns pendingRespawns, SettingsHolder settings) { }
@@ -23,7 +23,10 @@ import com.winterhavenmc.deathcompass.adapters.ports.commands.CommandDispatcher;
 import com.winterhavenmc.deathcompass.adapters.ports.listeners.InventoryEventListener;
 import com.winterhavenmc.deathcompass.adapters.ports.listeners.PlayerEventListener;
 import com.winterhavenmc.deathcompass.adapters.ports.storage.ConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.util.DeathCompassItems;
 import com.winterhavenmc.deathcompass.adapters.util.MetricsHandler;
+import com.winterhavenmc.deathcompass.adapters.util.PendingRespawns;
+import com.winterhavenmc.deathcompass.adapters.util.SettingsHolder;
 
 import com.winterhavenmc.library.messagebuilder.MessageBuilder;
 
@@ -43,6 +46,7 @@ public final class DeathCompassPluginController implements PluginController
 	public CommandDispatcher commandDispatcher;
 	public InventoryEventListener inventoryEventListener;
 	public PlayerEventListener playerEventListener;
+	public PendingRespawns pendingRespawns;
 
 
 	@Override
@@ -61,9 +65,20 @@ public final class DeathCompassPluginController implements PluginController
 		// instantiate datastore
 		datastore = connectionProvider.connect();
 
+		// build settings from the configuration, reporting any invalid values
+		SettingsHolder settings = new SettingsHolder(plugin);
+
+		// instantiate death compass item factory
+		DeathCompassItems items = new DeathCompassItems(plugin, messageBuilder, settings);
+
+		// instantiate pending respawns, with the entries saved before a reload
+		pendingRespawns = new PendingRespawns(plugin, settings);
+		pendingRespawns.load();
+		pendingRespawns.startSweep();
+
 		// instantiate context containers
-		ListenerCtx listenerCtx = new ListenerCtx(plugin, messageBuilder, datastore);
-		CommandCtx commandCtx = new CommandCtx(plugin, messageBuilder);
+		ListenerCtx listenerCtx = new ListenerCtx(plugin, messageBuilder, datastore, items, pendingRespawns, settings);
+		CommandCtx commandCtx = new CommandCtx(plugin, messageBuilder, datastore, items, settings);
 
 		// initialize command dispatcher
 		this.commandDispatcher = commandDispatcher.init(commandCtx);
@@ -73,13 +88,14 @@ public final class DeathCompassPluginController implements PluginController
 		this.inventoryEventListener = inventoryEventListener.init(listenerCtx);
 
 		// instantiate metrics handler
-		new MetricsHandler(plugin);
+		new MetricsHandler(plugin, pendingRespawns);
 	}
 
 
 	@Override
 	public void shutDown()
 	{
+		pendingRespawns.save();
 		datastore.close();
 	}
 
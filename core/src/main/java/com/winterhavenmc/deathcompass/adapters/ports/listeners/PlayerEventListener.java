@@ -61,19 +61,17 @@ public interface PlayerEventListener extends Listener
 	void onChangeWorld(PlayerChangedWorldEvent event);
 
 	/**
-	 * Player Interact event handler
+	 * Player Interact event handler, registered only if SavageDeathChest is installed
 	 * Remove all death compasses from player inventory on interaction with DeathChestBlocks
 	 *
 	 * @param event the event handled by this method
 	 */
-	@EventHandler(priority = EventPriority.LOWEST)
 	void onPlayerInteract(PlayerInteractEvent event);
 
 	/**
-	 * Item drop event handler
+	 * Item drop event handler, registered only while destroy-on-drop is enabled
 	 *
 	 * @param event the event handled by this method
 	 */
-	@EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
 	void onItemDrop(PlayerDropItemEvent event);
 }
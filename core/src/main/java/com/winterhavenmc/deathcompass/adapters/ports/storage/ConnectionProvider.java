@@ -17,6 +17,9 @@
 
 package com.winterhavenmc.deathcompass.adapters.ports.storage;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 
 public interface ConnectionProvider
 {
@@ -33,6 +36,26 @@ public interface ConnectionProvider
 	DeathLocationRepository deathLocations();
 
 
+	/**
+	 * Copy the datastore to a new backup file off the server thread, without blocking datastore writes,
+	 * and remove the oldest backup files beyond the configured number to keep
+	 *
+	 * @return future that completes with the details of the backup
+	 */
+	CompletableFuture<DatastoreBackup> backup();
+
+
+	/**
+	 * Get the record count and size of each storage tier of the datastore, off the server thread
+	 *
+	 * @return future that completes with the storage tiers, or an empty list if the datastore does not report them
+	 */
+	default CompletableFuture<List<DatastoreTier>> tiers()
+	{
+		return CompletableFuture.completedFuture(List.of());
+	}
+
+
 	/**
 	 * Close SQLite datastore connection
 	 */
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2022-2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.ports.storage;
+
+import java.time.Duration;
+
+
+/**
+ * Details of a completed datastore backup
+ *
+ * @param name the name of the backup file
+ * @param size the size of the backup file, in bytes
+ * @param duration the time taken to complete the backup
+ */
+public record DatastoreBackup(String name, long size, Duration duration) { }
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.ports.storage;
+
+
+/**
+ * Size of one storage tier of a datastore, such as the live database or an archive of inactive players
+ *
+ * @param name the name of the tier
+ * @param records the number of death locations held by the tier
+ * @param size the size of the tier on disk, in bytes
+ */
+public record DatastoreTier(String name, long records, long size) { }
@@ -20,8 +20,15 @@ package com.winterhavenmc.deathcompass.adapters.ports.storage;
 import com.winterhavenmc.deathcompass.models.deathlocation.DeathLocation;
 import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 
 @SuppressWarnings("UnusedReturnValue")
@@ -30,4 +37,104 @@ public interface DeathLocationRepository
 	DeathLocation getDeathLocation(final UUID playerUUID, final UUID worldUID);
 	int saveDeathLocation(final ValidDeathLocation deathLocation);
 	int saveDeathLocations(final Collection<ValidDeathLocation> deathLocations);
+
+
+	/**
+	 * Get worlds referenced by stored death locations that are not currently loaded
+	 *
+	 * @return map of world names keyed by world UUID
+	 */
+	Map<UUID, String> orphanedWorlds();
+
+
+	/**
+	 * Delete the death location stored for a player in a world, evicting any cached copy
+	 *
+	 * @param playerUid the player UUID
+	 * @param worldUid the world UUID
+	 * @return the death location that was deleted, or an InvalidDeathLocation if none was stored
+	 */
+	DeathLocation deleteDeathLocation(final UUID playerUid, final UUID worldUid);
+
+
+	/**
+	 * Delete all death locations stored for a player, in batches, off the server thread
+	 *
+	 * @param playerUid the UUID of the player whose death locations are to be deleted
+	 * @param progress consumer of the running total of deleted records, called off the server thread; may be null
+	 * @return future that completes with the number of records deleted
+	 */
+	CompletableFuture<Integer> deleteDeathLocationsByPlayer(final UUID playerUid, final IntConsumer progress);
+
+
+	/**
+	 * Delete all death locations stored for a world, in batches, off the server thread
+	 *
+	 * @param worldUid the UUID of the world whose death locations are to be deleted
+	 * @param progress consumer of the running total of deleted records, called off the server thread; may be null
+	 * @return future that completes with the number of records deleted
+	 */
+	CompletableFuture<Integer> deleteDeathLocationsByWorld(final UUID worldUid, final IntConsumer progress);
+
+
+	/**
+	 * Delete all death locations recorded before an instant, in batches, off the server thread
+	 *
+	 * @param instant the cutoff instant; records with an earlier death time are deleted
+	 * @param progress consumer of the running total of deleted records, called off the server thread; may be null
+	 * @return future that completes with the number of records deleted
+	 */
+	CompletableFuture<Integer> deleteDeathLocationsOlderThan(final Instant instant, final IntConsumer progress);
+
+
+	/**
+	 * Visit all stored death locations in player order, off the server thread, without loading them all into memory.
+	 * Records are fetched from the datastore in pages and passed to the visitor one at a time, on the thread that
+	 * reads them, together with the time each was saved; iteration stops early when the visitor returns {@code false}.
+	 *
+	 * @param fetchSize the number of records to fetch from the datastore per page
+	 * @param visitor predicate that receives each death record and returns {@code false} to stop iterating
+	 * @return future that completes with the number of records visited
+	 */
+	CompletableFuture<Integer> forEachDeathRecord(final int fetchSize, final Predicate<DeathRecord> visitor);
+
+
+	/**
+	 * Visit all stored death locations in player order, as {@link #forEachDeathRecord}, without their death times
+	 *
+	 * @param fetchSize the number of records to fetch from the datastore per page
+	 * @param visitor predicate that receives each death location and returns {@code false} to stop iterating
+	 * @return future that completes with the number of records visited
+	 */
+	default CompletableFuture<Integer> forEachDeathLocation(final int fetchSize, final Predicate<ValidDeathLocation> visitor)
+	{
+		Objects.requireNonNull(visitor);
+		return forEachDeathRecord(fetchSize, deathRecord -> visitor.test(deathRecord.deathLocation()));
+	}
+
+
+	/**
+	 * Save a stream of death records off the server thread, in batched transactions, without collecting
+	 * the stream into memory. Existing records for the same player and world are replaced, and each record keeps
+	 * its death time. The stream is consumed and closed on the thread that writes the records.
+	 *
+	 * @param deathRecords stream of death records to be saved
+	 * @param progress consumer of the running total of saved records, called off the server thread; may be null
+	 * @return future that completes with the number of records saved
+	 */
+	CompletableFuture<Integer> saveDeathRecords(final Stream<DeathRecord> deathRecords, final IntConsumer progress);
+
+
+	/**
+	 * Save a stream of death locations, as {@link #saveDeathRecords}, with a death time of the time each is saved
+	 *
+	 * @param deathLocations stream of death locations to be saved
+	 * @param progress consumer of the running total of saved records, called off the server thread; may be null
+	 * @return future that completes with the number of records saved
+	 */
+	default CompletableFuture<Integer> saveDeathLocations(final Stream<ValidDeathLocation> deathLocations, final IntConsumer progress)
+	{
+		if (deathLocations == null) { return CompletableFuture.completedFuture(0); }
+		return saveDeathRecords(deathLocations.map(deathLocation -> new DeathRecord(deathLocation, System.currentTimeMillis())), progress);
+	}
 }
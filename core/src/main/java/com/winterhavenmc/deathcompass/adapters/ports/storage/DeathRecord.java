@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.deathcompass.adapters.ports.storage;
+
+import com.winterhavenmc.deathcompass.models.deathlocation.ValidDeathLocation;
+
+
+/**
+ * A stored death location together with the time it was saved, so that copies between datastores
+ * keep the age of each record
+ *
+ * @param deathLocation the death location
+ * @param deathTime the time the death location was saved, in milliseconds since the epoch
+ */
+public record DeathRecord(ValidDeathLocation deathLocation, long deathTime) { }
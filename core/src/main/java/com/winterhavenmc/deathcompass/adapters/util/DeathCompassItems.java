@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.util;
+
+import com.winterhavenmc.library.messagebuilder.MessageBuilder;
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.keys.ItemKey;
+import com.winterhavenmc.library.messagebuilder.models.keys.ValidItemKey;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Creates and identifies death compass items. Each death compass is tagged in its persistent data container
+ * when it is created, so a death compass is identified by its material and the tag, without building an item
+ * to compare it with. Compasses given by earlier versions have no tag; they are identified by the item
+ * definition instead, while {@code legacy-compass-check} is enabled, and are tagged when their owner joins.
+ * <p>
+ * A prototype compass is built once for each configured language and locale, and cloned for each compass
+ * created. The prototypes are discarded when the configuration and messages are reloaded.
+ */
+public final class DeathCompassItems
+{
+	private final static String ITEM_KEY = "DEATH_COMPASS";
+	private final static byte TAG_VALUE = 1;
+
+	private final Plugin plugin;
+	private final MessageBuilder messageBuilder;
+	private final SettingsHolder settings;
+	private final ConfigRepository configRepository;
+	private final NamespacedKey tagKey;
+	private final Map<PrototypeKey, ItemStack> prototypes = new ConcurrentHashMap<>();
+	private final LongAdder builds = new LongAdder();
+	private final LongAdder buildsAvoided = new LongAdder();
+	private volatile Material material;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param messageBuilder the message builder, for the item definition
+	 * @param settings the plugin settings
+	 */
+	public DeathCompassItems(final Plugin plugin, final MessageBuilder messageBuilder, final SettingsHolder settings)
+	{
+		this.plugin = plugin;
+		this.messageBuilder = messageBuilder;
+		this.settings = settings;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.tagKey = new NamespacedKey(plugin, "death_compass");
+	}
+
+
+	/**
+	 * Create a tagged death compass item stack with custom display name and lore, cloned from the prototype
+	 * for the configured language and locale
+	 *
+	 * @return ItemStack of DeathCompass
+	 */
+	public ItemStack create()
+	{
+		final PrototypeKey key = new PrototypeKey(settings.get().language(), configRepository.locale());
+
+		ItemStack prototype = prototypes.get(key);
+		if (prototype == null)
+		{
+			prototype = prototypes.computeIfAbsent(key, unused -> build());
+		}
+		else
+		{
+			buildsAvoided.increment();
+		}
+
+		return prototype.clone();
+	}
+
+
+	/**
+	 * Discard the prototype compasses, so compasses are built again from the reloaded item definition
+	 */
+	public void invalidate()
+	{
+		prototypes.clear();
+		material = null;
+	}
+
+
+	/**
+	 * Get the number of times a compass was built from the item definition
+	 */
+	public long builds()
+	{
+		return builds.sum();
+	}
+
+
+	/**
+	 * Get the number of compasses cloned from a prototype instead of being built
+	 */
+	public long buildsAvoided()
+	{
+		return buildsAvoided.sum();
+	}
+
+
+	/**
+	 * Check if an item stack is a death compass
+	 *
+	 * @param itemStack the item stack to check; may be null
+	 * @return {@code true} if the item stack is a death compass, {@code false} if not
+	 */
+	public boolean isDeathCompass(final ItemStack itemStack)
+	{
+		return isDeathCompassMaterial(itemStack) && (isTagged(itemStack) || isLegacy(itemStack));
+	}
+
+
+	/**
+	 * Check if an item stack is of the material of death compasses, a cheap test that rejects most other items
+	 * before their item meta is read
+	 *
+	 * @param itemStack the item stack to check; may be null
+	 * @return {@code true} if the item stack may be a death compass, {@code false} if it cannot be
+	 */
+	public boolean isDeathCompassMaterial(final ItemStack itemStack)
+	{
+		return itemStack != null && itemStack.getType() == material();
+	}
+
+
+	/**
+	 * Check if an inventory contains a death compass
+	 *
+	 * @param inventory the inventory to check
+	 * @return {@code true} if any slot of the inventory holds a death compass
+	 */
+	public boolean containsDeathCompass(final Inventory inventory)
+	{
+		for (ItemStack itemStack : inventory.getContents())
+		{
+			if (isDeathCompass(itemStack))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Remove all death compasses from an inventory
+	 *
+	 * @param inventory the inventory from which to remove all death compasses
+	 * @return the number of stacks removed
+	 */
+	public int removeDeathCompasses(final Inventory inventory)
+	{
+		int count = 0;
+		for (int slot = 0; slot < inventory.getSize(); slot++)
+		{
+			if (isDeathCompass(inventory.getItem(slot)))
+			{
+				inventory.setItem(slot, null);
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Tag the death compasses in an inventory that were given by earlier versions, so they are identified
+	 * by the tag from then on
+	 *
+	 * @param inventory the inventory to update
+	 * @return the number of stacks tagged
+	 */
+	public int tagLegacyDeathCompasses(final Inventory inventory)
+	{
+		int count = 0;
+		for (int slot = 0; slot < inventory.getSize(); slot++)
+		{
+			final ItemStack itemStack = inventory.getItem(slot);
+			if (itemStack != null
+					&& itemStack.getType() == material()
+					&& !isTagged(itemStack)
+					&& messageBuilder.items().isItem(itemStack))
+			{
+				tag(itemStack);
+				inventory.setItem(slot, itemStack);
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Get the material of death compasses, from the item definition the first time it is needed
+	 */
+	private Material material()
+	{
+		Material result = material;
+		if (result == null)
+		{
+			result = create().getType();
+			material = result;
+		}
+		return result;
+	}
+
+
+	private ItemStack build()
+	{
+		final ValidItemKey validItemKey = ItemKey.of(ITEM_KEY).isValid().orElseThrow();
+		final ItemStack itemStack = messageBuilder.items().createItem(validItemKey).orElseThrow();
+		tag(itemStack);
+		material = itemStack.getType();
+		builds.increment();
+		return itemStack;
+	}
+
+
+	private boolean isTagged(final ItemStack itemStack)
+	{
+		return itemStack.hasItemMeta()
+				&& itemStack.getItemMeta().getPersistentDataContainer().has(tagKey, PersistentDataType.BYTE);
+	}
+
+
+	private boolean isLegacy(final ItemStack itemStack)
+	{
+		return settings.get().legacyCompassCheck()
+				&& messageBuilder.items().isItem(itemStack);
+	}
+
+
+	private void tag(final ItemStack itemStack)
+	{
+		final ItemMeta itemMeta = itemStack.getItemMeta();
+		if (itemMeta != null)
+		{
+			itemMeta.getPersistentDataContainer().set(tagKey, PersistentDataType.BYTE, TAG_VALUE);
+			itemStack.setItemMeta(itemMeta);
+		}
+	}
+
+
+
+	/**
+	 * The language and locale a prototype compass was built for
+	 */
+	private record PrototypeKey(String language, Locale locale) { }
+
+}
@@ -24,4 +24,9 @@ public enum Macro
 	PLUGIN,
 	URL,
 	SETTING,
+	TARGET,
+	COUNT,
+	SIZE,
+	DURATION,
+	AVOIDED_COUNT,
 }
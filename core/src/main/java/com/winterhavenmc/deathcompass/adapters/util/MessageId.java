@@ -30,12 +30,41 @@ public enum MessageId
 	COMMAND_FAIL_HELP_PERMISSION,
 	COMMAND_FAIL_RELOAD_PERMISSION,
 	COMMAND_FAIL_STATUS_PERMISSION,
+	COMMAND_FAIL_PURGE_PERMISSION,
+	COMMAND_FAIL_PURGE_WORLD_INVALID,
+	COMMAND_FAIL_PURGE_PLAYER_INVALID,
+	COMMAND_FAIL_PURGE_AGE_INVALID,
+	COMMAND_FAIL_PURGE,
+	COMMAND_FAIL_EXPORT_PERMISSION,
+	COMMAND_FAIL_EXPORT,
+	COMMAND_FAIL_IMPORT_PERMISSION,
+	COMMAND_FAIL_IMPORT_FILE_NOT_FOUND,
+	COMMAND_FAIL_IMPORT,
+	COMMAND_FAIL_SNAPSHOT_NAME_INVALID,
+	COMMAND_FAIL_BACKUP_PERMISSION,
+	COMMAND_FAIL_BACKUP,
 	COMMAND_SUCCESS_RELOAD,
+	COMMAND_SUCCESS_PURGE,
+	COMMAND_PURGE_STARTED,
+	COMMAND_PURGE_PROGRESS,
+	COMMAND_SUCCESS_EXPORT,
+	COMMAND_EXPORT_STARTED,
+	COMMAND_EXPORT_PROGRESS,
+	COMMAND_SUCCESS_IMPORT,
+	COMMAND_IMPORT_STARTED,
+	COMMAND_IMPORT_PROGRESS,
+	COMMAND_SUCCESS_BACKUP,
+	COMMAND_BACKUP_STARTED,
 
 	COMMAND_INVALID_HELP,
 	COMMAND_HELP_HELP,
 	COMMAND_HELP_RELOAD,
 	COMMAND_HELP_STATUS,
+	COMMAND_HELP_PURGE,
+	COMMAND_HELP_PURGE_WORLD,
+	COMMAND_HELP_EXPORT,
+	COMMAND_HELP_IMPORT,
+	COMMAND_HELP_BACKUP,
 	COMMAND_HELP_USAGE,
 
 	COMMAND_STATUS_HEADER,
@@ -49,4 +78,6 @@ public enum MessageId
 	COMMAND_STATUS_PREVENT_STORAGE,
 	COMMAND_STATUS_SOUND_EFFECTS,
 	COMMAND_STATUS_ENABLED_WORLDS,
+	COMMAND_STATUS_STORAGE_TIER,
+	COMMAND_STATUS_ITEM_CACHE,
 }
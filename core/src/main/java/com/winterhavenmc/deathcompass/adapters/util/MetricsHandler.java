@@ -19,17 +19,21 @@ package com.winterhavenmc.deathcompass.adapters.util;
 
 import org.bstats.bukkit.Metrics;
 import org.bstats.charts.SimplePie;
+import org.bstats.charts.SingleLineChart;
 import org.bukkit.plugin.Plugin;
 
 
 public class MetricsHandler
 {
-	public MetricsHandler(final Plugin plugin)
+	public MetricsHandler(final Plugin plugin, final PendingRespawns pendingRespawns)
 	{
 		Metrics metrics = new Metrics(plugin, 13925);
 
 		// pie chart of configured language
 		metrics.addCustomChart(new SimplePie("language", () -> plugin.getConfig().getString("language")));
+
+		// line chart of players who died and have not yet respawned
+		metrics.addCustomChart(new SingleLineChart("pending_respawns", pendingRespawns::size));
 	}
 
 }
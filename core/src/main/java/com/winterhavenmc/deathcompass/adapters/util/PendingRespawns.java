@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.util;
+
+import com.winterhavenmc.library.messagebuilder.adapters.resources.configuration.BukkitConfigRepository;
+import com.winterhavenmc.library.messagebuilder.models.configuration.ConfigRepository;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Keeps the players who died and have not yet respawned, so a compass is given only on a respawn that follows
+ * a death. Each entry expires after {@code pending-respawn-expiry} seconds, so players who leave on the death
+ * screen are not kept; expired entries are swept once a minute. Pending entries are saved when the plugin is
+ * disabled and loaded again when it is enabled, so a reload does not lose them.
+ */
+public final class PendingRespawns
+{
+	private final static String FILE_NAME = "pending-respawns.dat";
+	private final static long SWEEP_INTERVAL_TICKS = 1200L;
+
+	private final Plugin plugin;
+	private final SettingsHolder settings;
+	private final ConfigRepository configRepository;
+	private final Path path;
+	private final Map<UUID, Long> expiryTimes = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin instance of main class
+	 * @param settings the plugin settings
+	 */
+	public PendingRespawns(final Plugin plugin, final SettingsHolder settings)
+	{
+		this.plugin = plugin;
+		this.settings = settings;
+		this.configRepository = BukkitConfigRepository.create(plugin);
+		this.path = plugin.getDataFolder().toPath().resolve(FILE_NAME);
+	}
+
+
+	/**
+	 * Add a player who died, replacing any earlier entry for the player
+	 *
+	 * @param playerUid the unique id of the player
+	 */
+	public void add(final UUID playerUid)
+	{
+		expiryTimes.put(playerUid, System.currentTimeMillis()
+				+ TimeUnit.SECONDS.toMillis(settings.get().pendingRespawnExpiry()));
+	}
+
+
+	/**
+	 * Remove the entry of a player who respawned
+	 *
+	 * @param playerUid the unique id of the player
+	 * @return {@code true} if the player had an entry that had not expired, {@code false} if not
+	 */
+	public boolean remove(final UUID playerUid)
+	{
+		final Long expiryTime = expiryTimes.remove(playerUid);
+		return expiryTime != null && expiryTime > System.currentTimeMillis();
+	}
+
+
+	/**
+	 * Get the number of pending entries, including expired entries that have not yet been swept
+	 */
+	public int size()
+	{
+		return expiryTimes.size();
+	}
+
+
+	/**
+	 * Remove the entries that expired before a time
+	 *
+	 * @param now the current time, in milliseconds since the epoch
+	 * @return the number of entries removed
+	 */
+	public int sweep(final long now)
+	{
+		final int before = expiryTimes.size();
+		expiryTimes.values().removeIf(expiryTime -> expiryTime <= now);
+		return before - expiryTimes.size();
+	}
+
+
+	/**
+	 * Schedule the sweep of expired entries
+	 */
+	public void startSweep()
+	{
+		plugin.getServer().getScheduler().runTaskTimer(plugin,
+				() -> sweep(System.currentTimeMillis()), SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
+	}
+
+
+	/**
+	 * Load the entries saved when the plugin was last disabled, and delete the file; expired entries are skipped
+	 */
+	public void load()
+	{
+		if (!Files.exists(path))
+		{
+			return;
+		}
+
+		final long now = System.currentTimeMillis();
+		try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+		{
+			final int count = input.readInt();
+			for (int i = 0; i < count; i++)
+			{
+				final UUID playerUid = new UUID(input.readLong(), input.readLong());
+				final long expiryTime = input.readLong();
+				if (expiryTime > now)
+				{
+					expiryTimes.put(playerUid, expiryTime);
+				}
+			}
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(PendingRespawnsMessage.LOAD_ERROR.getLocalizedMessage(configRepository.locale(), FILE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+
+		try
+		{
+			Files.delete(path);
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(PendingRespawnsMessage.DELETE_ERROR.getLocalizedMessage(configRepository.locale(), FILE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+
+	/**
+	 * Save the entries that have not expired, to be loaded when the plugin is next enabled
+	 */
+	public void save()
+	{
+		sweep(System.currentTimeMillis());
+		if (expiryTimes.isEmpty())
+		{
+			return;
+		}
+
+		final Map<UUID, Long> snapshot = Map.copyOf(expiryTimes);
+		try
+		{
+			Files.createDirectories(path.toAbsolutePath().getParent());
+			try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+			{
+				output.writeInt(snapshot.size());
+				for (Map.Entry<UUID, Long> entry : snapshot.entrySet())
+				{
+					output.writeLong(entry.getKey().getMostSignificantBits());
+					output.writeLong(entry.getKey().getLeastSignificantBits());
+					output.writeLong(entry.getValue());
+				}
+			}
+		}
+		catch (IOException exception)
+		{
+			plugin.getLogger().warning(PendingRespawnsMessage.SAVE_ERROR.getLocalizedMessage(configRepository.locale(), FILE_NAME));
+			plugin.getLogger().warning(exception.getLocalizedMessage());
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.util;
+
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+
+/**
+ * An immutable, typed copy of the plugin settings read by the listeners and commands, built when the plugin is
+ * enabled and when the configuration is reloaded. Invalid values are replaced by their defaults, and each is
+ * reported once, when the settings are built. Datastore settings are read by the datastore when it is connected.
+ *
+ * @param language the configured language
+ * @param debug whether debug messages are logged
+ * @param soundEffects whether sound effects are played
+ * @param destroyOnDrop whether death compasses dropped by players are destroyed
+ * @param preventStorage whether death compasses are kept out of containers
+ * @param targetDelay the number of ticks after respawn before the compass target is set
+ * @param pendingRespawnExpiry the number of seconds a player who died may wait to respawn and be given a compass
+ * @param legacyCompassCheck whether compasses given by earlier versions are recognized
+ * @param nativeDeathLocation whether the server's record of a player's last death is used
+ * @param batchSize the number of records per batch for the export command
+ */
+public record Settings(String language,
+                       boolean debug,
+                       boolean soundEffects,
+                       boolean destroyOnDrop,
+                       boolean preventStorage,
+                       long targetDelay,
+                       long pendingRespawnExpiry,
+                       boolean legacyCompassCheck,
+                       boolean nativeDeathLocation,
+                       int batchSize)
+{
+	/**
+	 * Build the settings from a configuration
+	 *
+	 * @param config the plugin configuration
+	 * @param warning receives a message for each invalid value
+	 * @return the settings
+	 */
+	public static Settings of(final Configuration config, final Consumer<String> warning)
+	{
+		final Reader reader = new Reader(config, warning);
+		return new Settings(
+				reader.string("language", "en-US"),
+				reader.bool("debug", false),
+				reader.bool("sound-effects", true),
+				reader.bool("destroy-on-drop", true),
+				reader.bool("prevent-storage", true),
+				reader.number("target-delay", 20, 0),
+				reader.number("pending-respawn-expiry", 600, 1),
+				reader.bool("legacy-compass-check", true),
+				reader.bool("native-death-location", true),
+				(int) reader.number("storage.batch-size", 500, 1));
+	}
+
+
+	/**
+	 * Reads typed values from a configuration, reporting values of the wrong type or out of range
+	 */
+	private record Reader(Configuration config, Consumer<String> warning)
+	{
+		String string(final String key, final String defaultValue)
+		{
+			final Object value = config.get(key);
+			if (value == null)
+			{
+				return defaultValue;
+			}
+			if (value instanceof List<?> || value instanceof ConfigurationSection)
+			{
+				return invalid(key, value, "a text value", defaultValue);
+			}
+			return value.toString();
+		}
+
+
+		boolean bool(final String key, final boolean defaultValue)
+		{
+			final Object value = config.get(key);
+			if (value == null)
+			{
+				return defaultValue;
+			}
+			if (!(value instanceof Boolean booleanValue))
+			{
+				return invalid(key, value, "true or false", defaultValue);
+			}
+			return booleanValue;
+		}
+
+
+		long number(final String key, final long defaultValue, final long minimum)
+		{
+			final Object value = config.get(key);
+			if (value == null)
+			{
+				return defaultValue;
+			}
+			if (!(value instanceof Number number) || number.doubleValue() != number.longValue())
+			{
+				return invalid(key, value, "a whole number", defaultValue);
+			}
+			if (number.longValue() < minimum || number.longValue() > Integer.MAX_VALUE)
+			{
+				return invalid(key, value, "a number from " + minimum + " to " + Integer.MAX_VALUE, defaultValue);
+			}
+			return number.longValue();
+		}
+
+
+		private <T> T invalid(final String key, final Object value, final String expected, final T defaultValue)
+		{
+			warning.accept("Invalid value '" + value + "' for " + key + " in config.yml; expected "
+					+ expected + ", using " + defaultValue + ".");
+			return defaultValue;
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2025 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package com.winterhavenmc.deathcompass.adapters.util;
+
+import org.bukkit.plugin.Plugin;
+
+
+/**
+ * Publishes the current plugin settings. The settings are replaced as a whole when the configuration is
+ * reloaded, so a reader sees either the previous settings or the reloaded settings, never a mix of both.
+ */
+public final class SettingsHolder
+{
+	private final Plugin plugin;
+	private volatile Settings settings;
+
+
+	/**
+	 * Class constructor; builds the settings from the current configuration
+	 *
+	 * @param plugin instance of main class
+	 */
+	public SettingsHolder(final Plugin plugin)
+	{
+		this.plugin = plugin;
+		this.settings = build();
+	}
+
+
+	/**
+	 * Get the current settings
+	 *
+	 * @return the current settings
+	 */
+	public Settings get()
+	{
+		return settings;
+	}
+
+
+	/**
+	 * Rebuild the settings from the configuration, after it was reloaded
+	 */
+	public void reload()
+	{
+		settings = build();
+	}
+
+
+	private Settings build()
+	{
+		return Settings.of(plugin.getConfig(), message -> plugin.getLogger().warning(message));
+	}
+
+}
@@ -20,7 +20,7 @@ package com.winterhavenmc.deathcompass.adapters;
 import com.winterhavenmc.deathcompass.adapters.commands.bukkit.BukkitCommandDispatcher;
 import com.winterhavenmc.deathcompass.adapters.listeners.bukkit.BukkitInventoryEventListener;
 import com.winterhavenmc.deathcompass.adapters.listeners.bukkit.BukkitPlayerEventListener;
-import com.winterhavenmc.deathcompass.adapters.storage.sqlite.SqliteConnectionProvider;
+import com.winterhavenmc.deathcompass.adapters.storage.StorageType;
 import com.winterhavenmc.deathcompass.adapters.controller.DeathCompassPluginController;
 import com.winterhavenmc.deathcompass.adapters.controller.PluginController;
 import com.winterhavenmc.deathcompass.adapters.ports.commands.CommandDispatcher;
@@ -39,7 +39,7 @@ public final class Bootstrap extends JavaPlugin
 	@Override
 	public void onEnable()
 	{
-		ConnectionProvider connectionProvider = new SqliteConnectionProvider(this);
+		ConnectionProvider connectionProvider = StorageType.fromConfig(this).createProvider(this);
 		CommandDispatcher commandDispatcher = new BukkitCommandDispatcher();
 		InventoryEventListener inventoryEventListener = new BukkitInventoryEventListener();
 		PlayerEventListener playerEventListener = new BukkitPlayerEventListener();